@@ -0,0 +1,92 @@
+package com.pontificia.remashorario.modules.teacherAvailability;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la verificación de disponibilidad recorriendo las filas de TeacherAvailabilityEntity
+ * (lo que hacía cada consulta, sin contar el viaje a la base) con el bitmap por minutos.
+ * <p>
+ * Ejecutar con {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TeacherAvailabilityBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"3", "8"})
+    private int windowsPerDay;
+
+    private List<TeacherAvailabilityEntity> rows;
+    private TeacherAvailabilityBitmap bitmap;
+
+    private DayOfWeek[] queryDays;
+    private LocalTime[] queryStarts;
+    private LocalTime[] queryEnds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        rows = new ArrayList<>();
+        // Ventanas disjuntas entre las 7:00 y las 22:00, como las que permite el servicio
+        int span = (22 - 7) * 60 / windowsPerDay;
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (day == DayOfWeek.SUNDAY) continue;
+            for (int w = 0; w < windowsPerDay; w++) {
+                TeacherAvailabilityEntity availability = new TeacherAvailabilityEntity();
+                availability.setDayOfWeek(day);
+                availability.setStartTime(LocalTime.of(7, 0).plusMinutes((long) w * span));
+                availability.setEndTime(LocalTime.of(7, 0).plusMinutes((long) w * span + span - 10));
+                availability.setIsAvailable(true);
+                rows.add(availability);
+            }
+        }
+        bitmap = TeacherAvailabilityBitmap.compile(rows);
+
+        Random random = new Random(42);
+        queryDays = new DayOfWeek[QUERIES];
+        queryStarts = new LocalTime[QUERIES];
+        queryEnds = new LocalTime[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queryDays[i] = DayOfWeek.of(1 + random.nextInt(6));
+            queryStarts[i] = LocalTime.of(7, 0).plusMinutes(random.nextInt(13 * 60));
+            queryEnds[i] = queryStarts[i].plusMinutes(45 + random.nextInt(3) * 45);
+        }
+    }
+
+    @Benchmark
+    public void scanRows(Blackhole blackhole) {
+        int i = next++ & (QUERIES - 1);
+        DayOfWeek day = queryDays[i];
+        LocalTime start = queryStarts[i];
+        LocalTime end = queryEnds[i];
+        blackhole.consume(rows.stream().anyMatch(availability ->
+                availability.getDayOfWeek() == day
+                        && !Boolean.FALSE.equals(availability.getIsAvailable())
+                        && !availability.getStartTime().isAfter(start)
+                        && !availability.getEndTime().isBefore(end)));
+    }
+
+    @Benchmark
+    public void bitmap(Blackhole blackhole) {
+        int i = next++ & (QUERIES - 1);
+        blackhole.consume(bitmap.covers(queryDays[i], queryStarts[i], queryEnds[i]));
+    }
+
+    @Benchmark
+    public void compile(Blackhole blackhole) {
+        blackhole.consume(TeacherAvailabilityBitmap.compile(rows));
+    }
+}
@@ -0,0 +1,204 @@
+package com.pontificia.remashorario.modules.TimeSlot;
+
+import com.pontificia.remashorario.modules.teachingHour.TeachingHourEntity;
+import com.pontificia.remashorario.utils.TransactionCallbacks;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Catálogo en memoria de los turnos y sus horas pedagógicas.
+ * <p>
+ * Los turnos cambian muy pocas veces al año y se leen en casi toda operación de horarios, así que
+ * se cargan una vez (una consulta) en una instantánea inmutable y versionada. Cuando
+ * {@link TimeSlotService} crea, modifica o elimina un turno se arma una nueva instantánea después
+ * del commit y se reemplaza de forma atómica. Las entidades de la instantánea están desconectadas
+ * y con el turno ya cargado: se pueden asociar a sesiones, pero no deben modificarse.
+ */
+@Component
+public class TimeSlotCatalog {
+
+    private final TimeSlotRepository timeSlotRepository;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public TimeSlotCatalog(TimeSlotRepository timeSlotRepository) {
+        this.timeSlotRepository = timeSlotRepository;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        reload();
+    }
+
+    public Snapshot current() {
+        return snapshot;
+    }
+
+    public Optional<TeachingHourEntity> findHour(UUID teachingHourUuid) {
+        return snapshot.findHour(teachingHourUuid);
+    }
+
+    public List<TeachingHourEntity> findHours(Collection<UUID> teachingHourUuids) {
+        return snapshot.findHours(teachingHourUuids);
+    }
+
+    public Optional<TimeSlotEntity> findTimeSlot(UUID timeSlotUuid) {
+        return snapshot.findTimeSlot(timeSlotUuid);
+    }
+
+    public List<TeachingHourEntity> hoursOf(UUID timeSlotUuid) {
+        return snapshot.hoursOf(timeSlotUuid);
+    }
+
+    public List<TeachingHourEntity> allHours() {
+        return snapshot.allHours();
+    }
+
+    /**
+     * Vuelve a cargar el catálogo una vez confirmada la transacción en curso.
+     */
+    public void reloadAfterCommit() {
+        TransactionCallbacks.afterCommit(this::reload);
+    }
+
+    public synchronized void reload() {
+        snapshot = Snapshot.build(snapshot.getVersion() + 1, timeSlotRepository.findAllWithTeachingHours());
+    }
+
+    /**
+     * Turnos ordenados por hora de inicio y sus horas ordenadas por posición. Cada hora tiene un
+     * índice global en ese orden: dos horas son consecutivas dentro de un turno si sus índices son
+     * contiguos y pertenecen al mismo turno.
+     */
+    public static final class Snapshot {
+
+        static final Snapshot EMPTY = build(0, List.of());
+
+        private final long version;
+        private final List<TimeSlotEntity> timeSlots;
+        private final List<TeachingHourEntity> hours;
+        private final Map<UUID, Integer> hourIndexes;
+        private final int[] timeSlotOfHour;
+        private final Map<UUID, TimeSlotEntity> timeSlotsByUuid;
+        private final Map<UUID, List<TeachingHourEntity>> hoursByTimeSlot;
+
+        private Snapshot(long version, List<TimeSlotEntity> timeSlots, List<TeachingHourEntity> hours,
+                         Map<UUID, Integer> hourIndexes, int[] timeSlotOfHour,
+                         Map<UUID, TimeSlotEntity> timeSlotsByUuid,
+                         Map<UUID, List<TeachingHourEntity>> hoursByTimeSlot) {
+            this.version = version;
+            this.timeSlots = timeSlots;
+            this.hours = hours;
+            this.hourIndexes = hourIndexes;
+            this.timeSlotOfHour = timeSlotOfHour;
+            this.timeSlotsByUuid = timeSlotsByUuid;
+            this.hoursByTimeSlot = hoursByTimeSlot;
+        }
+
+        static Snapshot build(long version, Collection<TimeSlotEntity> loaded) {
+            List<TimeSlotEntity> timeSlots = loaded.stream()
+                    .sorted(Comparator.comparing(TimeSlotEntity::getStartTime))
+                    .toList();
+
+            List<TeachingHourEntity> hours = new ArrayList<>();
+            List<Integer> slotIndexes = new ArrayList<>();
+            Map<UUID, TimeSlotEntity> timeSlotsByUuid = new HashMap<>();
+            Map<UUID, List<TeachingHourEntity>> hoursByTimeSlot = new HashMap<>();
+            for (int s = 0; s < timeSlots.size(); s++) {
+                TimeSlotEntity timeSlot = timeSlots.get(s);
+                List<TeachingHourEntity> slotHours = timeSlot.getTeachingHours().stream()
+                        .sorted(Comparator.comparingInt(TeachingHourEntity::getOrderInTimeSlot))
+                        .toList();
+                for (TeachingHourEntity hour : slotHours) {
+                    hours.add(hour);
+                    slotIndexes.add(s);
+                }
+                timeSlotsByUuid.put(timeSlot.getUuid(), timeSlot);
+                hoursByTimeSlot.put(timeSlot.getUuid(), slotHours);
+            }
+
+            Map<UUID, Integer> hourIndexes = new HashMap<>();
+            int[] timeSlotOfHour = new int[hours.size()];
+            for (int h = 0; h < hours.size(); h++) {
+                hourIndexes.put(hours.get(h).getUuid(), h);
+                timeSlotOfHour[h] = slotIndexes.get(h);
+            }
+
+            return new Snapshot(version, timeSlots, List.copyOf(hours), Map.copyOf(hourIndexes), timeSlotOfHour,
+                    Map.copyOf(timeSlotsByUuid), Map.copyOf(hoursByTimeSlot));
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public List<TimeSlotEntity> timeSlots() {
+            return timeSlots;
+        }
+
+        public List<TeachingHourEntity> allHours() {
+            return hours;
+        }
+
+        public Optional<TeachingHourEntity> findHour(UUID teachingHourUuid) {
+            Integer index = teachingHourUuid == null ? null : hourIndexes.get(teachingHourUuid);
+            return index == null ? Optional.empty() : Optional.of(hours.get(index));
+        }
+
+        public List<TeachingHourEntity> findHours(Collection<UUID> teachingHourUuids) {
+            List<TeachingHourEntity> found = new ArrayList<>(teachingHourUuids.size());
+            for (UUID uuid : teachingHourUuids) {
+                findHour(uuid).ifPresent(found::add);
+            }
+            return found;
+        }
+
+        public Optional<TimeSlotEntity> findTimeSlot(UUID timeSlotUuid) {
+            return timeSlotUuid == null ? Optional.empty() : Optional.ofNullable(timeSlotsByUuid.get(timeSlotUuid));
+        }
+
+        public List<TeachingHourEntity> hoursOf(UUID timeSlotUuid) {
+            return timeSlotUuid == null ? List.of() : hoursByTimeSlot.getOrDefault(timeSlotUuid, List.of());
+        }
+
+        /**
+         * Si todas las horas pertenecen al mismo turno. Las horas que no están en el catálogo no
+         * pertenecen a ninguno.
+         */
+        public boolean sameTimeSlot(Collection<TeachingHourEntity> teachingHours) {
+            int timeSlot = -1;
+            for (TeachingHourEntity hour : teachingHours) {
+                Integer index = hourIndexes.get(hour.getUuid());
+                if (index == null) return false;
+                if (timeSlot == -1) {
+                    timeSlot = timeSlotOfHour[index];
+                } else if (timeSlot != timeSlotOfHour[index]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Si las horas forman un bloque sin huecos dentro de un mismo turno.
+         */
+        public boolean consecutive(Collection<TeachingHourEntity> teachingHours) {
+            int[] indexes = new int[teachingHours.size()];
+            int n = 0;
+            for (TeachingHourEntity hour : teachingHours) {
+                Integer index = hourIndexes.get(hour.getUuid());
+                if (index == null) return false;
+                indexes[n++] = index;
+            }
+            Arrays.sort(indexes);
+            for (int i = 1; i < n; i++) {
+                if (indexes[i] != indexes[i - 1] + 1 || timeSlotOfHour[indexes[i]] != timeSlotOfHour[indexes[0]]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
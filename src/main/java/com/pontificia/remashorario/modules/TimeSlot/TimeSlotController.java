@@ -61,10 +61,11 @@ public class TimeSlotController {
             @RequestParam UUID teacherUuid,
             @RequestParam UUID spaceUuid,
             @RequestParam UUID groupUuid,
-            @RequestParam String dayOfWeek) {
+            @RequestParam String dayOfWeek,
+            @RequestParam(required = false) UUID periodUuid) {
 
         List<TeachingHourResponseDTO> availableHours = teachingHourMapper.toResponseDTOList(
-                timeSlotService.getAvailableHours(teacherUuid, spaceUuid, groupUuid, dayOfWeek));
+                timeSlotService.getAvailableHours(periodUuid, teacherUuid, spaceUuid, groupUuid, dayOfWeek));
 
         return ResponseEntity.ok(
                 ApiResponse.success(availableHours, "Horas disponibles recuperadas con éxito")
@@ -82,4 +83,21 @@ public class TimeSlotController {
         );
     }
 
+    @GetMapping("/time-slot/{timeSlotUuid}/available")
+    public ResponseEntity<ApiResponse<List<TeachingHourResponseDTO>>> getAvailableTeachingHoursByTimeSlot(
+            @PathVariable UUID timeSlotUuid,
+            @RequestParam String dayOfWeek,
+            @RequestParam(required = false) UUID periodUuid,
+            @RequestParam(required = false) UUID teacherUuid,
+            @RequestParam(required = false) UUID spaceUuid,
+            @RequestParam(required = false) UUID groupUuid) {
+
+        List<TeachingHourResponseDTO> hours = teachingHourMapper.toResponseDTOList(
+                timeSlotService.getAvailableHoursByTimeSlot(
+                        timeSlotUuid, periodUuid, teacherUuid, spaceUuid, groupUuid, dayOfWeek));
+        return ResponseEntity.ok(
+                ApiResponse.success(hours, "Horas disponibles del turno recuperadas con éxito")
+        );
+    }
+
 }
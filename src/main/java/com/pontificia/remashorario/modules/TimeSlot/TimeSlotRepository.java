@@ -23,4 +23,10 @@ public interface TimeSlotRepository extends JpaRepository<TimeSlotEntity, UUID>
             nativeQuery = true)
     List<TimeSlotEntity> findOverlapping(@Param("startTime") LocalTime startTime,
                                          @Param("endTime") LocalTime endTime);
-}
\ No newline at end of file
+
+    /**
+     * Todos los turnos con sus horas pedagógicas, para armar {@link TimeSlotCatalog}.
+     */
+    @Query("SELECT DISTINCT ts FROM TimeSlotEntity ts LEFT JOIN FETCH ts.teachingHours")
+    List<TimeSlotEntity> findAllWithTeachingHours();
+}
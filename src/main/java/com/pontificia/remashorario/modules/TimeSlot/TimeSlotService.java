@@ -4,10 +4,12 @@ import com.pontificia.remashorario.modules.TimeSlot.dto.TimeSlotRequestDTO;
 import com.pontificia.remashorario.modules.TimeSlot.dto.TimeSlotResponseDTO;
 
 import com.pontificia.remashorario.modules.TimeSlot.mapper.TimeSlotMapper;
-import com.pontificia.remashorario.modules.classSession.ClassSessionEntity;
+import com.pontificia.remashorario.modules.classSession.ClassSessionGridCache;
+import com.pontificia.remashorario.modules.classSession.ClassSessionOccupancyIndex;
 import com.pontificia.remashorario.modules.classSession.ClassSessionRepository;
+import com.pontificia.remashorario.modules.studentGroup.StudentGroupEntity;
+import com.pontificia.remashorario.modules.studentGroup.StudentGroupRepository;
 import com.pontificia.remashorario.modules.teachingHour.TeachingHourEntity;
-import com.pontificia.remashorario.modules.teachingHour.TeachingHourRepository;
 
 import jakarta.persistence.EntityNotFoundException;
 
@@ -17,7 +19,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.LocalTime;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -27,58 +31,92 @@ public class TimeSlotService {
 
     private final TimeSlotRepository timeSlotRepository;
     private final TimeSlotMapper timeSlotMapper;
-    private final TeachingHourRepository teachingHourRepository;
     private final ClassSessionRepository classSessionRepository;
+    private final ClassSessionOccupancyIndex occupancyIndex;
+    private final StudentGroupRepository studentGroupRepository;
+    private final ClassSessionGridCache gridCache;
+    private final TimeSlotCatalog timeSlotCatalog;
 
     public TimeSlotService(TimeSlotRepository timeSlotRepository,
                            TimeSlotMapper timeSlotMapper,
-                           TeachingHourRepository teachingHourRepository,
-                           ClassSessionRepository classSessionRepository) {
+                           ClassSessionRepository classSessionRepository,
+                           ClassSessionOccupancyIndex occupancyIndex,
+                           StudentGroupRepository studentGroupRepository,
+                           ClassSessionGridCache gridCache,
+                           TimeSlotCatalog timeSlotCatalog) {
         this.timeSlotRepository = timeSlotRepository;
         this.timeSlotMapper = timeSlotMapper;
-        this.teachingHourRepository = teachingHourRepository;
         this.classSessionRepository = classSessionRepository;
+        this.occupancyIndex = occupancyIndex;
+        this.studentGroupRepository = studentGroupRepository;
+        this.gridCache = gridCache;
+        this.timeSlotCatalog = timeSlotCatalog;
     }
 
     public List<TeachingHourEntity> getAvailableHours(UUID teacherUuid, UUID spaceUuid, UUID groupUuid, String dayOfWeek) {
-        List<TeachingHourEntity> allHours = teachingHourRepository.findAllOrderByTimeSlotAndOrder();
+        return getAvailableHours(null, teacherUuid, spaceUuid, groupUuid, dayOfWeek);
+    }
 
-        return allHours.stream()
-                .filter(hour -> isHourAvailableForAssignment(hour, teacherUuid, spaceUuid, groupUuid, dayOfWeek))
+    /**
+     * Horas pedagógicas en las que ni el docente, ni el aula, ni el grupo tienen clase en el periodo.
+     * Si no se indica el periodo se toma el del grupo.
+     */
+    public List<TeachingHourEntity> getAvailableHours(UUID periodUuid, UUID teacherUuid, UUID spaceUuid,
+                                                      UUID groupUuid, String dayOfWeek) {
+        UUID resolvedPeriodUuid = periodUuid != null ? periodUuid : resolvePeriodOfGroup(groupUuid);
+        BitSet occupied = occupancyIndex.occupiedHours(resolvedPeriodUuid, teacherUuid, spaceUuid, groupUuid,
+                DayOfWeek.valueOf(dayOfWeek.toUpperCase()));
+
+        return timeSlotCatalog.allHours().stream()
+                .filter(hour -> !occupied.get(occupancyIndex.hourOrdinal(hour.getUuid())))
                 .collect(Collectors.toList());
     }
 
+    private UUID resolvePeriodOfGroup(UUID groupUuid) {
+        if (groupUuid == null) {
+            throw new IllegalArgumentException("Debe indicar el periodo o el grupo de estudiantes");
+        }
+        return studentGroupRepository.findById(groupUuid)
+                .map(StudentGroupEntity::getPeriod)
+                .orElseThrow(() -> new EntityNotFoundException("Grupo de estudiantes no encontrado con ID: " + groupUuid))
+                .getUuid();
+    }
+
     public List<TeachingHourEntity> getHoursByTimeSlot(UUID timeSlotUuid) {
-        TimeSlotEntity timeSlot = findOrThrow(timeSlotUuid);
-        return teachingHourRepository.findByTimeSlotOrderByOrderInTimeSlot(timeSlot);
+        TimeSlotEntity timeSlot = timeSlotCatalog.findTimeSlot(timeSlotUuid)
+                .orElseThrow(() -> new EntityNotFoundException("Turno no encontrado con ID: " + timeSlotUuid));
+        return timeSlotCatalog.hoursOf(timeSlot.getUuid());
     }
 
     public List<TeachingHourEntity> getAvailableHoursByTimeSlot(UUID timeSlotUuid, String dayOfWeek) {
-        List<TeachingHourEntity> hours = getHoursByTimeSlot(timeSlotUuid);
-
-        return hours.stream()
-                .filter(hour -> !isHourOccupied(hour, dayOfWeek))
-                .collect(Collectors.toList());
+        return getAvailableHoursByTimeSlot(timeSlotUuid, null, null, null, null, dayOfWeek);
     }
 
-    private boolean isHourAvailableForAssignment(TeachingHourEntity hour, UUID teacherUuid, UUID spaceUuid, UUID groupUuid, String dayOfWeek) {
-        // Verificar si la hora no está ocupada por el docente, aula o grupo
-        List<ClassSessionEntity> conflicts = classSessionRepository.findConflicts(
-                teacherUuid,
-                spaceUuid,
-                groupUuid,
-                dayOfWeek,
-                hour.getStartTime().toString(),
-                hour.getEndTime().toString());
-
-        return conflicts.isEmpty();
-    }
+    /**
+     * Horas del turno libres ese día. Si se indica docente, aula o grupo se responde con el índice
+     * de ocupación del periodo (por defecto, el del grupo); si no, se excluyen las horas con
+     * cualquier clase del periodo, o de todos los periodos si tampoco se indica.
+     */
+    public List<TeachingHourEntity> getAvailableHoursByTimeSlot(UUID timeSlotUuid, UUID periodUuid, UUID teacherUuid,
+                                                                UUID spaceUuid, UUID groupUuid, String dayOfWeek) {
+        DayOfWeek day = DayOfWeek.valueOf(dayOfWeek.toUpperCase());
 
-    private boolean isHourOccupied(TeachingHourEntity hour, String dayOfWeek) {
-        List<ClassSessionEntity> sessions = classSessionRepository
-                .findByDayOfWeekAndTeachingHoursContaining(DayOfWeek.valueOf(dayOfWeek.toUpperCase()), hour);
+        List<TeachingHourEntity> hours = getHoursByTimeSlot(timeSlotUuid);
+        if (hours.isEmpty()) return hours;
+
+        if (teacherUuid == null && spaceUuid == null && groupUuid == null) {
+            Set<UUID> occupied = classSessionRepository.findOccupiedTeachingHourUuids(day,
+                    hours.stream().map(TeachingHourEntity::getUuid).toList(), periodUuid);
+            return hours.stream()
+                    .filter(hour -> !occupied.contains(hour.getUuid()))
+                    .collect(Collectors.toList());
+        }
 
-        return !sessions.isEmpty();
+        UUID resolvedPeriodUuid = periodUuid != null ? periodUuid : resolvePeriodOfGroup(groupUuid);
+        BitSet occupied = occupancyIndex.occupiedHours(resolvedPeriodUuid, teacherUuid, spaceUuid, groupUuid, day);
+        return hours.stream()
+                .filter(hour -> !occupied.get(occupancyIndex.hourOrdinal(hour.getUuid())))
+                .collect(Collectors.toList());
     }
 
 
@@ -107,6 +145,9 @@ public class TimeSlotService {
         generateTeachingHoursForTimeSlot(timeSlotEntity, pedagogicalHourDuration, totalSlotDurationMinutes);
 
         TimeSlotEntity savedTimeSlot = timeSlotRepository.save(timeSlotEntity);
+        // El catálogo se recarga antes de que la grilla rearme su eje de horas
+        timeSlotCatalog.reloadAfterCommit();
+        gridCache.invalidateAll();
         return timeSlotMapper.toTimeSlotResponseDTO(savedTimeSlot);
     }
 
@@ -162,6 +203,9 @@ public class TimeSlotService {
         generateTeachingHoursForTimeSlot(existingTimeSlot, pedagogicalHourDuration, totalSlotDurationMinutes);
 
         TimeSlotEntity updatedTimeSlot = timeSlotRepository.save(existingTimeSlot);
+        // El catálogo se recarga antes de que la grilla rearme su eje de horas
+        timeSlotCatalog.reloadAfterCommit();
+        gridCache.invalidateAll();
         return timeSlotMapper.toTimeSlotResponseDTO(updatedTimeSlot);
     }
 
@@ -200,7 +244,7 @@ public class TimeSlotService {
     }
 
     public TimeSlotEntity findOrThrow(UUID uuid) {
-        return timeSlotRepository.findById(uuid)
+        return timeSlotCatalog.findTimeSlot(uuid)
                 .orElseThrow(() -> new EntityNotFoundException("Turno no encontrado con ID: " + uuid));
     }
 
@@ -211,5 +255,8 @@ public class TimeSlotService {
             throw new EntityNotFoundException("Turno no encontrado con ID: " + id);
         }
         timeSlotRepository.deleteById(id); // orphanRemoval se encargará de las TeachingHourEntity
+        // El catálogo se recarga antes de que la grilla rearme su eje de horas
+        timeSlotCatalog.reloadAfterCommit();
+        gridCache.invalidateAll();
     }
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+package com.pontificia.remashorario.modules.classSession;
+
+import com.pontificia.remashorario.modules.TimeSlot.TimeSlotCatalog;
+import com.pontificia.remashorario.modules.course.CourseEntity;
+import com.pontificia.remashorario.modules.course.CourseRepository;
+import com.pontificia.remashorario.modules.learningSpace.LearningSpaceEntity;
+import com.pontificia.remashorario.modules.learningSpace.LearningSpaceRepository;
+import com.pontificia.remashorario.modules.studentGroup.StudentGroupEntity;
+import com.pontificia.remashorario.modules.studentGroup.StudentGroupRepository;
+import com.pontificia.remashorario.modules.teacher.TeacherEntity;
+import com.pontificia.remashorario.modules.teacher.TeacherRepository;
+import com.pontificia.remashorario.modules.teachingHour.TeachingHourEntity;
+import com.pontificia.remashorario.modules.teachingType.TeachingTypeEntity;
+import com.pontificia.remashorario.modules.teachingType.TeachingTypeRepository;
+import com.pontificia.remashorario.utils.abstractBase.BaseEntity;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Carga en bloque todas las entidades referenciadas por un lote de asignaciones
+ * (una consulta por tipo de entidad en lugar de varias por fila). Las horas pedagógicas
+ * salen de {@link TimeSlotCatalog}.
+ */
+@Component
+public class ClassSessionBatchLoader {
+
+    private final CourseRepository courseRepository;
+    private final TeacherRepository teacherRepository;
+    private final LearningSpaceRepository learningSpaceRepository;
+    private final StudentGroupRepository studentGroupRepository;
+    private final TeachingTypeRepository teachingTypeRepository;
+    private final TimeSlotCatalog timeSlotCatalog;
+
+    @Autowired
+    public ClassSessionBatchLoader(CourseRepository courseRepository,
+                                   TeacherRepository teacherRepository,
+                                   LearningSpaceRepository learningSpaceRepository,
+                                   StudentGroupRepository studentGroupRepository,
+                                   TeachingTypeRepository teachingTypeRepository,
+                                   TimeSlotCatalog timeSlotCatalog) {
+        this.courseRepository = courseRepository;
+        this.teacherRepository = teacherRepository;
+        this.learningSpaceRepository = learningSpaceRepository;
+        this.studentGroupRepository = studentGroupRepository;
+        this.teachingTypeRepository = teachingTypeRepository;
+        this.timeSlotCatalog = timeSlotCatalog;
+    }
+
+    public BatchContext load(Collection<UUID> courseUuids,
+                             Collection<UUID> teacherUuids,
+                             Collection<UUID> spaceUuids,
+                             Collection<UUID> groupUuids,
+                             Collection<UUID> sessionTypeUuids,
+                             Collection<UUID> teachingHourUuids) {
+        return new BatchContext(
+                byUuid(nonNull(courseUuids), courseRepository::findAllWithTeachingDetailsByUuidIn),
+                byUuid(nonNull(teacherUuids), teacherRepository::findAllWithKnowledgeAreasByUuidIn),
+                byUuid(nonNull(spaceUuids), learningSpaceRepository::findAllWithTypeByUuidIn),
+                byUuid(nonNull(groupUuids), studentGroupRepository::findAllWithPeriodAndCycleByUuidIn),
+                byUuid(nonNull(sessionTypeUuids), teachingTypeRepository::findAllById),
+                byUuid(nonNull(teachingHourUuids), timeSlotCatalog::findHours));
+    }
+
+    private static Set<UUID> nonNull(Collection<UUID> uuids) {
+        return uuids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
+    private static <T extends BaseEntity> Map<UUID, T> byUuid(Set<UUID> uuids,
+                                                               Function<Set<UUID>, ? extends Collection<T>> loader) {
+        if (uuids.isEmpty()) return Collections.emptyMap();
+        return loader.apply(uuids).stream()
+                .collect(Collectors.toMap(BaseEntity::getUuid, entity -> entity, (a, b) -> a));
+    }
+
+    /**
+     * Entidades precargadas de un lote. Los accesores lanzan {@link EntityNotFoundException}
+     * con los mismos mensajes que los servicios individuales.
+     */
+    public static class BatchContext {
+        private final Map<UUID, CourseEntity> courses;
+        private final Map<UUID, TeacherEntity> teachers;
+        private final Map<UUID, LearningSpaceEntity> spaces;
+        private final Map<UUID, StudentGroupEntity> groups;
+        private final Map<UUID, TeachingTypeEntity> sessionTypes;
+        private final Map<UUID, TeachingHourEntity> teachingHours;
+
+        private BatchContext(Map<UUID, CourseEntity> courses,
+                             Map<UUID, TeacherEntity> teachers,
+                             Map<UUID, LearningSpaceEntity> spaces,
+                             Map<UUID, StudentGroupEntity> groups,
+                             Map<UUID, TeachingTypeEntity> sessionTypes,
+                             Map<UUID, TeachingHourEntity> teachingHours) {
+            this.courses = courses;
+            this.teachers = teachers;
+            this.spaces = spaces;
+            this.groups = groups;
+            this.sessionTypes = sessionTypes;
+            this.teachingHours = teachingHours;
+        }
+
+        public CourseEntity course(UUID uuid) {
+            return require(courses, uuid, "Course not found with ID: ");
+        }
+
+        public TeacherEntity teacher(UUID uuid) {
+            return require(teachers, uuid, "Docente no encontrado con ID: ");
+        }
+
+        public LearningSpaceEntity space(UUID uuid) {
+            return require(spaces, uuid, "Entidad no encontrada con ID: ");
+        }
+
+        public StudentGroupEntity group(UUID uuid) {
+            return require(groups, uuid, "Entidad no encontrada con ID: ");
+        }
+
+        // Sin lanzar excepción: el error de la fila se informa después, al validarla
+        public StudentGroupEntity findGroup(UUID uuid) {
+            return uuid == null ? null : groups.get(uuid);
+        }
+
+        public TeachingTypeEntity sessionType(UUID uuid) {
+            return require(sessionTypes, uuid, "Teaching type not found with ID: ");
+        }
+
+        public TeachingHourEntity teachingHour(UUID uuid) {
+            return require(teachingHours, uuid, "Hora pedagógica no encontrada con ID: ");
+        }
+
+        private static <T> T require(Map<UUID, T> entities, UUID uuid, String message) {
+            T entity = uuid == null ? null : entities.get(uuid);
+            if (entity == null) {
+                throw new EntityNotFoundException(message + uuid);
+            }
+            return entity;
+        }
+    }
+}
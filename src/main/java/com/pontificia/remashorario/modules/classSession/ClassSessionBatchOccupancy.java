@@ -0,0 +1,83 @@
+package com.pontificia.remashorario.modules.classSession;
+
+import lombok.Getter;
+
+import java.time.DayOfWeek;
+import java.util.*;
+
+/**
+ * Ocupación acumulada de las filas de un lote (validación o creación masiva).
+ * Permite detectar choques entre candidatos que todavía no existen en base de datos;
+ * los choques contra sesiones persistidas los resuelve {@link ClassSessionOccupancyIndex}.
+ */
+class ClassSessionBatchOccupancy {
+
+    private final Map<ResourceKey, List<Claim>> claims = new HashMap<>();
+
+    /**
+     * Filas previamente reclamadas que chocan con la asignación indicada.
+     */
+    RowConflicts conflicts(UUID periodUuid, UUID teacherUuid, UUID spaceUuid, UUID groupUuid,
+                           DayOfWeek dayOfWeek, BitSet hours) {
+        return conflictsExcept(-1, periodUuid, teacherUuid, spaceUuid, groupUuid, dayOfWeek, hours);
+    }
+
+    /**
+     * Filas reclamadas, salvo la propia, que chocan con la asignación de una fila ya reclamada.
+     * Consultada tras reclamar todo el lote, devuelve también las filas posteriores.
+     */
+    RowConflicts conflictsExcept(int row, UUID periodUuid, UUID teacherUuid, UUID spaceUuid, UUID groupUuid,
+                                 DayOfWeek dayOfWeek, BitSet hours) {
+        return new RowConflicts(
+                rowsFor(new ResourceKey('T', periodUuid, teacherUuid, dayOfWeek), hours, row),
+                rowsFor(new ResourceKey('S', periodUuid, spaceUuid, dayOfWeek), hours, row),
+                rowsFor(new ResourceKey('G', periodUuid, groupUuid, dayOfWeek), hours, row));
+    }
+
+    void claim(int row, UUID periodUuid, UUID teacherUuid, UUID spaceUuid, UUID groupUuid,
+               DayOfWeek dayOfWeek, BitSet hours) {
+        Claim claim = new Claim(row, hours);
+        claims.computeIfAbsent(new ResourceKey('T', periodUuid, teacherUuid, dayOfWeek), k -> new ArrayList<>()).add(claim);
+        claims.computeIfAbsent(new ResourceKey('S', periodUuid, spaceUuid, dayOfWeek), k -> new ArrayList<>()).add(claim);
+        claims.computeIfAbsent(new ResourceKey('G', periodUuid, groupUuid, dayOfWeek), k -> new ArrayList<>()).add(claim);
+    }
+
+    private Set<Integer> rowsFor(ResourceKey key, BitSet hours, int excludedRow) {
+        List<Claim> existing = claims.get(key);
+        if (existing == null) return Collections.emptySet();
+
+        Set<Integer> rows = new TreeSet<>();
+        for (Claim claim : existing) {
+            if (claim.row != excludedRow && claim.hours.intersects(hours)) {
+                rows.add(claim.row);
+            }
+        }
+        return rows;
+    }
+
+    private record ResourceKey(char kind, UUID periodUuid, UUID resourceUuid, DayOfWeek dayOfWeek) {
+    }
+
+    private record Claim(int row, BitSet hours) {
+    }
+
+    /**
+     * Filas del lote (base 0) con las que choca una asignación, agrupadas por recurso.
+     */
+    @Getter
+    static class RowConflicts {
+        private final Set<Integer> teacherRows;
+        private final Set<Integer> spaceRows;
+        private final Set<Integer> groupRows;
+
+        RowConflicts(Set<Integer> teacherRows, Set<Integer> spaceRows, Set<Integer> groupRows) {
+            this.teacherRows = teacherRows;
+            this.spaceRows = spaceRows;
+            this.groupRows = groupRows;
+        }
+
+        boolean isEmpty() {
+            return teacherRows.isEmpty() && spaceRows.isEmpty() && groupRows.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.pontificia.remashorario.modules.classSession;
+
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Candados por franjas para reservar horarios: cada (periodo, día, recurso) cae en una franja
+ * fija, y una reserva solo bloquea las franjas de su docente, aula y grupo ese día. Reservas
+ * sobre recursos distintos avanzan en paralelo; las que comparten recurso se serializan.
+ * <p>
+ * Las franjas se toman en orden ascendente (sin interbloqueos) y se liberan al terminar la
+ * transacción, después de que {@link ClassSessionOccupancyIndex} ya aplicó el commit; así la
+ * siguiente reserva del mismo recurso siempre ve la sesión recién guardada. Los candados son
+ * de esta instancia de la aplicación.
+ */
+@Component
+public class ClassSessionBookingLocks {
+
+    public enum ResourceType {TEACHER, SPACE, GROUP}
+
+    private static final int STRIPES = 1024;
+    private static final long WAIT_SECONDS = 10;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    public ClassSessionBookingLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public static Key key(UUID periodUuid, DayOfWeek dayOfWeek, ResourceType resourceType, UUID resourceUuid) {
+        return new Key(periodUuid, dayOfWeek, resourceType, resourceUuid);
+    }
+
+    /**
+     * Claves de una sesión: su docente, su aula y su grupo en ese periodo y día.
+     */
+    public static List<Key> sessionKeys(UUID periodUuid, DayOfWeek dayOfWeek,
+                                        UUID teacherUuid, UUID learningSpaceUuid, UUID studentGroupUuid) {
+        return List.of(
+                key(periodUuid, dayOfWeek, ResourceType.TEACHER, teacherUuid),
+                key(periodUuid, dayOfWeek, ResourceType.SPACE, learningSpaceUuid),
+                key(periodUuid, dayOfWeek, ResourceType.GROUP, studentGroupUuid));
+    }
+
+    /**
+     * Toma las franjas de las claves dadas hasta que termine la transacción actual.
+     */
+    public void lockUntilCompletion(Collection<Key> keys) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("La reserva de horarios debe ejecutarse dentro de una transacción");
+        }
+
+        int[] indexes = keys.stream()
+                .filter(Objects::nonNull)
+                .mapToInt(ClassSessionBookingLocks::stripe)
+                .distinct()
+                .sorted()
+                .toArray();
+        if (indexes.length == 0) return;
+
+        List<ReentrantLock> acquired = new ArrayList<>(indexes.length);
+        try {
+            for (int index : indexes) {
+                ReentrantLock lock = stripes[index];
+                if (!lock.tryLock(WAIT_SECONDS, TimeUnit.SECONDS)) {
+                    throw new CannotAcquireLockException(
+                            "El horario está siendo reservado por otra operación; intente nuevamente");
+                }
+                acquired.add(lock);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            release(acquired);
+            throw new CannotAcquireLockException("Se interrumpió la reserva del horario", e);
+        } catch (RuntimeException e) {
+            release(acquired);
+            throw e;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                release(acquired);
+            }
+        });
+    }
+
+    private static int stripe(Key key) {
+        return Math.floorMod(key.hashCode() * 0x9E3779B9, STRIPES);
+    }
+
+    private static void release(List<ReentrantLock> acquired) {
+        for (int i = acquired.size() - 1; i >= 0; i--) {
+            acquired.get(i).unlock();
+        }
+    }
+
+    public record Key(UUID periodUuid, DayOfWeek dayOfWeek, ResourceType resourceType, UUID resourceUuid) {
+    }
+}
@@ -1,13 +1,18 @@
 package com.pontificia.remashorario.modules.classSession;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pontificia.remashorario.config.ApiResponse;
 import com.pontificia.remashorario.modules.classSession.dto.*;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.DayOfWeek;
 import java.util.List;
 import java.util.UUID;
@@ -18,6 +23,9 @@ import java.util.UUID;
 public class ClassSessionController {
 
     private final ClassSessionService classSessionService;
+    private final ClassSessionIntegrityService classSessionIntegrityService;
+    private final ClassSessionPlacementService classSessionPlacementService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/intellisense")
     public ResponseEntity<ApiResponse<IntelliSenseDTO>> getIntelliSense(
@@ -42,6 +50,31 @@ public class ClassSessionController {
         ValidationResultDTO result = classSessionService.validateAssignmentInRealTime(dto, excludeSessionUuid);
         return ResponseEntity.ok(result);
     }
+
+    @PostMapping("/validate-batch")
+    public ResponseEntity<List<ValidationResultDTO>> validateAssignmentsInBatch(
+            @Valid @RequestBody List<ClassSessionValidationDTO> dtos) {
+
+        List<ValidationResultDTO> results = classSessionService.validateAssignmentsInBatch(dtos);
+        return ResponseEntity.ok(results);
+    }
+
+    // Todas las ubicaciones factibles (día, horas, docente, aula) para un curso y grupo, ordenadas
+    @GetMapping("/placements")
+    public ResponseEntity<ApiResponse<ClassSessionPlacementResultDTO>> findPlacements(
+            @RequestParam UUID courseUuid,
+            @RequestParam UUID studentGroupUuid,
+            @RequestParam int blockLength,
+            @RequestParam(required = false) UUID sessionTypeUuid,
+            @RequestParam(required = false) DayOfWeek dayOfWeek,
+            @RequestParam(defaultValue = "50") int limit) {
+        ClassSessionPlacementResultDTO result = classSessionPlacementService.findPlacements(
+                courseUuid, studentGroupUuid, blockLength, sessionTypeUuid, dayOfWeek, limit);
+        return ResponseEntity.ok(
+                ApiResponse.success(result, "Ubicaciones factibles calculadas")
+        );
+    }
+
     @PostMapping("/check-conflicts")
     public ResponseEntity<ValidationResultDTO> checkConflicts(
             @Valid @RequestBody ClassSessionRequestDTO dto,
@@ -59,6 +92,34 @@ public class ClassSessionController {
         );
     }
 
+    // Paginación por cursor: se envía el nextCursor de la respuesta anterior
+    @GetMapping("/page")
+    public ResponseEntity<ApiResponse<ClassSessionPageDTO>> getClassSessionPage(
+            @ModelAttribute ClassSessionFilterDTO filters,
+            @RequestParam(required = false) UUID cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        ClassSessionPageDTO page = classSessionService.getClassSessionPage(filters, cursor, size);
+        return ResponseEntity.ok(
+                ApiResponse.success(page, "Página de sesiones recuperada con éxito")
+        );
+    }
+
+    // Una sesión por línea (NDJSON), escrita a medida que se lee de la base de datos
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamClassSessions(@ModelAttribute ClassSessionFilterDTO filters) {
+        StreamingResponseBody body = out -> classSessionService.streamClassSessions(filters, session -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(session));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping("/{uuid}")
     public ResponseEntity<ApiResponse<ClassSessionResponseDTO>> getClassSessionById(@PathVariable UUID uuid) {
         ClassSessionResponseDTO session = classSessionService.getClassSessionById(uuid);
@@ -106,6 +167,45 @@ public class ClassSessionController {
         );
     }
 
+    @GetMapping("/period/{periodUuid}/grid/student-group/{groupUuid}")
+    public ResponseEntity<ApiResponse<ClassSessionGridDTO>> getStudentGroupGrid(
+            @PathVariable UUID periodUuid,
+            @PathVariable UUID groupUuid) {
+        ClassSessionGridDTO grid = classSessionService.getStudentGroupGrid(periodUuid, groupUuid);
+        return ResponseEntity.ok(
+                ApiResponse.success(grid, "Horario del grupo recuperado con éxito")
+        );
+    }
+
+    @GetMapping("/period/{periodUuid}/grid/teacher/{teacherUuid}")
+    public ResponseEntity<ApiResponse<ClassSessionGridDTO>> getTeacherGrid(
+            @PathVariable UUID periodUuid,
+            @PathVariable UUID teacherUuid) {
+        ClassSessionGridDTO grid = classSessionService.getTeacherGrid(periodUuid, teacherUuid);
+        return ResponseEntity.ok(
+                ApiResponse.success(grid, "Horario del docente recuperado con éxito")
+        );
+    }
+
+    @GetMapping("/period/{periodUuid}/grid/learning-space/{spaceUuid}")
+    public ResponseEntity<ApiResponse<ClassSessionGridDTO>> getLearningSpaceGrid(
+            @PathVariable UUID periodUuid,
+            @PathVariable UUID spaceUuid) {
+        ClassSessionGridDTO grid = classSessionService.getLearningSpaceGrid(periodUuid, spaceUuid);
+        return ResponseEntity.ok(
+                ApiResponse.success(grid, "Horario del aula recuperado con éxito")
+        );
+    }
+
+    @GetMapping("/period/{periodUuid}/integrity-report")
+    public ResponseEntity<ApiResponse<PeriodIntegrityReportDTO>> getPeriodIntegrityReport(
+            @PathVariable UUID periodUuid) {
+        PeriodIntegrityReportDTO report = classSessionIntegrityService.getPeriodIntegrityReport(periodUuid);
+        return ResponseEntity.ok(
+                ApiResponse.success(report, "Reporte de integridad generado")
+        );
+    }
+
 
 
     @PostMapping
@@ -116,6 +216,18 @@ public class ClassSessionController {
                 .body(ApiResponse.success(newSession, "Sesión de clase creada con éxito"));
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<ApiResponse<ClassSessionBulkResultDTO>> createClassSessionsInBulk(
+            @Valid @RequestBody ClassSessionBulkRequestDTO request) {
+        ClassSessionBulkResultDTO result = classSessionService.createClassSessionsInBulk(request);
+        if (!result.isPersisted()) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>("Hay filas con errores; no se guardó ninguna sesión", result));
+        }
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(result, "Sesiones de clase creadas con éxito"));
+    }
+
     @PutMapping("/{uuid}")
     public ResponseEntity<ApiResponse<ClassSessionResponseDTO>> updateClassSession(
             @PathVariable UUID uuid,
@@ -136,6 +248,7 @@ public class ClassSessionController {
 
     @GetMapping("/filter")
     public ResponseEntity<ApiResponse<List<ClassSessionResponseDTO>>> filterClassSessions(
+            @RequestParam(required = false) UUID periodUuid,
             @RequestParam(required = false) UUID studentGroupUuid,
             @RequestParam(required = false) UUID courseUuid,
             @RequestParam(required = false) UUID teacherUuid,
@@ -146,6 +259,7 @@ public class ClassSessionController {
             @RequestParam(required = false) UUID sessionTypeUuid) {
 
         ClassSessionFilterDTO filters = ClassSessionFilterDTO.builder()
+                .periodUuid(periodUuid)
                 .studentGroupUuid(studentGroupUuid)
                 .courseUuid(courseUuid)
                 .teacherUuid(teacherUuid)
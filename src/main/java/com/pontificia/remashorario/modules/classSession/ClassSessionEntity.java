@@ -10,6 +10,7 @@ import com.pontificia.remashorario.modules.period.PeriodEntity;
 import com.pontificia.remashorario.utils.abstractBase.BaseEntity;
 import jakarta.persistence.*;
 import lombok.Getter;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.Setter;
 
 import java.time.DayOfWeek;
@@ -18,10 +19,57 @@ import java.util.Set;
 
 @Entity
 @Table(name = "class_session")
+@NamedEntityGraph(
+        name = ClassSessionEntity.RESPONSE_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode(value = "studentGroup", subgraph = "studentGroup"),
+                @NamedAttributeNode(value = "course", subgraph = "course"),
+                @NamedAttributeNode(value = "teacher", subgraph = "teacher"),
+                @NamedAttributeNode(value = "learningSpace", subgraph = "learningSpace"),
+                @NamedAttributeNode("sessionType"),
+                @NamedAttributeNode(value = "teachingHours", subgraph = "teachingHours")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "studentGroup", attributeNodes = {
+                        @NamedAttributeNode(value = "cycle", subgraph = "cycle"),
+                        @NamedAttributeNode("period")
+                }),
+                @NamedSubgraph(name = "course", attributeNodes = {
+                        @NamedAttributeNode(value = "cycle", subgraph = "cycle"),
+                        @NamedAttributeNode(value = "teachingKnowledgeArea", subgraph = "knowledgeArea"),
+                        @NamedAttributeNode("preferredSpecialty")
+                }),
+                @NamedSubgraph(name = "cycle", attributeNodes = {
+                        @NamedAttributeNode(value = "career", subgraph = "career")
+                }),
+                @NamedSubgraph(name = "career", attributeNodes = {
+                        @NamedAttributeNode("modality")
+                }),
+                @NamedSubgraph(name = "knowledgeArea", attributeNodes = {
+                        @NamedAttributeNode("department")
+                }),
+                @NamedSubgraph(name = "teacher", attributeNodes = {
+                        @NamedAttributeNode("department")
+                }),
+                @NamedSubgraph(name = "learningSpace", attributeNodes = {
+                        @NamedAttributeNode("typeUUID"),
+                        @NamedAttributeNode("specialty")
+                }),
+                @NamedSubgraph(name = "teachingHours", attributeNodes = {
+                        @NamedAttributeNode("timeSlot")
+                })
+        }
+)
 @Getter
 @Setter
 public class ClassSessionEntity extends BaseEntity {
 
+    /**
+     * Todo lo que recorre ClassSessionMapper.toResponseDTO salvo las colecciones internas
+     * (áreas y disponibilidades del docente, tipos del curso), que se cargan por lotes.
+     */
+    public static final String RESPONSE_GRAPH = "ClassSession.response";
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_group_id", nullable = false)
     private StudentGroupEntity studentGroup;
@@ -61,6 +109,12 @@ public class ClassSessionEntity extends BaseEntity {
     @Column(length = 500)
     private String notes;
 
+    // Bloqueo optimista: dos ediciones de la misma sesión no se pisan
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
 
     public void addTeachingHour(TeachingHourEntity teachingHour) {
         teachingHours.add(teachingHour);
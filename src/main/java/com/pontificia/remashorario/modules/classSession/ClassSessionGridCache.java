@@ -0,0 +1,257 @@
+package com.pontificia.remashorario.modules.classSession;
+
+import com.pontificia.remashorario.modules.TimeSlot.TimeSlotCatalog;
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionAuditRowDTO;
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionGridCellDTO;
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionGridDTO;
+import com.pontificia.remashorario.modules.teachingHour.TeachingHourEntity;
+import com.pontificia.remashorario.utils.TransactionCallbacks;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Modelo de lectura de las grillas semanales por (periodo, grupo), (periodo, docente) y
+ * (periodo, aula).
+ * <p>
+ * Cada periodo se carga una vez con una consulta plana y queda en memoria como celdas
+ * compactas; las grillas se materializan al pedirlas y se guardan hasta que una sesión de
+ * ese recurso cambia. Igual que {@link ClassSessionOccupancyIndex}, los cambios se aplican
+ * después del commit y solo descartan las grillas de los recursos afectados, que se
+ * reconstruyen desde memoria sin volver a la base de datos.
+ */
+@Component
+public class ClassSessionGridCache {
+
+    public enum ResourceType {GROUP, TEACHER, SPACE}
+
+    private final ClassSessionRepository classSessionRepository;
+    private final TimeSlotCatalog timeSlotCatalog;
+
+    private final Map<UUID, PeriodGrids> periods = new ConcurrentHashMap<>();
+    private volatile List<HourRow> hourRows;
+
+    public ClassSessionGridCache(ClassSessionRepository classSessionRepository,
+                                 TimeSlotCatalog timeSlotCatalog) {
+        this.classSessionRepository = classSessionRepository;
+        this.timeSlotCatalog = timeSlotCatalog;
+    }
+
+    public ClassSessionGridDTO getGrid(UUID periodUuid, ResourceType resourceType, UUID resourceUuid) {
+        if (periodUuid == null || resourceUuid == null) {
+            throw new IllegalArgumentException("El periodo y el recurso son obligatorios para obtener la grilla");
+        }
+        List<HourRow> rows = hourRows();
+        return periods.computeIfAbsent(periodUuid, this::load)
+                .grid(periodUuid, new GridKey(resourceType, resourceUuid), rows);
+    }
+
+    /**
+     * Registra (o reemplaza) la sesión en las grillas de su periodo una vez confirmada la transacción.
+     */
+    public void register(ClassSessionEntity session) {
+        UUID periodUuid = session.getPeriod().getUuid();
+        GridSession gridSession = new GridSession(
+                ClassSessionGridCellDTO.builder()
+                        .sessionUuid(session.getUuid())
+                        .dayOfWeek(session.getDayOfWeek())
+                        .courseName(session.getCourse().getName())
+                        .teacherUuid(session.getTeacher().getUuid())
+                        .teacherName(session.getTeacher().getFullName())
+                        .learningSpaceUuid(session.getLearningSpace().getUuid())
+                        .learningSpaceName(session.getLearningSpace().getName())
+                        .studentGroupUuid(session.getStudentGroup().getUuid())
+                        .studentGroupName(session.getStudentGroup().getName())
+                        .sessionTypeName(session.getSessionType().getName())
+                        .build(),
+                session.getTeachingHours().stream().map(TeachingHourEntity::getUuid).collect(Collectors.toSet()));
+
+        TransactionCallbacks.afterCommit(() -> periods.computeIfPresent(periodUuid, (uuid, grids) -> {
+            grids.put(gridSession);
+            return grids;
+        }));
+    }
+
+    /**
+     * Quita la sesión de las grillas del periodo una vez confirmada la transacción.
+     */
+    public void unregister(UUID periodUuid, UUID sessionUuid) {
+        TransactionCallbacks.afterCommit(() -> periods.computeIfPresent(periodUuid, (uuid, grids) -> {
+            grids.remove(sessionUuid);
+            return grids;
+        }));
+    }
+
+    /**
+     * Descarta todas las grillas y el eje de horas: al cambiar los turnos, o al renombrar un curso,
+     * docente, aula o grupo, cuyos nombres se copian en las celdas.
+     */
+    public void invalidateAll() {
+        TransactionCallbacks.afterCommit(() -> {
+            hourRows = null;
+            periods.clear();
+        });
+    }
+
+    private List<HourRow> hourRows() {
+        List<HourRow> rows = hourRows;
+        if (rows == null) {
+            rows = timeSlotCatalog.allHours().stream()
+                    .map(hour -> new HourRow(
+                            hour.getUuid(),
+                            hour.getTimeSlot().getUuid(),
+                            hour.getTimeSlot().getName(),
+                            hour.getOrderInTimeSlot(),
+                            hour.getStartTime(),
+                            hour.getEndTime()))
+                    .toList();
+            hourRows = rows;
+        }
+        return rows;
+    }
+
+    private PeriodGrids load(UUID periodUuid) {
+        Map<UUID, GridSession> sessions = new HashMap<>();
+        for (ClassSessionAuditRowDTO row : classSessionRepository.findAuditRowsByPeriod(periodUuid)) {
+            sessions.computeIfAbsent(row.getSessionUuid(), uuid -> new GridSession(
+                            ClassSessionGridCellDTO.builder()
+                                    .sessionUuid(uuid)
+                                    .dayOfWeek(row.getDayOfWeek())
+                                    .courseName(row.getCourseName())
+                                    .teacherUuid(row.getTeacherUuid())
+                                    .teacherName(row.getTeacherName())
+                                    .learningSpaceUuid(row.getLearningSpaceUuid())
+                                    .learningSpaceName(row.getLearningSpaceName())
+                                    .studentGroupUuid(row.getStudentGroupUuid())
+                                    .studentGroupName(row.getStudentGroupName())
+                                    .sessionTypeName(row.getSessionTypeName())
+                                    .build(),
+                            new HashSet<>()))
+                    .teachingHourUuids.add(row.getTeachingHourUuid());
+        }
+
+        PeriodGrids grids = new PeriodGrids();
+        sessions.values().forEach(grids::put);
+        return grids;
+    }
+
+    private record GridKey(ResourceType resourceType, UUID resourceUuid) {
+    }
+
+    private record HourRow(UUID teachingHourUuid, UUID timeSlotUuid, String timeSlotName,
+                           int orderInTimeSlot, LocalTime startTime, LocalTime endTime) {
+    }
+
+    private static final class GridSession {
+        private final ClassSessionGridCellDTO cell;
+        private final Set<UUID> teachingHourUuids;
+
+        private GridSession(ClassSessionGridCellDTO cell, Set<UUID> teachingHourUuids) {
+            this.cell = cell;
+            this.teachingHourUuids = teachingHourUuids;
+        }
+
+        private List<GridKey> keys() {
+            return List.of(
+                    new GridKey(ResourceType.GROUP, cell.getStudentGroupUuid()),
+                    new GridKey(ResourceType.TEACHER, cell.getTeacherUuid()),
+                    new GridKey(ResourceType.SPACE, cell.getLearningSpaceUuid()));
+        }
+    }
+
+    private static final class PeriodGrids {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<UUID, GridSession> sessions = new HashMap<>();
+        private final Map<GridKey, Set<UUID>> sessionsByResource = new HashMap<>();
+        private final Map<GridKey, ClassSessionGridDTO> grids = new ConcurrentHashMap<>();
+
+        private ClassSessionGridDTO grid(UUID periodUuid, GridKey key, List<HourRow> hourRows) {
+            lock.readLock().lock();
+            try {
+                return grids.computeIfAbsent(key, k -> build(periodUuid, k, hourRows));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void put(GridSession session) {
+            lock.writeLock().lock();
+            try {
+                removeUnlocked(session.cell.getSessionUuid());
+                sessions.put(session.cell.getSessionUuid(), session);
+                for (GridKey key : session.keys()) {
+                    sessionsByResource.computeIfAbsent(key, k -> new HashSet<>()).add(session.cell.getSessionUuid());
+                    grids.remove(key);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void remove(UUID sessionUuid) {
+            lock.writeLock().lock();
+            try {
+                removeUnlocked(sessionUuid);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removeUnlocked(UUID sessionUuid) {
+            GridSession existing = sessions.remove(sessionUuid);
+            if (existing == null) return;
+
+            for (GridKey key : existing.keys()) {
+                Set<UUID> resourceSessions = sessionsByResource.get(key);
+                if (resourceSessions != null) {
+                    resourceSessions.remove(sessionUuid);
+                    if (resourceSessions.isEmpty()) {
+                        sessionsByResource.remove(key);
+                    }
+                }
+                grids.remove(key);
+            }
+        }
+
+        private ClassSessionGridDTO build(UUID periodUuid, GridKey key, List<HourRow> hourRows) {
+            Set<UUID> resourceSessions = sessionsByResource.getOrDefault(key, Collections.emptySet());
+
+            Map<UUID, List<ClassSessionGridCellDTO>> cellsByHour = new HashMap<>();
+            for (UUID sessionUuid : resourceSessions) {
+                GridSession session = sessions.get(sessionUuid);
+                for (UUID hourUuid : session.teachingHourUuids) {
+                    cellsByHour.computeIfAbsent(hourUuid, uuid -> new ArrayList<>()).add(session.cell);
+                }
+            }
+
+            List<ClassSessionGridDTO.Row> rows = new ArrayList<>(hourRows.size());
+            for (HourRow hour : hourRows) {
+                List<ClassSessionGridCellDTO> cells = cellsByHour.getOrDefault(hour.teachingHourUuid(), List.of());
+                rows.add(ClassSessionGridDTO.Row.builder()
+                        .teachingHourUuid(hour.teachingHourUuid())
+                        .timeSlotUuid(hour.timeSlotUuid())
+                        .timeSlotName(hour.timeSlotName())
+                        .orderInTimeSlot(hour.orderInTimeSlot())
+                        .startTime(hour.startTime())
+                        .endTime(hour.endTime())
+                        .cells(cells.stream()
+                                .sorted(Comparator.comparing(ClassSessionGridCellDTO::getDayOfWeek))
+                                .toList())
+                        .build());
+            }
+
+            return ClassSessionGridDTO.builder()
+                    .periodUuid(periodUuid)
+                    .resourceType(key.resourceType().name())
+                    .resourceUuid(key.resourceUuid())
+                    .totalSessions(resourceSessions.size())
+                    .rows(Collections.unmodifiableList(rows))
+                    .build();
+        }
+    }
+}
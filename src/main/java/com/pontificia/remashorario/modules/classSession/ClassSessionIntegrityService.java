@@ -0,0 +1,250 @@
+package com.pontificia.remashorario.modules.classSession;
+
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionAuditRowDTO;
+import com.pontificia.remashorario.modules.classSession.dto.PeriodIntegrityReportDTO;
+import com.pontificia.remashorario.modules.period.PeriodService;
+import com.pontificia.remashorario.modules.teacherAvailability.TeacherAvailabilityEntity;
+import com.pontificia.remashorario.modules.teacherAvailability.TeacherAvailabilityRepository;
+import com.pontificia.remashorario.modules.teachingType.TeachingTypeEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Auditoría completa de un periodo: carga todas las sesiones en una consulta plana y
+ * las disponibilidades en otra, y recorre cada recurso por día con bitsets de horas.
+ */
+@Service
+public class ClassSessionIntegrityService {
+
+    private final ClassSessionRepository classSessionRepository;
+    private final TeacherAvailabilityRepository teacherAvailabilityRepository;
+    private final PeriodService periodService;
+
+    @Autowired
+    public ClassSessionIntegrityService(ClassSessionRepository classSessionRepository,
+                                        TeacherAvailabilityRepository teacherAvailabilityRepository,
+                                        PeriodService periodService) {
+        this.classSessionRepository = classSessionRepository;
+        this.teacherAvailabilityRepository = teacherAvailabilityRepository;
+        this.periodService = periodService;
+    }
+
+    @Transactional(readOnly = true)
+    public PeriodIntegrityReportDTO getPeriodIntegrityReport(UUID periodUuid) {
+        long startedAt = System.nanoTime();
+        periodService.findPeriodOrThrow(periodUuid);
+
+        // Agrupar filas por sesión; cada hora pedagógica recibe un ordinal local para los bitsets
+        Map<UUID, Integer> hourOrdinals = new HashMap<>();
+        List<UUID> hoursByOrdinal = new ArrayList<>();
+        Map<UUID, AuditedSession> sessions = new LinkedHashMap<>();
+        for (ClassSessionAuditRowDTO row : classSessionRepository.findAuditRowsByPeriod(periodUuid)) {
+            int ordinal = hourOrdinals.computeIfAbsent(row.getTeachingHourUuid(), uuid -> {
+                hoursByOrdinal.add(uuid);
+                return hoursByOrdinal.size() - 1;
+            });
+            sessions.computeIfAbsent(row.getSessionUuid(), uuid -> new AuditedSession(row)).addHour(row, ordinal);
+        }
+
+        Map<UUID, Map<DayOfWeek, List<TeacherAvailabilityEntity>>> availabilities = loadAvailabilities(sessions.values());
+
+        List<PeriodIntegrityReportDTO.DoubleBooking> doubleBookings = new ArrayList<>();
+        sweep(sessions.values(), "TEACHER", s -> s.teacherUuid, s -> s.teacherName, hoursByOrdinal, doubleBookings);
+        sweep(sessions.values(), "SPACE", s -> s.spaceUuid, s -> s.spaceName, hoursByOrdinal, doubleBookings);
+        sweep(sessions.values(), "GROUP", s -> s.groupUuid, s -> s.groupName, hoursByOrdinal, doubleBookings);
+
+        List<PeriodIntegrityReportDTO.SessionIssue> availabilityViolations = new ArrayList<>();
+        List<PeriodIntegrityReportDTO.SessionIssue> spaceTypeMismatches = new ArrayList<>();
+        List<PeriodIntegrityReportDTO.SessionIssue> nonConsecutiveBlocks = new ArrayList<>();
+
+        for (AuditedSession session : sessions.values()) {
+            List<TeacherAvailabilityEntity> dayAvailabilities = availabilities
+                    .getOrDefault(session.teacherUuid, Collections.emptyMap())
+                    .getOrDefault(session.dayOfWeek, Collections.emptyList());
+            if (!isWithinAvailability(session, dayAvailabilities)) {
+                availabilityViolations.add(issue(session, String.format(
+                        "El docente %s no tiene disponibilidad el %s de %s a %s",
+                        session.teacherName, session.dayOfWeek.name(), session.startTime, session.endTime)));
+            }
+
+            if (session.spaceTypeUuid == null || !session.spaceTypeUuid.equals(session.sessionTypeUuid)) {
+                spaceTypeMismatches.add(issue(session, String.format(
+                        "Sesión de tipo %s en aula de tipo %s",
+                        session.sessionTypeName, session.spaceTypeName != null ? session.spaceTypeName : "sin tipo")));
+            }
+
+            String blockProblem = session.blockProblem();
+            if (blockProblem != null) {
+                nonConsecutiveBlocks.add(issue(session, blockProblem));
+            }
+        }
+
+        return PeriodIntegrityReportDTO.builder()
+                .periodUuid(periodUuid)
+                .totalSessions(sessions.size())
+                .elapsedMs((System.nanoTime() - startedAt) / 1_000_000)
+                .clean(doubleBookings.isEmpty() && availabilityViolations.isEmpty()
+                        && spaceTypeMismatches.isEmpty() && nonConsecutiveBlocks.isEmpty())
+                .doubleBookings(doubleBookings)
+                .availabilityViolations(availabilityViolations)
+                .spaceTypeMismatches(spaceTypeMismatches)
+                .nonConsecutiveBlocks(nonConsecutiveBlocks)
+                .build();
+    }
+
+    /**
+     * Recorre las sesiones de cada recurso y día acumulando un bitset de horas ocupadas;
+     * solo cuando una sesión intersecta lo acumulado se buscan las sesiones concretas con las que choca.
+     */
+    private void sweep(Collection<AuditedSession> sessions,
+                       String resourceType,
+                       Function<AuditedSession, UUID> resource,
+                       Function<AuditedSession, String> resourceName,
+                       List<UUID> hoursByOrdinal,
+                       List<PeriodIntegrityReportDTO.DoubleBooking> result) {
+        Map<ResourceDay, List<AuditedSession>> byResourceDay = new LinkedHashMap<>();
+        for (AuditedSession session : sessions) {
+            byResourceDay.computeIfAbsent(new ResourceDay(resource.apply(session), session.dayOfWeek),
+                    key -> new ArrayList<>()).add(session);
+        }
+
+        for (Map.Entry<ResourceDay, List<AuditedSession>> entry : byResourceDay.entrySet()) {
+            List<AuditedSession> daySessions = entry.getValue();
+            if (daySessions.size() < 2) continue;
+
+            BitSet occupied = new BitSet();
+            for (int i = 0; i < daySessions.size(); i++) {
+                AuditedSession session = daySessions.get(i);
+                if (session.hours.intersects(occupied)) {
+                    for (int j = 0; j < i; j++) {
+                        AuditedSession previous = daySessions.get(j);
+                        if (!previous.hours.intersects(session.hours)) continue;
+
+                        BitSet overlap = (BitSet) previous.hours.clone();
+                        overlap.and(session.hours);
+                        result.add(PeriodIntegrityReportDTO.DoubleBooking.builder()
+                                .resourceType(resourceType)
+                                .resourceUuid(entry.getKey().resourceUuid())
+                                .resourceName(resourceName.apply(session))
+                                .dayOfWeek(entry.getKey().dayOfWeek())
+                                .firstSessionUuid(previous.uuid)
+                                .firstCourseName(previous.courseName)
+                                .secondSessionUuid(session.uuid)
+                                .secondCourseName(session.courseName)
+                                .overlappingTeachingHourUuids(overlap.stream()
+                                        .mapToObj(hoursByOrdinal::get)
+                                        .toList())
+                                .build());
+                    }
+                }
+                occupied.or(session.hours);
+            }
+        }
+    }
+
+    private Map<UUID, Map<DayOfWeek, List<TeacherAvailabilityEntity>>> loadAvailabilities(Collection<AuditedSession> sessions) {
+        Set<UUID> teacherUuids = sessions.stream().map(s -> s.teacherUuid).collect(Collectors.toSet());
+        if (teacherUuids.isEmpty()) return Collections.emptyMap();
+
+        return teacherAvailabilityRepository.findByTeacherUuidIn(teacherUuids).stream()
+                .filter(availability -> !Boolean.FALSE.equals(availability.getIsAvailable()))
+                .collect(Collectors.groupingBy(availability -> availability.getTeacher().getUuid(),
+                        Collectors.groupingBy(TeacherAvailabilityEntity::getDayOfWeek)));
+    }
+
+    /**
+     * Igual que en la creación de sesiones, el bloque completo debe caber en una sola ventana;
+     * las ventanas marcadas como no disponibles ya se descartaron al cargar.
+     */
+    private boolean isWithinAvailability(AuditedSession session, List<TeacherAvailabilityEntity> availabilities) {
+        return availabilities.stream().anyMatch(availability ->
+                !availability.getStartTime().isAfter(session.startTime)
+                        && !availability.getEndTime().isBefore(session.endTime));
+    }
+
+    private PeriodIntegrityReportDTO.SessionIssue issue(AuditedSession session, String detail) {
+        return PeriodIntegrityReportDTO.SessionIssue.builder()
+                .sessionUuid(session.uuid)
+                .courseName(session.courseName)
+                .studentGroupName(session.groupName)
+                .teacherName(session.teacherName)
+                .learningSpaceName(session.spaceName)
+                .dayOfWeek(session.dayOfWeek)
+                .startTime(session.startTime)
+                .endTime(session.endTime)
+                .detail(detail)
+                .build();
+    }
+
+    private record ResourceDay(UUID resourceUuid, DayOfWeek dayOfWeek) {
+    }
+
+    /**
+     * Sesión reconstruida a partir de sus filas planas.
+     */
+    private static final class AuditedSession {
+        private final UUID uuid;
+        private final String courseName;
+        private final UUID teacherUuid;
+        private final String teacherName;
+        private final UUID spaceUuid;
+        private final String spaceName;
+        private final UUID spaceTypeUuid;
+        private final TeachingTypeEntity.ETeachingType spaceTypeName;
+        private final UUID groupUuid;
+        private final String groupName;
+        private final UUID sessionTypeUuid;
+        private final TeachingTypeEntity.ETeachingType sessionTypeName;
+        private final DayOfWeek dayOfWeek;
+
+        private final BitSet hours = new BitSet();
+        private final Set<UUID> timeSlots = new HashSet<>();
+        private final List<Integer> orders = new ArrayList<>();
+        private LocalTime startTime;
+        private LocalTime endTime;
+
+        private AuditedSession(ClassSessionAuditRowDTO row) {
+            this.uuid = row.getSessionUuid();
+            this.courseName = row.getCourseName();
+            this.teacherUuid = row.getTeacherUuid();
+            this.teacherName = row.getTeacherName();
+            this.spaceUuid = row.getLearningSpaceUuid();
+            this.spaceName = row.getLearningSpaceName();
+            this.spaceTypeUuid = row.getLearningSpaceTypeUuid();
+            this.spaceTypeName = row.getLearningSpaceTypeName();
+            this.groupUuid = row.getStudentGroupUuid();
+            this.groupName = row.getStudentGroupName();
+            this.sessionTypeUuid = row.getSessionTypeUuid();
+            this.sessionTypeName = row.getSessionTypeName();
+            this.dayOfWeek = row.getDayOfWeek();
+        }
+
+        private void addHour(ClassSessionAuditRowDTO row, int ordinal) {
+            hours.set(ordinal);
+            timeSlots.add(row.getTimeSlotUuid());
+            orders.add(row.getOrderInTimeSlot());
+            if (startTime == null || row.getStartTime().isBefore(startTime)) startTime = row.getStartTime();
+            if (endTime == null || row.getEndTime().isAfter(endTime)) endTime = row.getEndTime();
+        }
+
+        private String blockProblem() {
+            if (timeSlots.size() > 1) {
+                return "Las horas pedagógicas pertenecen a turnos distintos";
+            }
+            List<Integer> sorted = orders.stream().sorted().toList();
+            for (int i = 1; i < sorted.size(); i++) {
+                if (sorted.get(i) != sorted.get(i - 1) + 1) {
+                    return "Las horas pedagógicas no son consecutivas";
+                }
+            }
+            return null;
+        }
+    }
+}
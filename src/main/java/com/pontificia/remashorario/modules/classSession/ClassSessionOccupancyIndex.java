@@ -0,0 +1,347 @@
+package com.pontificia.remashorario.modules.classSession;
+
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionOccupancyRowDTO;
+import com.pontificia.remashorario.modules.teachingHour.TeachingHourEntity;
+import lombok.Getter;
+import com.pontificia.remashorario.utils.TransactionCallbacks;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice en memoria de la ocupación de docentes, aulas y grupos por periodo.
+ * <p>
+ * Cada periodo se carga una sola vez (una consulta) y se mantiene como bitsets
+ * recurso × día × hora pedagógica. Las altas, cambios y bajas de sesiones se
+ * aplican al índice después del commit, de modo que las validaciones de conflicto
+ * se responden sin ir a la base de datos.
+ */
+@Component
+public class ClassSessionOccupancyIndex {
+
+    private final ClassSessionRepository classSessionRepository;
+
+    private final Map<UUID, PeriodOccupancy> periods = new ConcurrentHashMap<>();
+    private final Map<UUID, Integer> hourOrdinals = new ConcurrentHashMap<>();
+    private final AtomicInteger nextHourOrdinal = new AtomicInteger();
+
+    public ClassSessionOccupancyIndex(ClassSessionRepository classSessionRepository) {
+        this.classSessionRepository = classSessionRepository;
+    }
+
+    /**
+     * Busca las sesiones del periodo que chocan con la asignación indicada,
+     * separadas por tipo de recurso. Los recursos nulos no se evalúan.
+     */
+    public Conflicts findConflicts(UUID periodUuid, UUID teacherUuid, UUID spaceUuid, UUID groupUuid,
+                                   DayOfWeek dayOfWeek, Collection<UUID> teachingHourUuids,
+                                   UUID excludeSessionUuid) {
+        return findConflicts(periodUuid, teacherUuid, spaceUuid, groupUuid, dayOfWeek, teachingHourUuids,
+                excludeSessionUuid == null ? Set.<UUID>of() : Set.of(excludeSessionUuid));
+    }
+
+    /**
+     * Igual que {@link #findConflicts(UUID, UUID, UUID, UUID, DayOfWeek, Collection, UUID)} pero
+     * ignorando varias sesiones (por ejemplo, las que se van a reemplazar en una carga masiva).
+     */
+    public Conflicts findConflicts(UUID periodUuid, UUID teacherUuid, UUID spaceUuid, UUID groupUuid,
+                                   DayOfWeek dayOfWeek, Collection<UUID> teachingHourUuids,
+                                   Set<UUID> excludeSessionUuids) {
+        BitSet hours = toHourBits(teachingHourUuids);
+        PeriodOccupancy occupancy = occupancyFor(periodUuid);
+
+        occupancy.lock.readLock().lock();
+        try {
+            return new Conflicts(
+                    occupancy.conflicts(occupancy.teachers, teacherUuid, dayOfWeek, hours, excludeSessionUuids),
+                    occupancy.conflicts(occupancy.spaces, spaceUuid, dayOfWeek, hours, excludeSessionUuids),
+                    occupancy.conflicts(occupancy.groups, groupUuid, dayOfWeek, hours, excludeSessionUuids));
+        } finally {
+            occupancy.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve las horas pedagógicas (por ordinal, ver {@link #hourOrdinal(UUID)}) ocupadas
+     * por el docente, el aula o el grupo en el día indicado.
+     */
+    public BitSet occupiedHours(UUID periodUuid, UUID teacherUuid, UUID spaceUuid, UUID groupUuid,
+                                DayOfWeek dayOfWeek) {
+        PeriodOccupancy occupancy = occupancyFor(periodUuid);
+        BitSet occupied = new BitSet();
+
+        occupancy.lock.readLock().lock();
+        try {
+            occupancy.orInto(occupied, occupancy.teachers, teacherUuid, dayOfWeek);
+            occupancy.orInto(occupied, occupancy.spaces, spaceUuid, dayOfWeek);
+            occupancy.orInto(occupied, occupancy.groups, groupUuid, dayOfWeek);
+        } finally {
+            occupancy.lock.readLock().unlock();
+        }
+        return occupied;
+    }
+
+    /**
+     * Posición estable de una hora pedagógica dentro de los bitsets del índice.
+     */
+    public int hourOrdinal(UUID teachingHourUuid) {
+        return hourOrdinals.computeIfAbsent(teachingHourUuid, uuid -> nextHourOrdinal.getAndIncrement());
+    }
+
+    public BitSet toHourBits(Collection<UUID> teachingHourUuids) {
+        BitSet bits = new BitSet();
+        for (UUID uuid : teachingHourUuids) {
+            bits.set(hourOrdinal(uuid));
+        }
+        return bits;
+    }
+
+    /**
+     * Registra (o reemplaza) la sesión en el índice de su periodo una vez confirmada la transacción.
+     */
+    public void register(ClassSessionEntity session) {
+        UUID periodUuid = session.getPeriod().getUuid();
+        SessionSlot slot = new SessionSlot(
+                session.getUuid(),
+                session.getTeacher().getUuid(),
+                session.getLearningSpace().getUuid(),
+                session.getStudentGroup().getUuid(),
+                session.getDayOfWeek(),
+                toHourBits(session.getTeachingHours().stream().map(TeachingHourEntity::getUuid).toList()));
+
+        TransactionCallbacks.afterCommit(() -> periods.computeIfPresent(periodUuid, (uuid, occupancy) -> {
+            occupancy.put(slot);
+            return occupancy;
+        }));
+    }
+
+    /**
+     * Quita la sesión del índice del periodo una vez confirmada la transacción.
+     */
+    public void unregister(UUID periodUuid, UUID sessionUuid) {
+        TransactionCallbacks.afterCommit(() -> periods.computeIfPresent(periodUuid, (uuid, occupancy) -> {
+            occupancy.remove(sessionUuid);
+            return occupancy;
+        }));
+    }
+
+    /**
+     * Descarta el índice de un periodo; se recargará en la siguiente consulta.
+     */
+    public void invalidatePeriod(UUID periodUuid) {
+        TransactionCallbacks.afterCommit(() -> periods.remove(periodUuid));
+    }
+
+    public void invalidateAll() {
+        TransactionCallbacks.afterCommit(periods::clear);
+    }
+
+    private PeriodOccupancy occupancyFor(UUID periodUuid) {
+        if (periodUuid == null) {
+            throw new IllegalArgumentException("El periodo es obligatorio para verificar la ocupación");
+        }
+        // La carga ocurre dentro de computeIfAbsent: los register/unregister concurrentes del
+        // mismo periodo esperan a que termine y se aplican sobre la instantánea recién cargada.
+        return periods.computeIfAbsent(periodUuid, this::load);
+    }
+
+    private PeriodOccupancy load(UUID periodUuid) {
+        Map<UUID, SessionSlot> slots = new HashMap<>();
+        for (ClassSessionOccupancyRowDTO row : classSessionRepository.findOccupancyRowsByPeriod(periodUuid)) {
+            slots.computeIfAbsent(row.getSessionUuid(), uuid -> new SessionSlot(
+                            uuid,
+                            row.getTeacherUuid(),
+                            row.getLearningSpaceUuid(),
+                            row.getStudentGroupUuid(),
+                            row.getDayOfWeek(),
+                            new BitSet()))
+                    .hours.set(hourOrdinal(row.getTeachingHourUuid()));
+        }
+
+        PeriodOccupancy occupancy = new PeriodOccupancy();
+        slots.values().forEach(occupancy::put);
+        return occupancy;
+    }
+
+    /**
+     * Conflictos encontrados para una asignación, agrupados por recurso.
+     */
+    @Getter
+    public static class Conflicts {
+        private final Set<UUID> teacherSessionUuids;
+        private final Set<UUID> spaceSessionUuids;
+        private final Set<UUID> groupSessionUuids;
+
+        public Conflicts(Set<UUID> teacherSessionUuids, Set<UUID> spaceSessionUuids, Set<UUID> groupSessionUuids) {
+            this.teacherSessionUuids = teacherSessionUuids;
+            this.spaceSessionUuids = spaceSessionUuids;
+            this.groupSessionUuids = groupSessionUuids;
+        }
+
+        public boolean isEmpty() {
+            return teacherSessionUuids.isEmpty() && spaceSessionUuids.isEmpty() && groupSessionUuids.isEmpty();
+        }
+
+        public Set<UUID> getAllSessionUuids() {
+            Set<UUID> all = new LinkedHashSet<>(teacherSessionUuids);
+            all.addAll(spaceSessionUuids);
+            all.addAll(groupSessionUuids);
+            return all;
+        }
+
+        /**
+         * TEACHER, SPACE, GROUP o MULTIPLE; null si no hay conflicto.
+         */
+        public String getConflictType() {
+            int count = (teacherSessionUuids.isEmpty() ? 0 : 1)
+                    + (spaceSessionUuids.isEmpty() ? 0 : 1)
+                    + (groupSessionUuids.isEmpty() ? 0 : 1);
+
+            if (count > 1) return "MULTIPLE";
+            if (!teacherSessionUuids.isEmpty()) return "TEACHER";
+            if (!spaceSessionUuids.isEmpty()) return "SPACE";
+            if (!groupSessionUuids.isEmpty()) return "GROUP";
+            return null;
+        }
+    }
+
+    private static final class SessionSlot {
+        private final UUID sessionUuid;
+        private final UUID teacherUuid;
+        private final UUID spaceUuid;
+        private final UUID groupUuid;
+        private final DayOfWeek dayOfWeek;
+        private final BitSet hours;
+
+        private SessionSlot(UUID sessionUuid, UUID teacherUuid, UUID spaceUuid, UUID groupUuid,
+                            DayOfWeek dayOfWeek, BitSet hours) {
+            this.sessionUuid = sessionUuid;
+            this.teacherUuid = teacherUuid;
+            this.spaceUuid = spaceUuid;
+            this.groupUuid = groupUuid;
+            this.dayOfWeek = dayOfWeek;
+            this.hours = hours;
+        }
+    }
+
+    /**
+     * Ocupación de un recurso: un bitset de horas por día y las sesiones que lo componen.
+     */
+    private static final class ResourceOccupancy {
+        private final BitSet[] days = new BitSet[DayOfWeek.values().length];
+        private final List<SessionSlot> slots = new ArrayList<>();
+
+        private void add(SessionSlot slot) {
+            slots.add(slot);
+            int day = slot.dayOfWeek.ordinal();
+            if (days[day] == null) {
+                days[day] = new BitSet();
+            }
+            days[day].or(slot.hours);
+        }
+
+        private void remove(SessionSlot slot) {
+            slots.remove(slot);
+            // Se reconstruye el día completo por si otra sesión comparte alguna hora
+            BitSet rebuilt = new BitSet();
+            for (SessionSlot other : slots) {
+                if (other.dayOfWeek == slot.dayOfWeek) {
+                    rebuilt.or(other.hours);
+                }
+            }
+            days[slot.dayOfWeek.ordinal()] = rebuilt;
+        }
+
+        private boolean isEmpty() {
+            return slots.isEmpty();
+        }
+    }
+
+    private static final class PeriodOccupancy {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<UUID, SessionSlot> sessions = new HashMap<>();
+        private final Map<UUID, ResourceOccupancy> teachers = new HashMap<>();
+        private final Map<UUID, ResourceOccupancy> spaces = new HashMap<>();
+        private final Map<UUID, ResourceOccupancy> groups = new HashMap<>();
+
+        private void put(SessionSlot slot) {
+            lock.writeLock().lock();
+            try {
+                removeUnlocked(slot.sessionUuid);
+                sessions.put(slot.sessionUuid, slot);
+                teachers.computeIfAbsent(slot.teacherUuid, uuid -> new ResourceOccupancy()).add(slot);
+                spaces.computeIfAbsent(slot.spaceUuid, uuid -> new ResourceOccupancy()).add(slot);
+                groups.computeIfAbsent(slot.groupUuid, uuid -> new ResourceOccupancy()).add(slot);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void remove(UUID sessionUuid) {
+            lock.writeLock().lock();
+            try {
+                removeUnlocked(sessionUuid);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removeUnlocked(UUID sessionUuid) {
+            SessionSlot existing = sessions.remove(sessionUuid);
+            if (existing == null) return;
+
+            removeFrom(teachers, existing.teacherUuid, existing);
+            removeFrom(spaces, existing.spaceUuid, existing);
+            removeFrom(groups, existing.groupUuid, existing);
+        }
+
+        private void removeFrom(Map<UUID, ResourceOccupancy> resources, UUID resourceUuid, SessionSlot slot) {
+            ResourceOccupancy resource = resources.get(resourceUuid);
+            if (resource == null) return;
+
+            resource.remove(slot);
+            if (resource.isEmpty()) {
+                resources.remove(resourceUuid);
+            }
+        }
+
+        private Set<UUID> conflicts(Map<UUID, ResourceOccupancy> resources, UUID resourceUuid,
+                                    DayOfWeek dayOfWeek, BitSet hours, Set<UUID> excludeSessionUuids) {
+            if (resourceUuid == null) return Collections.emptySet();
+
+            ResourceOccupancy resource = resources.get(resourceUuid);
+            if (resource == null) return Collections.emptySet();
+
+            BitSet dayBits = resource.days[dayOfWeek.ordinal()];
+            if (dayBits == null || !dayBits.intersects(hours)) return Collections.emptySet();
+
+            Set<UUID> result = new LinkedHashSet<>();
+            for (SessionSlot slot : resource.slots) {
+                if (slot.dayOfWeek == dayOfWeek
+                        && slot.hours.intersects(hours)
+                        && !excludeSessionUuids.contains(slot.sessionUuid)) {
+                    result.add(slot.sessionUuid);
+                }
+            }
+            return result;
+        }
+
+        private void orInto(BitSet target, Map<UUID, ResourceOccupancy> resources, UUID resourceUuid,
+                            DayOfWeek dayOfWeek) {
+            if (resourceUuid == null) return;
+
+            ResourceOccupancy resource = resources.get(resourceUuid);
+            if (resource == null) return;
+
+            BitSet dayBits = resource.days[dayOfWeek.ordinal()];
+            if (dayBits != null) {
+                target.or(dayBits);
+            }
+        }
+    }
+}
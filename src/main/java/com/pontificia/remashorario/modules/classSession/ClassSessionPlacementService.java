@@ -0,0 +1,280 @@
+package com.pontificia.remashorario.modules.classSession;
+
+import com.pontificia.remashorario.modules.TimeSlot.TimeSlotCatalog;
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionPlacementDTO;
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionPlacementResultDTO;
+import com.pontificia.remashorario.modules.course.CourseEntity;
+import com.pontificia.remashorario.modules.course.CourseService;
+import com.pontificia.remashorario.modules.learningSpace.LearningSpaceEntity;
+import com.pontificia.remashorario.modules.learningSpace.LearningSpaceRepository;
+import com.pontificia.remashorario.modules.studentGroup.StudentGroupEntity;
+import com.pontificia.remashorario.modules.studentGroup.StudentGroupService;
+import com.pontificia.remashorario.modules.teacher.TeacherEntity;
+import com.pontificia.remashorario.modules.teacher.TeacherRepository;
+import com.pontificia.remashorario.modules.teacherAvailability.TeacherAvailabilityEntity;
+import com.pontificia.remashorario.modules.teacherAvailability.TeacherAvailabilityRepository;
+import com.pontificia.remashorario.modules.teachingHour.TeachingHourEntity;
+import com.pontificia.remashorario.modules.teachingType.TeachingTypeEntity;
+import com.pontificia.remashorario.modules.teachingType.TeachingTypeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Enumera todas las ubicaciones factibles (día, bloque de horas consecutivas, docente, aula)
+ * para un curso y un grupo.
+ * <p>
+ * Los datos maestros se leen con unas pocas consultas y la ocupación del periodo sale de
+ * {@link ClassSessionOccupancyIndex}, de modo que la enumeración completa se hace en memoria.
+ */
+@Service
+public class ClassSessionPlacementService {
+
+    private static final List<DayOfWeek> DAYS = List.of(
+            DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY,
+            DayOfWeek.THURSDAY, DayOfWeek.FRIDAY, DayOfWeek.SATURDAY);
+    private static final int MAX_LIMIT = 500;
+    // Especialidad preferida primero, luego el aula de menor capacidad (el grupo no tiene tamaño
+    // con el que medir el ajuste) y el docente con menos horas
+    private static final Comparator<Candidate> CANDIDATE_ORDER = Comparator
+            .comparing((Candidate c) -> !c.specialtyMatch())
+            .thenComparing(c -> c.space().getCapacity() != null ? c.space().getCapacity() : Integer.MAX_VALUE)
+            .thenComparingInt(Candidate::teacherLoad)
+            .thenComparing(Candidate::day)
+            .thenComparing(c -> c.run().startTime());
+
+    private final CourseService courseService;
+    private final StudentGroupService studentGroupService;
+    private final TeachingTypeService teachingTypeService;
+    private final TeacherRepository teacherRepository;
+    private final TeacherAvailabilityRepository teacherAvailabilityRepository;
+    private final LearningSpaceRepository learningSpaceRepository;
+    private final TimeSlotCatalog timeSlotCatalog;
+    private final ClassSessionOccupancyIndex occupancyIndex;
+
+    @Autowired
+    public ClassSessionPlacementService(CourseService courseService,
+                                        StudentGroupService studentGroupService,
+                                        TeachingTypeService teachingTypeService,
+                                        TeacherRepository teacherRepository,
+                                        TeacherAvailabilityRepository teacherAvailabilityRepository,
+                                        LearningSpaceRepository learningSpaceRepository,
+                                        TimeSlotCatalog timeSlotCatalog,
+                                        ClassSessionOccupancyIndex occupancyIndex) {
+        this.courseService = courseService;
+        this.studentGroupService = studentGroupService;
+        this.teachingTypeService = teachingTypeService;
+        this.teacherRepository = teacherRepository;
+        this.teacherAvailabilityRepository = teacherAvailabilityRepository;
+        this.learningSpaceRepository = learningSpaceRepository;
+        this.timeSlotCatalog = timeSlotCatalog;
+        this.occupancyIndex = occupancyIndex;
+    }
+
+    @Transactional(readOnly = true)
+    public ClassSessionPlacementResultDTO findPlacements(UUID courseUuid, UUID studentGroupUuid, int blockLength,
+                                                         UUID sessionTypeUuid, DayOfWeek dayOfWeek, int limit) {
+        long startedAt = System.nanoTime();
+
+        if (blockLength < 1) {
+            throw new IllegalArgumentException("La cantidad de horas del bloque debe ser al menos 1");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("El límite de resultados debe estar entre 1 y " + MAX_LIMIT);
+        }
+
+        CourseEntity course = courseService.findCourseOrThrow(courseUuid);
+        StudentGroupEntity group = studentGroupService.findOrThrow(studentGroupUuid);
+        if (!course.getCycle().getUuid().equals(group.getCycle().getUuid())) {
+            throw new IllegalArgumentException("El curso debe pertenecer al mismo ciclo que el grupo de estudiantes");
+        }
+        TeachingTypeEntity sessionType = resolveSessionType(course, sessionTypeUuid);
+        UUID periodUuid = group.getPeriod().getUuid();
+
+        List<HourRun> runs = consecutiveRuns(timeSlotCatalog.allHours(), blockLength);
+
+        List<TeacherEntity> teachers = teacherRepository
+                .findByKnowledgeAreasContaining(course.getTeachingKnowledgeArea().getUuid());
+        Map<UUID, Map<DayOfWeek, List<TeacherAvailabilityEntity>>> availabilities = teachers.isEmpty()
+                ? Collections.emptyMap()
+                : teacherAvailabilityRepository.findByTeacherUuidIn(teachers.stream().map(TeacherEntity::getUuid).toList())
+                .stream()
+                .filter(availability -> !Boolean.FALSE.equals(availability.getIsAvailable()))
+                .collect(Collectors.groupingBy(availability -> availability.getTeacher().getUuid(),
+                        Collectors.groupingBy(TeacherAvailabilityEntity::getDayOfWeek)));
+        Map<UUID, Integer> teacherLoads = new HashMap<>();
+        for (TeacherEntity teacher : teachers) {
+            teacherLoads.put(teacher.getUuid(), assignedHours(periodUuid, teacher.getUuid()));
+        }
+
+        List<LearningSpaceEntity> spaces = learningSpaceRepository.findByTypeUUID_Name(sessionType.getName()).stream()
+                .filter(space -> space.getTypeUUID().getUuid().equals(sessionType.getUuid()))
+                .toList();
+        UUID preferredSpecialtyUuid = course.getPreferredSpecialty() != null
+                ? course.getPreferredSpecialty().getUuid() : null;
+
+        // Solo se guardan las `limit` mejores: la peor de ellas en la cabeza, reemplazada por cualquiera mejor
+        PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1, CANDIDATE_ORDER.reversed());
+        int totalPlacements = 0;
+        for (DayOfWeek day : dayOfWeek != null ? List.of(dayOfWeek) : DAYS) {
+            BitSet groupBusy = occupancyIndex.occupiedHours(periodUuid, null, null, studentGroupUuid, day);
+
+            Map<UUID, BitSet> teacherBusy = new HashMap<>();
+            for (TeacherEntity teacher : teachers) {
+                teacherBusy.put(teacher.getUuid(), occupancyIndex.occupiedHours(periodUuid, teacher.getUuid(), null, null, day));
+            }
+            Map<UUID, BitSet> spaceBusy = new HashMap<>();
+            for (LearningSpaceEntity space : spaces) {
+                spaceBusy.put(space.getUuid(), occupancyIndex.occupiedHours(periodUuid, null, space.getUuid(), null, day));
+            }
+
+            for (HourRun run : runs) {
+                if (run.hours().intersects(groupBusy)) continue;
+
+                List<LearningSpaceEntity> freeSpaces = spaces.stream()
+                        .filter(space -> !spaceBusy.get(space.getUuid()).intersects(run.hours()))
+                        .toList();
+                if (freeSpaces.isEmpty()) continue;
+
+                for (TeacherEntity teacher : teachers) {
+                    if (teacherBusy.get(teacher.getUuid()).intersects(run.hours())) continue;
+                    List<TeacherAvailabilityEntity> dayAvailabilities = availabilities
+                            .getOrDefault(teacher.getUuid(), Collections.emptyMap())
+                            .getOrDefault(day, Collections.emptyList());
+                    if (!fitsInOneWindow(dayAvailabilities, run)) continue;
+
+                    for (LearningSpaceEntity space : freeSpaces) {
+                        boolean specialtyMatch = preferredSpecialtyUuid != null && space.getSpecialty() != null
+                                && preferredSpecialtyUuid.equals(space.getSpecialty().getUuid());
+                        totalPlacements++;
+                        Candidate candidate = new Candidate(day, run, teacher, teacherLoads.get(teacher.getUuid()),
+                                space, specialtyMatch);
+                        if (best.size() < limit) {
+                            best.add(candidate);
+                        } else if (CANDIDATE_ORDER.compare(candidate, best.peek()) < 0) {
+                            best.poll();
+                            best.add(candidate);
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Candidate> candidates = new ArrayList<>(best);
+        candidates.sort(CANDIDATE_ORDER);
+
+        List<ClassSessionPlacementDTO> placements = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            placements.add(toDto(i + 1, candidates.get(i)));
+        }
+
+        return ClassSessionPlacementResultDTO.builder()
+                .courseUuid(courseUuid)
+                .studentGroupUuid(studentGroupUuid)
+                .sessionTypeUuid(sessionType.getUuid())
+                .blockLength(blockLength)
+                .totalPlacements(totalPlacements)
+                .elapsedMs((System.nanoTime() - startedAt) / 1_000_000)
+                .placements(placements)
+                .build();
+    }
+
+    private TeachingTypeEntity resolveSessionType(CourseEntity course, UUID sessionTypeUuid) {
+        if (sessionTypeUuid != null) {
+            TeachingTypeEntity sessionType = teachingTypeService.findTeachingTypeOrThrow(sessionTypeUuid);
+            boolean supported = course.getTeachingTypes().stream()
+                    .anyMatch(type -> type.getUuid().equals(sessionType.getUuid()));
+            if (!supported) {
+                throw new IllegalArgumentException("El tipo de sesión no es compatible con el curso seleccionado");
+            }
+            return sessionType;
+        }
+        if (course.getTeachingTypes().size() != 1) {
+            throw new IllegalArgumentException("El curso tiene varios tipos de sesión; indique cuál se desea ubicar");
+        }
+        return course.getTeachingTypes().iterator().next();
+    }
+
+    /**
+     * Bloques de {@code length} horas consecutivas dentro de un mismo turno.
+     */
+    private List<HourRun> consecutiveRuns(List<TeachingHourEntity> orderedHours, int length) {
+        Map<UUID, List<TeachingHourEntity>> hoursBySlot = orderedHours.stream()
+                .collect(Collectors.groupingBy(hour -> hour.getTimeSlot().getUuid(), LinkedHashMap::new, Collectors.toList()));
+
+        List<HourRun> runs = new ArrayList<>();
+        for (List<TeachingHourEntity> slotHours : hoursBySlot.values()) {
+            for (int start = 0; start + length <= slotHours.size(); start++) {
+                List<TeachingHourEntity> block = slotHours.subList(start, start + length);
+                boolean consecutive = true;
+                for (int i = 1; i < block.size(); i++) {
+                    if (block.get(i).getOrderInTimeSlot() != block.get(i - 1).getOrderInTimeSlot() + 1) {
+                        consecutive = false;
+                        break;
+                    }
+                }
+                if (!consecutive) continue;
+
+                List<UUID> hourUuids = block.stream().map(TeachingHourEntity::getUuid).toList();
+                runs.add(new HourRun(
+                        block.get(0).getTimeSlot().getUuid(),
+                        block.get(0).getTimeSlot().getName(),
+                        hourUuids,
+                        occupancyIndex.toHourBits(hourUuids),
+                        block.get(0).getStartTime(),
+                        block.get(block.size() - 1).getEndTime()));
+            }
+        }
+        return runs;
+    }
+
+    private int assignedHours(UUID periodUuid, UUID teacherUuid) {
+        int hours = 0;
+        for (DayOfWeek day : DayOfWeek.values()) {
+            hours += occupancyIndex.occupiedHours(periodUuid, teacherUuid, null, null, day).cardinality();
+        }
+        return hours;
+    }
+
+    // Misma regla que la creación de sesiones: el bloque completo cabe en una sola ventana
+    private boolean fitsInOneWindow(List<TeacherAvailabilityEntity> availabilities, HourRun run) {
+        for (TeacherAvailabilityEntity availability : availabilities) {
+            if (!availability.getStartTime().isAfter(run.startTime()) && !availability.getEndTime().isBefore(run.endTime())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ClassSessionPlacementDTO toDto(int rank, Candidate candidate) {
+        return ClassSessionPlacementDTO.builder()
+                .rank(rank)
+                .dayOfWeek(candidate.day())
+                .timeSlotUuid(candidate.run().timeSlotUuid())
+                .timeSlotName(candidate.run().timeSlotName())
+                .teachingHourUuids(candidate.run().hourUuids())
+                .startTime(candidate.run().startTime())
+                .endTime(candidate.run().endTime())
+                .teacherUuid(candidate.teacher().getUuid())
+                .teacherName(candidate.teacher().getFullName())
+                .teacherAssignedHours(candidate.teacherLoad())
+                .learningSpaceUuid(candidate.space().getUuid())
+                .learningSpaceName(candidate.space().getName())
+                .learningSpaceCapacity(candidate.space().getCapacity())
+                .specialtyMatch(candidate.specialtyMatch())
+                .build();
+    }
+
+    private record HourRun(UUID timeSlotUuid, String timeSlotName, List<UUID> hourUuids, BitSet hours,
+                           LocalTime startTime, LocalTime endTime) {
+    }
+
+    private record Candidate(DayOfWeek day, HourRun run, TeacherEntity teacher, int teacherLoad,
+                             LearningSpaceEntity space, boolean specialtyMatch) {
+    }
+}
@@ -1,20 +1,40 @@
 package com.pontificia.remashorario.modules.classSession;
 
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionAuditRowDTO;
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionHoursSummaryDTO;
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionOccupancyRowDTO;
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionScheduleRowDTO;
 import com.pontificia.remashorario.modules.learningSpace.LearningSpaceEntity;
-import com.pontificia.remashorario.modules.teachingHour.TeachingHourEntity;
 import com.pontificia.remashorario.utils.abstractBase.BaseRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
 public interface ClassSessionRepository extends BaseRepository<ClassSessionEntity> {
 
+    // Filtro compuesto: cada criterio nulo se ignora, el resto se combinan con AND
+    String FILTER_CONDITIONS =
+            "(:periodUuid IS NULL OR cs.period.uuid = :periodUuid) " +
+            "AND (:studentGroupUuid IS NULL OR cs.studentGroup.uuid = :studentGroupUuid) " +
+            "AND (:courseUuid IS NULL OR cs.course.uuid = :courseUuid) " +
+            "AND (:teacherUuid IS NULL OR cs.teacher.uuid = :teacherUuid) " +
+            "AND (:learningSpaceUuid IS NULL OR cs.learningSpace.uuid = :learningSpaceUuid) " +
+            "AND (:dayOfWeek IS NULL OR cs.dayOfWeek = :dayOfWeek) " +
+            "AND (:cycleUuid IS NULL OR cs.studentGroup.cycle.uuid = :cycleUuid) " +
+            "AND (:careerUuid IS NULL OR cs.studentGroup.cycle.career.uuid = :careerUuid) " +
+            "AND (:sessionTypeUuid IS NULL OR cs.sessionType.uuid = :sessionTypeUuid)";
+
     @Query(value = """
     SELECT cs.* FROM class_session cs 
     WHERE cs.day_of_week = :dayOfWeek 
@@ -71,17 +91,28 @@ public interface ClassSessionRepository extends BaseRepository<ClassSessionEntit
             @Param("dayOfWeek") String dayOfWeek,
             @Param("teachingHourUuids") List<String> teachingHourUuids);
 
-
-    List<ClassSessionEntity> findByDayOfWeekAndTeachingHoursContaining(DayOfWeek dayOfWeek, TeachingHourEntity teachingHour);
+    /**
+     * Cuáles de las horas indicadas tienen alguna clase ese día, en el periodo o en todos si es nulo.
+     */
+    @Query("SELECT DISTINCT th.uuid FROM ClassSessionEntity cs JOIN cs.teachingHours th " +
+            "WHERE cs.dayOfWeek = :dayOfWeek " +
+            "AND th.uuid IN :teachingHourUuids " +
+            "AND (:periodUuid IS NULL OR cs.period.uuid = :periodUuid)")
+    Set<UUID> findOccupiedTeachingHourUuids(@Param("dayOfWeek") DayOfWeek dayOfWeek,
+                                            @Param("teachingHourUuids") Collection<UUID> teachingHourUuids,
+                                            @Param("periodUuid") UUID periodUuid);
 
 
-    // ✅ NUEVOS MÉTODOS con filtro de periodo
+    // ✅ NUEVOS MÉTODOS con filtro de periodo (cargan el grafo que necesita el mapper)
+    @EntityGraph(ClassSessionEntity.RESPONSE_GRAPH)
     @Query("SELECT cs FROM ClassSessionEntity cs WHERE cs.studentGroup.uuid = :studentGroupUuid AND cs.period.uuid = :periodUuid")
     List<ClassSessionEntity> findByStudentGroupUuidAndPeriod(@Param("studentGroupUuid") UUID studentGroupUuid, @Param("periodUuid") UUID periodUuid);
 
+    @EntityGraph(ClassSessionEntity.RESPONSE_GRAPH)
     @Query("SELECT cs FROM ClassSessionEntity cs WHERE cs.teacher.uuid = :teacherUuid AND cs.period.uuid = :periodUuid")
     List<ClassSessionEntity> findByTeacherUuidAndPeriod(@Param("teacherUuid") UUID teacherUuid, @Param("periodUuid") UUID periodUuid);
 
+    @EntityGraph(ClassSessionEntity.RESPONSE_GRAPH)
     @Query("SELECT cs FROM ClassSessionEntity cs WHERE cs.period.uuid = :periodUuid")
     List<ClassSessionEntity> findByPeriod(@Param("periodUuid") UUID periodUuid);
 
@@ -101,6 +132,10 @@ public interface ClassSessionRepository extends BaseRepository<ClassSessionEntit
     // Buscar sesiones por docente y día
     List<ClassSessionEntity> findByTeacherUuidAndDayOfWeek(UUID teacherUuid, DayOfWeek dayOfWeek);
 
+    // Sesiones del día de varios docentes con lo necesario para describir conflictos
+    @EntityGraph(attributePaths = {"course", "studentGroup", "learningSpace", "sessionType", "teachingHours"})
+    List<ClassSessionEntity> findByTeacherUuidInAndDayOfWeek(Collection<UUID> teacherUuids, DayOfWeek dayOfWeek);
+
     // Buscar sesiones por grupo y día
     List<ClassSessionEntity> findByStudentGroupUuidAndDayOfWeek(UUID studentGroupUuid, DayOfWeek dayOfWeek);
 
@@ -153,15 +188,129 @@ public interface ClassSessionRepository extends BaseRepository<ClassSessionEntit
             @Param("teachingHourUuids") List<UUID> teachingHourUuids);
 
     // Buscar por ciclo (útil para reportes)
+    @EntityGraph(ClassSessionEntity.RESPONSE_GRAPH)
     @Query("SELECT cs FROM ClassSessionEntity cs " +
             "WHERE cs.studentGroup.cycle.uuid = :cycleUuid")
     List<ClassSessionEntity> findByCycleUuid(@Param("cycleUuid") UUID cycleUuid);
 
     // Buscar por carrera
+    @EntityGraph(ClassSessionEntity.RESPONSE_GRAPH)
     @Query("SELECT cs FROM ClassSessionEntity cs " +
             "WHERE cs.studentGroup.cycle.career.uuid = :careerUuid")
     List<ClassSessionEntity> findByCareerUuid(@Param("careerUuid") UUID careerUuid);
 
+    @EntityGraph(ClassSessionEntity.RESPONSE_GRAPH)
+    @Query("SELECT cs FROM ClassSessionEntity cs WHERE " + FILTER_CONDITIONS + " ORDER BY cs.uuid")
+    List<ClassSessionEntity> findByFilters(@Param("periodUuid") UUID periodUuid,
+                                           @Param("studentGroupUuid") UUID studentGroupUuid,
+                                           @Param("courseUuid") UUID courseUuid,
+                                           @Param("teacherUuid") UUID teacherUuid,
+                                           @Param("learningSpaceUuid") UUID learningSpaceUuid,
+                                           @Param("dayOfWeek") DayOfWeek dayOfWeek,
+                                           @Param("cycleUuid") UUID cycleUuid,
+                                           @Param("careerUuid") UUID careerUuid,
+                                           @Param("sessionTypeUuid") UUID sessionTypeUuid);
+
+    // Paginación por cursor (keyset): solo claves, sin colecciones, para que el límite se aplique en SQL
+    @Query("SELECT cs.uuid FROM ClassSessionEntity cs WHERE " + FILTER_CONDITIONS +
+            " AND (:afterUuid IS NULL OR cs.uuid > :afterUuid) ORDER BY cs.uuid")
+    List<UUID> findUuidsByFiltersAfter(@Param("periodUuid") UUID periodUuid,
+                                       @Param("studentGroupUuid") UUID studentGroupUuid,
+                                       @Param("courseUuid") UUID courseUuid,
+                                       @Param("teacherUuid") UUID teacherUuid,
+                                       @Param("learningSpaceUuid") UUID learningSpaceUuid,
+                                       @Param("dayOfWeek") DayOfWeek dayOfWeek,
+                                       @Param("cycleUuid") UUID cycleUuid,
+                                       @Param("careerUuid") UUID careerUuid,
+                                       @Param("sessionTypeUuid") UUID sessionTypeUuid,
+                                       @Param("afterUuid") UUID afterUuid,
+                                       Pageable pageable);
+
+    @EntityGraph(ClassSessionEntity.RESPONSE_GRAPH)
+    @Query("SELECT cs FROM ClassSessionEntity cs WHERE cs.uuid IN :uuids ORDER BY cs.uuid")
+    List<ClassSessionEntity> findAllWithResponseGraphByUuidIn(@Param("uuids") Collection<UUID> uuids);
+
+    // Sesiones con curso y docente cargados (mensajes de conflicto)
+    @Query("SELECT cs FROM ClassSessionEntity cs " +
+            "JOIN FETCH cs.course " +
+            "JOIN FETCH cs.teacher " +
+            "WHERE cs.uuid IN :uuids")
+    List<ClassSessionEntity> findAllWithCourseAndTeacherByUuidIn(@Param("uuids") Collection<UUID> uuids);
+
+    // Sesiones actuales (del periodo de su grupo) de varios grupos, para reemplazos masivos
+    @Query("SELECT cs FROM ClassSessionEntity cs " +
+            "WHERE cs.studentGroup.uuid IN :studentGroupUuids " +
+            "AND cs.period.uuid = cs.studentGroup.period.uuid")
+    List<ClassSessionEntity> findCurrentByStudentGroupUuidIn(@Param("studentGroupUuids") Collection<UUID> studentGroupUuids);
+
+    // Filas planas (sesión, recursos, día, hora) de un periodo para el índice de ocupación
+    @Query("SELECT new com.pontificia.remashorario.modules.classSession.dto.ClassSessionOccupancyRowDTO(" +
+            "cs.uuid, cs.teacher.uuid, cs.learningSpace.uuid, cs.studentGroup.uuid, cs.dayOfWeek, th.uuid) " +
+            "FROM ClassSessionEntity cs " +
+            "JOIN cs.teachingHours th " +
+            "WHERE cs.period.uuid = :periodUuid")
+    List<ClassSessionOccupancyRowDTO> findOccupancyRowsByPeriod(@Param("periodUuid") UUID periodUuid);
+
+    // Filas planas con nombres, tipos y horas de todas las sesiones de un periodo (auditoría)
+    @Query("SELECT new com.pontificia.remashorario.modules.classSession.dto.ClassSessionAuditRowDTO(" +
+            "cs.uuid, c.name, t.uuid, t.fullName, ls.uuid, ls.name, lst.uuid, lst.name, " +
+            "sg.uuid, sg.name, st.uuid, st.name, cs.dayOfWeek, " +
+            "th.uuid, th.startTime, th.endTime, th.orderInTimeSlot, ts.uuid) " +
+            "FROM ClassSessionEntity cs " +
+            "JOIN cs.course c " +
+            "JOIN cs.teacher t " +
+            "JOIN cs.learningSpace ls " +
+            "LEFT JOIN ls.typeUUID lst " +
+            "JOIN cs.studentGroup sg " +
+            "JOIN cs.sessionType st " +
+            "JOIN cs.teachingHours th " +
+            "JOIN th.timeSlot ts " +
+            "WHERE cs.period.uuid = :periodUuid")
+    List<ClassSessionAuditRowDTO> findAuditRowsByPeriod(@Param("periodUuid") UUID periodUuid);
+
+    // Filas de horario de las sesiones de varios docentes cuyo periodo se cruza con el rango de fechas
+    @Query("SELECT new com.pontificia.remashorario.modules.classSession.dto.ClassSessionScheduleRowDTO(" +
+            "cs.uuid, cs.teacher.uuid, cs.dayOfWeek, p.startDate, p.endDate, th.startTime, th.endTime, th.durationMinutes) " +
+            "FROM ClassSessionEntity cs " +
+            "JOIN cs.period p " +
+            "JOIN cs.teachingHours th " +
+            "WHERE cs.teacher.uuid IN :teacherUuids " +
+            "AND p.startDate <= :endDate AND p.endDate >= :startDate")
+    List<ClassSessionScheduleRowDTO> findScheduleRowsByTeachersAndDateRange(
+            @Param("teacherUuids") Collection<UUID> teacherUuids,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    // Filas de horario de todas las sesiones de un periodo
+    @Query("SELECT new com.pontificia.remashorario.modules.classSession.dto.ClassSessionScheduleRowDTO(" +
+            "cs.uuid, cs.teacher.uuid, cs.dayOfWeek, p.startDate, p.endDate, th.startTime, th.endTime, th.durationMinutes) " +
+            "FROM ClassSessionEntity cs " +
+            "JOIN cs.period p " +
+            "JOIN cs.teachingHours th " +
+            "WHERE p.uuid = :periodUuid")
+    List<ClassSessionScheduleRowDTO> findScheduleRowsByPeriod(@Param("periodUuid") UUID periodUuid);
+
+    // Filas de horario de las sesiones que se dictan en una fecha (día de la semana y periodo vigente)
+    @Query("SELECT new com.pontificia.remashorario.modules.classSession.dto.ClassSessionScheduleRowDTO(" +
+            "cs.uuid, cs.teacher.uuid, cs.dayOfWeek, p.startDate, p.endDate, th.startTime, th.endTime, th.durationMinutes) " +
+            "FROM ClassSessionEntity cs " +
+            "JOIN cs.period p " +
+            "JOIN cs.teachingHours th " +
+            "WHERE cs.dayOfWeek = :dayOfWeek " +
+            "AND p.startDate <= :date AND p.endDate >= :date")
+    List<ClassSessionScheduleRowDTO> findScheduleRowsByDate(
+            @Param("dayOfWeek") DayOfWeek dayOfWeek,
+            @Param("date") LocalDate date);
+
+    // Horas ya programadas por grupo, curso y tipo de sesión en un periodo
+    @Query("SELECT new com.pontificia.remashorario.modules.classSession.dto.ClassSessionHoursSummaryDTO(" +
+            "cs.studentGroup.uuid, cs.course.uuid, cs.sessionType.uuid, COUNT(th)) " +
+            "FROM ClassSessionEntity cs " +
+            "JOIN cs.teachingHours th " +
+            "WHERE cs.period.uuid = :periodUuid " +
+            "GROUP BY cs.studentGroup.uuid, cs.course.uuid, cs.sessionType.uuid")
+    List<ClassSessionHoursSummaryDTO> findScheduledHoursByPeriod(@Param("periodUuid") UUID periodUuid);
+
     // Contar horas asignadas por curso
     @Query("SELECT COUNT(th) FROM ClassSessionEntity cs " +
             "JOIN cs.teachingHours th " +
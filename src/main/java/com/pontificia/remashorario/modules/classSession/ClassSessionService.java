@@ -1,5 +1,6 @@
 package com.pontificia.remashorario.modules.classSession;
 
+import com.pontificia.remashorario.modules.TimeSlot.TimeSlotCatalog;
 import com.pontificia.remashorario.modules.TimeSlot.TimeSlotService;
 import com.pontificia.remashorario.modules.classSession.dto.*;
 import com.pontificia.remashorario.modules.classSession.mapper.ClassSessionMapper;
@@ -13,26 +14,32 @@ import com.pontificia.remashorario.modules.studentGroup.StudentGroupService;
 import com.pontificia.remashorario.modules.teacher.TeacherEntity;
 import com.pontificia.remashorario.modules.teacher.TeacherService;
 import com.pontificia.remashorario.modules.teacher.mapper.TeacherMapper;
-import com.pontificia.remashorario.modules.teacherAvailability.TeacherAvailabilityEntity;
-import com.pontificia.remashorario.modules.teacherAvailability.TeacherAvailabilityRepository;
+import com.pontificia.remashorario.modules.teacherAvailability.TeacherAvailabilityBitmap;
 import com.pontificia.remashorario.modules.teacherAvailability.TeacherAvailabilityService;
 import com.pontificia.remashorario.modules.teachingHour.TeachingHourEntity;
-import com.pontificia.remashorario.modules.teachingHour.TeachingHourRepository;
 import com.pontificia.remashorario.modules.teachingHour.TeachingHourService;
 import com.pontificia.remashorario.modules.teachingHour.mapper.TeachingHourMapper;
 import com.pontificia.remashorario.modules.teachingType.TeachingTypeEntity;
 import com.pontificia.remashorario.modules.teachingType.TeachingTypeService;
 import com.pontificia.remashorario.utils.abstractBase.BaseService;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.DayOfWeek;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class ClassSessionService extends BaseService<ClassSessionEntity> {
 
@@ -44,8 +51,7 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
     private final LearningSpaceService learningSpaceService;
     private final TeachingTypeService teachingTypeService;
     private final TeacherAvailabilityService teacherAvailabilityService;
-    private final TeacherAvailabilityRepository teacherAvailabilityRepository;
-    private final TeachingHourRepository teachingHourRepository;
+    private final TimeSlotCatalog timeSlotCatalog;
     private final TeachingHourService teachingHourService;
 
     // Mappers necesarios
@@ -53,6 +59,16 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
     private final LearningSpaceMapper learningSpaceMapper;
     private final TeachingHourMapper teachingHourMapper;
     private final TimeSlotService timeSlotService;
+    private final ClassSessionOccupancyIndex occupancyIndex;
+    private final ClassSessionBatchLoader batchLoader;
+    private final ClassSessionGridCache gridCache;
+    private final ClassSessionBookingLocks bookingLocks;
+
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int STREAM_CHUNK_SIZE = 200;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
     public ClassSessionService(ClassSessionRepository classSessionRepository,
@@ -63,12 +79,15 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
                                LearningSpaceService learningSpaceService,
                                TeachingTypeService teachingTypeService,
                                TeacherAvailabilityService teacherAvailabilityService,
-                               TeacherAvailabilityRepository teacherAvailabilityRepository,
-                               TeachingHourRepository teachingHourRepository,
+                               TimeSlotCatalog timeSlotCatalog,
                                TeachingHourService teachingHourService,
                                TeacherMapper teacherMapper,
                                LearningSpaceMapper learningSpaceMapper,
-                               TeachingHourMapper teachingHourMapper, TimeSlotService timeSlotService) {
+                               TeachingHourMapper teachingHourMapper, TimeSlotService timeSlotService,
+                               ClassSessionOccupancyIndex occupancyIndex,
+                               ClassSessionBatchLoader batchLoader,
+                               ClassSessionGridCache gridCache,
+                               ClassSessionBookingLocks bookingLocks) {
         super(classSessionRepository);
         this.classSessionRepository = classSessionRepository;
         this.classSessionMapper = classSessionMapper;
@@ -78,18 +97,74 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
         this.learningSpaceService = learningSpaceService;
         this.teachingTypeService = teachingTypeService;
         this.teacherAvailabilityService = teacherAvailabilityService;
-        this.teacherAvailabilityRepository = teacherAvailabilityRepository;
-        this.teachingHourRepository = teachingHourRepository;
+        this.timeSlotCatalog = timeSlotCatalog;
         this.teachingHourService = teachingHourService;
         this.teacherMapper = teacherMapper;
         this.learningSpaceMapper = learningSpaceMapper;
         this.teachingHourMapper = teachingHourMapper;
         this.timeSlotService = timeSlotService;
+        this.occupancyIndex = occupancyIndex;
+        this.batchLoader = batchLoader;
+        this.gridCache = gridCache;
+        this.bookingLocks = bookingLocks;
     }
 
     public List<ClassSessionResponseDTO> getAllClassSessions() {
-        List<ClassSessionEntity> sessions = findAll();
-        return classSessionMapper.toResponseDTOList(sessions);
+        return filterClassSessions(new ClassSessionFilterDTO());
+    }
+
+    public ClassSessionPageDTO getClassSessionPage(ClassSessionFilterDTO filters, UUID cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + MAX_PAGE_SIZE);
+        }
+
+        // Se pide una clave de más para saber si hay otra página sin contar el total
+        List<UUID> uuids = findUuidsAfter(filters, cursor, size + 1);
+        boolean hasMore = uuids.size() > size;
+        if (hasMore) {
+            uuids = uuids.subList(0, size);
+        }
+
+        List<ClassSessionResponseDTO> items = uuids.isEmpty()
+                ? List.of()
+                : classSessionMapper.toResponseDTOList(classSessionRepository.findAllWithResponseGraphByUuidIn(uuids));
+
+        return ClassSessionPageDTO.builder()
+                .items(items)
+                .size(items.size())
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? uuids.get(uuids.size() - 1) : null)
+                .build();
+    }
+
+    /**
+     * Recorre todas las sesiones del filtro por bloques de clave y entrega cada DTO al consumidor
+     * apenas se mapea. El contexto de persistencia se limpia tras cada bloque, así la memoria
+     * no crece con el tamaño del periodo.
+     */
+    @Transactional
+    public void streamClassSessions(ClassSessionFilterDTO filters, Consumer<ClassSessionResponseDTO> consumer) {
+        UUID cursor = null;
+        List<UUID> uuids;
+        do {
+            uuids = findUuidsAfter(filters, cursor, STREAM_CHUNK_SIZE);
+            if (uuids.isEmpty()) break;
+
+            classSessionRepository.findAllWithResponseGraphByUuidIn(uuids).stream()
+                    .map(classSessionMapper::toResponseDTO)
+                    .forEach(consumer);
+
+            cursor = uuids.get(uuids.size() - 1);
+            entityManager.clear();
+        } while (uuids.size() == STREAM_CHUNK_SIZE);
+    }
+
+    private List<UUID> findUuidsAfter(ClassSessionFilterDTO filters, UUID cursor, int limit) {
+        return classSessionRepository.findUuidsByFiltersAfter(
+                filters.getPeriodUuid(), filters.getStudentGroupUuid(), filters.getCourseUuid(),
+                filters.getTeacherUuid(), filters.getLearningSpaceUuid(), filters.getDayOfWeek(),
+                filters.getCycleUuid(), filters.getCareerUuid(), filters.getSessionTypeUuid(),
+                cursor, PageRequest.of(0, limit));
     }
 
     public ClassSessionResponseDTO getClassSessionById(UUID uuid) {
@@ -130,8 +205,9 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
 
         // Si se proporciona día y turno, filtrar horas disponibles
         if (dayOfWeek != null && timeSlotUuid != null) {
+            // Con grupo, las horas libres son las del grupo en su periodo
             List<TeachingHourEntity> availableHours = timeSlotService.getAvailableHoursByTimeSlot(
-                    timeSlotUuid, dayOfWeek);
+                    timeSlotUuid, null, null, null, groupUuid, dayOfWeek);
             intelliSense.setAvailableHours(teachingHourMapper.toResponseDTOList(availableHours));
         }
 
@@ -147,12 +223,6 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
 
 
     public ValidationResultDTO validateAssignmentInRealTime(ClassSessionValidationDTO dto, UUID excludeSessionUuid) {
-        List<String> errors = new ArrayList<>();
-        List<String> warnings = new ArrayList<>();
-        List<String> suggestions = new ArrayList<>();
-        String conflictType = null;
-        String severity = "LOW";
-
         try {
             // Obtener entidades
             CourseEntity course = courseService.findCourseOrThrow(dto.getCourseUuid());
@@ -164,94 +234,203 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
             // ✅ OBTENER EL TIPO DE SESIÓN ACTUAL (no del curso)
             TeachingTypeEntity sessionType = teachingTypeService.findTeachingTypeOrThrow(dto.getSessionTypeUuid());
 
-            System.out.println("=== VALIDATION DEBUG ===");
-            System.out.println("Session Type UUID: " + dto.getSessionTypeUuid());
-            System.out.println("Session Type: " + sessionType.getName());
-            System.out.println("Learning Space Type: " + space.getTypeUUID().getName());
-            System.out.println("Course supported types: " + course.getTeachingTypes().stream()
-                    .map(tt -> tt.getName().name()).collect(Collectors.toList()));
-
-            // Validar compatibilidad docente-curso
-            if (!teacher.getKnowledgeAreas().contains(course.getTeachingKnowledgeArea())) {
-                warnings.add("El docente no tiene el área de conocimiento específica del curso");
-                suggestions.add("Considerar asignar un docente especializado en " + course.getTeachingKnowledgeArea().getName());
-            }
+            DayOfWeek dayOfWeek = DayOfWeek.valueOf(dto.getDayOfWeek().toUpperCase());
+            TeacherAvailabilityBitmap availability = teacherAvailabilityService
+                    .getAvailabilityBitmaps(List.of(teacher.getUuid()))
+                    .getOrDefault(teacher.getUuid(), TeacherAvailabilityBitmap.EMPTY);
 
-            // Validar disponibilidad del docente
-            boolean teacherAvailable = validateTeacherAvailabilityForDay(teacher, dto.getDayOfWeek(), hours);
-            if (!teacherAvailable) {
-                errors.add("El docente no está disponible en este horario");
-                conflictType = "TEACHER";
-                severity = "HIGH";
-            }
+            // Verificar conflictos excluyendo la sesión actual (índice en memoria del periodo del grupo)
+            ClassSessionOccupancyIndex.Conflicts conflicts = occupancyIndex.findConflicts(
+                    group.getPeriod().getUuid(), teacher.getUuid(), space.getUuid(), group.getUuid(),
+                    dayOfWeek, dto.getTeachingHourUuids(), excludeSessionUuid);
 
-            // Validar capacidad del aula
-            if (space.getCapacity() < 25) {
-                warnings.add("El aula podría ser pequeña para el grupo");
-                suggestions.add("Considerar un aula con mayor capacidad");
-            }
+            return evaluateAssignment(course, teacher, space, hours, sessionType, dayOfWeek, availability,
+                    conflicts, null, loadConflictingSessions(conflicts.getAllSessionUuids()));
+        } catch (Exception e) {
+            log.warn("Error en la validación de la asignación", e);
+            return validationError(e);
+        }
+    }
 
-            // ✅ CORRECCIÓN PRINCIPAL: Validar tipo de aula vs tipo de SESIÓN (no curso)
-            if (!sessionType.getName().equals(space.getTypeUUID().getName())) {
-                // Solo generar warning/error si hay incompatibilidad real
-                String sessionTypeName = sessionType.getName().name();
-                String spaceTypeName = space.getTypeUUID().getName().name();
-
-                System.out.println("Session type: " + sessionTypeName + ", Space type: " + spaceTypeName);
-
-                if (sessionTypeName.equals("PRACTICE") && spaceTypeName.equals("THEORY")) {
-                    warnings.add("Sesión práctica asignada a aula teórica");
-                    suggestions.add("Recomendado: Usar un laboratorio para mejor experiencia de aprendizaje");
-                    if (severity.equals("LOW")) severity = "MEDIUM";
-                } else if (sessionTypeName.equals("THEORY") && spaceTypeName.equals("PRACTICE")) {
-                    // Esto es menos crítico - una clase teórica en laboratorio está bien
-                    suggestions.add("Clase teórica en laboratorio - está bien, pero un aula tradicional podría ser más apropiada");
-                }
+    /**
+     * Valida un lote de asignaciones candidatas. Todas las entidades y disponibilidades
+     * referenciadas se cargan en bloque, y cada fila se compara tanto con las sesiones
+     * persistidas como con las demás filas del mismo lote: las dos filas de un choque se marcan.
+     */
+    @Transactional
+    public List<ValidationResultDTO> validateAssignmentsInBatch(List<ClassSessionValidationDTO> dtos) {
+        ClassSessionBatchLoader.BatchContext context = batchLoader.load(
+                dtos.stream().map(ClassSessionValidationDTO::getCourseUuid).toList(),
+                dtos.stream().map(ClassSessionValidationDTO::getTeacherUuid).toList(),
+                dtos.stream().map(ClassSessionValidationDTO::getLearningSpaceUuid).toList(),
+                dtos.stream().map(ClassSessionValidationDTO::getStudentGroupUuid).toList(),
+                dtos.stream().map(ClassSessionValidationDTO::getSessionTypeUuid).toList(),
+                dtos.stream()
+                        .map(ClassSessionValidationDTO::getTeachingHourUuids)
+                        .filter(Objects::nonNull)
+                        .flatMap(List::stream)
+                        .toList());
+
+        // Disponibilidades como bitmaps, la misma regla que al crear la sesión
+        Map<UUID, TeacherAvailabilityBitmap> availabilityBitmaps = teacherAvailabilityService.getAvailabilityBitmaps(
+                dtos.stream().map(ClassSessionValidationDTO::getTeacherUuid).filter(Objects::nonNull).collect(Collectors.toSet()));
+
+        ClassSessionBatchOccupancy batchOccupancy = new ClassSessionBatchOccupancy();
+        List<BatchRow> rows = new ArrayList<>();
+        Set<UUID> conflictingSessionUuids = new HashSet<>();
+
+        // Primera pasada: resolver entidades y conflictos (contra la base y contra el propio lote)
+        for (int i = 0; i < dtos.size(); i++) {
+            ClassSessionValidationDTO dto = dtos.get(i);
+            BatchRow row = new BatchRow();
+            rows.add(row);
+            try {
+                row.course = context.course(dto.getCourseUuid());
+                row.teacher = context.teacher(dto.getTeacherUuid());
+                row.space = context.space(dto.getLearningSpaceUuid());
+                row.group = context.group(dto.getStudentGroupUuid());
+                row.hours = getAndValidateTeachingHours(dto.getTeachingHourUuids(), context::teachingHour);
+                row.sessionType = context.sessionType(dto.getSessionTypeUuid());
+
+                DayOfWeek dayOfWeek = DayOfWeek.valueOf(dto.getDayOfWeek().toUpperCase());
+                UUID periodUuid = row.group.getPeriod().getUuid();
+                BitSet hourBits = occupancyIndex.toHourBits(dto.getTeachingHourUuids());
+
+                row.dayOfWeek = dayOfWeek;
+                row.periodUuid = periodUuid;
+                row.hourBits = hourBits;
+                row.availability = availabilityBitmaps.getOrDefault(row.teacher.getUuid(), TeacherAvailabilityBitmap.EMPTY);
+                row.conflicts = occupancyIndex.findConflicts(
+                        periodUuid, row.teacher.getUuid(), row.space.getUuid(), row.group.getUuid(),
+                        dayOfWeek, dto.getTeachingHourUuids(), dto.getExcludeSessionUuid());
+
+                batchOccupancy.claim(i, periodUuid, row.teacher.getUuid(), row.space.getUuid(), row.group.getUuid(),
+                        dayOfWeek, hourBits);
+                conflictingSessionUuids.addAll(row.conflicts.getAllSessionUuids());
+            } catch (Exception e) {
+                row.error = e;
             }
+        }
 
-            // ✅ VERIFICAR QUE EL CURSO SOPORTE EL TIPO DE SESIÓN SELECCIONADO
-            boolean courseSupportsSessionType = course.getTeachingTypes().stream()
-                    .anyMatch(type -> type.getName().equals(sessionType.getName()));
-
-            if (!courseSupportsSessionType) {
-                errors.add("El curso no soporta el tipo de sesión seleccionado");
-                severity = "CRITICAL";
+        // Segunda pasada: reglas de negocio con los nombres de las sesiones en conflicto ya cargados
+        Map<UUID, ClassSessionEntity> conflictingSessions = loadConflictingSessions(conflictingSessionUuids);
+        List<ValidationResultDTO> results = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            BatchRow row = rows.get(i);
+            if (row.error != null) {
+                results.add(validationError(row.error));
+                continue;
             }
+            // Con todo el lote reclamado, cada fila ve tanto las anteriores como las posteriores
+            row.rowConflicts = batchOccupancy.conflictsExcept(i,
+                    row.periodUuid, row.teacher.getUuid(), row.space.getUuid(), row.group.getUuid(),
+                    row.dayOfWeek, row.hourBits);
+            results.add(evaluateAssignment(row.course, row.teacher, row.space, row.hours, row.sessionType,
+                    row.dayOfWeek, row.availability, row.conflicts, row.rowConflicts, conflictingSessions));
+        }
+        return results;
+    }
+
+    private ValidationResultDTO evaluateAssignment(CourseEntity course,
+                                                   TeacherEntity teacher,
+                                                   LearningSpaceEntity space,
+                                                   Set<TeachingHourEntity> hours,
+                                                   TeachingTypeEntity sessionType,
+                                                   DayOfWeek dayOfWeek,
+                                                   TeacherAvailabilityBitmap availability,
+                                                   ClassSessionOccupancyIndex.Conflicts conflicts,
+                                                   ClassSessionBatchOccupancy.RowConflicts rowConflicts,
+                                                   Map<UUID, ClassSessionEntity> conflictingSessions) {
+        List<String> errors = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+        List<String> suggestions = new ArrayList<>();
+        String conflictType = null;
+        String severity = "LOW";
 
-            // Verificar conflictos excluyendo la sesión actual
-            List<ClassSessionEntity> conflicts = findConflictsForAssignment(
-                    teacher.getUuid(), space.getUuid(), group.getUuid(),
-                    dto.getDayOfWeek(), hours, excludeSessionUuid);
+        // Validar compatibilidad docente-curso
+        UUID courseAreaUuid = course.getTeachingKnowledgeArea().getUuid();
+        if (teacher.getKnowledgeAreas().stream().noneMatch(area -> area.getUuid().equals(courseAreaUuid))) {
+            warnings.add("El docente no tiene el área de conocimiento específica del curso");
+            suggestions.add("Considerar asignar un docente especializado en " + course.getTeachingKnowledgeArea().getName());
+        }
 
-            if (!conflicts.isEmpty()) {
-                errors.add("Existe conflicto de horario");
-                conflictType = determineConflictType(conflicts, teacher.getUuid(), space.getUuid(), group.getUuid());
-                severity = "CRITICAL";
+        // Validar disponibilidad del docente (misma regla que al crear: el bloque cabe en una sola ventana)
+        LocalTime blockStart = hours.stream().map(TeachingHourEntity::getStartTime).min(LocalTime::compareTo).orElse(null);
+        LocalTime blockEnd = hours.stream().map(TeachingHourEntity::getEndTime).max(LocalTime::compareTo).orElse(null);
+        boolean teacherAvailable = blockStart != null && availability.covers(dayOfWeek, blockStart, blockEnd);
+        if (!teacherAvailable) {
+            errors.add("El docente no está disponible en este horario");
+            conflictType = "TEACHER";
+            severity = "HIGH";
+        }
 
-                conflicts.forEach(conflict -> {
-                    suggestions.add("Conflicto con: " + conflict.getCourse().getName() +
-                            " - " + conflict.getTeacher().getFullName());
-                });
-            }
+        // Validar capacidad del aula
+        if (space.getCapacity() < 25) {
+            warnings.add("El aula podría ser pequeña para el grupo");
+            suggestions.add("Considerar un aula con mayor capacidad");
+        }
 
-            // Validar horas consecutivas
-            if (hours.size() > 1 && !areHoursConsecutive(hours)) {
-                warnings.add("Las horas pedagógicas no son consecutivas");
-                suggestions.add("Recomendado: Asignar horas consecutivas para mejor continuidad");
-            }
+        // ✅ CORRECCIÓN PRINCIPAL: Validar tipo de aula vs tipo de SESIÓN (no curso)
+        if (!sessionType.getName().equals(space.getTypeUUID().getName())) {
+            // Solo generar warning/error si hay incompatibilidad real
+            String sessionTypeName = sessionType.getName().name();
+            String spaceTypeName = space.getTypeUUID().getName().name();
 
-            // Validar duración de la sesión
-            int totalMinutes = hours.stream().mapToInt(TeachingHourEntity::getDurationMinutes).sum();
-            if (totalMinutes > 180) { // Más de 3 horas
-                warnings.add("Sesión muy larga (más de 3 horas)");
-                suggestions.add("Considerar dividir en sesiones más cortas");
+            if (sessionTypeName.equals("PRACTICE") && spaceTypeName.equals("THEORY")) {
+                warnings.add("Sesión práctica asignada a aula teórica");
+                suggestions.add("Recomendado: Usar un laboratorio para mejor experiencia de aprendizaje");
                 if (severity.equals("LOW")) severity = "MEDIUM";
+            } else if (sessionTypeName.equals("THEORY") && spaceTypeName.equals("PRACTICE")) {
+                // Esto es menos crítico - una clase teórica en laboratorio está bien
+                suggestions.add("Clase teórica en laboratorio - está bien, pero un aula tradicional podría ser más apropiada");
             }
+        }
 
-        } catch (Exception e) {
-            errors.add("Error en la validación: " + e.getMessage());
+        // ✅ VERIFICAR QUE EL CURSO SOPORTE EL TIPO DE SESIÓN SELECCIONADO
+        boolean courseSupportsSessionType = course.getTeachingTypes().stream()
+                .anyMatch(type -> type.getName().equals(sessionType.getName()));
+
+        if (!courseSupportsSessionType) {
+            errors.add("El curso no soporta el tipo de sesión seleccionado");
             severity = "CRITICAL";
-            e.printStackTrace();
+        }
+
+        // Conflictos contra sesiones persistidas
+        if (!conflicts.isEmpty()) {
+            errors.add("Existe conflicto de horario");
+            conflictType = conflicts.getConflictType();
+            severity = "CRITICAL";
+
+            conflicts.getAllSessionUuids().stream()
+                    .map(conflictingSessions::get)
+                    .filter(Objects::nonNull)
+                    .forEach(conflict -> suggestions.add("Conflicto con: " + conflict.getCourse().getName() +
+                            " - " + conflict.getTeacher().getFullName()));
+        }
+
+        // Conflictos contra otras filas del mismo lote
+        if (rowConflicts != null && !rowConflicts.isEmpty()) {
+            errors.add("Existe conflicto de horario con otra fila del lote");
+            conflictType = mergeConflictTypes(conflicts, rowConflicts);
+            severity = "CRITICAL";
+
+            rowConflicts.getTeacherRows().forEach(r -> suggestions.add("Conflicto de docente con la fila " + (r + 1)));
+            rowConflicts.getSpaceRows().forEach(r -> suggestions.add("Conflicto de aula con la fila " + (r + 1)));
+            rowConflicts.getGroupRows().forEach(r -> suggestions.add("Conflicto de grupo con la fila " + (r + 1)));
+        }
+
+        // Validar horas consecutivas
+        if (hours.size() > 1 && !areHoursConsecutive(hours)) {
+            warnings.add("Las horas pedagógicas no son consecutivas");
+            suggestions.add("Recomendado: Asignar horas consecutivas para mejor continuidad");
+        }
+
+        // Validar duración de la sesión
+        int totalMinutes = hours.stream().mapToInt(TeachingHourEntity::getDurationMinutes).sum();
+        if (totalMinutes > 180) { // Más de 3 horas
+            warnings.add("Sesión muy larga (más de 3 horas)");
+            suggestions.add("Considerar dividir en sesiones más cortas");
+            if (severity.equals("LOW")) severity = "MEDIUM";
         }
 
         return ValidationResultDTO.builder()
@@ -263,47 +442,55 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
                 .severity(severity)
                 .build();
     }
-    // 2. ✅ NUEVO MÉTODO: findConflictsForAssignment con exclusión
-    private List<ClassSessionEntity> findConflictsForAssignment(
-            UUID teacherUuid, UUID spaceUuid, UUID groupUuid, String dayOfWeek,
-            Set<TeachingHourEntity> hours, UUID excludeSessionUuid) {
-
-        List<ClassSessionEntity> allConflicts = new ArrayList<>();
-
-        for (TeachingHourEntity hour : hours) {
-            // Buscar conflictos separadamente para cada recurso
-
-            // ✅ Conflictos de DOCENTE
-            List<ClassSessionEntity> teacherConflicts = classSessionRepository.findConflicts(
-                    teacherUuid, null, null, // Solo pasar teacherUuid
-                    dayOfWeek.toUpperCase(),
-                    hour.getStartTime().toString(),
-                    hour.getEndTime().toString());
-
-            // ✅ Conflictos de AULA
-            List<ClassSessionEntity> spaceConflicts = classSessionRepository.findConflicts(
-                    null, spaceUuid, null, // Solo pasar spaceUuid
-                    dayOfWeek.toUpperCase(),
-                    hour.getStartTime().toString(),
-                    hour.getEndTime().toString());
-
-            // ✅ Conflictos de GRUPO
-            List<ClassSessionEntity> groupConflicts = classSessionRepository.findConflicts(
-                    null, null, groupUuid, // Solo pasar groupUuid
-                    dayOfWeek.toUpperCase(),
-                    hour.getStartTime().toString(),
-                    hour.getEndTime().toString());
-
-            allConflicts.addAll(teacherConflicts);
-            allConflicts.addAll(spaceConflicts);
-            allConflicts.addAll(groupConflicts);
-        }
-
-        // ✅ Eliminar duplicados y excluir la sesión actual si es edición
-        return allConflicts.stream()
-                .distinct()
-                .filter(session -> excludeSessionUuid == null || !session.getUuid().equals(excludeSessionUuid))
-                .collect(Collectors.toList());
+
+    private ValidationResultDTO validationError(Exception e) {
+        List<String> errors = new ArrayList<>();
+        errors.add("Error en la validación: " + e.getMessage());
+        return ValidationResultDTO.builder()
+                .isValid(false)
+                .errors(errors)
+                .warnings(new ArrayList<>())
+                .suggestions(new ArrayList<>())
+                .severity("CRITICAL")
+                .build();
+    }
+
+    private String mergeConflictTypes(ClassSessionOccupancyIndex.Conflicts conflicts,
+                                      ClassSessionBatchOccupancy.RowConflicts rowConflicts) {
+        boolean teacher = !conflicts.getTeacherSessionUuids().isEmpty() || !rowConflicts.getTeacherRows().isEmpty();
+        boolean space = !conflicts.getSpaceSessionUuids().isEmpty() || !rowConflicts.getSpaceRows().isEmpty();
+        boolean group = !conflicts.getGroupSessionUuids().isEmpty() || !rowConflicts.getGroupRows().isEmpty();
+
+        int conflictCount = (teacher ? 1 : 0) + (space ? 1 : 0) + (group ? 1 : 0);
+        if (conflictCount > 1) return "MULTIPLE";
+        if (teacher) return "TEACHER";
+        if (space) return "SPACE";
+        return "GROUP";
+    }
+
+    private Map<UUID, ClassSessionEntity> loadConflictingSessions(Set<UUID> sessionUuids) {
+        if (sessionUuids.isEmpty()) return Collections.emptyMap();
+        return classSessionRepository.findAllWithCourseAndTeacherByUuidIn(sessionUuids).stream()
+                .collect(Collectors.toMap(ClassSessionEntity::getUuid, session -> session));
+    }
+
+    /**
+     * Estado intermedio de una fila del lote entre la primera y la segunda pasada.
+     */
+    private static final class BatchRow {
+        private CourseEntity course;
+        private TeacherEntity teacher;
+        private LearningSpaceEntity space;
+        private StudentGroupEntity group;
+        private Set<TeachingHourEntity> hours;
+        private TeachingTypeEntity sessionType;
+        private DayOfWeek dayOfWeek;
+        private UUID periodUuid;
+        private BitSet hourBits;
+        private TeacherAvailabilityBitmap availability;
+        private ClassSessionOccupancyIndex.Conflicts conflicts;
+        private ClassSessionBatchOccupancy.RowConflicts rowConflicts;
+        private Exception error;
     }
 
     // 3. ✅ ACTUALIZAR el método checkConflicts para modo edición
@@ -322,20 +509,6 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
                 .build(), excludeSessionUuid);
     }
 
-    private String determineConflictType(List<ClassSessionEntity> conflicts, UUID teacherUuid, UUID spaceUuid, UUID groupUuid) {
-        boolean hasTeacherConflict = conflicts.stream().anyMatch(c -> c.getTeacher().getUuid().equals(teacherUuid));
-        boolean hasSpaceConflict = conflicts.stream().anyMatch(c -> c.getLearningSpace().getUuid().equals(spaceUuid));
-        boolean hasGroupConflict = conflicts.stream().anyMatch(c -> c.getStudentGroup().getUuid().equals(groupUuid));
-
-        int conflictCount = (hasTeacherConflict ? 1 : 0) + (hasSpaceConflict ? 1 : 0) + (hasGroupConflict ? 1 : 0);
-
-        if (conflictCount > 1) return "MULTIPLE";
-        if (hasTeacherConflict) return "TEACHER";
-        if (hasSpaceConflict) return "SPACE";
-        if (hasGroupConflict) return "GROUP";
-        return "UNKNOWN";
-    }
-
     public List<ClassSessionResponseDTO> getSessionsByStudentGroupAndPeriod(UUID groupUuid, UUID periodUuid) {
         List<ClassSessionEntity> sessions = classSessionRepository
                 .findByStudentGroupUuidAndPeriod(groupUuid, periodUuid);
@@ -352,57 +525,21 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
         return classSessionMapper.toResponseDTOList(sessions);
     }
 
-    private List<ClassSessionEntity> findConflictsForAssignment(
-            UUID teacherUuid, UUID spaceUuid, UUID groupUuid, String dayOfWeek, Set<TeachingHourEntity> hours) {
-
-        List<ClassSessionEntity> allConflicts = new ArrayList<>();
-
-        for (TeachingHourEntity hour : hours) {
-            List<ClassSessionEntity> conflicts = classSessionRepository.findConflicts(
-                    teacherUuid, spaceUuid, groupUuid,
-                    dayOfWeek.toUpperCase(),
-                    hour.getStartTime().toString(),
-                    hour.getEndTime().toString());
-            allConflicts.addAll(conflicts);
-        }
-
-        return allConflicts.stream().distinct().collect(Collectors.toList());
+    // Grillas semanales servidas desde memoria (ver ClassSessionGridCache)
+    public ClassSessionGridDTO getStudentGroupGrid(UUID periodUuid, UUID groupUuid) {
+        return gridCache.getGrid(periodUuid, ClassSessionGridCache.ResourceType.GROUP, groupUuid);
     }
 
-    private boolean areHoursConsecutive(Set<TeachingHourEntity> hours) {
-        if (hours.size() <= 1) return true;
-
-        List<TeachingHourEntity> sortedHours = hours.stream()
-                .sorted(Comparator.comparing(TeachingHourEntity::getOrderInTimeSlot))
-                .collect(Collectors.toList());
-
-        for (int i = 1; i < sortedHours.size(); i++) {
-            if (sortedHours.get(i).getOrderInTimeSlot() != sortedHours.get(i-1).getOrderInTimeSlot() + 1) {
-                return false;
-            }
-        }
-        return true;
+    public ClassSessionGridDTO getTeacherGrid(UUID periodUuid, UUID teacherUuid) {
+        return gridCache.getGrid(periodUuid, ClassSessionGridCache.ResourceType.TEACHER, teacherUuid);
     }
 
-    private boolean validateTeacherAvailabilityForDay(TeacherEntity teacher, String dayOfWeek, Set<TeachingHourEntity> hours) {
-        // Obtener disponibilidades del docente para el día específico
-        List<TeacherAvailabilityEntity> availabilities = teacherAvailabilityRepository
-                .findByTeacherAndDayOfWeek(teacher, DayOfWeek.valueOf(dayOfWeek.toUpperCase()));
-
-        if (availabilities.isEmpty()) return false; // No hay disponibilidad registrada
-
-        // Verificar si todas las horas están dentro de la disponibilidad del docente
-        for (TeachingHourEntity hour : hours) {
-            boolean isAvailable = availabilities.stream().anyMatch(availability ->
-                    availability.getIsAvailable() &&
-                            hour.getStartTime().compareTo(availability.getStartTime()) >= 0 &&
-                            hour.getEndTime().compareTo(availability.getEndTime()) <= 0
-            );
-
-            if (!isAvailable) return false;
-        }
+    public ClassSessionGridDTO getLearningSpaceGrid(UUID periodUuid, UUID spaceUuid) {
+        return gridCache.getGrid(periodUuid, ClassSessionGridCache.ResourceType.SPACE, spaceUuid);
+    }
 
-        return true;
+    private boolean areHoursConsecutive(Set<TeachingHourEntity> hours) {
+        return hours.size() <= 1 || timeSlotCatalog.current().consecutive(hours);
     }
 
     @Transactional
@@ -414,6 +551,9 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
         LearningSpaceEntity learningSpace = learningSpaceService.findOrThrow(dto.getLearningSpaceUuid());
         TeachingTypeEntity sessionType = teachingTypeService.findTeachingTypeOrThrow(dto.getSessionTypeUuid());
 
+        // Reservar docente, aula y grupo en ese día antes de comprobar conflictos
+        lockBooking(dto, studentGroup.getPeriod().getUuid());
+
         // Validar que el curso pertenezca al mismo ciclo que el grupo
         validateCourseAndGroup(course, studentGroup);
 
@@ -437,13 +577,173 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
                 dto, studentGroup, course, teacher, learningSpace, sessionType, teachingHours);
         session.setPeriod(studentGroup.getPeriod());
         ClassSessionEntity savedSession = save(session);
+        occupancyIndex.register(savedSession);
+        gridCache.register(savedSession);
 
         return classSessionMapper.toResponseDTO(savedSession);
     }
 
+    /**
+     * Crea (o reemplaza) un conjunto de sesiones en una sola transacción. Todas las filas se
+     * validan contra la base y entre sí; si alguna falla se devuelven los errores por fila y
+     * no se persiste nada. Las inserciones usan el batching JDBC de Hibernate.
+     */
+    @Transactional
+    public ClassSessionBulkResultDTO createClassSessionsInBulk(ClassSessionBulkRequestDTO request) {
+        List<ClassSessionRequestDTO> dtos = request.getSessions();
+
+        ClassSessionBatchLoader.BatchContext context = batchLoader.load(
+                dtos.stream().map(ClassSessionRequestDTO::getCourseUuid).toList(),
+                dtos.stream().map(ClassSessionRequestDTO::getTeacherUuid).toList(),
+                dtos.stream().map(ClassSessionRequestDTO::getLearningSpaceUuid).toList(),
+                dtos.stream().map(ClassSessionRequestDTO::getStudentGroupUuid).toList(),
+                dtos.stream().map(ClassSessionRequestDTO::getSessionTypeUuid).toList(),
+                dtos.stream()
+                        .map(ClassSessionRequestDTO::getTeachingHourUuids)
+                        .filter(Objects::nonNull)
+                        .flatMap(List::stream)
+                        .toList());
+
+        // Reservar de una vez todos los recursos del lote, en el mismo orden que cualquier otra reserva
+        List<ClassSessionBookingLocks.Key> bookingKeys = new ArrayList<>();
+        for (ClassSessionRequestDTO dto : dtos) {
+            StudentGroupEntity group = context.findGroup(dto.getStudentGroupUuid());
+            if (group != null && dto.getDayOfWeek() != null) {
+                bookingKeys.addAll(ClassSessionBookingLocks.sessionKeys(group.getPeriod().getUuid(), dto.getDayOfWeek(),
+                        dto.getTeacherUuid(), dto.getLearningSpaceUuid(), dto.getStudentGroupUuid()));
+            }
+        }
+        bookingLocks.lockUntilCompletion(bookingKeys);
+
+        // Sesiones que se van a reemplazar: no cuentan como conflicto
+        List<ClassSessionEntity> replacedSessions = Collections.emptyList();
+        if (request.isReplaceExisting()) {
+            Set<UUID> groupUuids = dtos.stream()
+                    .map(ClassSessionRequestDTO::getStudentGroupUuid)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            replacedSessions = groupUuids.isEmpty()
+                    ? Collections.emptyList()
+                    : classSessionRepository.findCurrentByStudentGroupUuidIn(groupUuids);
+        }
+        Set<UUID> replacedSessionUuids = replacedSessions.stream()
+                .map(ClassSessionEntity::getUuid)
+                .collect(Collectors.toSet());
+
+        // Disponibilidades de todos los docentes del lote como bitmaps (una consulta para los que no estén en caché)
+        Map<UUID, TeacherAvailabilityBitmap> availabilityBitmaps = teacherAvailabilityService.getAvailabilityBitmaps(
+                dtos.stream().map(ClassSessionRequestDTO::getTeacherUuid).filter(Objects::nonNull).collect(Collectors.toSet()));
+
+        ClassSessionBatchOccupancy batchOccupancy = new ClassSessionBatchOccupancy();
+        List<ClassSessionEntity> newSessions = new ArrayList<>(dtos.size());
+        List<ClassSessionBulkResultDTO.RowError> rowErrors = new ArrayList<>();
+
+        for (int i = 0; i < dtos.size(); i++) {
+            ClassSessionRequestDTO dto = dtos.get(i);
+            List<String> messages = new ArrayList<>();
+            try {
+                StudentGroupEntity studentGroup = context.group(dto.getStudentGroupUuid());
+                CourseEntity course = context.course(dto.getCourseUuid());
+                TeacherEntity teacher = context.teacher(dto.getTeacherUuid());
+                LearningSpaceEntity learningSpace = context.space(dto.getLearningSpaceUuid());
+                TeachingTypeEntity sessionType = context.sessionType(dto.getSessionTypeUuid());
+
+                if (dto.getDayOfWeek() == null) {
+                    throw new IllegalArgumentException("El día de la semana es obligatorio");
+                }
+
+                // Mismas reglas que la creación individual
+                validateCourseAndGroup(course, studentGroup);
+                validateSessionTypeWithCourse(sessionType, course);
+                validateLearningSpaceWithSessionType(learningSpace, sessionType);
+                Set<TeachingHourEntity> teachingHours =
+                        getAndValidateTeachingHours(dto.getTeachingHourUuids(), context::teachingHour);
+                validateTeacherAvailability(teacher, dto.getDayOfWeek(), teachingHours,
+                        availabilityBitmaps.getOrDefault(teacher.getUuid(), TeacherAvailabilityBitmap.EMPTY));
+
+                UUID periodUuid = studentGroup.getPeriod().getUuid();
+                List<UUID> teachingHourUuids = teachingHours.stream().map(TeachingHourEntity::getUuid).toList();
+                BitSet hourBits = occupancyIndex.toHourBits(teachingHourUuids);
+
+                // Conflictos contra sesiones persistidas
+                messages.addAll(conflictMessages(occupancyIndex.findConflicts(
+                        periodUuid, teacher.getUuid(), learningSpace.getUuid(), studentGroup.getUuid(),
+                        dto.getDayOfWeek(), teachingHourUuids, replacedSessionUuids)));
+
+                // Conflictos contra las filas anteriores del lote
+                ClassSessionBatchOccupancy.RowConflicts rowConflicts = batchOccupancy.conflicts(
+                        periodUuid, teacher.getUuid(), learningSpace.getUuid(), studentGroup.getUuid(),
+                        dto.getDayOfWeek(), hourBits);
+                rowConflicts.getTeacherRows().forEach(r ->
+                        messages.add("El docente ya tiene una clase asignada en ese horario (fila " + (r + 1) + " del lote)"));
+                rowConflicts.getSpaceRows().forEach(r ->
+                        messages.add("El aula ya está ocupada en ese horario (fila " + (r + 1) + " del lote)"));
+                rowConflicts.getGroupRows().forEach(r ->
+                        messages.add("El grupo ya tiene una clase asignada en ese horario (fila " + (r + 1) + " del lote)"));
+
+                batchOccupancy.claim(i, periodUuid, teacher.getUuid(), learningSpace.getUuid(), studentGroup.getUuid(),
+                        dto.getDayOfWeek(), hourBits);
+
+                newSessions.add(classSessionMapper.toEntity(
+                        dto, studentGroup, course, teacher, learningSpace, sessionType, teachingHours));
+            } catch (IllegalArgumentException | EntityNotFoundException e) {
+                messages.add(e.getMessage());
+            }
+
+            if (!messages.isEmpty()) {
+                rowErrors.add(ClassSessionBulkResultDTO.RowError.builder()
+                        .rowNumber(i + 1)
+                        .messages(messages)
+                        .build());
+            }
+        }
+
+        if (!rowErrors.isEmpty()) {
+            return ClassSessionBulkResultDTO.builder()
+                    .persisted(false)
+                    .totalRows(dtos.size())
+                    .createdCount(0)
+                    .deletedCount(0)
+                    .createdSessionUuids(Collections.emptyList())
+                    .errors(rowErrors)
+                    .build();
+        }
+
+        // Todo o nada: reemplazo y alta en la misma transacción
+        if (!replacedSessions.isEmpty()) {
+            classSessionRepository.deleteAll(replacedSessions);
+            classSessionRepository.flush();
+            replacedSessions.forEach(session -> {
+                occupancyIndex.unregister(session.getPeriod().getUuid(), session.getUuid());
+                gridCache.unregister(session.getPeriod().getUuid(), session.getUuid());
+            });
+        }
+
+        List<ClassSessionEntity> savedSessions = saveAll(newSessions);
+        savedSessions.forEach(session -> {
+            occupancyIndex.register(session);
+            gridCache.register(session);
+        });
+
+        return ClassSessionBulkResultDTO.builder()
+                .persisted(true)
+                .totalRows(dtos.size())
+                .createdCount(savedSessions.size())
+                .deletedCount(replacedSessions.size())
+                .createdSessionUuids(savedSessions.stream().map(ClassSessionEntity::getUuid).toList())
+                .errors(Collections.emptyList())
+                .build();
+    }
+
     @Transactional
     public ClassSessionResponseDTO updateClassSession(UUID uuid, ClassSessionRequestDTO dto) {
         ClassSessionEntity session = findClassSessionOrThrow(uuid);
+        UUID previousPeriodUuid = session.getPeriod().getUuid();
+
+        // La sesión cambió desde que el cliente la leyó
+        if (dto.getVersion() != null && !dto.getVersion().equals(session.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(ClassSessionEntity.class, uuid);
+        }
 
         // Obtener entidades relacionadas
         StudentGroupEntity studentGroup = studentGroupService.findOrThrow(dto.getStudentGroupUuid());
@@ -452,6 +752,8 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
         LearningSpaceEntity learningSpace = learningSpaceService.findOrThrow(dto.getLearningSpaceUuid());
         TeachingTypeEntity sessionType = teachingTypeService.findTeachingTypeOrThrow(dto.getSessionTypeUuid());
 
+        lockBooking(dto, studentGroup.getPeriod().getUuid());
+
         // Realizar las mismas validaciones que en create
         validateCourseAndGroup(course, studentGroup);
         validateSessionTypeWithCourse(sessionType, course);
@@ -466,6 +768,10 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
                 session, dto, studentGroup, course, teacher, learningSpace, sessionType, teachingHours);
         session.setPeriod(studentGroup.getPeriod());
         ClassSessionEntity updatedSession = save(session);
+        occupancyIndex.unregister(previousPeriodUuid, uuid);
+        occupancyIndex.register(updatedSession);
+        gridCache.unregister(previousPeriodUuid, uuid);
+        gridCache.register(updatedSession);
 
         return classSessionMapper.toResponseDTO(updatedSession);
     }
@@ -473,7 +779,10 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
     @Transactional
     public void deleteClassSession(UUID uuid) {
         ClassSessionEntity session = findClassSessionOrThrow(uuid);
+        UUID periodUuid = session.getPeriod().getUuid();
         deleteById(uuid);
+        occupancyIndex.unregister(periodUuid, uuid);
+        gridCache.unregister(periodUuid, uuid);
     }
 
     public List<ClassSessionResponseDTO> getSessionsByStudentGroup(UUID studentGroupUuid) {
@@ -487,14 +796,11 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
     }
 
     public List<ClassSessionResponseDTO> filterClassSessions(ClassSessionFilterDTO filters) {
-        // Implementar filtros según necesidades
-        // Por ahora, ejemplo básico
-        if (filters.getStudentGroupUuid() != null) {
-            return getSessionsByStudentGroup(filters.getStudentGroupUuid());
-        } else if (filters.getTeacherUuid() != null) {
-            return getSessionsByTeacher(filters.getTeacherUuid());
-        }
-        return getAllClassSessions();
+        List<ClassSessionEntity> sessions = classSessionRepository.findByFilters(
+                filters.getPeriodUuid(), filters.getStudentGroupUuid(), filters.getCourseUuid(),
+                filters.getTeacherUuid(), filters.getLearningSpaceUuid(), filters.getDayOfWeek(),
+                filters.getCycleUuid(), filters.getCareerUuid(), filters.getSessionTypeUuid());
+        return classSessionMapper.toResponseDTOList(sessions);
     }
 
     // Métodos de validación privados
@@ -520,46 +826,34 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
     }
 
     private Set<TeachingHourEntity> getAndValidateTeachingHours(List<UUID> teachingHourUuids) {
+        TimeSlotCatalog.Snapshot catalog = timeSlotCatalog.current();
+        return getAndValidateTeachingHours(teachingHourUuids, uuid -> catalog.findHour(uuid)
+                .orElseThrow(() -> new EntityNotFoundException("Hora pedagógica no encontrada con ID: " + uuid)));
+    }
+
+    private Set<TeachingHourEntity> getAndValidateTeachingHours(List<UUID> teachingHourUuids,
+                                                                Function<UUID, TeachingHourEntity> resolver) {
         if (teachingHourUuids == null || teachingHourUuids.isEmpty()) {
             throw new IllegalArgumentException("Debe seleccionar al menos una hora pedagógica");
         }
 
         Set<TeachingHourEntity> teachingHours = new HashSet<>();
-        UUID timeSlotUuid = null;
-
         for (UUID teachingHourUuid : teachingHourUuids) {
-            TeachingHourEntity teachingHour = teachingHourRepository.findById(teachingHourUuid)
-                    .orElseThrow(() -> new EntityNotFoundException("Hora pedagógica no encontrada con ID: " + teachingHourUuid));
-
-            // Validar que todas las horas pedagógicas pertenezcan al mismo turno
-            if (timeSlotUuid == null) {
-                timeSlotUuid = teachingHour.getTimeSlot().getUuid();
-            } else if (!timeSlotUuid.equals(teachingHour.getTimeSlot().getUuid())) {
-                throw new IllegalArgumentException("Todas las horas pedagógicas deben pertenecer al mismo turno");
-            }
-
-            teachingHours.add(teachingHour);
+            teachingHours.add(resolver.apply(teachingHourUuid));
         }
 
-        // Validar que las horas pedagógicas sean consecutivas (opcional pero recomendado)
-        validateConsecutiveTeachingHours(teachingHours);
+        // Turno y orden se comprueban contra los índices del catálogo
+        TimeSlotCatalog.Snapshot catalog = timeSlotCatalog.current();
+        if (!catalog.sameTimeSlot(teachingHours)) {
+            throw new IllegalArgumentException("Todas las horas pedagógicas deben pertenecer al mismo turno");
+        }
+        if (!catalog.consecutive(teachingHours)) {
+            throw new IllegalArgumentException("Las horas pedagógicas deben ser consecutivas");
+        }
 
         return teachingHours;
     }
 
-    private void validateConsecutiveTeachingHours(Set<TeachingHourEntity> teachingHours) {
-        List<Integer> orders = teachingHours.stream()
-                .map(TeachingHourEntity::getOrderInTimeSlot)
-                .sorted()
-                .collect(Collectors.toList());
-
-        for (int i = 1; i < orders.size(); i++) {
-            if (orders.get(i) != orders.get(i - 1) + 1) {
-                throw new IllegalArgumentException("Las horas pedagógicas deben ser consecutivas");
-            }
-        }
-    }
-
     private void validateTeacherAvailability(TeacherEntity teacher, DayOfWeek dayOfWeek, Set<TeachingHourEntity> teachingHours) {
         // Obtener el rango de tiempo total de las horas pedagógicas seleccionadas
         LocalTime startTime = teachingHours.stream()
@@ -576,6 +870,30 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
         boolean isAvailable = teacherAvailabilityService.isTeacherAvailable(
                 teacher.getUuid(), dayOfWeek, startTime, endTime);
 
+        throwIfTeacherUnavailable(isAvailable, teacher, dayOfWeek, startTime, endTime);
+    }
+
+    // Variante con el bitmap de disponibilidad ya cargado (creación masiva)
+    private void validateTeacherAvailability(TeacherEntity teacher, DayOfWeek dayOfWeek,
+                                             Set<TeachingHourEntity> teachingHours,
+                                             TeacherAvailabilityBitmap availability) {
+        LocalTime startTime = teachingHours.stream()
+                .map(TeachingHourEntity::getStartTime)
+                .min(LocalTime::compareTo)
+                .orElseThrow(() -> new IllegalArgumentException("No se pudo determinar la hora de inicio"));
+
+        LocalTime endTime = teachingHours.stream()
+                .map(TeachingHourEntity::getEndTime)
+                .max(LocalTime::compareTo)
+                .orElseThrow(() -> new IllegalArgumentException("No se pudo determinar la hora de fin"));
+
+        boolean isAvailable = availability.covers(dayOfWeek, startTime, endTime);
+
+        throwIfTeacherUnavailable(isAvailable, teacher, dayOfWeek, startTime, endTime);
+    }
+
+    private void throwIfTeacherUnavailable(boolean isAvailable, TeacherEntity teacher, DayOfWeek dayOfWeek,
+                                           LocalTime startTime, LocalTime endTime) {
         if (!isAvailable) {
             throw new IllegalArgumentException(
                     String.format("El docente %s no está disponible el %s de %s a %s",
@@ -586,6 +904,12 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
         }
     }
 
+    private void lockBooking(ClassSessionRequestDTO dto, UUID periodUuid) {
+        if (dto.getDayOfWeek() == null) return;
+        bookingLocks.lockUntilCompletion(ClassSessionBookingLocks.sessionKeys(periodUuid, dto.getDayOfWeek(),
+                dto.getTeacherUuid(), dto.getLearningSpaceUuid(), dto.getStudentGroupUuid()));
+    }
+
     private void validateNoConflicts(ClassSessionRequestDTO dto, UUID periodUuid, Set<TeachingHourEntity> teachingHours) {
         validateNoConflicts(dto, periodUuid, teachingHours, null);
     }
@@ -595,34 +919,34 @@ public class ClassSessionService extends BaseService<ClassSessionEntity> {
                 .map(TeachingHourEntity::getUuid)
                 .collect(Collectors.toList());
 
-        // Verificar conflictos de docente
-        List<ClassSessionEntity> teacherConflicts = classSessionRepository.findTeacherConflicts(
-                dto.getTeacherUuid(), dto.getDayOfWeek(), periodUuid, teachingHourUuids);
-        if (excludeSessionUuid != null) {
-            teacherConflicts.removeIf(session -> session.getUuid().equals(excludeSessionUuid));
+        ClassSessionOccupancyIndex.Conflicts conflicts = occupancyIndex.findConflicts(
+                periodUuid, dto.getTeacherUuid(), dto.getLearningSpaceUuid(), dto.getStudentGroupUuid(),
+                dto.getDayOfWeek(), teachingHourUuids, excludeSessionUuid);
+
+        List<String> messages = conflictMessages(conflicts);
+        if (!messages.isEmpty()) {
+            throw new IllegalArgumentException(messages.get(0));
         }
-        if (!teacherConflicts.isEmpty()) {
-            throw new IllegalArgumentException("El docente ya tiene una clase asignada en ese horario");
+    }
+
+    private List<String> conflictMessages(ClassSessionOccupancyIndex.Conflicts conflicts) {
+        List<String> messages = new ArrayList<>();
+
+        // Verificar conflictos de docente
+        if (!conflicts.getTeacherSessionUuids().isEmpty()) {
+            messages.add("El docente ya tiene una clase asignada en ese horario");
         }
 
         // Verificar conflictos de aula
-        List<ClassSessionEntity> spaceConflicts = classSessionRepository.findLearningSpaceConflicts(
-                dto.getLearningSpaceUuid(), dto.getDayOfWeek(), periodUuid, teachingHourUuids);
-        if (excludeSessionUuid != null) {
-            spaceConflicts.removeIf(session -> session.getUuid().equals(excludeSessionUuid));
-        }
-        if (!spaceConflicts.isEmpty()) {
-            throw new IllegalArgumentException("El aula ya está ocupada en ese horario");
+        if (!conflicts.getSpaceSessionUuids().isEmpty()) {
+            messages.add("El aula ya está ocupada en ese horario");
         }
 
         // Verificar conflictos de grupo
-        List<ClassSessionEntity> groupConflicts = classSessionRepository.findStudentGroupConflicts(
-                dto.getStudentGroupUuid(), dto.getDayOfWeek(), periodUuid, teachingHourUuids);
-        if (excludeSessionUuid != null) {
-            groupConflicts.removeIf(session -> session.getUuid().equals(excludeSessionUuid));
-        }
-        if (!groupConflicts.isEmpty()) {
-            throw new IllegalArgumentException("El grupo ya tiene una clase asignada en ese horario");
+        if (!conflicts.getGroupSessionUuids().isEmpty()) {
+            messages.add("El grupo ya tiene una clase asignada en ese horario");
         }
+
+        return messages;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package com.pontificia.remashorario.modules.classSession.dto;
+
+import com.pontificia.remashorario.modules.teachingType.TeachingTypeEntity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/**
+ * Fila plana (sesión × hora pedagógica) con todo lo necesario para auditar un periodo
+ * en una sola consulta.
+ */
+@Getter
+@AllArgsConstructor
+public class ClassSessionAuditRowDTO {
+    private UUID sessionUuid;
+    private String courseName;
+    private UUID teacherUuid;
+    private String teacherName;
+    private UUID learningSpaceUuid;
+    private String learningSpaceName;
+    private UUID learningSpaceTypeUuid;
+    private TeachingTypeEntity.ETeachingType learningSpaceTypeName;
+    private UUID studentGroupUuid;
+    private String studentGroupName;
+    private UUID sessionTypeUuid;
+    private TeachingTypeEntity.ETeachingType sessionTypeName;
+    private DayOfWeek dayOfWeek;
+    private UUID teachingHourUuid;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private int orderInTimeSlot;
+    private UUID timeSlotUuid;
+}
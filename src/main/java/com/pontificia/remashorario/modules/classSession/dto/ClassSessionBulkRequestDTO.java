@@ -0,0 +1,18 @@
+package com.pontificia.remashorario.modules.classSession.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class ClassSessionBulkRequestDTO {
+    @NotEmpty(message = "Debe enviar al menos una sesión de clase")
+    private List<@Valid ClassSessionRequestDTO> sessions;
+
+    // Si es true, se eliminan las sesiones actuales de los grupos incluidos antes de crear las nuevas
+    private boolean replaceExisting;
+}
@@ -0,0 +1,28 @@
+package com.pontificia.remashorario.modules.classSession.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Builder
+public class ClassSessionBulkResultDTO {
+    private boolean persisted; // false si alguna fila tiene errores (no se guarda nada)
+    private int totalRows;
+    private int createdCount;
+    private int deletedCount;
+    private List<UUID> createdSessionUuids;
+    private List<RowError> errors;
+
+    @Getter
+    @Setter
+    @Builder
+    public static class RowError {
+        private int rowNumber; // base 1, en el orden recibido
+        private List<String> messages;
+    }
+}
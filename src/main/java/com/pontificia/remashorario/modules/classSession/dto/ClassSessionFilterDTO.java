@@ -1,7 +1,9 @@
 package com.pontificia.remashorario.modules.classSession.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.DayOfWeek;
@@ -10,7 +12,10 @@ import java.util.UUID;
 @Getter
 @Setter
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class ClassSessionFilterDTO {
+    private UUID periodUuid;
     private UUID studentGroupUuid;
     private UUID courseUuid;
     private UUID teacherUuid;
@@ -0,0 +1,27 @@
+package com.pontificia.remashorario.modules.classSession.dto;
+
+import com.pontificia.remashorario.modules.teachingType.TeachingTypeEntity;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.DayOfWeek;
+import java.util.UUID;
+
+/**
+ * Celda compacta de la grilla semanal: lo mínimo para pintar la sesión sin pedir su detalle.
+ * Una sesión de varias horas aparece con la misma celda en cada fila que ocupa.
+ */
+@Getter
+@Builder
+public class ClassSessionGridCellDTO {
+    private final UUID sessionUuid;
+    private final DayOfWeek dayOfWeek;
+    private final String courseName;
+    private final UUID teacherUuid;
+    private final String teacherName;
+    private final UUID learningSpaceUuid;
+    private final String learningSpaceName;
+    private final UUID studentGroupUuid;
+    private final String studentGroupName;
+    private final TeachingTypeEntity.ETeachingType sessionTypeName;
+}
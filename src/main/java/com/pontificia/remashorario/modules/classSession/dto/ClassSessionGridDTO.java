@@ -0,0 +1,34 @@
+package com.pontificia.remashorario.modules.classSession.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Grilla semanal de un grupo, docente o aula en un periodo: una fila por hora pedagógica
+ * (en orden de turno) con las celdas ocupadas de cada día.
+ */
+@Getter
+@Builder
+public class ClassSessionGridDTO {
+    private final UUID periodUuid;
+    private final String resourceType;
+    private final UUID resourceUuid;
+    private final int totalSessions;
+    private final List<Row> rows;
+
+    @Getter
+    @Builder
+    public static class Row {
+        private final UUID teachingHourUuid;
+        private final UUID timeSlotUuid;
+        private final String timeSlotName;
+        private final int orderInTimeSlot;
+        private final LocalTime startTime;
+        private final LocalTime endTime;
+        private final List<ClassSessionGridCellDTO> cells;
+    }
+}
@@ -0,0 +1,18 @@
+package com.pontificia.remashorario.modules.classSession.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Horas pedagógicas ya programadas para un grupo, curso y tipo de sesión.
+ */
+@Getter
+@AllArgsConstructor
+public class ClassSessionHoursSummaryDTO {
+    private UUID studentGroupUuid;
+    private UUID courseUuid;
+    private UUID sessionTypeUuid;
+    private Long hours;
+}
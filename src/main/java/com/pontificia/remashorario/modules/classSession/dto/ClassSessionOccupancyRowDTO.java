@@ -0,0 +1,22 @@
+package com.pontificia.remashorario.modules.classSession.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.DayOfWeek;
+import java.util.UUID;
+
+/**
+ * Fila plana (sesión × hora pedagógica) usada para construir el índice de ocupación
+ * sin cargar el grafo completo de entidades.
+ */
+@Getter
+@AllArgsConstructor
+public class ClassSessionOccupancyRowDTO {
+    private UUID sessionUuid;
+    private UUID teacherUuid;
+    private UUID learningSpaceUuid;
+    private UUID studentGroupUuid;
+    private DayOfWeek dayOfWeek;
+    private UUID teachingHourUuid;
+}
@@ -0,0 +1,22 @@
+package com.pontificia.remashorario.modules.classSession.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Página de sesiones por cursor. Para la siguiente página se envía {@code nextCursor}
+ * como {@code cursor}; es nulo cuando no quedan más resultados.
+ */
+@Getter
+@Setter
+@Builder
+public class ClassSessionPageDTO {
+    private List<ClassSessionResponseDTO> items;
+    private int size;
+    private boolean hasMore;
+    private UUID nextCursor;
+}
@@ -0,0 +1,31 @@
+package com.pontificia.remashorario.modules.classSession.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Una ubicación factible: día, bloque de horas consecutivas, docente y aula libres.
+ */
+@Getter
+@Builder
+public class ClassSessionPlacementDTO {
+    private final int rank;
+    private final DayOfWeek dayOfWeek;
+    private final UUID timeSlotUuid;
+    private final String timeSlotName;
+    private final List<UUID> teachingHourUuids;
+    private final LocalTime startTime;
+    private final LocalTime endTime;
+    private final UUID teacherUuid;
+    private final String teacherName;
+    private final int teacherAssignedHours;
+    private final UUID learningSpaceUuid;
+    private final String learningSpaceName;
+    private final Integer learningSpaceCapacity;
+    private final boolean specialtyMatch;
+}
@@ -0,0 +1,23 @@
+package com.pontificia.remashorario.modules.classSession.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Resultado del buscador de ubicaciones: total de combinaciones factibles y las mejores,
+ * ordenadas por especialidad preferida, menor capacidad del aula y carga del docente.
+ */
+@Getter
+@Builder
+public class ClassSessionPlacementResultDTO {
+    private final UUID courseUuid;
+    private final UUID studentGroupUuid;
+    private final UUID sessionTypeUuid;
+    private final int blockLength;
+    private final int totalPlacements;
+    private final long elapsedMs;
+    private final List<ClassSessionPlacementDTO> placements;
+}
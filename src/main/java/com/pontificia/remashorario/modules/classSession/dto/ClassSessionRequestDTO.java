@@ -36,5 +36,8 @@ public class ClassSessionRequestDTO {
 
     @Size(max = 500, message = "Las notas no pueden exceder los 500 caracteres")
     private String notes;
+
+    // Versión leída por el cliente; si se envía y la sesión cambió, la edición se rechaza
+    private Long version;
 }
 
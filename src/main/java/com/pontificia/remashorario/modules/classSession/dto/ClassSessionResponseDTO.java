@@ -30,4 +30,5 @@ public class ClassSessionResponseDTO {
     private String notes;
     private Integer totalHours; // Cantidad de horas pedagógicas
     private String timeSlotName; // Nombre del turno (derivado de las horas pedagógicas)
+    private Long version;
 }
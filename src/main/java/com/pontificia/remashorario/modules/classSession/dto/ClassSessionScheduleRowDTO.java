@@ -0,0 +1,26 @@
+package com.pontificia.remashorario.modules.classSession.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/**
+ * Fila plana (sesión × hora pedagógica) con la vigencia del periodo, para saber qué sesiones
+ * dicta un docente en una fecha y a qué hora sin cargar el grafo de entidades.
+ */
+@Getter
+@AllArgsConstructor
+public class ClassSessionScheduleRowDTO {
+    private UUID sessionUuid;
+    private UUID teacherUuid;
+    private DayOfWeek dayOfWeek;
+    private LocalDate periodStartDate;
+    private LocalDate periodEndDate;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private int durationMinutes;
+}
@@ -1,8 +1,10 @@
 package com.pontificia.remashorario.modules.classSession.dto;
 
 import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.util.List;
@@ -11,6 +13,8 @@ import java.util.UUID;
 @Getter
 @Setter
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class ClassSessionValidationDTO {
     @NotNull
     private UUID courseUuid;
@@ -27,4 +31,7 @@ public class ClassSessionValidationDTO {
 
     @NotNull
     private UUID sessionTypeUuid;
+
+    // Sesión a ignorar al buscar conflictos (edición); usado en la validación por lotes
+    private UUID excludeSessionUuid;
 }
@@ -0,0 +1,58 @@
+package com.pontificia.remashorario.modules.classSession.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Builder
+public class PeriodIntegrityReportDTO {
+    private UUID periodUuid;
+    private int totalSessions;
+    private long elapsedMs;
+    private boolean clean; // true si no se encontró ningún problema
+
+    private List<DoubleBooking> doubleBookings;
+    private List<SessionIssue> availabilityViolations;
+    private List<SessionIssue> spaceTypeMismatches;
+    private List<SessionIssue> nonConsecutiveBlocks;
+
+    /**
+     * Dos sesiones que usan el mismo docente, aula o grupo en horas que se cruzan.
+     */
+    @Getter
+    @Setter
+    @Builder
+    public static class DoubleBooking {
+        private String resourceType; // TEACHER, SPACE, GROUP
+        private UUID resourceUuid;
+        private String resourceName;
+        private DayOfWeek dayOfWeek;
+        private UUID firstSessionUuid;
+        private String firstCourseName;
+        private UUID secondSessionUuid;
+        private String secondCourseName;
+        private List<UUID> overlappingTeachingHourUuids;
+    }
+
+    @Getter
+    @Setter
+    @Builder
+    public static class SessionIssue {
+        private UUID sessionUuid;
+        private String courseName;
+        private String studentGroupName;
+        private String teacherName;
+        private String learningSpaceName;
+        private DayOfWeek dayOfWeek;
+        private LocalTime startTime;
+        private LocalTime endTime;
+        private String detail;
+    }
+}
@@ -71,6 +71,7 @@ public class ClassSessionMapper {
                 .notes(entity.getNotes())
                 .totalHours(entity.getTeachingHours().size())
                 .timeSlotName(timeSlotName)
+                .version(entity.getVersion())
                 .build();
     }
 
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -31,4 +32,17 @@ public interface CourseRepository extends BaseRepository<CourseEntity> {
 
     @Query("SELECT c FROM CourseEntity c WHERE c.cycle.uuid = :cycleUuid AND c.cycle.career.uuid = :careerUuid")
     List<CourseEntity> findByCycleUuidAndCareerUuid(@Param("cycleUuid") UUID cycleUuid, @Param("careerUuid") UUID careerUuid);
+
+    // Carga en bloque con lo necesario para validar asignaciones (tipos de enseñanza y área)
+    @Query("SELECT DISTINCT c FROM CourseEntity c " +
+            "LEFT JOIN FETCH c.teachingTypes " +
+            "LEFT JOIN FETCH c.teachingKnowledgeArea " +
+            "WHERE c.uuid IN :uuids")
+    List<CourseEntity> findAllWithTeachingDetailsByUuidIn(@Param("uuids") Collection<UUID> uuids);
+
+    @Query("SELECT DISTINCT c FROM CourseEntity c " +
+            "LEFT JOIN FETCH c.teachingTypes " +
+            "LEFT JOIN FETCH c.teachingKnowledgeArea " +
+            "WHERE c.cycle.uuid IN :cycleUuids")
+    List<CourseEntity> findAllWithTeachingDetailsByCycleUuidIn(@Param("cycleUuids") Collection<UUID> cycleUuids);
 }
@@ -4,6 +4,7 @@ import com.pontificia.remashorario.modules.learningSpaceSpecialty.LearningSpaceS
 import com.pontificia.remashorario.modules.learningSpaceSpecialty.LearningSpaceSpecialtyService;
 import com.pontificia.remashorario.modules.KnowledgeArea.KnowledgeAreaEntity;
 import com.pontificia.remashorario.modules.KnowledgeArea.KnowledgeAreaService;
+import com.pontificia.remashorario.modules.classSession.ClassSessionGridCache;
 import com.pontificia.remashorario.modules.course.dto.CourseFilterDTO;
 import com.pontificia.remashorario.modules.course.dto.CourseRequestDTO;
 import com.pontificia.remashorario.modules.course.dto.CourseResponseDTO;
@@ -33,6 +34,7 @@ public class CourseService extends BaseService<CourseEntity> {
     private final CycleService cycleService;
     private final KnowledgeAreaService knowledgeAreaService;
     private final LearningSpaceSpecialtyService specialtyService;
+    private final ClassSessionGridCache gridCache;
 
     @Autowired
     public CourseService(CourseRepository courseRepository,
@@ -40,7 +42,8 @@ public class CourseService extends BaseService<CourseEntity> {
                          TeachingTypeService teachingTypeService,
                          CycleService cycleService,
                          KnowledgeAreaService knowledgeAreaService,
-                         LearningSpaceSpecialtyService specialtyService) {
+                         LearningSpaceSpecialtyService specialtyService,
+                         ClassSessionGridCache gridCache) {
         super(courseRepository);
         this.courseRepository = courseRepository;
         this.courseMapper = courseMapper;
@@ -48,6 +51,7 @@ public class CourseService extends BaseService<CourseEntity> {
         this.cycleService = cycleService;
         this.knowledgeAreaService = knowledgeAreaService;
         this.specialtyService = specialtyService;
+        this.gridCache = gridCache;
     }
 
     public List<CourseResponseDTO> getAllCourses() {
@@ -122,6 +126,8 @@ public class CourseService extends BaseService<CourseEntity> {
         // Actualizar el curso
         courseMapper.updateEntityFromDTO(course, courseDTO, cycle, knowledgeArea, specialty, teachingTypes);
         CourseEntity updatedCourse = save(course);
+        // Las grillas guardan el nombre del curso
+        gridCache.invalidateAll();
 
         return courseMapper.toResponseDTO(updatedCourse);
     }
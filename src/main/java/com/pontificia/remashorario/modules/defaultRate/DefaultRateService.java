@@ -2,6 +2,9 @@ package com.pontificia.remashorario.modules.defaultRate;
 
 import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActivityTypeEntity;
 import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActivityTypeService;
+import com.pontificia.remashorario.modules.payrollLine.PayrollChangeEntity;
+import com.pontificia.remashorario.modules.payrollLine.PayrollChangeTracker;
+import com.pontificia.remashorario.modules.payrollLine.PayrollRateResolver;
 import com.pontificia.remashorario.utils.abstractBase.BaseService;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,13 +25,19 @@ public class DefaultRateService extends BaseService<DefaultRateEntity> {
 
     private final DefaultRateRepository defaultRateRepository;
     private final AttendanceActivityTypeService activityTypeService;
+    private final PayrollRateResolver payrollRateResolver;
+    private final PayrollChangeTracker payrollChangeTracker;
 
     @Autowired
     public DefaultRateService(DefaultRateRepository defaultRateRepository,
-                             AttendanceActivityTypeService activityTypeService) {
+                             AttendanceActivityTypeService activityTypeService,
+                             PayrollRateResolver payrollRateResolver,
+                             PayrollChangeTracker payrollChangeTracker) {
         super(defaultRateRepository);
         this.defaultRateRepository = defaultRateRepository;
         this.activityTypeService = activityTypeService;
+        this.payrollRateResolver = payrollRateResolver;
+        this.payrollChangeTracker = payrollChangeTracker;
     }
 
     public List<DefaultRateEntity> getAllRates() {
@@ -85,13 +94,18 @@ public class DefaultRateService extends BaseService<DefaultRateEntity> {
             throw new IllegalArgumentException("La fecha de inicio no puede ser posterior a la fecha de fin");
         }
 
+        validateNoOverlap(activityTypeUuid, effectiveFrom, effectiveTo, null);
+
         DefaultRateEntity rate = new DefaultRateEntity();
         rate.setActivityType(activityType);
         rate.setRatePerHour(ratePerHour);
         rate.setEffectiveFrom(effectiveFrom);
         rate.setEffectiveTo(effectiveTo);
 
-        return save(rate);
+        DefaultRateEntity saved = save(rate);
+        trackChange(saved);
+        payrollRateResolver.ratesChanged();
+        return saved;
     }
 
     @Transactional
@@ -109,11 +123,18 @@ public class DefaultRateService extends BaseService<DefaultRateEntity> {
             throw new IllegalArgumentException("La fecha de inicio no puede ser posterior a la fecha de fin");
         }
 
+        validateNoOverlap(rate.getActivityType().getUuid(), effectiveFrom, effectiveTo, uuid);
+
+        // Days leaving the old range change too
+        trackChange(rate);
         rate.setRatePerHour(ratePerHour);
         rate.setEffectiveFrom(effectiveFrom);
         rate.setEffectiveTo(effectiveTo);
 
-        return save(rate);
+        DefaultRateEntity saved = save(rate);
+        trackChange(saved);
+        payrollRateResolver.ratesChanged();
+        return saved;
     }
 
     @Transactional
@@ -121,6 +142,8 @@ public class DefaultRateService extends BaseService<DefaultRateEntity> {
         DefaultRateEntity rate = findRateOrThrow(uuid);
         // TODO: Validate no payrolls are using this rate
         deleteById(uuid);
+        trackChange(rate);
+        payrollRateResolver.ratesChanged();
     }
 
     /**
@@ -138,8 +161,11 @@ public class DefaultRateService extends BaseService<DefaultRateEntity> {
     @Transactional
     public DefaultRateEntity closeRate(UUID uuid) {
         DefaultRateEntity rate = findRateOrThrow(uuid);
+        trackChange(rate);
         rate.setEffectiveTo(LocalDate.now());
-        return save(rate);
+        DefaultRateEntity saved = save(rate);
+        payrollRateResolver.ratesChanged();
+        return saved;
     }
 
     /**
@@ -152,6 +178,7 @@ public class DefaultRateService extends BaseService<DefaultRateEntity> {
         List<DefaultRateEntity> activeRates = defaultRateRepository.findActiveRates(effectiveFrom);
         for (DefaultRateEntity activeRate : activeRates) {
             if (activeRate.getActivityType().getUuid().equals(activityTypeUuid)) {
+                trackChange(activeRate);
                 activeRate.setEffectiveTo(effectiveFrom.minusDays(1));
                 save(activeRate);
             }
@@ -160,4 +187,26 @@ public class DefaultRateService extends BaseService<DefaultRateEntity> {
         // Create new rate
         return createRate(activityTypeUuid, newRatePerHour, effectiveFrom, null);
     }
+
+    /**
+     * Flag the payroll of the days covered by the rate as stale
+     */
+    private void trackChange(DefaultRateEntity rate) {
+        payrollChangeTracker.activityTypeRateChanged(PayrollChangeEntity.Source.DEFAULT_RATE,
+                rate.getActivityType().getUuid(), rate.getEffectiveFrom(), rate.getEffectiveTo());
+    }
+
+    /**
+     * Two default rates of the same activity type cannot be in force on the same day
+     */
+    private void validateNoOverlap(UUID activityTypeUuid, LocalDate effectiveFrom, LocalDate effectiveTo,
+                                   UUID excludedRateUuid) {
+        boolean overlaps = defaultRateRepository.findByActivityTypeUuid(activityTypeUuid).stream()
+                .filter(existing -> !existing.getUuid().equals(excludedRateUuid))
+                .anyMatch(existing -> PayrollRateResolver.overlaps(effectiveFrom, effectiveTo,
+                        existing.getEffectiveFrom(), existing.getEffectiveTo()));
+        if (overlaps) {
+            throw new IllegalArgumentException("Ya existe una tarifa que se superpone con las fechas especificadas");
+        }
+    }
 }
@@ -1,11 +1,13 @@
 package com.pontificia.remashorario.modules.extraAssignment;
 
+import com.pontificia.remashorario.modules.payrollLine.dto.TeacherActivityTypeRowDTO;
 import com.pontificia.remashorario.utils.abstractBase.BaseRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -51,4 +53,46 @@ public interface ExtraAssignmentRepository extends BaseRepository<ExtraAssignmen
             "LEFT JOIN FETCH ea.activityType " +
             "WHERE ea.uuid = :uuid")
     Optional<ExtraAssignmentEntity> findByIdWithDetails(@Param("uuid") UUID uuid);
+
+    @Query("SELECT ea FROM ExtraAssignmentEntity ea " +
+            "JOIN FETCH ea.activityType " +
+            "WHERE ea.assignmentDate BETWEEN :startDate AND :endDate")
+    List<ExtraAssignmentEntity> findByDateRangeWithActivityType(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    @Query("SELECT ea FROM ExtraAssignmentEntity ea " +
+            "JOIN FETCH ea.activityType " +
+            "WHERE ea.teacher.uuid = :teacherUuid " +
+            "AND ea.assignmentDate BETWEEN :startDate AND :endDate")
+    List<ExtraAssignmentEntity> findByTeacherAndDateRangeWithActivityType(
+            @Param("teacherUuid") UUID teacherUuid,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    @Query("SELECT ea FROM ExtraAssignmentEntity ea " +
+            "JOIN FETCH ea.activityType " +
+            "WHERE ea.teacher.uuid IN :teacherUuids " +
+            "AND ea.assignmentDate BETWEEN :startDate AND :endDate")
+    List<ExtraAssignmentEntity> findByTeachersAndDateRangeWithActivityType(
+            @Param("teacherUuids") Collection<UUID> teacherUuids,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * Distinct teacher and activity type pairs of the assignments in the range paid at the resolved rate
+     */
+    @Query("SELECT DISTINCT new com.pontificia.remashorario.modules.payrollLine.dto.TeacherActivityTypeRowDTO(" +
+            "ea.teacher.uuid, ea.activityType.uuid) FROM ExtraAssignmentEntity ea " +
+            "WHERE ea.activityType.uuid IN :activityTypeUuids " +
+            "AND ea.assignmentDate BETWEEN :startDate AND :endDate " +
+            "AND ea.ratePerHour IS NULL")
+    List<TeacherActivityTypeRowDTO> findTeacherActivityTypesByDateRange(
+            @Param("activityTypeUuids") Collection<UUID> activityTypeUuids,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
 }
@@ -2,6 +2,7 @@ package com.pontificia.remashorario.modules.extraAssignment;
 
 import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActivityTypeEntity;
 import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActivityTypeService;
+import com.pontificia.remashorario.modules.payrollLine.PayrollChangeTracker;
 import com.pontificia.remashorario.modules.teacher.TeacherEntity;
 import com.pontificia.remashorario.modules.teacher.TeacherService;
 import com.pontificia.remashorario.utils.abstractBase.BaseService;
@@ -27,15 +28,18 @@ public class ExtraAssignmentService extends BaseService<ExtraAssignmentEntity> {
     private final ExtraAssignmentRepository extraAssignmentRepository;
     private final TeacherService teacherService;
     private final AttendanceActivityTypeService activityTypeService;
+    private final PayrollChangeTracker payrollChangeTracker;
 
     @Autowired
     public ExtraAssignmentService(ExtraAssignmentRepository extraAssignmentRepository,
                                  TeacherService teacherService,
-                                 AttendanceActivityTypeService activityTypeService) {
+                                 AttendanceActivityTypeService activityTypeService,
+                                 PayrollChangeTracker payrollChangeTracker) {
         super(extraAssignmentRepository);
         this.extraAssignmentRepository = extraAssignmentRepository;
         this.teacherService = teacherService;
         this.activityTypeService = activityTypeService;
+        this.payrollChangeTracker = payrollChangeTracker;
     }
 
     public List<ExtraAssignmentEntity> getAllAssignments() {
@@ -113,6 +117,7 @@ public class ExtraAssignmentService extends BaseService<ExtraAssignmentEntity> {
         assignment.setRatePerHour(ratePerHour);
         assignment.setNotes(notes);
 
+        payrollChangeTracker.extraAssignmentChanged(teacherUuid, assignmentDate);
         return save(assignment);
     }
 
@@ -136,6 +141,10 @@ public class ExtraAssignmentService extends BaseService<ExtraAssignmentEntity> {
             throw new IllegalArgumentException("La tarifa por hora debe ser mayor a cero");
         }
 
+        // The assignment may move to another date: both days change
+        payrollChangeTracker.extraAssignmentChanged(assignment.getTeacher().getUuid(), assignment.getAssignmentDate());
+        payrollChangeTracker.extraAssignmentChanged(assignment.getTeacher().getUuid(), assignmentDate);
+
         assignment.setTitle(title);
         assignment.setAssignmentDate(assignmentDate);
         assignment.setStartTime(startTime);
@@ -152,6 +161,7 @@ public class ExtraAssignmentService extends BaseService<ExtraAssignmentEntity> {
         ExtraAssignmentEntity assignment = findAssignmentOrThrow(uuid);
         // TODO: Check if this assignment is already included in a payroll
         deleteById(uuid);
+        payrollChangeTracker.extraAssignmentChanged(assignment.getTeacher().getUuid(), assignment.getAssignmentDate());
     }
 
     /**
@@ -215,6 +225,7 @@ public class ExtraAssignmentService extends BaseService<ExtraAssignmentEntity> {
             // Calculate duration
             int duration = (int) Duration.between(assignment.getStartTime(), assignment.getEndTime()).toMinutes();
             assignment.setDurationMinutes(duration);
+            payrollChangeTracker.extraAssignmentChanged(assignment.getTeacher().getUuid(), assignment.getAssignmentDate());
         }
 
         return saveAll(assignments);
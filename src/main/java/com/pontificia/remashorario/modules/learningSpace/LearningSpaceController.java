@@ -26,36 +26,22 @@ public class LearningSpaceController {
             @RequestParam(required = false) String dayOfWeek,
             @RequestParam(required = false) UUID timeSlotUuid,
             @RequestParam(required = false) String teachingHourUuids,
-            @RequestParam(required = false) String sessionType) { // ✅ NUEVO PARÁMETRO
-
-        System.out.println("=== ELIGIBLE SPACES REQUEST (UPDATED) ===");
-        System.out.println("Course UUID: " + courseUuid);
-        System.out.println("Day of Week: " + dayOfWeek);
-        System.out.println("TimeSlot UUID: " + timeSlotUuid);
-        System.out.println("Teaching Hour UUIDs (raw): " + teachingHourUuids);
-        System.out.println("Session Type: " + sessionType); // ✅ NUEVO LOG
+            @RequestParam(required = false) String sessionType,
+            @RequestParam(required = false) UUID periodUuid,
+            @RequestParam(defaultValue = "false") boolean rankBySpecialty) {
 
         List<LearningSpaceResponseDTO> eligibleSpaces;
 
-        // ✅ Si se proporcionan horas específicas, usar esas
+        // Si se proporcionan horas específicas, usar esas
         if (teachingHourUuids != null && !teachingHourUuids.trim().isEmpty()) {
             List<String> hourUuidsList = Arrays.asList(teachingHourUuids.split(","));
-            System.out.println("Parsed Teaching Hour UUIDs: " + hourUuidsList);
-
-            // ✅ PASAR EL SESSION TYPE AL SERVICIO
             eligibleSpaces = learningSpaceService.getEligibleSpacesForSpecificHours(
-                    courseUuid, dayOfWeek, hourUuidsList, sessionType);
+                    courseUuid, dayOfWeek, hourUuidsList, sessionType, periodUuid, rankBySpecialty);
         } else {
-            System.out.println("No specific hours provided, using timeslot-based logic");
             eligibleSpaces = learningSpaceService.getEligibleSpaces(
                     courseUuid, dayOfWeek, timeSlotUuid);
         }
 
-        System.out.println("Found " + eligibleSpaces.size() + " eligible spaces");
-        eligibleSpaces.forEach(space ->
-                System.out.println("  - " + space.getName() + " (" + space.getTeachingType().getName() + ")")
-        );
-
         return ResponseEntity.ok(
                 ApiResponse.success(eligibleSpaces, "Aulas elegibles recuperadas con éxito")
         );
@@ -3,9 +3,13 @@ package com.pontificia.remashorario.modules.learningSpace;
 import com.pontificia.remashorario.modules.teachingType.TeachingTypeEntity;
 import com.pontificia.remashorario.utils.abstractBase.BaseRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.DayOfWeek;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 @Repository
 public interface LearningSpaceRepository extends BaseRepository<LearningSpaceEntity> {
@@ -26,4 +30,28 @@ public interface LearningSpaceRepository extends BaseRepository<LearningSpaceEnt
     List<LearningSpaceEntity> findByTypeUUID_NameAndSpecialtyIsNull(TeachingTypeEntity.ETeachingType name);
 
     boolean existsByName(String nombre);
+
+    @Query("SELECT ls FROM LearningSpaceEntity ls " +
+            "LEFT JOIN FETCH ls.typeUUID " +
+            "WHERE ls.uuid IN :uuids")
+    List<LearningSpaceEntity> findAllWithTypeByUuidIn(@Param("uuids") Collection<UUID> uuids);
+
+    /**
+     * Espacios libres en todas las horas pedidas ese día (anti-join contra las sesiones).
+     * El tipo y el periodo son opcionales; sin periodo se consideran las sesiones de todos.
+     */
+    @Query("SELECT ls FROM LearningSpaceEntity ls " +
+            "LEFT JOIN FETCH ls.typeUUID t " +
+            "LEFT JOIN FETCH ls.specialty " +
+            "WHERE (:type IS NULL OR t.name = :type) " +
+            "AND NOT EXISTS (SELECT 1 FROM ClassSessionEntity cs JOIN cs.teachingHours th " +
+            "WHERE cs.learningSpace = ls " +
+            "AND cs.dayOfWeek = :dayOfWeek " +
+            "AND th.uuid IN :teachingHourUuids " +
+            "AND (:periodUuid IS NULL OR cs.period.uuid = :periodUuid)) " +
+            "ORDER BY ls.name")
+    List<LearningSpaceEntity> findFreeForTeachingHours(@Param("type") TeachingTypeEntity.ETeachingType type,
+                                                       @Param("dayOfWeek") DayOfWeek dayOfWeek,
+                                                       @Param("teachingHourUuids") Collection<UUID> teachingHourUuids,
+                                                       @Param("periodUuid") UUID periodUuid);
 }
@@ -2,6 +2,7 @@ package com.pontificia.remashorario.modules.learningSpace;
 
 import com.pontificia.remashorario.modules.TimeSlot.TimeSlotEntity;
 import com.pontificia.remashorario.modules.classSession.ClassSessionEntity;
+import com.pontificia.remashorario.modules.classSession.ClassSessionGridCache;
 import com.pontificia.remashorario.modules.classSession.ClassSessionRepository;
 import com.pontificia.remashorario.modules.course.CourseEntity;
 import com.pontificia.remashorario.modules.course.CourseService;
@@ -12,10 +13,11 @@ import com.pontificia.remashorario.modules.teachingHour.TeachingHourEntity;
 import com.pontificia.remashorario.modules.teachingType.TeachingTypeEntity;
 import com.pontificia.remashorario.modules.TimeSlot.TimeSlotService;
 import com.pontificia.remashorario.utils.abstractBase.BaseService;
-import jakarta.transaction.Transactional;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Service;
 
 import java.time.DayOfWeek;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -29,18 +31,21 @@ public class LearningSpaceService extends BaseService<LearningSpaceEntity> {
     private final CourseService courseService;
     private final TimeSlotService timeSlotService;
     private final ClassSessionRepository classSessionRepository;
+    private final ClassSessionGridCache gridCache;
 
     public LearningSpaceService(LearningSpaceRepository learningSpaceRepository,
                                LearningSpaceMapper learningSpaceMapper,
                                CourseService courseService,
                                TimeSlotService timeSlotService,
-                               ClassSessionRepository classSessionRepository) {
+                               ClassSessionRepository classSessionRepository,
+                               ClassSessionGridCache gridCache) {
         super(learningSpaceRepository);
         this.learningSpaceMapper = learningSpaceMapper;
         this.learningSpaceRepository = learningSpaceRepository;
         this.courseService = courseService;
         this.timeSlotService = timeSlotService;
         this.classSessionRepository = classSessionRepository;
+        this.gridCache = gridCache;
     }
 
     public List<LearningSpaceResponseDTO> getEligibleSpaces(UUID courseUuid, String dayOfWeek, UUID timeSlotUuid) {
@@ -90,70 +95,62 @@ public class LearningSpaceService extends BaseService<LearningSpaceEntity> {
         return getEligibleSpacesForSpecificHours(courseUuid, dayOfWeek, teachingHourUuids, null);
     }
 
-    // ✅ MÉTODO PRINCIPAL MEJORADO
     public List<LearningSpaceResponseDTO> getEligibleSpacesForSpecificHours(
             UUID courseUuid, String dayOfWeek, List<String> teachingHourUuids, String sessionType) {
+        return getEligibleSpacesForSpecificHours(courseUuid, dayOfWeek, teachingHourUuids, sessionType, null, false);
+    }
 
-        System.out.println("=== GET ELIGIBLE SPACES FOR SPECIFIC HOURS (IMPROVED) ===");
-        System.out.println("Course UUID: " + courseUuid);
-        System.out.println("Day: " + dayOfWeek);
-        System.out.println("Teaching Hour UUIDs: " + teachingHourUuids);
-        System.out.println("Session Type: " + sessionType);
-
-        List<LearningSpaceEntity> allSpaces;
-
-        // ✅ Si se especifica un sessionType, filtrar por ese tipo
-        if (sessionType != null && !sessionType.trim().isEmpty()) {
-            try {
-                TeachingTypeEntity.ETeachingType requiredType =
-                        TeachingTypeEntity.ETeachingType.valueOf(sessionType.toUpperCase());
-
-                System.out.println("Filtering by session type: " + requiredType);
-                allSpaces = learningSpaceRepository.findByTypeUUID_Name(requiredType);
+    /**
+     * Espacios libres en todas las horas pedidas, resueltos con una sola consulta.
+     *
+     * @param sessionType     tipo de enseñanza requerido; si es vacío o inválido se consideran todos
+     * @param periodUuid      periodo cuyas sesiones ocupan los espacios; si es nulo, todos los periodos
+     * @param rankBySpecialty si es verdadero, primero los espacios de la especialidad preferida del curso
+     */
+    @Transactional(readOnly = true)
+    public List<LearningSpaceResponseDTO> getEligibleSpacesForSpecificHours(
+            UUID courseUuid, String dayOfWeek, List<String> teachingHourUuids, String sessionType,
+            UUID periodUuid, boolean rankBySpecialty) {
+        if (dayOfWeek == null || dayOfWeek.isBlank()) {
+            throw new IllegalArgumentException("El día de la semana es obligatorio");
+        }
+        DayOfWeek day = DayOfWeek.valueOf(dayOfWeek.trim().toUpperCase());
+
+        Set<UUID> hourUuids = teachingHourUuids.stream()
+                .filter(uuid -> uuid != null && !uuid.isBlank())
+                .map(uuid -> UUID.fromString(uuid.trim()))
+                .collect(Collectors.toSet());
+        if (hourUuids.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos una hora pedagógica");
+        }
 
-            } catch (IllegalArgumentException e) {
-                System.out.println("Invalid session type: " + sessionType + ", using all spaces");
-                allSpaces = learningSpaceRepository.findAll();
+        List<LearningSpaceEntity> freeSpaces = learningSpaceRepository.findFreeForTeachingHours(
+                parseTeachingTypeOrNull(sessionType), day, hourUuids, periodUuid);
+
+        if (rankBySpecialty) {
+            CourseEntity course = courseService.findCourseOrThrow(courseUuid);
+            if (course.getPreferredSpecialty() != null) {
+                UUID preferredUuid = course.getPreferredSpecialty().getUuid();
+                // Orden estable: se conserva el orden por nombre dentro de cada grupo
+                freeSpaces = freeSpaces.stream()
+                        .sorted(Comparator.comparing((LearningSpaceEntity space) -> space.getSpecialty() == null
+                                || !space.getSpecialty().getUuid().equals(preferredUuid)))
+                        .collect(Collectors.toList());
             }
-        } else {
-            // ✅ Si no se especifica sessionType, devolver todos los espacios
-            System.out.println("No session type specified, returning all spaces");
-            allSpaces = learningSpaceRepository.findAll();
         }
 
-        System.out.println("Spaces to check: " + allSpaces.size());
-
-        // Filtrar por disponibilidad en horas específicas
-        List<LearningSpaceEntity> availableSpaces = allSpaces.stream()
-                .filter(space -> {
-                    boolean available = isSpaceAvailableForSpecificHours(
-                            space.getUuid(), dayOfWeek, teachingHourUuids);
-
-                    System.out.println("Space " + space.getName() +
-                            " (" + space.getTypeUUID().getName() + "): " +
-                            (available ? "AVAILABLE" : "OCCUPIED"));
-
-                    return available;
-                })
-                .collect(Collectors.toList());
-
-        System.out.println("Final available spaces: " + availableSpaces.size());
-
-        // ✅ Mostrar desglose por tipo solo si no se filtró previamente
-        if (sessionType == null || sessionType.trim().isEmpty()) {
-            long theorySpaces = availableSpaces.stream()
-                    .filter(space -> space.getTypeUUID().getName() == TeachingTypeEntity.ETeachingType.THEORY)
-                    .count();
-            long practiceSpaces = availableSpaces.stream()
-                    .filter(space -> space.getTypeUUID().getName() == TeachingTypeEntity.ETeachingType.PRACTICE)
-                    .count();
+        return learningSpaceMapper.toResponseDTOList(freeSpaces);
+    }
 
-            System.out.println("  - THEORY spaces available: " + theorySpaces);
-            System.out.println("  - PRACTICE spaces available: " + practiceSpaces);
+    private TeachingTypeEntity.ETeachingType parseTeachingTypeOrNull(String sessionType) {
+        if (sessionType == null || sessionType.isBlank()) return null;
+        try {
+            return TeachingTypeEntity.ETeachingType.valueOf(sessionType.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
         }
-
-        return learningSpaceMapper.toResponseDTOList(availableSpaces);
     }
+
     // ✅ Método auxiliar para verificar disponibilidad de horas específicas
     public boolean isSpaceAvailableForSpecificHours(UUID spaceUuid, String dayOfWeek, List<String> teachingHourUuids) {
         List<ClassSessionEntity> conflicts = classSessionRepository
@@ -161,12 +158,7 @@ public class LearningSpaceService extends BaseService<LearningSpaceEntity> {
                         spaceUuid,
                         dayOfWeek.toUpperCase(),
                         teachingHourUuids);
-        if (!conflicts.isEmpty()) {
-            conflicts.forEach(conflict -> {
-            });
-        }
-        boolean isAvailable = conflicts.isEmpty();
-        return isAvailable;
+        return conflicts.isEmpty();
     }
 
 
@@ -277,6 +269,8 @@ public class LearningSpaceService extends BaseService<LearningSpaceEntity> {
 
         learningSpaceMapper.updateEntityFromDTO(requestDTO, modality);
         LearningSpaceEntity updatedModality = update(modality);
+        // Las grillas guardan el nombre del aula
+        gridCache.invalidateAll();
 
         return learningSpaceMapper.toResponseDTO(updatedModality);
     }
@@ -38,10 +38,11 @@ public class LearningSpaceMapper {
                 .uuid(entity.getUuid())
                 .name(entity.getName())
                 .capacity(entity.getCapacity())
-                .teachingType(TeachingTypeResponseDTO.builder()
-                        .uuid(entity.getTypeUUID().getUuid())
-                        .name(entity.getTypeUUID().getName().name())
-                        .build())
+                .teachingType(entity.getTypeUUID() != null ?
+                        TeachingTypeResponseDTO.builder()
+                                .uuid(entity.getTypeUUID().getUuid())
+                                .name(entity.getTypeUUID().getName().name())
+                                .build() : null)
                 .specialty(entity.getSpecialty() != null ?
                         LearningSpaceSpecialtyResponseDTO.builder()
                                 .uuid(entity.getSpecialty().getUuid())
@@ -3,6 +3,9 @@ package com.pontificia.remashorario.modules.modalityRate;
 import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActivityTypeEntity;
 import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActivityTypeService;
 import com.pontificia.remashorario.modules.educationalModality.EducationalModalityEntity;
+import com.pontificia.remashorario.modules.payrollLine.PayrollChangeEntity;
+import com.pontificia.remashorario.modules.payrollLine.PayrollChangeTracker;
+import com.pontificia.remashorario.modules.payrollLine.PayrollRateResolver;
 import com.pontificia.remashorario.utils.abstractBase.BaseService;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,13 +27,19 @@ public class ModalityRateService extends BaseService<ModalityRateEntity> {
 
     private final ModalityRateRepository modalityRateRepository;
     private final AttendanceActivityTypeService activityTypeService;
+    private final PayrollRateResolver payrollRateResolver;
+    private final PayrollChangeTracker payrollChangeTracker;
 
     @Autowired
     public ModalityRateService(ModalityRateRepository modalityRateRepository,
-                              AttendanceActivityTypeService activityTypeService) {
+                              AttendanceActivityTypeService activityTypeService,
+                              PayrollRateResolver payrollRateResolver,
+                              PayrollChangeTracker payrollChangeTracker) {
         super(modalityRateRepository);
         this.modalityRateRepository = modalityRateRepository;
         this.activityTypeService = activityTypeService;
+        this.payrollRateResolver = payrollRateResolver;
+        this.payrollChangeTracker = payrollChangeTracker;
     }
 
     public List<ModalityRateEntity> getAllRates() {
@@ -94,6 +103,8 @@ public class ModalityRateService extends BaseService<ModalityRateEntity> {
             throw new IllegalArgumentException("La fecha de inicio no puede ser posterior a la fecha de fin");
         }
 
+        validateNoOverlap(modalityUuid, activityTypeUuid, effectiveFrom, effectiveTo, null);
+
         // Get modality entity (we'll need to inject EducationalModalityService if needed)
         EducationalModalityEntity modality = new EducationalModalityEntity();
         modality.setUuid(modalityUuid);
@@ -105,7 +116,10 @@ public class ModalityRateService extends BaseService<ModalityRateEntity> {
         rate.setEffectiveFrom(effectiveFrom);
         rate.setEffectiveTo(effectiveTo);
 
-        return save(rate);
+        ModalityRateEntity saved = save(rate);
+        trackChange(saved);
+        payrollRateResolver.ratesChanged();
+        return saved;
     }
 
     @Transactional
@@ -123,11 +137,19 @@ public class ModalityRateService extends BaseService<ModalityRateEntity> {
             throw new IllegalArgumentException("La fecha de inicio no puede ser posterior a la fecha de fin");
         }
 
+        validateNoOverlap(rate.getModality().getUuid(), rate.getActivityType().getUuid(),
+                effectiveFrom, effectiveTo, uuid);
+
+        // Days leaving the old range change too
+        trackChange(rate);
         rate.setRatePerHour(ratePerHour);
         rate.setEffectiveFrom(effectiveFrom);
         rate.setEffectiveTo(effectiveTo);
 
-        return save(rate);
+        ModalityRateEntity saved = save(rate);
+        trackChange(saved);
+        payrollRateResolver.ratesChanged();
+        return saved;
     }
 
     @Transactional
@@ -135,6 +157,8 @@ public class ModalityRateService extends BaseService<ModalityRateEntity> {
         ModalityRateEntity rate = findRateOrThrow(uuid);
         // TODO: Validate no payrolls are using this rate
         deleteById(uuid);
+        trackChange(rate);
+        payrollRateResolver.ratesChanged();
     }
 
     /**
@@ -151,8 +175,11 @@ public class ModalityRateService extends BaseService<ModalityRateEntity> {
     @Transactional
     public ModalityRateEntity closeRate(UUID uuid) {
         ModalityRateEntity rate = findRateOrThrow(uuid);
+        trackChange(rate);
         rate.setEffectiveTo(LocalDate.now());
-        return save(rate);
+        ModalityRateEntity saved = save(rate);
+        payrollRateResolver.ratesChanged();
+        return saved;
     }
 
     /**
@@ -165,6 +192,7 @@ public class ModalityRateService extends BaseService<ModalityRateEntity> {
         List<ModalityRateEntity> activeRates = modalityRateRepository.findActiveRatesByModality(modalityUuid, effectiveFrom);
         for (ModalityRateEntity activeRate : activeRates) {
             if (activeRate.getActivityType().getUuid().equals(activityTypeUuid)) {
+                trackChange(activeRate);
                 activeRate.setEffectiveTo(effectiveFrom.minusDays(1));
                 save(activeRate);
             }
@@ -173,4 +201,27 @@ public class ModalityRateService extends BaseService<ModalityRateEntity> {
         // Create new rate
         return createRate(modalityUuid, activityTypeUuid, newRatePerHour, effectiveFrom, null);
     }
+
+    /**
+     * Flag the payroll of the days covered by the rate as stale
+     */
+    private void trackChange(ModalityRateEntity rate) {
+        payrollChangeTracker.activityTypeRateChanged(PayrollChangeEntity.Source.MODALITY_RATE,
+                rate.getActivityType().getUuid(), rate.getEffectiveFrom(), rate.getEffectiveTo());
+    }
+
+    /**
+     * Two rates of the same modality and activity type cannot be in force on the same day
+     */
+    private void validateNoOverlap(UUID modalityUuid, UUID activityTypeUuid,
+                                   LocalDate effectiveFrom, LocalDate effectiveTo, UUID excludedRateUuid) {
+        boolean overlaps = modalityRateRepository.findByModalityUuid(modalityUuid).stream()
+                .filter(existing -> existing.getActivityType().getUuid().equals(activityTypeUuid))
+                .filter(existing -> !existing.getUuid().equals(excludedRateUuid))
+                .anyMatch(existing -> PayrollRateResolver.overlaps(effectiveFrom, effectiveTo,
+                        existing.getEffectiveFrom(), existing.getEffectiveTo()));
+        if (overlaps) {
+            throw new IllegalArgumentException("Ya existe una tarifa que se superpone con las fechas especificadas");
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import com.pontificia.remashorario.modules.extraAssignment.ExtraAssignmentEntity;
+import com.pontificia.remashorario.modules.payrollPeriod.PayrollPeriodEntity;
+import com.pontificia.remashorario.modules.teacher.TeacherEntity;
+import com.pontificia.remashorario.modules.teacherAttendance.TeacherAttendanceEntity;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Everything needed to calculate the payroll of a period, loaded up front. Read-only once
+ * built, so it can be shared by the calculation workers.
+ */
+@Getter
+public class PayrollBatch {
+
+    private final PayrollPeriodEntity period;
+    private final List<UUID> teacherUuids;
+    private final Map<UUID, TeacherEntity> teachers;
+    private final Map<UUID, List<TeacherAttendanceEntity>> attendancesByTeacher;
+    private final Map<UUID, List<ExtraAssignmentEntity>> extraAssignmentsByTeacher;
+    private final PayrollCalculator.RateLookup rates;
+
+    PayrollBatch(PayrollPeriodEntity period,
+                 Map<UUID, TeacherEntity> teachers,
+                 Map<UUID, List<TeacherAttendanceEntity>> attendancesByTeacher,
+                 Map<UUID, List<ExtraAssignmentEntity>> extraAssignmentsByTeacher,
+                 PayrollCalculator.RateLookup rates) {
+        this.period = period;
+        this.teacherUuids = List.copyOf(teachers.keySet());
+        this.teachers = teachers;
+        this.attendancesByTeacher = attendancesByTeacher;
+        this.extraAssignmentsByTeacher = extraAssignmentsByTeacher;
+        this.rates = rates;
+    }
+
+    public TeacherEntity teacher(UUID teacherUuid) {
+        return teachers.get(teacherUuid);
+    }
+
+    public List<TeacherAttendanceEntity> attendancesOf(UUID teacherUuid) {
+        return attendancesByTeacher.getOrDefault(teacherUuid, Collections.emptyList());
+    }
+
+    public List<ExtraAssignmentEntity> extraAssignmentsOf(UUID teacherUuid) {
+        return extraAssignmentsByTeacher.getOrDefault(teacherUuid, Collections.emptyList());
+    }
+}
@@ -0,0 +1,124 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import com.pontificia.remashorario.modules.extraAssignment.ExtraAssignmentEntity;
+import com.pontificia.remashorario.modules.extraAssignment.ExtraAssignmentRepository;
+import com.pontificia.remashorario.modules.payrollPeriod.PayrollPeriodEntity;
+import com.pontificia.remashorario.modules.teacher.TeacherEntity;
+import com.pontificia.remashorario.modules.teacher.TeacherRepository;
+import com.pontificia.remashorario.modules.teacherAttendance.TeacherAttendanceEntity;
+import com.pontificia.remashorario.modules.teacherAttendance.TeacherAttendanceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads in bulk everything a payroll calculation reads (a fixed number of queries per
+ * period instead of several per teacher and per line). Rates come from the
+ * {@link PayrollRateResolver} snapshot, rebuilt first if another instance changed them.
+ */
+@Component
+public class PayrollBatchLoader {
+
+    /**
+     * Attendance statuses that are paid
+     */
+    static final Set<TeacherAttendanceEntity.AttendanceStatus> PAYABLE_STATUSES = EnumSet.of(
+            TeacherAttendanceEntity.AttendanceStatus.APPROVED,
+            TeacherAttendanceEntity.AttendanceStatus.OVERRIDDEN,
+            TeacherAttendanceEntity.AttendanceStatus.HOLIDAY);
+
+    private final TeacherRepository teacherRepository;
+    private final TeacherAttendanceRepository attendanceRepository;
+    private final ExtraAssignmentRepository extraAssignmentRepository;
+    private final PayrollRateResolver payrollRateResolver;
+
+    @Autowired
+    public PayrollBatchLoader(TeacherRepository teacherRepository,
+                              TeacherAttendanceRepository attendanceRepository,
+                              ExtraAssignmentRepository extraAssignmentRepository,
+                              PayrollRateResolver payrollRateResolver) {
+        this.teacherRepository = teacherRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.extraAssignmentRepository = extraAssignmentRepository;
+        this.payrollRateResolver = payrollRateResolver;
+    }
+
+    /**
+     * Every teacher with attendances (in any status) or extra assignments in the period
+     */
+    @Transactional(readOnly = true)
+    public PayrollBatch load(PayrollPeriodEntity period) {
+        LocalDate start = period.getStartDate();
+        LocalDate end = period.getEndDate();
+
+        List<ExtraAssignmentEntity> extraAssignments =
+                extraAssignmentRepository.findByDateRangeWithActivityType(start, end);
+
+        Set<UUID> teacherUuids = new HashSet<>(attendanceRepository.findTeacherUuidsByDateRange(start, end));
+        extraAssignments.forEach(ea -> teacherUuids.add(ea.getTeacher().getUuid()));
+
+        return new PayrollBatch(period, findTeachers(teacherUuids),
+                byTeacher(attendanceRepository.findByDateRangeAndStatusInWithActivityType(start, end, PAYABLE_STATUSES),
+                        TeacherAttendanceEntity::getTeacher),
+                byTeacher(extraAssignments, ExtraAssignmentEntity::getTeacher),
+                payrollRateResolver.fresh());
+    }
+
+    /**
+     * Only the given teachers, for incremental recalculation. Teachers without attendances or
+     * extra assignments in the period are left out of the batch.
+     */
+    @Transactional(readOnly = true)
+    public PayrollBatch load(PayrollPeriodEntity period, Collection<UUID> teacherUuids) {
+        if (teacherUuids.isEmpty()) return emptyBatch(period);
+        LocalDate start = period.getStartDate();
+        LocalDate end = period.getEndDate();
+
+        List<ExtraAssignmentEntity> extraAssignments =
+                extraAssignmentRepository.findByTeachersAndDateRangeWithActivityType(teacherUuids, start, end);
+
+        Set<UUID> withData = new HashSet<>(
+                attendanceRepository.findTeacherUuidsByTeachersAndDateRange(teacherUuids, start, end));
+        extraAssignments.forEach(ea -> withData.add(ea.getTeacher().getUuid()));
+        if (withData.isEmpty()) return emptyBatch(period);
+
+        return new PayrollBatch(period, findTeachers(withData),
+                byTeacher(attendanceRepository.findByTeachersAndDateRangeAndStatusInWithActivityType(
+                        withData, start, end, PAYABLE_STATUSES), TeacherAttendanceEntity::getTeacher),
+                byTeacher(extraAssignments, ExtraAssignmentEntity::getTeacher),
+                payrollRateResolver.fresh());
+    }
+
+    @Transactional(readOnly = true)
+    public PayrollBatch loadForTeacher(PayrollPeriodEntity period, TeacherEntity teacher) {
+        LocalDate start = period.getStartDate();
+        LocalDate end = period.getEndDate();
+        UUID teacherUuid = teacher.getUuid();
+
+        return new PayrollBatch(period, Map.of(teacherUuid, teacher),
+                Map.of(teacherUuid, attendanceRepository.findByTeacherAndDateRangeAndStatusInWithActivityType(
+                        teacherUuid, start, end, PAYABLE_STATUSES)),
+                Map.of(teacherUuid, extraAssignmentRepository.findByTeacherAndDateRangeWithActivityType(
+                        teacherUuid, start, end)),
+                payrollRateResolver.fresh());
+    }
+
+    private PayrollBatch emptyBatch(PayrollPeriodEntity period) {
+        return new PayrollBatch(period, Map.of(), Map.of(), Map.of(), payrollRateResolver.fresh());
+    }
+
+    private Map<UUID, TeacherEntity> findTeachers(Collection<UUID> teacherUuids) {
+        if (teacherUuids.isEmpty()) return new LinkedHashMap<>();
+        return teacherRepository.findAllById(teacherUuids).stream()
+                .collect(Collectors.toMap(TeacherEntity::getUuid, t -> t, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private static <T> Map<UUID, List<T>> byTeacher(List<T> rows, Function<T, TeacherEntity> teacher) {
+        return rows.stream().collect(Collectors.groupingBy(row -> teacher.apply(row).getUuid()));
+    }
+}
@@ -0,0 +1,25 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outcome of calculating a whole period: the stored lines plus the teachers that could not
+ * be calculated and why.
+ */
+@Getter
+public class PayrollBatchResult {
+
+    private final List<PayrollLineEntity> lines;
+    private final List<Failure> failures;
+
+    public PayrollBatchResult(List<PayrollLineEntity> lines, List<Failure> failures) {
+        this.lines = lines;
+        this.failures = failures;
+    }
+
+    public record Failure(UUID teacherUuid, String teacherName, String message) {
+    }
+}
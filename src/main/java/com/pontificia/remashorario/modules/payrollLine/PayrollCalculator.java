@@ -0,0 +1,238 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import com.pontificia.remashorario.modules.extraAssignment.ExtraAssignmentEntity;
+import com.pontificia.remashorario.modules.teacherAttendance.TeacherAttendanceEntity;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pure payroll calculation: turns already loaded attendances, extra assignments and rates
+ * into line totals and items. It never touches the database, so whole periods are calculated in
+ * parallel (one task per teacher) on a pool sized to the available cores.
+ */
+@Component
+public class PayrollCalculator {
+
+    private static final BigDecimal MINUTES_PER_HOUR = BigDecimal.valueOf(60);
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), namedThreads("payroll-worker-"));
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Hourly rate in force for a teacher, activity type and date.
+     * Priority: Teacher Rate > Default Rate (modality rates need the class session's modality,
+     * which attendances don't carry yet)
+     */
+    @FunctionalInterface
+    public interface RateLookup {
+        BigDecimal resolve(UUID teacherUuid, UUID activityTypeUuid, LocalDate date);
+    }
+
+    /**
+     * Calculate every teacher of a batch in parallel. A teacher whose calculation fails
+     * (usually a missing rate) gets an error instead of a calculation; the rest are unaffected.
+     */
+    public List<TeacherResult> calculateAll(PayrollBatch batch) {
+        return calculateAll(batch, PayrollProgress.NONE);
+    }
+
+    /**
+     * Same as {@link #calculateAll(PayrollBatch)}, reporting each finished teacher
+     *
+     * @throws CancellationException if the progress was cancelled before every teacher was calculated
+     */
+    public List<TeacherResult> calculateAll(PayrollBatch batch, PayrollProgress progress) {
+        progress.started(batch.getTeacherUuids().size());
+
+        List<CompletableFuture<TeacherResult>> futures = new ArrayList<>(batch.getTeacherUuids().size());
+        for (UUID teacherUuid : batch.getTeacherUuids()) {
+            futures.add(CompletableFuture.supplyAsync(() -> calculateTeacher(batch, teacherUuid, progress), workers));
+        }
+
+        List<TeacherResult> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<TeacherResult> future : futures) {
+            results.add(future.join());
+        }
+        if (results.contains(null)) {
+            throw new CancellationException("Cálculo de nómina cancelado");
+        }
+        return results;
+    }
+
+    /**
+     * Null when skipped because the calculation was cancelled
+     */
+    private TeacherResult calculateTeacher(PayrollBatch batch, UUID teacherUuid, PayrollProgress progress) {
+        if (progress.isCancelled()) return null;
+
+        TeacherResult result;
+        try {
+            PayrollCalculation calculation = calculate(teacherUuid,
+                    batch.attendancesOf(teacherUuid), batch.extraAssignmentsOf(teacherUuid), batch.getRates());
+            result = new TeacherResult(teacherUuid, calculation, null);
+        } catch (RuntimeException e) {
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            result = new TeacherResult(teacherUuid, null, message);
+        }
+        progress.teacherDone(result.failed());
+        return result;
+    }
+
+    /**
+     * Core payroll calculation logic
+     */
+    public PayrollCalculation calculate(UUID teacherUuid,
+                                        List<TeacherAttendanceEntity> attendances,
+                                        List<ExtraAssignmentEntity> extraAssignments,
+                                        RateLookup rates) {
+        PayrollCalculation calc = new PayrollCalculation(attendances.size() + extraAssignments.size());
+
+        // Calculate from attendances
+        for (TeacherAttendanceEntity attendance : attendances) {
+            PayrollLineItemEntity item = calculateAttendancePayment(teacherUuid, attendance, rates);
+            calc.items.add(item);
+
+            calc.totalHoursWorked = calc.totalHoursWorked.add(item.getHoursWorked());
+            calc.totalHoursScheduled = calc.totalHoursScheduled.add(item.getHoursScheduled());
+            calc.grossAmount = calc.grossAmount.add(item.getGrossAmount());
+            calc.totalPenalties = calc.totalPenalties.add(item.getPenaltyAmount());
+        }
+
+        // Calculate from extra assignments
+        for (ExtraAssignmentEntity assignment : extraAssignments) {
+            PayrollLineItemEntity item = calculateExtraAssignmentPayment(teacherUuid, assignment, rates);
+            calc.items.add(item);
+
+            calc.totalHoursWorked = calc.totalHoursWorked.add(item.getHoursWorked());
+            calc.totalHoursScheduled = calc.totalHoursScheduled.add(item.getHoursWorked()); // Same for extras
+            calc.grossAmount = calc.grossAmount.add(item.getGrossAmount());
+        }
+
+        // Calculate net amount
+        calc.netAmount = calc.grossAmount.subtract(calc.totalPenalties);
+
+        return calc;
+    }
+
+    /**
+     * Calculate payment for a single attendance
+     */
+    private PayrollLineItemEntity calculateAttendancePayment(UUID teacherUuid,
+                                                             TeacherAttendanceEntity attendance,
+                                                             RateLookup rates) {
+        // Get applicable rate (modality would come from the class session)
+        BigDecimal ratePerHour = rates.resolve(
+                teacherUuid,
+                attendance.getAttendanceActivityType().getUuid(),
+                attendance.getAttendanceDate()
+        );
+
+        BigDecimal hoursWorked = toHours(attendance.getActualDurationMinutes());
+        BigDecimal hoursScheduled = toHours(attendance.getScheduledDurationMinutes());
+
+        // Penalties are charged per minute late or left early
+        BigDecimal ratePerMinute = ratePerHour.divide(MINUTES_PER_HOUR, 4, RoundingMode.HALF_UP);
+        int totalPenaltyMinutes = attendance.getLateMinutes() + attendance.getEarlyDepartureMinutes();
+
+        PayrollLineItemEntity item = new PayrollLineItemEntity();
+        item.setType(PayrollLineItemEntity.ItemType.ATTENDANCE);
+        item.setSourceUuid(attendance.getUuid());
+        item.setItemDate(attendance.getAttendanceDate());
+        item.setActivityType(attendance.getAttendanceActivityType());
+        item.setRatePerHour(ratePerHour);
+        item.setHoursWorked(hoursWorked);
+        item.setHoursScheduled(hoursScheduled);
+        // Gross amount is based on actual hours worked
+        item.setGrossAmount(hoursWorked.multiply(ratePerHour).setScale(2, RoundingMode.HALF_UP));
+        item.setPenaltyMinutes(totalPenaltyMinutes);
+        item.setPenaltyAmount(ratePerMinute.multiply(BigDecimal.valueOf(totalPenaltyMinutes))
+                .setScale(2, RoundingMode.HALF_UP));
+        item.setLateMinutes(attendance.getLateMinutes());
+        item.setEarlyDepartureMinutes(attendance.getEarlyDepartureMinutes());
+        return item;
+    }
+
+    /**
+     * Calculate payment for an extra assignment
+     */
+    private PayrollLineItemEntity calculateExtraAssignmentPayment(UUID teacherUuid,
+                                                                  ExtraAssignmentEntity assignment,
+                                                                  RateLookup rates) {
+        // Use assignment's specific rate if set, otherwise resolve
+        BigDecimal ratePerHour = assignment.getRatePerHour() != null
+                ? assignment.getRatePerHour()
+                : rates.resolve(teacherUuid, assignment.getActivityType().getUuid(), assignment.getAssignmentDate());
+
+        BigDecimal hoursWorked = toHours(assignment.getDurationMinutes());
+
+        // No penalties for extra assignments
+        PayrollLineItemEntity item = new PayrollLineItemEntity();
+        item.setType(PayrollLineItemEntity.ItemType.EXTRA_ASSIGNMENT);
+        item.setSourceUuid(assignment.getUuid());
+        item.setItemDate(assignment.getAssignmentDate());
+        item.setActivityType(assignment.getActivityType());
+        item.setDescription(assignment.getTitle());
+        item.setRatePerHour(ratePerHour);
+        item.setHoursWorked(hoursWorked);
+        item.setHoursScheduled(hoursWorked);
+        item.setGrossAmount(hoursWorked.multiply(ratePerHour).setScale(2, RoundingMode.HALF_UP));
+        item.setPenaltyMinutes(0);
+        item.setPenaltyAmount(BigDecimal.ZERO);
+        return item;
+    }
+
+    private static BigDecimal toHours(Integer minutes) {
+        return BigDecimal.valueOf(minutes != null ? minutes : 0).divide(MINUTES_PER_HOUR, 4, RoundingMode.HALF_UP);
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Outcome for one teacher: either a calculation or the reason it failed.
+     */
+    public record TeacherResult(UUID teacherUuid, PayrollCalculation calculation, String error) {
+
+        public boolean failed() {
+            return calculation == null;
+        }
+    }
+
+    /**
+     * Totals of a payroll line and its items (not yet attached to a line)
+     */
+    public static class PayrollCalculation {
+        BigDecimal totalHoursWorked = BigDecimal.ZERO;
+        BigDecimal totalHoursScheduled = BigDecimal.ZERO;
+        BigDecimal grossAmount = BigDecimal.ZERO;
+        BigDecimal totalPenalties = BigDecimal.ZERO;
+        BigDecimal netAmount = BigDecimal.ZERO;
+        final List<PayrollLineItemEntity> items;
+
+        PayrollCalculation(int expectedItems) {
+            this.items = new ArrayList<>(expectedItems);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import com.pontificia.remashorario.utils.abstractBase.BaseEntity;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/**
+ * A payroll change already reflected in the lines of a period. Written in the same transaction as
+ * the lines calculated after reading the change, so a change stays pending for the period until
+ * the lines that saw its data are committed.
+ */
+@Entity
+@Table(name = "payroll_change_applied", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payroll_change_applied_period", columnNames = {"payroll_period_uuid", "change_id"})
+})
+@Getter
+@Setter
+public class PayrollChangeAppliedEntity extends BaseEntity {
+
+    @Column(name = "payroll_period_uuid", nullable = false)
+    private UUID payrollPeriodUuid;
+
+    @Column(name = "change_id", nullable = false)
+    private Long changeId;
+}
@@ -0,0 +1,8 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import com.pontificia.remashorario.utils.abstractBase.BaseRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PayrollChangeAppliedRepository extends BaseRepository<PayrollChangeAppliedEntity> {
+}
@@ -0,0 +1,65 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A change that may alter already calculated payroll lines: the days it affects and either the
+ * teacher or, for modality and default rates, the activity type it applies to. Owners are kept as
+ * plain ids so the log survives deleted rows.
+ * <p>
+ * A change is pending for a period until a {@link PayrollChangeAppliedEntity} records that the
+ * period's lines reflect it. Calculations read the pending changes before loading their data and
+ * mark exactly those, so a change that commits during a calculation stays pending. No ids or
+ * wall-clock times are compared.
+ */
+@Entity
+@Table(name = "payroll_change_log", indexes = {
+        @Index(name = "ix_payroll_change_log_affected", columnList = "affected_from, affected_to")
+})
+@EntityListeners(AuditingEntityListener.class)
+@Getter
+@Setter
+public class PayrollChangeEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payroll_change_seq")
+    @SequenceGenerator(name = "payroll_change_seq", sequenceName = "payroll_change_seq", allocationSize = 1)
+    @Column(name = "id", updatable = false, nullable = false)
+    private Long id;
+
+    @CreatedDate
+    @Column(updatable = false, name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "source", nullable = false, length = 20)
+    private Source source;
+
+    @Column(name = "teacher_uuid")
+    private UUID teacherUuid; // null = every teacher with this activity type
+
+    @Column(name = "activity_type_uuid")
+    private UUID activityTypeUuid;
+
+    @Column(name = "affected_from", nullable = false)
+    private LocalDate affectedFrom;
+
+    @Column(name = "affected_to")
+    private LocalDate affectedTo; // null = open-ended
+
+    public enum Source {
+        ATTENDANCE,
+        EXTRA_ASSIGNMENT,
+        TEACHER_RATE,
+        MODALITY_RATE,
+        DEFAULT_RATE
+    }
+}
@@ -0,0 +1,28 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PayrollChangeRepository extends JpaRepository<PayrollChangeEntity, Long> {
+
+    /**
+     * Committed changes affecting the dates that the lines of the period do not reflect yet
+     */
+    @Query("SELECT c FROM PayrollChangeEntity c " +
+            "WHERE c.affectedFrom <= :endDate " +
+            "AND (c.affectedTo IS NULL OR c.affectedTo >= :startDate) " +
+            "AND NOT EXISTS (SELECT 1 FROM PayrollChangeAppliedEntity a " +
+            "WHERE a.changeId = c.id AND a.payrollPeriodUuid = :payrollPeriodUuid)")
+    List<PayrollChangeEntity> findPendingForPeriod(
+            @Param("payrollPeriodUuid") UUID payrollPeriodUuid,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+}
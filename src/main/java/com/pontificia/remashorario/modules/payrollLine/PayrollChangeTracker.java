@@ -0,0 +1,58 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Records changes that make payroll lines stale, in the same transaction as the change itself,
+ * so an incremental recalculation only has to recompute the affected teachers.
+ */
+@Component
+public class PayrollChangeTracker {
+
+    private final PayrollChangeRepository payrollChangeRepository;
+
+    @Autowired
+    public PayrollChangeTracker(PayrollChangeRepository payrollChangeRepository) {
+        this.payrollChangeRepository = payrollChangeRepository;
+    }
+
+    /**
+     * An attendance was created, checked out, approved, overridden, rejected or deleted
+     */
+    public void attendanceChanged(UUID teacherUuid, LocalDate attendanceDate) {
+        record(PayrollChangeEntity.Source.ATTENDANCE, teacherUuid, null, attendanceDate, attendanceDate);
+    }
+
+    public void extraAssignmentChanged(UUID teacherUuid, LocalDate assignmentDate) {
+        record(PayrollChangeEntity.Source.EXTRA_ASSIGNMENT, teacherUuid, null, assignmentDate, assignmentDate);
+    }
+
+    public void teacherRateChanged(UUID teacherUuid, UUID activityTypeUuid, LocalDate effectiveFrom, LocalDate effectiveTo) {
+        record(PayrollChangeEntity.Source.TEACHER_RATE, teacherUuid, activityTypeUuid, effectiveFrom, effectiveTo);
+    }
+
+    /**
+     * Modality and default rates apply to every teacher with activities of that type
+     */
+    public void activityTypeRateChanged(PayrollChangeEntity.Source source, UUID activityTypeUuid,
+                                        LocalDate effectiveFrom, LocalDate effectiveTo) {
+        record(source, null, activityTypeUuid, effectiveFrom, effectiveTo);
+    }
+
+    private void record(PayrollChangeEntity.Source source, UUID teacherUuid, UUID activityTypeUuid,
+                        LocalDate from, LocalDate to) {
+        if (from == null) return;
+
+        PayrollChangeEntity change = new PayrollChangeEntity();
+        change.setSource(source);
+        change.setTeacherUuid(teacherUuid);
+        change.setActivityTypeUuid(activityTypeUuid);
+        change.setAffectedFrom(from);
+        change.setAffectedTo(to);
+        payrollChangeRepository.save(change);
+    }
+}
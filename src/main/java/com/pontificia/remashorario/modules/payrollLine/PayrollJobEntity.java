@@ -0,0 +1,69 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import com.pontificia.remashorario.utils.abstractBase.BaseEntity;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A background calculation or recalculation of a whole payroll period. Progress is written
+ * by the instance running it, so any instance can report it or request its cancellation.
+ */
+@Entity
+@Table(name = "payroll_job", indexes = {
+        @Index(name = "ix_payroll_job_period", columnList = "payroll_period_uuid, created_at")
+})
+@Getter
+@Setter
+public class PayrollJobEntity extends BaseEntity {
+
+    @Column(name = "payroll_period_uuid", nullable = false)
+    private UUID payrollPeriodUuid;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "job_type", nullable = false, length = 20)
+    private JobType type;
+
+    @Column(name = "only_changed", nullable = false)
+    private boolean onlyChanged;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private JobStatus status = JobStatus.RUNNING;
+
+    @Column(name = "total_teachers")
+    private Integer totalTeachers; // null while loading the period
+
+    @Column(name = "done_teachers", nullable = false)
+    private int doneTeachers;
+
+    @Column(name = "failed_teachers", nullable = false)
+    private int failedTeachers;
+
+    @Column(name = "calculated_count")
+    private Integer calculatedCount; // lines stored, once completed
+
+    @Column(name = "cancel_requested", nullable = false)
+    private boolean cancelRequested;
+
+    @Column(length = 500)
+    private String message;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum JobType {
+        CALCULATE,
+        RECALCULATE
+    }
+
+    public enum JobStatus {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+}
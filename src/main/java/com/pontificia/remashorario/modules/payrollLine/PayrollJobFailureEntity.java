@@ -0,0 +1,31 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import com.pontificia.remashorario.utils.abstractBase.BaseEntity;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/**
+ * A teacher that a completed payroll job could not calculate
+ */
+@Entity
+@Table(name = "payroll_job_failure")
+@Getter
+@Setter
+public class PayrollJobFailureEntity extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "payroll_job_id", nullable = false)
+    private PayrollJobEntity job;
+
+    @Column(name = "teacher_uuid", nullable = false)
+    private UUID teacherUuid;
+
+    @Column(name = "teacher_name", length = 255)
+    private String teacherName;
+
+    @Column(length = 500)
+    private String message;
+}
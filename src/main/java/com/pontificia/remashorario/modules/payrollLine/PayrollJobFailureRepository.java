@@ -0,0 +1,18 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import com.pontificia.remashorario.utils.abstractBase.BaseRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PayrollJobFailureRepository extends BaseRepository<PayrollJobFailureEntity> {
+
+    @Query("SELECT f FROM PayrollJobFailureEntity f " +
+            "WHERE f.job.uuid = :jobUuid " +
+            "ORDER BY f.teacherName")
+    List<PayrollJobFailureEntity> findByJob(@Param("jobUuid") UUID jobUuid);
+}
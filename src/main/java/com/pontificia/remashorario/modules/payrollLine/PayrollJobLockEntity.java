@@ -0,0 +1,32 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import com.pontificia.remashorario.utils.abstractBase.BaseEntity;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * At most one row per payroll period, held by the job calculating it. The unique constraint is
+ * what keeps two instances from running jobs for the same period. The lease is renewed while the
+ * job reports progress; an expired one belongs to a dead instance and may be taken over.
+ */
+@Entity
+@Table(name = "payroll_job_lock", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payroll_job_lock_period", columnNames = "payroll_period_uuid")
+})
+@Getter
+@Setter
+public class PayrollJobLockEntity extends BaseEntity {
+
+    @Column(name = "payroll_period_uuid", nullable = false)
+    private UUID payrollPeriodUuid;
+
+    @Column(name = "job_uuid", nullable = false)
+    private UUID jobUuid;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,55 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import com.pontificia.remashorario.utils.abstractBase.BaseRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PayrollJobLockRepository extends BaseRepository<PayrollJobLockEntity> {
+
+    Optional<PayrollJobLockEntity> findByPayrollPeriodUuid(UUID payrollPeriodUuid);
+
+    /**
+     * Clock of the database: leases are set and checked against it only, never against the clock
+     * of the instance, which may differ from the other instances'
+     */
+    @Query(value = "SELECT CURRENT_TIMESTAMP", nativeQuery = true)
+    LocalDateTime findDatabaseTime();
+
+    @Query("SELECT COUNT(l) > 0 FROM PayrollJobLockEntity l " +
+            "WHERE l.payrollPeriodUuid = :payrollPeriodUuid AND l.expiresAt > CURRENT_TIMESTAMP")
+    boolean isHeld(@Param("payrollPeriodUuid") UUID payrollPeriodUuid);
+
+    /**
+     * Extend the lease only while the job still holds an unexpired lock; the row stays locked
+     * until the transaction ends
+     */
+    @Modifying
+    @Query("UPDATE PayrollJobLockEntity l SET l.expiresAt = :expiresAt " +
+            "WHERE l.jobUuid = :jobUuid AND l.expiresAt > CURRENT_TIMESTAMP")
+    int renew(@Param("jobUuid") UUID jobUuid, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Release the lock only if the job still holds it unexpired
+     */
+    @Modifying
+    @Query("DELETE FROM PayrollJobLockEntity l WHERE l.jobUuid = :jobUuid AND l.expiresAt > CURRENT_TIMESTAMP")
+    int releaseIfHeld(@Param("jobUuid") UUID jobUuid);
+
+    /**
+     * Remove a lock only if it is still expired (its job did not renew it meanwhile)
+     */
+    @Modifying
+    @Query("DELETE FROM PayrollJobLockEntity l WHERE l.uuid = :uuid AND l.expiresAt <= CURRENT_TIMESTAMP")
+    int deleteIfExpired(@Param("uuid") UUID uuid);
+
+    @Modifying
+    @Query("DELETE FROM PayrollJobLockEntity l WHERE l.jobUuid = :jobUuid")
+    int deleteByJob(@Param("jobUuid") UUID jobUuid);
+}
@@ -0,0 +1,67 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import com.pontificia.remashorario.utils.abstractBase.BaseRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Running jobs are only changed with bulk updates, so progress written by the running instance
+ * and a cancellation requested from another one never overwrite each other.
+ */
+@Repository
+public interface PayrollJobRepository extends BaseRepository<PayrollJobEntity> {
+
+    List<PayrollJobEntity> findByPayrollPeriodUuidOrderByCreatedAtDesc(UUID payrollPeriodUuid);
+
+    @Modifying
+    @Query("UPDATE PayrollJobEntity j SET j.totalTeachers = :totalTeachers, " +
+            "j.doneTeachers = :doneTeachers, j.failedTeachers = :failedTeachers " +
+            "WHERE j.uuid = :uuid AND j.status = 'RUNNING'")
+    int updateProgress(
+            @Param("uuid") UUID uuid,
+            @Param("totalTeachers") Integer totalTeachers,
+            @Param("doneTeachers") int doneTeachers,
+            @Param("failedTeachers") int failedTeachers
+    );
+
+    @Query("SELECT j.cancelRequested FROM PayrollJobEntity j WHERE j.uuid = :uuid")
+    boolean isCancelRequested(@Param("uuid") UUID uuid);
+
+    @Modifying
+    @Query("UPDATE PayrollJobEntity j SET j.cancelRequested = true " +
+            "WHERE j.uuid = :uuid AND j.status = 'RUNNING'")
+    int requestCancel(@Param("uuid") UUID uuid);
+
+    @Modifying
+    @Query("UPDATE PayrollJobEntity j SET j.status = :status, j.message = :message, j.finishedAt = :finishedAt, " +
+            "j.calculatedCount = :calculatedCount, j.doneTeachers = :doneTeachers, j.failedTeachers = :failedTeachers " +
+            "WHERE j.uuid = :uuid AND j.status = 'RUNNING'")
+    int finish(
+            @Param("uuid") UUID uuid,
+            @Param("status") PayrollJobEntity.JobStatus status,
+            @Param("message") String message,
+            @Param("finishedAt") LocalDateTime finishedAt,
+            @Param("calculatedCount") Integer calculatedCount,
+            @Param("doneTeachers") int doneTeachers,
+            @Param("failedTeachers") int failedTeachers
+    );
+
+    /**
+     * For jobs whose instance stopped without finishing them; progress is left as last reported
+     */
+    @Modifying
+    @Query("UPDATE PayrollJobEntity j SET j.status = 'FAILED', " +
+            "j.message = :message, j.finishedAt = :finishedAt " +
+            "WHERE j.uuid = :uuid AND j.status = 'RUNNING'")
+    int markAbandoned(
+            @Param("uuid") UUID uuid,
+            @Param("message") String message,
+            @Param("finishedAt") LocalDateTime finishedAt
+    );
+}
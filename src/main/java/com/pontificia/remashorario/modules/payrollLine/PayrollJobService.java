@@ -0,0 +1,209 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import com.pontificia.remashorario.modules.payrollPeriod.PayrollPeriodEntity;
+import com.pontificia.remashorario.modules.payrollPeriod.PayrollPeriodService;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs whole-period payroll calculations and recalculations in the background. Only one job per
+ * period runs at a time across every instance (see {@link PayrollJobLockEntity}); while it runs a
+ * heartbeat writes its progress, renews the lock and picks up cancellations requested elsewhere.
+ * A cancelled or failed job rolls back, leaving the period as it was.
+ */
+@Slf4j
+@Service
+public class PayrollJobService {
+
+    private static final Duration LEASE = Duration.ofMinutes(2);
+    private static final long HEARTBEAT_MS = 2000;
+
+    private final PayrollJobStore payrollJobStore;
+    private final PayrollJobRepository payrollJobRepository;
+    private final PayrollJobFailureRepository payrollJobFailureRepository;
+    private final PayrollLineService payrollLineService;
+    private final PayrollPeriodService payrollPeriodService;
+
+    private final Map<UUID, RunningJob> running = new ConcurrentHashMap<>();
+    private final ExecutorService jobExecutor = Executors.newCachedThreadPool(namedThreads("payroll-job-"));
+    private final ScheduledExecutorService heartbeatExecutor =
+            Executors.newSingleThreadScheduledExecutor(namedThreads("payroll-job-heartbeat-"));
+
+    @Autowired
+    public PayrollJobService(PayrollJobStore payrollJobStore,
+                             PayrollJobRepository payrollJobRepository,
+                             PayrollJobFailureRepository payrollJobFailureRepository,
+                             PayrollLineService payrollLineService,
+                             PayrollPeriodService payrollPeriodService) {
+        this.payrollJobStore = payrollJobStore;
+        this.payrollJobRepository = payrollJobRepository;
+        this.payrollJobFailureRepository = payrollJobFailureRepository;
+        this.payrollLineService = payrollLineService;
+        this.payrollPeriodService = payrollPeriodService;
+    }
+
+    /**
+     * Start calculating every teacher of a DRAFT period
+     */
+    public PayrollJobEntity startCalculation(UUID payrollPeriodUuid) {
+        PayrollPeriodEntity period = payrollPeriodService.findPeriodOrThrow(payrollPeriodUuid);
+        payrollLineService.checkCanCalculate(period);
+        return start(payrollPeriodUuid, PayrollJobEntity.JobType.CALCULATE, false);
+    }
+
+    /**
+     * Start recalculating a DRAFT or CALCULATED period, or only its changed teachers
+     */
+    public PayrollJobEntity startRecalculation(UUID payrollPeriodUuid, boolean onlyChanged) {
+        PayrollPeriodEntity period = payrollPeriodService.findPeriodOrThrow(payrollPeriodUuid);
+        payrollLineService.checkCanRecalculate(period);
+        return start(payrollPeriodUuid, PayrollJobEntity.JobType.RECALCULATE, onlyChanged);
+    }
+
+    public PayrollJobEntity getJob(UUID jobUuid) {
+        return payrollJobRepository.findById(jobUuid)
+                .orElseThrow(() -> new EntityNotFoundException("Trabajo de nómina no encontrado con ID: " + jobUuid));
+    }
+
+    public List<PayrollJobFailureEntity> getJobFailures(UUID jobUuid) {
+        return payrollJobFailureRepository.findByJob(jobUuid);
+    }
+
+    public List<PayrollJobEntity> getJobsByPeriod(UUID payrollPeriodUuid) {
+        return payrollJobRepository.findByPayrollPeriodUuidOrderByCreatedAtDesc(payrollPeriodUuid);
+    }
+
+    /**
+     * Request the cancellation of a running job; the instance running it stops within a heartbeat
+     */
+    public PayrollJobEntity cancelJob(UUID jobUuid) {
+        getJob(jobUuid);
+        if (!payrollJobStore.requestCancel(jobUuid)) {
+            throw new IllegalArgumentException("El trabajo de nómina ya terminó");
+        }
+        RunningJob job = running.get(jobUuid);
+        if (job != null) job.cancelled = true;
+        return getJob(jobUuid);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running.values().forEach(job -> job.cancelled = true);
+        heartbeatExecutor.shutdownNow();
+        jobExecutor.shutdownNow();
+    }
+
+    private PayrollJobEntity start(UUID payrollPeriodUuid, PayrollJobEntity.JobType type, boolean onlyChanged) {
+        PayrollJobEntity job = payrollJobStore.start(payrollPeriodUuid, type, onlyChanged, LEASE);
+
+        RunningJob runningJob = new RunningJob(job, payrollJobStore);
+        running.put(job.getUuid(), runningJob);
+        runningJob.heartbeat = heartbeatExecutor.scheduleWithFixedDelay(
+                () -> heartbeat(runningJob), HEARTBEAT_MS, HEARTBEAT_MS, TimeUnit.MILLISECONDS);
+        jobExecutor.submit(() -> execute(runningJob));
+        return job;
+    }
+
+    private void execute(RunningJob job) {
+        try {
+            PayrollBatchResult result = job.type == PayrollJobEntity.JobType.CALCULATE
+                    ? payrollLineService.calculatePayrollForAllTeachers(job.payrollPeriodUuid, job)
+                    : payrollLineService.recalculatePayrollForPeriod(job.payrollPeriodUuid, job.onlyChanged, job);
+            job.heartbeat.cancel(false);
+            payrollJobStore.complete(job.jobUuid, result, job.done.get());
+        } catch (CancellationException e) {
+            job.heartbeat.cancel(false);
+            payrollJobStore.abort(job.jobUuid, PayrollJobEntity.JobStatus.CANCELLED,
+                    "Cálculo cancelado; no se guardó ninguna línea", job.done.get(), job.failed.get());
+        } catch (RuntimeException e) {
+            job.heartbeat.cancel(false);
+            log.error("Payroll job {} failed", job.jobUuid, e);
+            payrollJobStore.abort(job.jobUuid, PayrollJobEntity.JobStatus.FAILED,
+                    "Error al calcular la nómina: " + e.getMessage(), job.done.get(), job.failed.get());
+        } finally {
+            running.remove(job.jobUuid);
+        }
+    }
+
+    private void heartbeat(RunningJob job) {
+        // The calculation transaction holds the lock row from the fence on: renewing it here would
+        // wait for that commit and hold up the heartbeats of every other job on this thread
+        if (job.fenced) return;
+        try {
+            boolean cancelRequested = payrollJobStore.heartbeat(
+                    job.jobUuid, job.total, job.done.get(), job.failed.get(), LEASE);
+            if (cancelRequested) job.cancelled = true;
+        } catch (RuntimeException e) {
+            // Retried on the next beat; the lease outlives several missed ones
+            log.warn("Payroll job {} heartbeat failed: {}", job.jobUuid, e.getMessage());
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Live progress of a job running on this instance, written by the calculation workers
+     */
+    private static class RunningJob implements PayrollProgress {
+        final UUID jobUuid;
+        final UUID payrollPeriodUuid;
+        final PayrollJobEntity.JobType type;
+        final boolean onlyChanged;
+        final AtomicInteger done = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        volatile Integer total;
+        volatile boolean cancelled;
+        volatile boolean fenced;
+        volatile ScheduledFuture<?> heartbeat;
+        private final PayrollJobStore store;
+
+        RunningJob(PayrollJobEntity job, PayrollJobStore store) {
+            this.store = store;
+            this.jobUuid = job.getUuid();
+            this.payrollPeriodUuid = job.getPayrollPeriodUuid();
+            this.type = job.getType();
+            this.onlyChanged = job.isOnlyChanged();
+        }
+
+        @Override
+        public void started(int totalTeachers) {
+            total = totalTeachers;
+        }
+
+        @Override
+        public void teacherDone(boolean failed) {
+            done.incrementAndGet();
+            if (failed) this.failed.incrementAndGet();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        // The lines are only written while this job still holds the lock of the period. The
+        // heartbeat stops first, the fence's renewal keeps the lease until the lines are committed
+        @Override
+        public void beforeWrite() {
+            fenced = true;
+            store.fence(jobUuid, LEASE);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Job rows and period locks, each change in its own short transaction: they must be visible to
+ * other instances while the (long) calculation transaction is still open.
+ * <p>
+ * Whatever a job writes is fenced by its lock: the lines are only written while it holds an
+ * unexpired lock (see {@link #fence}) and it only completes by releasing one, so a job whose
+ * lease expired and was taken over by another instance cannot overwrite the new job's work.
+ * Leases are computed and compared with the database clock, the one clock every instance shares.
+ */
+@Component
+public class PayrollJobStore {
+
+    private final PayrollJobRepository payrollJobRepository;
+    private final PayrollJobLockRepository payrollJobLockRepository;
+    private final PayrollJobFailureRepository payrollJobFailureRepository;
+
+    @Autowired
+    public PayrollJobStore(PayrollJobRepository payrollJobRepository,
+                           PayrollJobLockRepository payrollJobLockRepository,
+                           PayrollJobFailureRepository payrollJobFailureRepository) {
+        this.payrollJobRepository = payrollJobRepository;
+        this.payrollJobLockRepository = payrollJobLockRepository;
+        this.payrollJobFailureRepository = payrollJobFailureRepository;
+    }
+
+    /**
+     * Create a running job holding the lock of its period
+     *
+     * @throws IllegalArgumentException if another job holds an unexpired lock of the period
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public PayrollJobEntity start(UUID payrollPeriodUuid, PayrollJobEntity.JobType type, boolean onlyChanged,
+                                  Duration lease) {
+        LocalDateTime now = payrollJobLockRepository.findDatabaseTime();
+        try {
+            payrollJobLockRepository.findByPayrollPeriodUuid(payrollPeriodUuid).ifPresent(lock -> {
+                if (lock.getExpiresAt().isAfter(now)) {
+                    throw alreadyRunning();
+                }
+                // The instance running it stopped without releasing the lock, unless it renewed or
+                // released it since we looked
+                if (payrollJobLockRepository.deleteIfExpired(lock.getUuid()) == 0) {
+                    throw alreadyRunning();
+                }
+                payrollJobRepository.markAbandoned(lock.getJobUuid(),
+                        "El trabajo se interrumpió sin terminar (instancia detenida)", now);
+            });
+
+            PayrollJobEntity job = new PayrollJobEntity();
+            job.setPayrollPeriodUuid(payrollPeriodUuid);
+            job.setType(type);
+            job.setOnlyChanged(onlyChanged);
+            job = payrollJobRepository.save(job);
+
+            PayrollJobLockEntity lock = new PayrollJobLockEntity();
+            lock.setPayrollPeriodUuid(payrollPeriodUuid);
+            lock.setJobUuid(job.getUuid());
+            lock.setExpiresAt(now.plus(lease));
+            // Another instance may have inserted its lock since we looked
+            payrollJobLockRepository.saveAndFlush(lock);
+            return job;
+        } catch (DataIntegrityViolationException | ObjectOptimisticLockingFailureException e) {
+            // Another instance took the period over at the same time
+            throw alreadyRunning();
+        }
+    }
+
+    /**
+     * Write the progress of a running job and renew its lock
+     *
+     * @return whether it must stop: its cancellation was requested or it lost its lock
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean heartbeat(UUID jobUuid, Integer totalTeachers, int doneTeachers, int failedTeachers,
+                             Duration lease) {
+        payrollJobRepository.updateProgress(jobUuid, totalTeachers, doneTeachers, failedTeachers);
+        if (renew(jobUuid, lease) == 0) {
+            return true;
+        }
+        return payrollJobRepository.isCancelRequested(jobUuid);
+    }
+
+    /**
+     * Called inside the calculation transaction right before it writes the lines: renews the lock
+     * of the job, which stays row-locked until that transaction ends, so the period cannot be
+     * taken over before the lines are committed
+     *
+     * @throws IllegalStateException if the lock expired or belongs to another job; the calculation
+     *                               rolls back
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void fence(UUID jobUuid, Duration lease) {
+        if (renew(jobUuid, lease) == 0) {
+            throw lockLost();
+        }
+    }
+
+    private int renew(UUID jobUuid, Duration lease) {
+        return payrollJobLockRepository.renew(jobUuid, payrollJobLockRepository.findDatabaseTime().plus(lease));
+    }
+
+    /**
+     * @return false if the job is no longer running
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean requestCancel(UUID jobUuid) {
+        return payrollJobRepository.requestCancel(jobUuid) > 0;
+    }
+
+    /**
+     * Release the lock and record the result
+     *
+     * @throws IllegalStateException if the job no longer holds an unexpired lock; nothing is recorded
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void complete(UUID jobUuid, PayrollBatchResult result, int doneTeachers) {
+        if (payrollJobLockRepository.releaseIfHeld(jobUuid) == 0) {
+            throw lockLost();
+        }
+        payrollJobRepository.finish(jobUuid, PayrollJobEntity.JobStatus.COMPLETED, null, LocalDateTime.now(),
+                result.getLines().size(), doneTeachers, result.getFailures().size());
+
+        PayrollJobEntity job = payrollJobRepository.getReferenceById(jobUuid);
+        List<PayrollJobFailureEntity> failures = new ArrayList<>(result.getFailures().size());
+        for (PayrollBatchResult.Failure failure : result.getFailures()) {
+            PayrollJobFailureEntity entity = new PayrollJobFailureEntity();
+            entity.setJob(job);
+            entity.setTeacherUuid(failure.teacherUuid());
+            entity.setTeacherName(failure.teacherName());
+            entity.setMessage(truncate(failure.message()));
+            failures.add(entity);
+        }
+        payrollJobFailureRepository.saveAll(failures);
+    }
+
+    /**
+     * End a job that stored nothing (cancelled or failed)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void abort(UUID jobUuid, PayrollJobEntity.JobStatus status, String message,
+                      int doneTeachers, int failedTeachers) {
+        payrollJobRepository.finish(jobUuid, status, truncate(message), LocalDateTime.now(),
+                0, doneTeachers, failedTeachers);
+        payrollJobLockRepository.deleteByJob(jobUuid);
+    }
+
+    private static IllegalArgumentException alreadyRunning() {
+        return new IllegalArgumentException("Ya hay un cálculo de nómina en curso para este período");
+    }
+
+    private static IllegalStateException lockLost() {
+        return new IllegalStateException("El trabajo perdió el bloqueo del período (su lease expiró)");
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
@@ -1,14 +1,21 @@
 package com.pontificia.remashorario.modules.payrollLine;
 
 import com.pontificia.remashorario.config.ApiResponse;
+import com.pontificia.remashorario.modules.payrollLine.dto.PayrollActivityTypeSummaryDTO;
+import com.pontificia.remashorario.modules.payrollLine.dto.PayrollJobDTO;
+import com.pontificia.remashorario.modules.payrollLine.dto.PayrollLineItemPageDTO;
 import com.pontificia.remashorario.modules.payrollLine.dto.PayrollLineResponseDTO;
 import com.pontificia.remashorario.modules.payrollLine.dto.PayrollPeriodSummaryDTO;
+import com.pontificia.remashorario.modules.payrollLine.dto.RateOverlapDTO;
 import com.pontificia.remashorario.modules.payrollLine.mapper.PayrollLineMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -22,6 +29,7 @@ import java.util.UUID;
 public class PayrollLineController {
 
     private final PayrollLineService payrollLineService;
+    private final PayrollJobService payrollJobService;
     private final PayrollLineMapper payrollLineMapper;
 
     /**
@@ -60,6 +68,26 @@ public class PayrollLineController {
         );
     }
 
+    /**
+     * Get the breakdown items of a payroll line, one page at a time
+     * Optional filters: date range, item type (ATTENDANCE, EXTRA_ASSIGNMENT) and activity type
+     */
+    @GetMapping("/{uuid}/items")
+    public ResponseEntity<ApiResponse<PayrollLineItemPageDTO>> getPayrollLineItems(
+            @PathVariable UUID uuid,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) PayrollLineItemEntity.ItemType type,
+            @RequestParam(required = false) UUID activityTypeUuid,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        PayrollLineItemPageDTO responseDTO = payrollLineMapper.toItemPageDTO(payrollLineService.getPayrollLineItems(
+                uuid, fromDate, toDate, type, activityTypeUuid, page, size));
+        return ResponseEntity.ok(
+                ApiResponse.success(responseDTO, "Detalle de la línea de nómina recuperado con éxito")
+        );
+    }
+
     /**
      * Get all payroll lines for a specific period
      */
@@ -117,30 +145,79 @@ public class PayrollLineController {
     }
 
     /**
-     * Calculate payroll for all teachers in a period
-     * This endpoint triggers calculation for all teachers who have attendance or extra assignments
+     * Start calculating payroll for all teachers in a period in the background
+     * Returns the job right away; poll /jobs/{jobUuid} for progress and the teachers that failed
      */
     @PostMapping("/calculate/period/{payrollPeriodUuid}")
-    public ResponseEntity<ApiResponse<List<PayrollLineResponseDTO>>> calculatePayrollForAllTeachers(
+    public ResponseEntity<ApiResponse<PayrollJobDTO>> calculatePayrollForAllTeachers(
             @PathVariable UUID payrollPeriodUuid) {
-        List<PayrollLineEntity> payrollLines = payrollLineService.calculatePayrollForAllTeachers(payrollPeriodUuid);
-        List<PayrollLineResponseDTO> responseDTOs = payrollLineMapper.toResponseDTOList(payrollLines);
+        PayrollJobEntity job = payrollJobService.startCalculation(payrollPeriodUuid);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(payrollLineMapper.toJobDTO(job, null), "Cálculo de nómina iniciado"));
+    }
+
+    /**
+     * Start recalculating all payroll lines for a period in the background
+     * Deletes existing calculations and recalculates from scratch, or with onlyChanged=true
+     * replaces only the lines of teachers with changes since they were generated
+     */
+    @PostMapping("/recalculate/period/{payrollPeriodUuid}")
+    public ResponseEntity<ApiResponse<PayrollJobDTO>> recalculatePayrollForPeriod(
+            @PathVariable UUID payrollPeriodUuid,
+            @RequestParam(defaultValue = "false") boolean onlyChanged) {
+        PayrollJobEntity job = payrollJobService.startRecalculation(payrollPeriodUuid, onlyChanged);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(payrollLineMapper.toJobDTO(job, null), "Recálculo de nómina iniciado"));
+    }
+
+    /**
+     * Get the progress of a payroll job (teachers done/total and failures)
+     */
+    @GetMapping("/jobs/{jobUuid}")
+    public ResponseEntity<ApiResponse<PayrollJobDTO>> getJob(@PathVariable UUID jobUuid) {
+        PayrollJobEntity job = payrollJobService.getJob(jobUuid);
+        List<PayrollJobFailureEntity> failures = job.getStatus() == PayrollJobEntity.JobStatus.COMPLETED
+                ? payrollJobService.getJobFailures(jobUuid)
+                : null;
         return ResponseEntity.ok(
-                ApiResponse.success(responseDTOs, "Nómina de todos los docentes calculada con éxito")
+                ApiResponse.success(payrollLineMapper.toJobDTO(job, failures), "Estado del cálculo de nómina recuperado")
         );
     }
 
     /**
-     * Recalculate all payroll lines for a period
-     * Deletes existing calculations and recalculates from scratch
+     * Get the payroll jobs of a period, newest first
      */
-    @PostMapping("/recalculate/period/{payrollPeriodUuid}")
-    public ResponseEntity<ApiResponse<List<PayrollLineResponseDTO>>> recalculatePayrollForPeriod(
-            @PathVariable UUID payrollPeriodUuid) {
-        List<PayrollLineEntity> payrollLines = payrollLineService.recalculatePayrollForPeriod(payrollPeriodUuid);
-        List<PayrollLineResponseDTO> responseDTOs = payrollLineMapper.toResponseDTOList(payrollLines);
+    @GetMapping("/period/{payrollPeriodUuid}/jobs")
+    public ResponseEntity<ApiResponse<List<PayrollJobDTO>>> getJobsByPeriod(@PathVariable UUID payrollPeriodUuid) {
+        List<PayrollJobDTO> responseDTOs = payrollJobService.getJobsByPeriod(payrollPeriodUuid).stream()
+                .map(job -> payrollLineMapper.toJobDTO(job, null))
+                .toList();
         return ResponseEntity.ok(
-                ApiResponse.success(responseDTOs, "Nómina del período recalculada con éxito")
+                ApiResponse.success(responseDTOs, "Cálculos de nómina del período recuperados")
+        );
+    }
+
+    /**
+     * Cancel a running payroll job; nothing it calculated is stored
+     */
+    @PostMapping("/jobs/{jobUuid}/cancel")
+    public ResponseEntity<ApiResponse<PayrollJobDTO>> cancelJob(@PathVariable UUID jobUuid) {
+        PayrollJobEntity job = payrollJobService.cancelJob(jobUuid);
+        return ResponseEntity.ok(
+                ApiResponse.success(payrollLineMapper.toJobDTO(job, null), "Cancelación del cálculo de nómina solicitada")
+        );
+    }
+
+    /**
+     * Get rates whose effective ranges overlap (they make payroll lines fail)
+     */
+    @GetMapping("/rate-overlaps")
+    public ResponseEntity<ApiResponse<List<RateOverlapDTO>>> getRateOverlaps() {
+        List<RateOverlapDTO> responseDTOs = payrollLineService.getRateOverlaps().stream()
+                .map(payrollLineMapper::toRateOverlapDTO)
+                .toList();
+        return ResponseEntity.ok(
+                ApiResponse.success(responseDTOs, "Superposiciones de tarifas recuperadas con éxito")
         );
     }
 
@@ -168,6 +245,18 @@ public class PayrollLineController {
         );
     }
 
+    /**
+     * Get period totals per activity type
+     */
+    @GetMapping("/period/{payrollPeriodUuid}/activity-type-summary")
+    public ResponseEntity<ApiResponse<List<PayrollActivityTypeSummaryDTO>>> getActivityTypeSummaryByPeriod(
+            @PathVariable UUID payrollPeriodUuid) {
+        List<PayrollActivityTypeSummaryDTO> responseDTOs = payrollLineService.getActivityTypeSummaryByPeriod(payrollPeriodUuid);
+        return ResponseEntity.ok(
+                ApiResponse.success(responseDTOs, "Resumen por tipo de actividad calculado con éxito")
+        );
+    }
+
     /**
      * Get teacher count for a period
      */
@@ -10,6 +10,9 @@ import lombok.Setter;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+/**
+ * Totals of a teacher in a payroll period; the breakdown is stored as {@link PayrollLineItemEntity} rows
+ */
 @Entity
 @Table(name = "payroll_line")
 @Getter
@@ -39,10 +42,6 @@ public class PayrollLineEntity extends BaseEntity {
     @Column(name = "net_amount", precision = 14, scale = 2, nullable = false)
     private BigDecimal netAmount = BigDecimal.ZERO;
 
-    @Lob
-    @Column(columnDefinition = "NVARCHAR(MAX)")
-    private String details;
-
     @Column(name = "generated_at")
     private LocalDateTime generatedAt;
 }
@@ -0,0 +1,73 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActivityTypeEntity;
+import com.pontificia.remashorario.utils.abstractBase.BaseEntity;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * One paid attendance or extra assignment of a payroll line
+ */
+@Entity
+@Table(name = "payroll_line_item", indexes = {
+        @Index(name = "ix_payroll_line_item_line_date", columnList = "payroll_line_id, item_date")
+})
+@Getter
+@Setter
+public class PayrollLineItemEntity extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "payroll_line_id", nullable = false)
+    private PayrollLineEntity payrollLine;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "item_type", nullable = false, length = 20)
+    private ItemType type;
+
+    @Column(name = "source_uuid", nullable = false)
+    private UUID sourceUuid; // attendance or extra assignment
+
+    @Column(name = "item_date", nullable = false)
+    private LocalDate itemDate;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "activity_type_id", nullable = false)
+    private AttendanceActivityTypeEntity activityType;
+
+    @Column(length = 255)
+    private String description; // extra assignment title
+
+    @Column(name = "rate_per_hour", nullable = false, precision = 12, scale = 2)
+    private BigDecimal ratePerHour;
+
+    @Column(name = "hours_worked", precision = 10, scale = 4, nullable = false)
+    private BigDecimal hoursWorked = BigDecimal.ZERO;
+
+    @Column(name = "hours_scheduled", precision = 10, scale = 4, nullable = false)
+    private BigDecimal hoursScheduled = BigDecimal.ZERO;
+
+    @Column(name = "gross_amount", precision = 14, scale = 2, nullable = false)
+    private BigDecimal grossAmount = BigDecimal.ZERO;
+
+    @Column(name = "penalty_minutes", nullable = false)
+    private Integer penaltyMinutes = 0;
+
+    @Column(name = "penalty_amount", precision = 14, scale = 2, nullable = false)
+    private BigDecimal penaltyAmount = BigDecimal.ZERO;
+
+    @Column(name = "late_minutes")
+    private Integer lateMinutes;
+
+    @Column(name = "early_departure_minutes")
+    private Integer earlyDepartureMinutes;
+
+    public enum ItemType {
+        ATTENDANCE,
+        EXTRA_ASSIGNMENT
+    }
+}
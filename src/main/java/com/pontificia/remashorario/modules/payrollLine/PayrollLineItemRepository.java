@@ -0,0 +1,68 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import com.pontificia.remashorario.modules.payrollLine.dto.PayrollActivityTypeSummaryDTO;
+import com.pontificia.remashorario.utils.abstractBase.BaseRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PayrollLineItemRepository extends BaseRepository<PayrollLineItemEntity> {
+
+    /**
+     * Items of a line in date order; every filter is optional (null)
+     */
+    @Query("SELECT i FROM PayrollLineItemEntity i " +
+            "JOIN FETCH i.activityType " +
+            "WHERE i.payrollLine.uuid = :payrollLineUuid " +
+            "AND (:fromDate IS NULL OR i.itemDate >= :fromDate) " +
+            "AND (:toDate IS NULL OR i.itemDate <= :toDate) " +
+            "AND (:type IS NULL OR i.type = :type) " +
+            "AND (:activityTypeUuid IS NULL OR i.activityType.uuid = :activityTypeUuid) " +
+            "ORDER BY i.itemDate, i.uuid")
+    Slice<PayrollLineItemEntity> findByPayrollLineFiltered(
+            @Param("payrollLineUuid") UUID payrollLineUuid,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("type") PayrollLineItemEntity.ItemType type,
+            @Param("activityTypeUuid") UUID activityTypeUuid,
+            Pageable pageable
+    );
+
+    @Query("SELECT new com.pontificia.remashorario.modules.payrollLine.dto.PayrollActivityTypeSummaryDTO(" +
+            "at.uuid, at.code, at.name, COUNT(i), SUM(i.hoursWorked), SUM(i.hoursScheduled), " +
+            "SUM(i.grossAmount), SUM(i.penaltyAmount)) " +
+            "FROM PayrollLineItemEntity i " +
+            "JOIN i.activityType at " +
+            "WHERE i.payrollLine.payrollPeriod.uuid = :payrollPeriodUuid " +
+            "GROUP BY at.uuid, at.code, at.name " +
+            "ORDER BY at.name")
+    List<PayrollActivityTypeSummaryDTO> summarizeByActivityType(@Param("payrollPeriodUuid") UUID payrollPeriodUuid);
+
+    @Modifying
+    @Query("DELETE FROM PayrollLineItemEntity i WHERE i.payrollLine.uuid = :payrollLineUuid")
+    int deleteByPayrollLine(@Param("payrollLineUuid") UUID payrollLineUuid);
+
+    @Modifying
+    @Query("DELETE FROM PayrollLineItemEntity i WHERE i.payrollLine.uuid IN (" +
+            "SELECT pl.uuid FROM PayrollLineEntity pl WHERE pl.payrollPeriod.uuid = :payrollPeriodUuid)")
+    int deleteByPayrollPeriod(@Param("payrollPeriodUuid") UUID payrollPeriodUuid);
+
+    @Modifying
+    @Query("DELETE FROM PayrollLineItemEntity i WHERE i.payrollLine.uuid IN (" +
+            "SELECT pl.uuid FROM PayrollLineEntity pl " +
+            "WHERE pl.payrollPeriod.uuid = :payrollPeriodUuid " +
+            "AND pl.teacher.uuid IN :teacherUuids)")
+    int deleteByPayrollPeriodAndTeachers(
+            @Param("payrollPeriodUuid") UUID payrollPeriodUuid,
+            @Param("teacherUuids") Collection<UUID> teacherUuids
+    );
+}
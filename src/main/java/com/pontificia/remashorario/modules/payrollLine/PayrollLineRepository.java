@@ -1,10 +1,12 @@
 package com.pontificia.remashorario.modules.payrollLine;
 
 import com.pontificia.remashorario.utils.abstractBase.BaseRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -60,4 +62,17 @@ public interface PayrollLineRepository extends BaseRepository<PayrollLineEntity>
             "FROM PayrollLineEntity pl " +
             "WHERE pl.payrollPeriod.uuid = :payrollPeriodUuid")
     Long countByPayrollPeriod(@Param("payrollPeriodUuid") UUID payrollPeriodUuid);
+
+    @Modifying
+    @Query("DELETE FROM PayrollLineEntity pl WHERE pl.payrollPeriod.uuid = :payrollPeriodUuid")
+    int deleteByPayrollPeriod(@Param("payrollPeriodUuid") UUID payrollPeriodUuid);
+
+    @Modifying
+    @Query("DELETE FROM PayrollLineEntity pl " +
+            "WHERE pl.payrollPeriod.uuid = :payrollPeriodUuid " +
+            "AND pl.teacher.uuid IN :teacherUuids")
+    int deleteByPayrollPeriodAndTeachers(
+            @Param("payrollPeriodUuid") UUID payrollPeriodUuid,
+            @Param("teacherUuids") Collection<UUID> teacherUuids
+    );
 }
@@ -1,31 +1,26 @@
 package com.pontificia.remashorario.modules.payrollLine;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.pontificia.remashorario.modules.defaultRate.DefaultRateEntity;
-import com.pontificia.remashorario.modules.defaultRate.DefaultRateRepository;
-import com.pontificia.remashorario.modules.extraAssignment.ExtraAssignmentEntity;
 import com.pontificia.remashorario.modules.extraAssignment.ExtraAssignmentRepository;
-import com.pontificia.remashorario.modules.modalityRate.ModalityRateEntity;
-import com.pontificia.remashorario.modules.modalityRate.ModalityRateRepository;
+import com.pontificia.remashorario.modules.payrollLine.dto.PayrollActivityTypeSummaryDTO;
+import com.pontificia.remashorario.modules.payrollLine.dto.TeacherActivityTypeRowDTO;
 import com.pontificia.remashorario.modules.payrollPeriod.PayrollPeriodEntity;
 import com.pontificia.remashorario.modules.payrollPeriod.PayrollPeriodService;
 import com.pontificia.remashorario.modules.teacher.TeacherEntity;
 import com.pontificia.remashorario.modules.teacher.TeacherService;
-import com.pontificia.remashorario.modules.teacherAttendance.TeacherAttendanceEntity;
 import com.pontificia.remashorario.modules.teacherAttendance.TeacherAttendanceRepository;
-import com.pontificia.remashorario.modules.teacherRate.TeacherRateEntity;
-import com.pontificia.remashorario.modules.teacherRate.TeacherRateRepository;
 import com.pontificia.remashorario.utils.abstractBase.BaseService;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CancellationException;
 
 /**
  * Service for calculating and managing teacher payroll
@@ -34,40 +29,53 @@ import java.util.stream.Collectors;
  * - Extra assignments (workshops, exams)
  * - Penalties for late arrival/early departure
  * - Rate resolution (teacher > modality > default)
+ * Whole periods are loaded in bulk by {@link PayrollBatchLoader} and calculated in parallel
+ * by {@link PayrollCalculator}, in the background through {@link PayrollJobService}.
  */
 @Service
 public class PayrollLineService extends BaseService<PayrollLineEntity> {
 
+    private static final int MAX_ITEM_PAGE_SIZE = 500;
+
     private final PayrollLineRepository payrollLineRepository;
+    private final PayrollLineItemRepository payrollLineItemRepository;
+    private final PayrollJobLockRepository payrollJobLockRepository;
     private final PayrollPeriodService payrollPeriodService;
     private final TeacherService teacherService;
+    private final PayrollBatchLoader payrollBatchLoader;
+    private final PayrollCalculator payrollCalculator;
+    private final PayrollRateResolver payrollRateResolver;
+    private final PayrollChangeRepository payrollChangeRepository;
+    private final PayrollChangeAppliedRepository payrollChangeAppliedRepository;
     private final TeacherAttendanceRepository attendanceRepository;
     private final ExtraAssignmentRepository extraAssignmentRepository;
-    private final TeacherRateRepository teacherRateRepository;
-    private final ModalityRateRepository modalityRateRepository;
-    private final DefaultRateRepository defaultRateRepository;
-    private final ObjectMapper objectMapper;
 
     @Autowired
     public PayrollLineService(PayrollLineRepository payrollLineRepository,
+                             PayrollLineItemRepository payrollLineItemRepository,
+                             PayrollJobLockRepository payrollJobLockRepository,
                              PayrollPeriodService payrollPeriodService,
                              TeacherService teacherService,
+                             PayrollBatchLoader payrollBatchLoader,
+                             PayrollCalculator payrollCalculator,
+                             PayrollRateResolver payrollRateResolver,
+                             PayrollChangeRepository payrollChangeRepository,
+                             PayrollChangeAppliedRepository payrollChangeAppliedRepository,
                              TeacherAttendanceRepository attendanceRepository,
-                             ExtraAssignmentRepository extraAssignmentRepository,
-                             TeacherRateRepository teacherRateRepository,
-                             ModalityRateRepository modalityRateRepository,
-                             DefaultRateRepository defaultRateRepository,
-                             ObjectMapper objectMapper) {
+                             ExtraAssignmentRepository extraAssignmentRepository) {
         super(payrollLineRepository);
         this.payrollLineRepository = payrollLineRepository;
+        this.payrollLineItemRepository = payrollLineItemRepository;
+        this.payrollJobLockRepository = payrollJobLockRepository;
         this.payrollPeriodService = payrollPeriodService;
         this.teacherService = teacherService;
+        this.payrollBatchLoader = payrollBatchLoader;
+        this.payrollCalculator = payrollCalculator;
+        this.payrollRateResolver = payrollRateResolver;
+        this.payrollChangeRepository = payrollChangeRepository;
+        this.payrollChangeAppliedRepository = payrollChangeAppliedRepository;
         this.attendanceRepository = attendanceRepository;
         this.extraAssignmentRepository = extraAssignmentRepository;
-        this.teacherRateRepository = teacherRateRepository;
-        this.modalityRateRepository = modalityRateRepository;
-        this.defaultRateRepository = defaultRateRepository;
-        this.objectMapper = objectMapper;
     }
 
     public List<PayrollLineEntity> getAllPayrollLines() {
@@ -97,6 +105,34 @@ public class PayrollLineService extends BaseService<PayrollLineEntity> {
                         "No se encontró línea de nómina para el período y docente especificados"));
     }
 
+    /**
+     * Items of a payroll line in date order, one page at a time; every filter is optional
+     */
+    public Slice<PayrollLineItemEntity> getPayrollLineItems(UUID payrollLineUuid,
+                                                            LocalDate fromDate,
+                                                            LocalDate toDate,
+                                                            PayrollLineItemEntity.ItemType type,
+                                                            UUID activityTypeUuid,
+                                                            int page,
+                                                            int size) {
+        if (!payrollLineRepository.existsById(payrollLineUuid)) {
+            throw new EntityNotFoundException("Línea de nómina no encontrada con ID: " + payrollLineUuid);
+        }
+        if (page < 0 || size < 1 || size > MAX_ITEM_PAGE_SIZE) {
+            throw new IllegalArgumentException(
+                    "La página debe ser >= 0 y el tamaño estar entre 1 y " + MAX_ITEM_PAGE_SIZE);
+        }
+        return payrollLineItemRepository.findByPayrollLineFiltered(
+                payrollLineUuid, fromDate, toDate, type, activityTypeUuid, PageRequest.of(page, size));
+    }
+
+    /**
+     * Totals of a period per activity type, aggregated in SQL from the line items
+     */
+    public List<PayrollActivityTypeSummaryDTO> getActivityTypeSummaryByPeriod(UUID payrollPeriodUuid) {
+        return payrollLineItemRepository.summarizeByActivityType(payrollPeriodUuid);
+    }
+
     public PayrollLineEntity findPayrollLineOrThrow(UUID uuid) {
         return findById(uuid)
                 .orElseThrow(() -> new EntityNotFoundException("Línea de nómina no encontrada con ID: " + uuid));
@@ -111,237 +147,193 @@ public class PayrollLineService extends BaseService<PayrollLineEntity> {
         PayrollPeriodEntity period = payrollPeriodService.findPeriodOrThrow(payrollPeriodUuid);
         TeacherEntity teacher = teacherService.findTeacherOrThrow(teacherUuid);
 
+        // A running job would replace this line with its own
+        if (payrollJobLockRepository.isHeld(payrollPeriodUuid)) {
+            throw new IllegalArgumentException("Hay un cálculo de nómina en curso para este período");
+        }
+
         // Check if already exists and delete to recalculate
         payrollLineRepository.findByPayrollPeriodAndTeacher(payrollPeriodUuid, teacherUuid)
-                .ifPresent(existing -> deleteById(existing.getUuid()));
-
-        // Get all approved attendances for the period
-        List<TeacherAttendanceEntity> attendances = attendanceRepository
-                .findByTeacherUuidAndAttendanceDateBetween(
-                        teacherUuid, period.getStartDate(), period.getEndDate())
-                .stream()
-                .filter(a -> a.getStatus() == TeacherAttendanceEntity.AttendanceStatus.APPROVED ||
-                           a.getStatus() == TeacherAttendanceEntity.AttendanceStatus.OVERRIDDEN ||
-                           a.getStatus() == TeacherAttendanceEntity.AttendanceStatus.HOLIDAY)
-                .collect(Collectors.toList());
-
-        // Get all extra assignments for the period
-        List<ExtraAssignmentEntity> extraAssignments = extraAssignmentRepository
-                .findByTeacherAndDateRange(teacherUuid, period.getStartDate(), period.getEndDate());
-
-        // Calculate totals
-        PayrollCalculation calculation = calculatePayroll(teacher, attendances, extraAssignments, period);
-
-        // Create payroll line
-        PayrollLineEntity payrollLine = new PayrollLineEntity();
-        payrollLine.setPayrollPeriod(period);
-        payrollLine.setTeacher(teacher);
-        payrollLine.setTotalHoursWorked(calculation.totalHoursWorked);
-        payrollLine.setTotalHoursScheduled(calculation.totalHoursScheduled);
-        payrollLine.setGrossAmount(calculation.grossAmount);
-        payrollLine.setTotalPenalties(calculation.totalPenalties);
-        payrollLine.setNetAmount(calculation.netAmount);
-        payrollLine.setDetails(calculation.detailsJson);
-        payrollLine.setGeneratedAt(LocalDateTime.now());
+                .ifPresent(existing -> deleteLineWithItems(existing.getUuid()));
 
-        return save(payrollLine);
+        // Read before loading, like in calculateAndStore. Only this teacher's own changes are
+        // applied: modality and default rate changes also concern the other teachers
+        LocalDateTime generatedAt = LocalDateTime.now();
+        List<PayrollChangeEntity> applied = findPendingChanges(period).stream()
+                .filter(change -> teacherUuid.equals(change.getTeacherUuid()))
+                .toList();
+
+        // Approved attendances, extra assignments and rates of the period
+        PayrollBatch batch = payrollBatchLoader.loadForTeacher(period, teacher);
+
+        PayrollCalculator.PayrollCalculation calculation = payrollCalculator.calculate(
+                teacherUuid, batch.attendancesOf(teacherUuid), batch.extraAssignmentsOf(teacherUuid), batch.getRates());
+
+        PayrollLineEntity payrollLine = save(toPayrollLine(period, teacher, calculation, generatedAt));
+        saveItems(payrollLine, calculation);
+        markApplied(period, applied);
+        return payrollLine;
     }
 
     /**
      * Calculate payroll for all teachers in a period
+     * Teachers that fail (e.g. no applicable rate) are reported and get no line; the rest are stored.
+     * Only run by {@link PayrollJobService}, which holds the lock of the period; a cancelled
+     * progress rolls everything back
      */
     @Transactional
-    public List<PayrollLineEntity> calculatePayrollForAllTeachers(UUID payrollPeriodUuid) {
+    PayrollBatchResult calculatePayrollForAllTeachers(UUID payrollPeriodUuid, PayrollProgress progress) {
         PayrollPeriodEntity period = payrollPeriodService.findPeriodOrThrow(payrollPeriodUuid);
+        checkCanCalculate(period);
 
-        // Get all teachers who have attendances or extra assignments in this period
-        Set<UUID> teacherUuids = new HashSet<>();
-
-        attendanceRepository.findByDateRange(period.getStartDate(), period.getEndDate())
-                .forEach(a -> teacherUuids.add(a.getTeacher().getUuid()));
-
-        extraAssignmentRepository.findByDateRange(period.getStartDate(), period.getEndDate())
-                .forEach(ea -> teacherUuids.add(ea.getTeacher().getUuid()));
+        return calculateAndStore(period, null, findPendingChanges(period), progress);
+    }
 
-        List<PayrollLineEntity> payrollLines = new ArrayList<>();
-        for (UUID teacherUuid : teacherUuids) {
-            try {
-                PayrollLineEntity line = calculatePayrollForTeacher(payrollPeriodUuid, teacherUuid);
-                payrollLines.add(line);
-            } catch (Exception e) {
-                // Log error and continue with next teacher
-                System.err.println("Error calculating payroll for teacher " + teacherUuid + ": " + e.getMessage());
-            }
+    /**
+     * Fail before calculating anything: the period is marked as calculated at the end
+     */
+    public void checkCanCalculate(PayrollPeriodEntity period) {
+        if (period.getStatus() != PayrollPeriodEntity.PayrollStatus.DRAFT) {
+            throw new IllegalStateException("Solo se puede calcular un período en estado BORRADOR");
         }
-
-        // Mark period as calculated
-        payrollPeriodService.markAsCalculated(payrollPeriodUuid);
-
-        return payrollLines;
     }
 
     /**
-     * Core payroll calculation logic
+     * Calculate and replace the lines of every teacher of the period, or only of the given ones
+     *
+     * @param teacherUuids teachers to recalculate, or null for every teacher with data in the period
+     * @param pending      changes read before loading the data; marked as applied with the new lines
      */
-    private PayrollCalculation calculatePayroll(TeacherEntity teacher,
-                                               List<TeacherAttendanceEntity> attendances,
-                                               List<ExtraAssignmentEntity> extraAssignments,
-                                               PayrollPeriodEntity period) {
-        PayrollCalculation calc = new PayrollCalculation();
-        List<PayrollDetailItem> details = new ArrayList<>();
-
-        // Calculate from attendances
-        for (TeacherAttendanceEntity attendance : attendances) {
-            PayrollDetailItem item = calculateAttendancePayment(teacher, attendance, period);
-            details.add(item);
-
-            calc.totalHoursWorked = calc.totalHoursWorked.add(item.hoursWorked);
-            calc.totalHoursScheduled = calc.totalHoursScheduled.add(item.hoursScheduled);
-            calc.grossAmount = calc.grossAmount.add(item.grossAmount);
-            calc.totalPenalties = calc.totalPenalties.add(item.penaltyAmount);
-        }
+    private PayrollBatchResult calculateAndStore(PayrollPeriodEntity period, Set<UUID> teacherUuids,
+                                                 List<PayrollChangeEntity> pending, PayrollProgress progress) {
+        LocalDateTime generatedAt = LocalDateTime.now();
 
-        // Calculate from extra assignments
-        for (ExtraAssignmentEntity assignment : extraAssignments) {
-            PayrollDetailItem item = calculateExtraAssignmentPayment(teacher, assignment, period);
-            details.add(item);
+        // Teachers who have attendances or extra assignments in this period, with their data
+        PayrollBatch batch = teacherUuids == null
+                ? payrollBatchLoader.load(period)
+                : payrollBatchLoader.load(period, teacherUuids);
 
-            calc.totalHoursWorked = calc.totalHoursWorked.add(item.hoursWorked);
-            calc.totalHoursScheduled = calc.totalHoursScheduled.add(item.hoursWorked); // Same for extras
-            calc.grossAmount = calc.grossAmount.add(item.grossAmount);
+        List<PayrollLineEntity> payrollLines = new ArrayList<>();
+        List<PayrollCalculator.PayrollCalculation> calculations = new ArrayList<>();
+        List<PayrollBatchResult.Failure> failures = new ArrayList<>();
+        for (PayrollCalculator.TeacherResult result : payrollCalculator.calculateAll(batch, progress)) {
+            TeacherEntity teacher = batch.teacher(result.teacherUuid());
+            if (result.failed()) {
+                failures.add(new PayrollBatchResult.Failure(result.teacherUuid(), teacher.getFullName(), result.error()));
+            } else {
+                payrollLines.add(toPayrollLine(period, teacher, result.calculation(), generatedAt));
+                calculations.add(result.calculation());
+            }
         }
 
-        // Calculate net amount
-        calc.netAmount = calc.grossAmount.subtract(calc.totalPenalties);
-
-        // Convert details to JSON
-        try {
-            calc.detailsJson = objectMapper.writeValueAsString(details);
-        } catch (Exception e) {
-            calc.detailsJson = "[]";
+        // Last chance to stop before writing anything
+        if (progress.isCancelled()) {
+            throw new CancellationException("Cálculo de nómina cancelado");
+        }
+        progress.beforeWrite();
+
+        // Previous lines of every teacher in the batch are replaced, also for those that failed;
+        // requested teachers left without data in the period just lose their line
+        Set<UUID> replaced = new HashSet<>(batch.getTeacherUuids());
+        if (teacherUuids != null) replaced.addAll(teacherUuids);
+        if (!replaced.isEmpty()) {
+            payrollLineItemRepository.deleteByPayrollPeriodAndTeachers(period.getUuid(), replaced);
+            payrollLineRepository.deleteByPayrollPeriodAndTeachers(period.getUuid(), replaced);
+        }
+        // Lines and then their items are inserted in JDBC batches (hibernate.jdbc.batch_size)
+        List<PayrollLineEntity> saved = payrollLineRepository.saveAll(payrollLines);
+        List<PayrollLineItemEntity> items = new ArrayList<>();
+        for (int i = 0; i < saved.size(); i++) {
+            items.addAll(attachItems(saved.get(i), calculations.get(i)));
         }
+        payrollLineItemRepository.saveAll(items);
+        markApplied(period, withoutFailed(pending, failures));
+
+        // Mark period as calculated
+        payrollPeriodService.markAsCalculated(period.getUuid());
 
-        return calc;
+        return new PayrollBatchResult(saved, failures);
+    }
+
+    private PayrollLineEntity toPayrollLine(PayrollPeriodEntity period, TeacherEntity teacher,
+                                            PayrollCalculator.PayrollCalculation calculation,
+                                            LocalDateTime generatedAt) {
+        PayrollLineEntity payrollLine = new PayrollLineEntity();
+        payrollLine.setPayrollPeriod(period);
+        payrollLine.setTeacher(teacher);
+        payrollLine.setTotalHoursWorked(calculation.totalHoursWorked);
+        payrollLine.setTotalHoursScheduled(calculation.totalHoursScheduled);
+        payrollLine.setGrossAmount(calculation.grossAmount);
+        payrollLine.setTotalPenalties(calculation.totalPenalties);
+        payrollLine.setNetAmount(calculation.netAmount);
+        payrollLine.setGeneratedAt(generatedAt);
+        return payrollLine;
     }
 
     /**
-     * Calculate payment for a single attendance
+     * Changes not yet reflected in the lines of the period. Read before loading the data a
+     * calculation uses: a change committing later is not in the list and stays pending.
      */
-    private PayrollDetailItem calculateAttendancePayment(TeacherEntity teacher,
-                                                         TeacherAttendanceEntity attendance,
-                                                         PayrollPeriodEntity period) {
-        PayrollDetailItem item = new PayrollDetailItem();
-        item.type = "ATTENDANCE";
-        item.date = attendance.getAttendanceDate().toString();
-        item.activityType = attendance.getAttendanceActivityType().getName();
-
-        // Get applicable rate
-        BigDecimal ratePerHour = resolveRateForTeacher(
-                teacher.getUuid(),
-                attendance.getAttendanceActivityType().getUuid(),
-                null, // We'd need modality from class session
-                attendance.getAttendanceDate()
-        );
-        item.ratePerHour = ratePerHour;
-
-        // Calculate hours worked
-        BigDecimal minutesWorked = BigDecimal.valueOf(
-                attendance.getActualDurationMinutes() != null ? attendance.getActualDurationMinutes() : 0
-        );
-        item.hoursWorked = minutesWorked.divide(BigDecimal.valueOf(60), 4, RoundingMode.HALF_UP);
-
-        // Calculate hours scheduled
-        BigDecimal minutesScheduled = BigDecimal.valueOf(
-                attendance.getScheduledDurationMinutes() != null ? attendance.getScheduledDurationMinutes() : 0
-        );
-        item.hoursScheduled = minutesScheduled.divide(BigDecimal.valueOf(60), 4, RoundingMode.HALF_UP);
-
-        // Calculate gross amount (based on actual hours worked)
-        item.grossAmount = item.hoursWorked.multiply(ratePerHour).setScale(2, RoundingMode.HALF_UP);
-
-        // Calculate penalties
-        BigDecimal ratePerMinute = ratePerHour.divide(BigDecimal.valueOf(60), 4, RoundingMode.HALF_UP);
-        int totalPenaltyMinutes = attendance.getLateMinutes() + attendance.getEarlyDepartureMinutes();
-        item.penaltyMinutes = totalPenaltyMinutes;
-        item.penaltyAmount = ratePerMinute.multiply(BigDecimal.valueOf(totalPenaltyMinutes))
-                .setScale(2, RoundingMode.HALF_UP);
-
-        item.lateMinutes = attendance.getLateMinutes();
-        item.earlyDepartureMinutes = attendance.getEarlyDepartureMinutes();
-
-        return item;
+    private List<PayrollChangeEntity> findPendingChanges(PayrollPeriodEntity period) {
+        return payrollChangeRepository.findPendingForPeriod(period.getUuid(), period.getStartDate(), period.getEndDate());
     }
 
     /**
-     * Calculate payment for an extra assignment
+     * Written in the transaction that stores the lines, so they are applied only if the lines commit
      */
-    private PayrollDetailItem calculateExtraAssignmentPayment(TeacherEntity teacher,
-                                                             ExtraAssignmentEntity assignment,
-                                                             PayrollPeriodEntity period) {
-        PayrollDetailItem item = new PayrollDetailItem();
-        item.type = "EXTRA_ASSIGNMENT";
-        item.date = assignment.getAssignmentDate().toString();
-        item.activityType = assignment.getActivityType().getName();
-        item.description = assignment.getTitle();
-
-        // Use assignment's specific rate if set, otherwise resolve
-        BigDecimal ratePerHour;
-        if (assignment.getRatePerHour() != null) {
-            ratePerHour = assignment.getRatePerHour();
-        } else {
-            ratePerHour = resolveRateForTeacher(
-                    teacher.getUuid(),
-                    assignment.getActivityType().getUuid(),
-                    null,
-                    assignment.getAssignmentDate()
-            );
+    private void markApplied(PayrollPeriodEntity period, List<PayrollChangeEntity> changes) {
+        List<PayrollChangeAppliedEntity> applied = new ArrayList<>(changes.size());
+        for (PayrollChangeEntity change : changes) {
+            PayrollChangeAppliedEntity entry = new PayrollChangeAppliedEntity();
+            entry.setPayrollPeriodUuid(period.getUuid());
+            entry.setChangeId(change.getId());
+            applied.add(entry);
         }
-        item.ratePerHour = ratePerHour;
-
-        // Calculate hours
-        BigDecimal minutes = BigDecimal.valueOf(assignment.getDurationMinutes());
-        item.hoursWorked = minutes.divide(BigDecimal.valueOf(60), 4, RoundingMode.HALF_UP);
-        item.hoursScheduled = item.hoursWorked;
-
-        // Calculate amount (no penalties for extra assignments)
-        item.grossAmount = item.hoursWorked.multiply(ratePerHour).setScale(2, RoundingMode.HALF_UP);
-        item.penaltyAmount = BigDecimal.ZERO;
-        item.penaltyMinutes = 0;
-
-        return item;
+        payrollChangeAppliedRepository.saveAll(applied);
     }
 
     /**
-     * Resolve the applicable rate for a teacher
-     * Priority: Teacher Rate > Modality Rate > Default Rate
+     * A teacher that failed has no line reflecting the changes: its own changes, and the activity
+     * type changes that may concern it, stay pending for the next recalculation
      */
-    private BigDecimal resolveRateForTeacher(UUID teacherUuid, UUID activityTypeUuid,
-                                            UUID modalityUuid, java.time.LocalDate date) {
-        // Try teacher-specific rate first
-        Optional<TeacherRateEntity> teacherRate = teacherRateRepository
-                .findActiveRateByTeacherAndActivityType(teacherUuid, activityTypeUuid, date);
-        if (teacherRate.isPresent()) {
-            return teacherRate.get().getRatePerHour();
+    private static List<PayrollChangeEntity> withoutFailed(List<PayrollChangeEntity> changes,
+                                                           List<PayrollBatchResult.Failure> failures) {
+        if (failures.isEmpty()) return changes;
+        Set<UUID> failed = new HashSet<>();
+        for (PayrollBatchResult.Failure failure : failures) {
+            failed.add(failure.teacherUuid());
         }
+        return changes.stream()
+                .filter(change -> change.getTeacherUuid() != null && !failed.contains(change.getTeacherUuid()))
+                .toList();
+    }
 
-        // Try modality rate if modality is provided
-        if (modalityUuid != null) {
-            Optional<ModalityRateEntity> modalityRate = modalityRateRepository
-                    .findActiveRateByModalityAndActivityType(modalityUuid, activityTypeUuid, date);
-            if (modalityRate.isPresent()) {
-                return modalityRate.get().getRatePerHour();
-            }
-        }
+    private void saveItems(PayrollLineEntity payrollLine, PayrollCalculator.PayrollCalculation calculation) {
+        payrollLineItemRepository.saveAll(attachItems(payrollLine, calculation));
+    }
 
-        // Fall back to default rate
-        Optional<DefaultRateEntity> defaultRate = defaultRateRepository
-                .findActiveRateByActivityType(activityTypeUuid, date);
-        if (defaultRate.isPresent()) {
-            return defaultRate.get().getRatePerHour();
+    private static List<PayrollLineItemEntity> attachItems(PayrollLineEntity payrollLine,
+                                                           PayrollCalculator.PayrollCalculation calculation) {
+        for (PayrollLineItemEntity item : calculation.items) {
+            item.setPayrollLine(payrollLine);
         }
+        return calculation.items;
+    }
 
-        throw new IllegalStateException(
-                "No se encontró tarifa aplicable para el tipo de actividad en la fecha: " + date);
+    /**
+     * Items are removed with a bulk delete first, they are not mapped as a cascading collection
+     */
+    private void deleteLineWithItems(UUID payrollLineUuid) {
+        payrollLineItemRepository.deleteByPayrollLine(payrollLineUuid);
+        deleteById(payrollLineUuid);
+    }
+
+    /**
+     * Rates of the same scope, owner and activity type whose effective ranges overlap
+     * Payroll lines that hit one of these ranges fail until it is fixed
+     */
+    public List<PayrollRateResolver.Overlap> getRateOverlaps() {
+        return payrollRateResolver.fresh().overlaps();
     }
 
     /**
@@ -383,57 +375,76 @@ public class PayrollLineService extends BaseService<PayrollLineEntity> {
             throw new IllegalStateException("Solo se pueden eliminar líneas de nómina de períodos en estado BORRADOR");
         }
 
-        deleteById(uuid);
+        deleteLineWithItems(uuid);
     }
 
     /**
-     * Recalculate all payroll lines for a period
+     * Recalculate the payroll lines of a period
+     * Only run by {@link PayrollJobService}, which holds the lock of the period; a cancelled
+     * progress rolls everything back
+     *
+     * @param onlyChanged recalculate only the teachers with changes the lines of the period do not
+     *                    reflect yet (see {@link PayrollChangeTracker}); every teacher when false
      */
     @Transactional
-    public List<PayrollLineEntity> recalculatePayrollForPeriod(UUID payrollPeriodUuid) {
+    PayrollBatchResult recalculatePayrollForPeriod(UUID payrollPeriodUuid, boolean onlyChanged,
+                                                   PayrollProgress progress) {
         PayrollPeriodEntity period = payrollPeriodService.findPeriodOrThrow(payrollPeriodUuid);
-
-        // Only allow recalculation if in DRAFT or CALCULATED status
-        if (period.getStatus() != PayrollPeriodEntity.PayrollStatus.DRAFT &&
-            period.getStatus() != PayrollPeriodEntity.PayrollStatus.CALCULATED) {
-            throw new IllegalStateException("Solo se pueden recalcular períodos en estado BORRADOR o CALCULADO");
-        }
+        checkCanRecalculate(period);
 
         // Revert to draft first
         payrollPeriodService.revertToDraft(payrollPeriodUuid);
 
-        // Delete existing lines
-        List<PayrollLineEntity> existingLines = payrollLineRepository.findByPayrollPeriodUuid(payrollPeriodUuid);
-        existingLines.forEach(line -> deleteById(line.getUuid()));
+        List<PayrollChangeEntity> pending = findPendingChanges(period);
+        Set<UUID> changedTeachers = onlyChanged ? findChangedTeachers(period, pending) : null;
+        if (changedTeachers == null) {
+            // Delete existing lines
+            payrollLineItemRepository.deleteByPayrollPeriod(payrollPeriodUuid);
+            payrollLineRepository.deleteByPayrollPeriod(payrollPeriodUuid);
+        }
 
         // Recalculate
-        return calculatePayrollForAllTeachers(payrollPeriodUuid);
+        return calculateAndStore(period, changedTeachers, pending, progress);
     }
 
     /**
-     * Inner classes for calculation
+     * Only allow recalculation if in DRAFT or CALCULATED status
      */
-    private static class PayrollCalculation {
-        BigDecimal totalHoursWorked = BigDecimal.ZERO;
-        BigDecimal totalHoursScheduled = BigDecimal.ZERO;
-        BigDecimal grossAmount = BigDecimal.ZERO;
-        BigDecimal totalPenalties = BigDecimal.ZERO;
-        BigDecimal netAmount = BigDecimal.ZERO;
-        String detailsJson;
+    public void checkCanRecalculate(PayrollPeriodEntity period) {
+        if (period.getStatus() != PayrollPeriodEntity.PayrollStatus.DRAFT &&
+            period.getStatus() != PayrollPeriodEntity.PayrollStatus.CALCULATED) {
+            throw new IllegalStateException("Solo se pueden recalcular períodos en estado BORRADOR o CALCULADO");
+        }
     }
 
-    private static class PayrollDetailItem {
-        String type;
-        String date;
-        String activityType;
-        String description;
-        BigDecimal ratePerHour;
-        BigDecimal hoursWorked;
-        BigDecimal hoursScheduled;
-        BigDecimal grossAmount;
-        int penaltyMinutes;
-        BigDecimal penaltyAmount;
-        int lateMinutes;
-        int earlyDepartureMinutes;
+    /**
+     * Teachers concerned by the pending changes of the period: their own attendances, extra
+     * assignments and rates, or a modality/default rate of an activity type they have.
+     * Null when the period has no lines yet, so everything has to be calculated.
+     */
+    private Set<UUID> findChangedTeachers(PayrollPeriodEntity period, List<PayrollChangeEntity> pending) {
+        if (payrollLineRepository.countByPayrollPeriod(period.getUuid()) == 0) return null;
+
+        Set<UUID> changed = new HashSet<>();
+        Set<UUID> activityTypes = new HashSet<>();
+        for (PayrollChangeEntity change : pending) {
+            if (change.getTeacherUuid() != null) {
+                changed.add(change.getTeacherUuid());
+            } else {
+                activityTypes.add(change.getActivityTypeUuid());
+            }
+        }
+
+        if (!activityTypes.isEmpty()) {
+            LocalDate start = period.getStartDate();
+            LocalDate end = period.getEndDate();
+            List<TeacherActivityTypeRowDTO> rows = new ArrayList<>(attendanceRepository
+                    .findTeacherActivityTypesByDateRange(activityTypes, start, end, PayrollBatchLoader.PAYABLE_STATUSES));
+            rows.addAll(extraAssignmentRepository.findTeacherActivityTypesByDateRange(activityTypes, start, end));
+            for (TeacherActivityTypeRowDTO row : rows) {
+                changed.add(row.getTeacherUuid());
+            }
+        }
+        return changed;
     }
 }
@@ -0,0 +1,32 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+/**
+ * Receives the progress of a whole-period calculation and can stop it. Called from the
+ * calculation workers, so implementations must be thread-safe.
+ */
+public interface PayrollProgress {
+
+    PayrollProgress NONE = new PayrollProgress() {
+    };
+
+    default void started(int totalTeachers) {
+    }
+
+    default void teacherDone(boolean failed) {
+    }
+
+    /**
+     * Checked before each teacher; once true the remaining teachers are skipped and the
+     * calculation ends with a {@link java.util.concurrent.CancellationException}
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+
+    /**
+     * Called inside the calculation transaction right before the lines are written; throwing
+     * rolls the whole calculation back
+     */
+    default void beforeWrite() {
+    }
+}
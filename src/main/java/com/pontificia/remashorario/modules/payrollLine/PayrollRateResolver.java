@@ -0,0 +1,289 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import com.pontificia.remashorario.modules.defaultRate.DefaultRateEntity;
+import com.pontificia.remashorario.modules.defaultRate.DefaultRateRepository;
+import com.pontificia.remashorario.modules.modalityRate.ModalityRateEntity;
+import com.pontificia.remashorario.modules.modalityRate.ModalityRateRepository;
+import com.pontificia.remashorario.modules.teacherRate.TeacherRateEntity;
+import com.pontificia.remashorario.modules.teacherRate.TeacherRateRepository;
+import com.pontificia.remashorario.utils.TransactionCallbacks;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * In-memory index of every effective-dated rate (teacher, modality and default).
+ * <p>
+ * Rates are grouped per (scope, owner, activity type) into timelines sorted by start date,
+ * so the rate in force on a date is found with a binary search. The index is an immutable
+ * snapshot rebuilt after the commit of any rate write; overlapping ranges found while building
+ * it are kept in {@link Snapshot#overlaps()} and a lookup that hits one fails with a clear message.
+ * <p>
+ * Rate writes also bump the shared {@link PayrollRateVersionEntity}. {@link #fresh()} compares it
+ * with the version the snapshot was built at, so a payroll calculated on any instance reloads the
+ * rates another instance changed instead of using the old ones.
+ */
+@Component
+public class PayrollRateResolver {
+
+    public enum Scope {TEACHER, MODALITY, DEFAULT}
+
+    private final TeacherRateRepository teacherRateRepository;
+    private final ModalityRateRepository modalityRateRepository;
+    private final DefaultRateRepository defaultRateRepository;
+    private final PayrollRateVersionRepository rateVersionRepository;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    @Autowired
+    public PayrollRateResolver(TeacherRateRepository teacherRateRepository,
+                               ModalityRateRepository modalityRateRepository,
+                               DefaultRateRepository defaultRateRepository,
+                               PayrollRateVersionRepository rateVersionRepository) {
+        this.teacherRateRepository = teacherRateRepository;
+        this.modalityRateRepository = modalityRateRepository;
+        this.defaultRateRepository = defaultRateRepository;
+        this.rateVersionRepository = rateVersionRepository;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        if (!rateVersionRepository.existsById(PayrollRateVersionEntity.SINGLETON_ID)) {
+            try {
+                rateVersionRepository.save(PayrollRateVersionEntity.initial());
+            } catch (DataIntegrityViolationException e) {
+                // Another instance created it meanwhile
+            }
+        }
+        reload();
+    }
+
+    public Snapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * The snapshot, rebuilt first if rates were written (on any instance) since it was built
+     */
+    public Snapshot fresh() {
+        if (snapshot.getRateVersion() != rateVersionRepository.findVersion().orElse(0L)) {
+            reload();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Record a rate write in the current transaction and rebuild the index once it commits;
+     * other instances see the new version and rebuild theirs on their next {@link #fresh()}
+     */
+    public void ratesChanged() {
+        if (rateVersionRepository.increment() == 0) {
+            PayrollRateVersionEntity version = PayrollRateVersionEntity.initial();
+            version.setVersion(1);
+            rateVersionRepository.save(version);
+        }
+        TransactionCallbacks.afterCommit(this::reload);
+    }
+
+    public synchronized void reload() {
+        // Read before the rates: a write committing in between leaves the snapshot behind, never ahead
+        long rateVersion = rateVersionRepository.findVersion().orElse(0L);
+        Map<Key, List<Interval>> intervals = new HashMap<>();
+        for (TeacherRateEntity rate : teacherRateRepository.findAll()) {
+            add(intervals, new Key(Scope.TEACHER, rate.getTeacher().getUuid(), rate.getActivityType().getUuid()),
+                    rate.getUuid(), rate.getEffectiveFrom(), rate.getEffectiveTo(), rate.getRatePerHour());
+        }
+        for (ModalityRateEntity rate : modalityRateRepository.findAll()) {
+            add(intervals, new Key(Scope.MODALITY, rate.getModality().getUuid(), rate.getActivityType().getUuid()),
+                    rate.getUuid(), rate.getEffectiveFrom(), rate.getEffectiveTo(), rate.getRatePerHour());
+        }
+        for (DefaultRateEntity rate : defaultRateRepository.findAll()) {
+            add(intervals, new Key(Scope.DEFAULT, null, rate.getActivityType().getUuid()),
+                    rate.getUuid(), rate.getEffectiveFrom(), rate.getEffectiveTo(), rate.getRatePerHour());
+        }
+        snapshot = Snapshot.build(snapshot.getVersion() + 1, rateVersion, intervals);
+    }
+
+    /**
+     * Whether two effective ranges share at least one day (a null bound is open-ended)
+     */
+    public static boolean overlaps(LocalDate from, LocalDate to, LocalDate otherFrom, LocalDate otherTo) {
+        return (to == null || otherFrom == null || !otherFrom.isAfter(to))
+                && (otherTo == null || from == null || !from.isAfter(otherTo));
+    }
+
+    private static void add(Map<Key, List<Interval>> intervals, Key key, UUID rateUuid,
+                            LocalDate from, LocalDate to, BigDecimal ratePerHour) {
+        intervals.computeIfAbsent(key, k -> new ArrayList<>()).add(new Interval(rateUuid, from, to, ratePerHour));
+    }
+
+    /**
+     * Immutable rate index. Also usable directly as the payroll rate lookup (no modality).
+     */
+    public static final class Snapshot implements PayrollCalculator.RateLookup {
+
+        static final Snapshot EMPTY = new Snapshot(0, -1, Map.of(), List.of());
+
+        private final long version;
+        private final long rateVersion;
+        private final Map<Key, Timeline> timelines;
+        private final List<Overlap> overlaps;
+
+        private Snapshot(long version, long rateVersion, Map<Key, Timeline> timelines, List<Overlap> overlaps) {
+            this.version = version;
+            this.rateVersion = rateVersion;
+            this.timelines = timelines;
+            this.overlaps = overlaps;
+        }
+
+        static Snapshot build(long version, long rateVersion, Map<Key, List<Interval>> intervals) {
+            Map<Key, Timeline> timelines = new HashMap<>();
+            List<Overlap> overlaps = new ArrayList<>();
+            intervals.forEach((key, list) -> timelines.put(key, Timeline.build(key, list, overlaps)));
+            return new Snapshot(version, rateVersion, Map.copyOf(timelines), List.copyOf(overlaps));
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Shared rate version ({@link PayrollRateVersionEntity}) the snapshot was built at
+         */
+        public long getRateVersion() {
+            return rateVersion;
+        }
+
+        public List<Overlap> overlaps() {
+            return overlaps;
+        }
+
+        @Override
+        public BigDecimal resolve(UUID teacherUuid, UUID activityTypeUuid, LocalDate date) {
+            return resolve(teacherUuid, null, activityTypeUuid, date);
+        }
+
+        /**
+         * Resolve the applicable rate for a teacher
+         * Priority: Teacher Rate > Modality Rate > Default Rate
+         */
+        public BigDecimal resolve(UUID teacherUuid, UUID modalityUuid, UUID activityTypeUuid, LocalDate date) {
+            BigDecimal rate = find(new Key(Scope.TEACHER, teacherUuid, activityTypeUuid), date);
+            if (rate == null && modalityUuid != null) {
+                rate = find(new Key(Scope.MODALITY, modalityUuid, activityTypeUuid), date);
+            }
+            if (rate == null) {
+                rate = find(new Key(Scope.DEFAULT, null, activityTypeUuid), date);
+            }
+            if (rate == null) {
+                throw new IllegalStateException(
+                        "No se encontró tarifa aplicable para el tipo de actividad en la fecha: " + date);
+            }
+            return rate;
+        }
+
+        /**
+         * Rate of a single scope in force on the date, or null
+         */
+        public BigDecimal find(Key key, LocalDate date) {
+            Timeline timeline = timelines.get(key);
+            return timeline == null ? null : timeline.rateOn(date);
+        }
+    }
+
+    public record Key(Scope scope, UUID ownerUuid, UUID activityTypeUuid) {
+    }
+
+    /**
+     * Two rates of the same scope, owner and activity type in force on the same days
+     */
+    public record Overlap(Key key, UUID firstRateUuid, UUID secondRateUuid, LocalDate from, LocalDate to) {
+    }
+
+    record Interval(UUID rateUuid, LocalDate from, LocalDate to, BigDecimal ratePerHour) {
+
+        boolean covers(LocalDate date) {
+            return !date.isBefore(from) && (to == null || !date.isAfter(to));
+        }
+    }
+
+    /**
+     * Intervals of one key sorted by start date. Without overlaps at most one interval covers a
+     * date: the last one starting on or before it.
+     */
+    private static final class Timeline {
+
+        private final Interval[] intervals;
+        private final boolean overlapping;
+
+        private Timeline(Interval[] intervals, boolean overlapping) {
+            this.intervals = intervals;
+            this.overlapping = overlapping;
+        }
+
+        static Timeline build(Key key, List<Interval> list, List<Overlap> overlaps) {
+            Interval[] intervals = list.stream()
+                    .filter(interval -> interval.from() != null)
+                    .sorted(Comparator.comparing(Interval::from))
+                    .toArray(Interval[]::new);
+
+            // Compared with the interval reaching furthest so far: any later start before its end overlaps
+            boolean overlapping = false;
+            Interval furthest = null;
+            for (Interval interval : intervals) {
+                if (furthest != null && (furthest.to() == null || !interval.from().isAfter(furthest.to()))) {
+                    overlapping = true;
+                    LocalDate end = furthest.to() == null ? interval.to()
+                            : interval.to() == null || furthest.to().isBefore(interval.to()) ? furthest.to() : interval.to();
+                    overlaps.add(new Overlap(key, furthest.rateUuid(), interval.rateUuid(), interval.from(), end));
+                }
+                if (furthest == null || furthest.to() != null
+                        && (interval.to() == null || interval.to().isAfter(furthest.to()))) {
+                    furthest = interval;
+                }
+            }
+            return new Timeline(intervals, overlapping);
+        }
+
+        BigDecimal rateOn(LocalDate date) {
+            int index = lastStartingOnOrBefore(date);
+            if (index < 0) return null;
+
+            if (!overlapping) {
+                return intervals[index].covers(date) ? intervals[index].ratePerHour() : null;
+            }
+
+            BigDecimal found = null;
+            for (int i = index; i >= 0; i--) {
+                if (!intervals[i].covers(date)) continue;
+                if (found != null) {
+                    throw new IllegalStateException(
+                            "Hay más de una tarifa vigente para el tipo de actividad en la fecha: " + date);
+                }
+                found = intervals[i].ratePerHour();
+            }
+            return found;
+        }
+
+        private int lastStartingOnOrBefore(LocalDate date) {
+            int low = 0;
+            int high = intervals.length - 1;
+            int result = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (intervals[mid].from().isAfter(date)) {
+                    high = mid - 1;
+                } else {
+                    result = mid;
+                    low = mid + 1;
+                }
+            }
+            return result;
+        }
+    }
+}
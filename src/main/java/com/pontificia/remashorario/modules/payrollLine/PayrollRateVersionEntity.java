@@ -0,0 +1,33 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Single row counting rate writes (teacher, modality and default rates). It is bumped in the
+ * same transaction as the write, so an instance whose {@link PayrollRateResolver} snapshot was
+ * built at an older version knows it missed a change made on another instance.
+ */
+@Entity
+@Table(name = "payroll_rate_version")
+@Getter
+@Setter
+public class PayrollRateVersionEntity {
+
+    static final int SINGLETON_ID = 1;
+
+    @Id
+    @Column(name = "id", nullable = false)
+    private Integer id;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    static PayrollRateVersionEntity initial() {
+        PayrollRateVersionEntity entity = new PayrollRateVersionEntity();
+        entity.setId(SINGLETON_ID);
+        entity.setVersion(0);
+        return entity;
+    }
+}
@@ -0,0 +1,23 @@
+package com.pontificia.remashorario.modules.payrollLine;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PayrollRateVersionRepository extends JpaRepository<PayrollRateVersionEntity, Integer> {
+
+    @Query("SELECT v.version FROM PayrollRateVersionEntity v WHERE v.id = 1")
+    Optional<Long> findVersion();
+
+    /**
+     * Count one more rate write; the row stays locked until the transaction ends, so concurrent
+     * rate writes get distinct versions
+     */
+    @Modifying
+    @Query("UPDATE PayrollRateVersionEntity v SET v.version = v.version + 1 WHERE v.id = 1")
+    int increment();
+}
@@ -0,0 +1,23 @@
+package com.pontificia.remashorario.modules.payrollLine.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Totals of a payroll period for one activity type, aggregated in SQL from the line items
+ */
+@Getter
+@AllArgsConstructor
+public class PayrollActivityTypeSummaryDTO {
+    private UUID activityTypeUuid;
+    private String activityTypeCode;
+    private String activityTypeName;
+    private Long itemCount;
+    private BigDecimal totalHoursWorked;
+    private BigDecimal totalHoursScheduled;
+    private BigDecimal grossAmount;
+    private BigDecimal totalPenalties;
+}
@@ -0,0 +1,32 @@
+package com.pontificia.remashorario.modules.payrollLine.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Builder
+public class PayrollJobDTO {
+    private UUID jobUuid;
+    private UUID payrollPeriodUuid;
+    private String type; // CALCULATE, RECALCULATE
+    private boolean onlyChanged;
+    private String status; // RUNNING, COMPLETED, FAILED, CANCELLED
+    private Integer totalTeachers; // null while loading the period
+    private int doneTeachers;
+    private int failedTeachers;
+    private int progressPercent;
+    private Integer calculatedCount;
+    private boolean cancelRequested;
+    private String message;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    // Only once completed
+    private List<PayrollTeacherFailureDTO> failures;
+}
@@ -0,0 +1,21 @@
+package com.pontificia.remashorario.modules.payrollLine.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * A page of payroll line items. {@code hasMore} tells whether {@code page + 1} has results,
+ * without counting the total.
+ */
+@Getter
+@Setter
+@Builder
+public class PayrollLineItemPageDTO {
+    private List<PayrollDetailItemDTO> items;
+    private int page;
+    private int size;
+    private boolean hasMore;
+}
@@ -22,7 +22,6 @@ public class PayrollLineResponseDTO {
     private BigDecimal grossAmount;
     private BigDecimal totalPenalties;
     private BigDecimal netAmount;
-    private String details; // JSON string with breakdown
     private LocalDateTime generatedAt;
     private BigDecimal compliancePercentage;
 }
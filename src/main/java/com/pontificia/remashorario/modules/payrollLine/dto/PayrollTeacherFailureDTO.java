@@ -0,0 +1,16 @@
+package com.pontificia.remashorario.modules.payrollLine.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.UUID;
+
+@Getter
+@Setter
+@Builder
+public class PayrollTeacherFailureDTO {
+    private UUID teacherUuid;
+    private String teacherName;
+    private String message;
+}
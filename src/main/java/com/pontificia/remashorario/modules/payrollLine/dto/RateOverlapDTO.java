@@ -0,0 +1,21 @@
+package com.pontificia.remashorario.modules.payrollLine.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Builder
+public class RateOverlapDTO {
+    private String scope; // "TEACHER", "MODALITY" or "DEFAULT"
+    private UUID ownerUuid; // Teacher or modality, null for default rates
+    private UUID activityTypeUuid;
+    private UUID firstRateUuid;
+    private UUID secondRateUuid;
+    private LocalDate from;
+    private LocalDate to; // null = open-ended
+}
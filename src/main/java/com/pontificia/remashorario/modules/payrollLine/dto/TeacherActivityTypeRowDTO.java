@@ -0,0 +1,16 @@
+package com.pontificia.remashorario.modules.payrollLine.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * A teacher that has paid activities of an activity type in a date range
+ */
+@Getter
+@AllArgsConstructor
+public class TeacherActivityTypeRowDTO {
+    private UUID teacherUuid;
+    private UUID activityTypeUuid;
+}
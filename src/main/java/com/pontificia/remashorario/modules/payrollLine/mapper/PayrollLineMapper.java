@@ -1,11 +1,21 @@
 package com.pontificia.remashorario.modules.payrollLine.mapper;
 
+import com.pontificia.remashorario.modules.payrollLine.PayrollJobEntity;
+import com.pontificia.remashorario.modules.payrollLine.PayrollJobFailureEntity;
 import com.pontificia.remashorario.modules.payrollLine.PayrollLineEntity;
+import com.pontificia.remashorario.modules.payrollLine.PayrollLineItemEntity;
+import com.pontificia.remashorario.modules.payrollLine.PayrollRateResolver;
+import com.pontificia.remashorario.modules.payrollLine.dto.PayrollDetailItemDTO;
+import com.pontificia.remashorario.modules.payrollLine.dto.PayrollJobDTO;
+import com.pontificia.remashorario.modules.payrollLine.dto.PayrollLineItemPageDTO;
 import com.pontificia.remashorario.modules.payrollLine.dto.PayrollLineResponseDTO;
 import com.pontificia.remashorario.modules.payrollLine.dto.PayrollPeriodSummaryDTO;
+import com.pontificia.remashorario.modules.payrollLine.dto.PayrollTeacherFailureDTO;
+import com.pontificia.remashorario.modules.payrollLine.dto.RateOverlapDTO;
 import com.pontificia.remashorario.modules.payrollPeriod.mapper.PayrollPeriodMapper;
 import com.pontificia.remashorario.modules.teacher.mapper.TeacherMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -40,7 +50,6 @@ public class PayrollLineMapper {
                 .grossAmount(entity.getGrossAmount())
                 .totalPenalties(entity.getTotalPenalties())
                 .netAmount(entity.getNetAmount())
-                .details(entity.getDetails())
                 .generatedAt(entity.getGeneratedAt())
                 .compliancePercentage(compliancePercentage)
                 .build();
@@ -52,6 +61,82 @@ public class PayrollLineMapper {
                 .collect(Collectors.toList());
     }
 
+    public PayrollDetailItemDTO toDetailItemDTO(PayrollLineItemEntity item) {
+        return PayrollDetailItemDTO.builder()
+                .type(item.getType().name())
+                .date(item.getItemDate().toString())
+                .activityType(item.getActivityType().getName())
+                .description(item.getDescription())
+                .ratePerHour(item.getRatePerHour())
+                .hoursWorked(item.getHoursWorked())
+                .hoursScheduled(item.getHoursScheduled())
+                .grossAmount(item.getGrossAmount())
+                .penaltyMinutes(item.getPenaltyMinutes())
+                .penaltyAmount(item.getPenaltyAmount())
+                .lateMinutes(item.getLateMinutes())
+                .earlyDepartureMinutes(item.getEarlyDepartureMinutes())
+                .build();
+    }
+
+    public PayrollLineItemPageDTO toItemPageDTO(Slice<PayrollLineItemEntity> slice) {
+        return PayrollLineItemPageDTO.builder()
+                .items(slice.getContent().stream()
+                        .map(this::toDetailItemDTO)
+                        .collect(Collectors.toList()))
+                .page(slice.getNumber())
+                .size(slice.getSize())
+                .hasMore(slice.hasNext())
+                .build();
+    }
+
+    /**
+     * @param failures teachers that could not be calculated; only loaded for completed jobs
+     */
+    public PayrollJobDTO toJobDTO(PayrollJobEntity job, List<PayrollJobFailureEntity> failures) {
+        int progressPercent = 0;
+        if (job.getStatus() != PayrollJobEntity.JobStatus.RUNNING) {
+            progressPercent = 100;
+        } else if (job.getTotalTeachers() != null && job.getTotalTeachers() > 0) {
+            progressPercent = Math.min(99, job.getDoneTeachers() * 100 / job.getTotalTeachers());
+        }
+
+        return PayrollJobDTO.builder()
+                .jobUuid(job.getUuid())
+                .payrollPeriodUuid(job.getPayrollPeriodUuid())
+                .type(job.getType().name())
+                .onlyChanged(job.isOnlyChanged())
+                .status(job.getStatus().name())
+                .totalTeachers(job.getTotalTeachers())
+                .doneTeachers(job.getDoneTeachers())
+                .failedTeachers(job.getFailedTeachers())
+                .progressPercent(progressPercent)
+                .calculatedCount(job.getCalculatedCount())
+                .cancelRequested(job.isCancelRequested())
+                .message(job.getMessage())
+                .startedAt(job.getCreatedAt())
+                .finishedAt(job.getFinishedAt())
+                .failures(failures == null ? null : failures.stream()
+                        .map(failure -> PayrollTeacherFailureDTO.builder()
+                                .teacherUuid(failure.getTeacherUuid())
+                                .teacherName(failure.getTeacherName())
+                                .message(failure.getMessage())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    public RateOverlapDTO toRateOverlapDTO(PayrollRateResolver.Overlap overlap) {
+        return RateOverlapDTO.builder()
+                .scope(overlap.key().scope().name())
+                .ownerUuid(overlap.key().ownerUuid())
+                .activityTypeUuid(overlap.key().activityTypeUuid())
+                .firstRateUuid(overlap.firstRateUuid())
+                .secondRateUuid(overlap.secondRateUuid())
+                .from(overlap.from())
+                .to(overlap.to())
+                .build();
+    }
+
     public PayrollPeriodSummaryDTO toSummaryDTO(BigDecimal totalNet, BigDecimal totalPenalties,
                                                BigDecimal totalGross, Long teacherCount) {
         BigDecimal averageNetPerTeacher = BigDecimal.ZERO;
@@ -0,0 +1,99 @@
+package com.pontificia.remashorario.modules.scheduleGenerator;
+
+import com.pontificia.remashorario.modules.scheduleGenerator.dto.ScheduleProposalSessionDTO;
+import com.pontificia.remashorario.modules.scheduleGenerator.dto.ScheduleUnplacedLessonDTO;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estado de una ejecución del generador: avance mientras corre y propuesta final
+ * (vista previa) cuando termina. La propuesta no se guarda hasta que se confirma.
+ */
+@Getter
+class ScheduleGenerationRun implements ScheduleSolver.Listener {
+
+    enum Status {RUNNING, COMPLETED, FAILED, CANCELLED}
+
+    private final UUID runId;
+    private final UUID periodUuid;
+    private final boolean replaceExisting;
+    private final long timeBudgetMs;
+    private final int threads;
+    private final long startedAtMs = System.currentTimeMillis();
+    private final AtomicLong iterations = new AtomicLong();
+
+    private volatile Status status = Status.RUNNING;
+    private volatile String phase = "LOADING";
+    private volatile int totalLessons;
+    private volatile long bestCost = -1;
+    private volatile int unplacedLessons;
+    private volatile long finishedAtMs;
+    private volatile String message;
+    private volatile boolean cancelRequested;
+
+    private volatile List<ScheduleProposalSessionDTO> sessions = List.of();
+    private volatile List<ScheduleUnplacedLessonDTO> unplaced = List.of();
+
+    ScheduleGenerationRun(UUID runId, UUID periodUuid, boolean replaceExisting, long timeBudgetMs, int threads) {
+        this.runId = runId;
+        this.periodUuid = periodUuid;
+        this.replaceExisting = replaceExisting;
+        this.timeBudgetMs = timeBudgetMs;
+        this.threads = threads;
+    }
+
+    @Override
+    public void onPhase(String phase) {
+        this.phase = phase;
+    }
+
+    @Override
+    public synchronized void onImprovement(long cost, int unassignedLessons) {
+        if (bestCost < 0 || cost < bestCost) {
+            bestCost = cost;
+            unplacedLessons = unassignedLessons;
+        }
+    }
+
+    @Override
+    public void onIterations(long count) {
+        iterations.addAndGet(count);
+    }
+
+    long elapsedMs() {
+        long end = finishedAtMs > 0 ? finishedAtMs : System.currentTimeMillis();
+        return end - startedAtMs;
+    }
+
+    int progressPercent() {
+        if (status != Status.RUNNING) return 100;
+        return (int) Math.min(99, elapsedMs() * 100 / Math.max(1, timeBudgetMs));
+    }
+
+    void setTotalLessons(int totalLessons) {
+        this.totalLessons = totalLessons;
+    }
+
+    void complete(List<ScheduleProposalSessionDTO> sessions, List<ScheduleUnplacedLessonDTO> unplaced) {
+        this.sessions = sessions;
+        this.unplaced = unplaced;
+        this.unplacedLessons = unplaced.size();
+        this.phase = "DONE";
+        this.finishedAtMs = System.currentTimeMillis();
+        this.status = cancelRequested ? Status.CANCELLED : Status.COMPLETED;
+    }
+
+    void fail(String message) {
+        this.message = message;
+        this.phase = "DONE";
+        this.finishedAtMs = System.currentTimeMillis();
+        this.status = Status.FAILED;
+    }
+
+    void cancel() {
+        this.cancelRequested = true;
+    }
+}
@@ -0,0 +1,59 @@
+package com.pontificia.remashorario.modules.scheduleGenerator;
+
+import com.pontificia.remashorario.config.ApiResponse;
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionBulkResultDTO;
+import com.pontificia.remashorario.modules.scheduleGenerator.dto.ScheduleGenerationRequestDTO;
+import com.pontificia.remashorario.modules.scheduleGenerator.dto.ScheduleGenerationStatusDTO;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/protected/schedule-generator")
+@RequiredArgsConstructor
+public class ScheduleGeneratorController {
+
+    private final ScheduleGeneratorService scheduleGeneratorService;
+
+    @PostMapping("/periods/{periodUuid}")
+    public ResponseEntity<ApiResponse<ScheduleGenerationStatusDTO>> startGeneration(
+            @PathVariable UUID periodUuid,
+            @Valid @RequestBody ScheduleGenerationRequestDTO request) {
+        ScheduleGenerationStatusDTO status = scheduleGeneratorService.startGeneration(periodUuid, request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(status, "Generación de horario iniciada"));
+    }
+
+    @GetMapping("/runs/{runId}")
+    public ResponseEntity<ApiResponse<ScheduleGenerationStatusDTO>> getStatus(@PathVariable UUID runId) {
+        return ResponseEntity.ok(ApiResponse.success(
+                scheduleGeneratorService.getStatus(runId), "Estado de la generación recuperado"));
+    }
+
+    @GetMapping("/runs/{runId}/preview")
+    public ResponseEntity<ApiResponse<ScheduleGenerationStatusDTO>> getPreview(@PathVariable UUID runId) {
+        return ResponseEntity.ok(ApiResponse.success(
+                scheduleGeneratorService.getPreview(runId), "Vista previa del horario generado"));
+    }
+
+    @PostMapping("/runs/{runId}/commit")
+    public ResponseEntity<ApiResponse<ClassSessionBulkResultDTO>> commitRun(@PathVariable UUID runId) {
+        ClassSessionBulkResultDTO result = scheduleGeneratorService.commitRun(runId);
+        if (!result.isPersisted()) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>("La propuesta ya no es válida; no se guardó ninguna sesión", result));
+        }
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(result, "Horario generado guardado con éxito"));
+    }
+
+    @DeleteMapping("/runs/{runId}")
+    public ResponseEntity<ApiResponse<Void>> cancelOrDiscard(@PathVariable UUID runId) {
+        scheduleGeneratorService.cancelOrDiscard(runId);
+        return ResponseEntity.ok(ApiResponse.success(null, "Generación cancelada o descartada"));
+    }
+}
@@ -0,0 +1,584 @@
+package com.pontificia.remashorario.modules.scheduleGenerator;
+
+import com.pontificia.remashorario.modules.TimeSlot.TimeSlotCatalog;
+import com.pontificia.remashorario.modules.classSession.ClassSessionRepository;
+import com.pontificia.remashorario.modules.classSession.ClassSessionService;
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionBulkRequestDTO;
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionBulkResultDTO;
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionHoursSummaryDTO;
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionOccupancyRowDTO;
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionRequestDTO;
+import com.pontificia.remashorario.modules.course.CourseEntity;
+import com.pontificia.remashorario.modules.course.CourseRepository;
+import com.pontificia.remashorario.modules.learningSpace.LearningSpaceEntity;
+import com.pontificia.remashorario.modules.learningSpace.LearningSpaceRepository;
+import com.pontificia.remashorario.modules.period.PeriodService;
+import com.pontificia.remashorario.modules.scheduleGenerator.dto.ScheduleGenerationRequestDTO;
+import com.pontificia.remashorario.modules.scheduleGenerator.dto.ScheduleGenerationStatusDTO;
+import com.pontificia.remashorario.modules.scheduleGenerator.dto.ScheduleProposalSessionDTO;
+import com.pontificia.remashorario.modules.scheduleGenerator.dto.ScheduleUnplacedLessonDTO;
+import com.pontificia.remashorario.modules.studentGroup.StudentGroupEntity;
+import com.pontificia.remashorario.modules.studentGroup.StudentGroupRepository;
+import com.pontificia.remashorario.modules.teacher.TeacherEntity;
+import com.pontificia.remashorario.modules.teacher.TeacherRepository;
+import com.pontificia.remashorario.modules.teacherAvailability.TeacherAvailabilityEntity;
+import com.pontificia.remashorario.modules.teacherAvailability.TeacherAvailabilityRepository;
+import com.pontificia.remashorario.modules.teachingHour.TeachingHourEntity;
+import com.pontificia.remashorario.modules.teachingType.TeachingTypeEntity;
+import com.pontificia.remashorario.modules.teachingType.TeachingTypeRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Genera automáticamente el horario de un periodo. La generación corre en segundo plano
+ * con un presupuesto de tiempo; el resultado queda como vista previa hasta que se confirma,
+ * momento en que se persiste con la creación masiva de sesiones (que vuelve a validarlo todo).
+ */
+@Service
+public class ScheduleGeneratorService {
+
+    private static final int MAX_BLOCK_HOURS = 3;
+    private static final long FINISHED_RUN_TTL_MS = 60 * 60 * 1000L;
+
+    private final PeriodService periodService;
+    private final StudentGroupRepository studentGroupRepository;
+    private final CourseRepository courseRepository;
+    private final TeacherRepository teacherRepository;
+    private final TeacherAvailabilityRepository teacherAvailabilityRepository;
+    private final LearningSpaceRepository learningSpaceRepository;
+    private final TimeSlotCatalog timeSlotCatalog;
+    private final TeachingTypeRepository teachingTypeRepository;
+    private final ClassSessionRepository classSessionRepository;
+    private final ClassSessionService classSessionService;
+
+    private final Map<UUID, ScheduleGenerationRun> runs = new ConcurrentHashMap<>();
+    private final ExecutorService runExecutor = Executors.newCachedThreadPool(namedThreads("schedule-generator-run-"));
+    private final ExecutorService workerExecutor = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), namedThreads("schedule-generator-worker-"));
+
+    @Autowired
+    public ScheduleGeneratorService(PeriodService periodService,
+                                    StudentGroupRepository studentGroupRepository,
+                                    CourseRepository courseRepository,
+                                    TeacherRepository teacherRepository,
+                                    TeacherAvailabilityRepository teacherAvailabilityRepository,
+                                    LearningSpaceRepository learningSpaceRepository,
+                                    TimeSlotCatalog timeSlotCatalog,
+                                    TeachingTypeRepository teachingTypeRepository,
+                                    ClassSessionRepository classSessionRepository,
+                                    ClassSessionService classSessionService) {
+        this.periodService = periodService;
+        this.studentGroupRepository = studentGroupRepository;
+        this.courseRepository = courseRepository;
+        this.teacherRepository = teacherRepository;
+        this.teacherAvailabilityRepository = teacherAvailabilityRepository;
+        this.learningSpaceRepository = learningSpaceRepository;
+        this.timeSlotCatalog = timeSlotCatalog;
+        this.teachingTypeRepository = teachingTypeRepository;
+        this.classSessionRepository = classSessionRepository;
+        this.classSessionService = classSessionService;
+    }
+
+    /**
+     * Carga los datos del periodo (una consulta por tipo de entidad) y lanza la generación en segundo plano.
+     */
+    @Transactional(readOnly = true)
+    public ScheduleGenerationStatusDTO startGeneration(UUID periodUuid, ScheduleGenerationRequestDTO request) {
+        periodService.findPeriodOrThrow(periodUuid);
+        evictFinishedRuns();
+
+        boolean running = runs.values().stream()
+                .anyMatch(run -> run.getPeriodUuid().equals(periodUuid)
+                        && run.getStatus() == ScheduleGenerationRun.Status.RUNNING);
+        if (running) {
+            throw new IllegalArgumentException("Ya hay una generación de horario en curso para este periodo");
+        }
+
+        int availableThreads = Runtime.getRuntime().availableProcessors();
+        int threads = request.getThreads() != null ? Math.min(request.getThreads(), availableThreads) : availableThreads;
+        long budgetMs = request.getTimeBudgetSeconds() * 1000L;
+        long seed = request.getSeed() != null ? request.getSeed() : System.nanoTime();
+
+        LoadedProblem loaded = loadProblem(periodUuid, request.isReplaceExisting());
+
+        ScheduleGenerationRun run = new ScheduleGenerationRun(
+                UUID.randomUUID(), periodUuid, request.isReplaceExisting(), budgetMs, threads);
+        run.setTotalLessons(loaded.problem().lessons.length);
+        runs.put(run.getRunId(), run);
+        runExecutor.submit(() -> execute(run, loaded, threads, seed));
+
+        return toStatusDTO(run, false);
+    }
+
+    public ScheduleGenerationStatusDTO getStatus(UUID runId) {
+        return toStatusDTO(findRunOrThrow(runId), false);
+    }
+
+    public ScheduleGenerationStatusDTO getPreview(UUID runId) {
+        ScheduleGenerationRun run = findRunOrThrow(runId);
+        if (run.getStatus() == ScheduleGenerationRun.Status.RUNNING) {
+            throw new IllegalArgumentException("La generación aún no ha terminado");
+        }
+        return toStatusDTO(run, true);
+    }
+
+    /**
+     * Persiste la propuesta de una generación terminada (todo o nada).
+     */
+    public ClassSessionBulkResultDTO commitRun(UUID runId) {
+        ScheduleGenerationRun run = findRunOrThrow(runId);
+        if (run.getStatus() != ScheduleGenerationRun.Status.COMPLETED
+                && run.getStatus() != ScheduleGenerationRun.Status.CANCELLED) {
+            throw new IllegalArgumentException("La generación no tiene una propuesta lista para guardar");
+        }
+        if (run.getSessions().isEmpty()) {
+            throw new IllegalArgumentException("La propuesta no contiene sesiones");
+        }
+
+        ClassSessionBulkRequestDTO request = new ClassSessionBulkRequestDTO();
+        request.setReplaceExisting(run.isReplaceExisting());
+        request.setSessions(run.getSessions().stream().map(this::toRequestDTO).toList());
+
+        ClassSessionBulkResultDTO result = classSessionService.createClassSessionsInBulk(request);
+        if (result.isPersisted()) {
+            runs.remove(runId);
+        }
+        return result;
+    }
+
+    /**
+     * Cancela una generación en curso (se conserva la mejor propuesta hallada) o descarta una terminada.
+     */
+    public void cancelOrDiscard(UUID runId) {
+        ScheduleGenerationRun run = findRunOrThrow(runId);
+        if (run.getStatus() == ScheduleGenerationRun.Status.RUNNING) {
+            run.cancel();
+        } else {
+            runs.remove(runId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runs.values().forEach(ScheduleGenerationRun::cancel);
+        runExecutor.shutdownNow();
+        workerExecutor.shutdownNow();
+    }
+
+    private void execute(ScheduleGenerationRun run, LoadedProblem loaded, int threads, long seed) {
+        try {
+            long deadline = System.nanoTime() + run.getTimeBudgetMs() * 1_000_000L;
+            ScheduleSolver solver = new ScheduleSolver(loaded.problem(), workerExecutor, threads, seed);
+            ScheduleState best = solver.solve(deadline, run, run::isCancelRequested);
+
+            List<ScheduleUnplacedLessonDTO> unplaced = new ArrayList<>(loaded.skipped());
+            unplaced.addAll(toUnplaced(loaded, best));
+            run.complete(toProposal(loaded, best), unplaced);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.fail("La generación fue interrumpida");
+        } catch (RuntimeException e) {
+            run.fail("Error al generar el horario: " + e.getMessage());
+        }
+    }
+
+    private LoadedProblem loadProblem(UUID periodUuid, boolean replaceExisting) {
+        List<StudentGroupEntity> groups = studentGroupRepository.findByPeriodUuid(periodUuid).stream()
+                .filter(group -> group.getCycle() != null)
+                .toList();
+        Set<UUID> cycleUuids = groups.stream().map(group -> group.getCycle().getUuid()).collect(Collectors.toSet());
+        Map<UUID, List<CourseEntity>> coursesByCycle = cycleUuids.isEmpty()
+                ? Collections.emptyMap()
+                : courseRepository.findAllWithTeachingDetailsByCycleUuidIn(cycleUuids).stream()
+                .collect(Collectors.groupingBy(course -> course.getCycle().getUuid()));
+
+        List<TeacherEntity> teachers = teacherRepository.findAllWithKnowledgeAreas();
+        List<LearningSpaceEntity> spaces = learningSpaceRepository.findAll();
+        List<TeachingHourEntity> hours = timeSlotCatalog.allHours();
+        Map<TeachingTypeEntity.ETeachingType, TeachingTypeEntity> typesByName = teachingTypeRepository.findAll().stream()
+                .collect(Collectors.toMap(TeachingTypeEntity::getName, type -> type, (a, b) -> a));
+
+        // Horas pedagógicas
+        UUID[] hourUuids = new UUID[hours.size()];
+        int[] hourStart = new int[hours.size()];
+        int[] hourEnd = new int[hours.size()];
+        boolean[] continuesNext = new boolean[hours.size()];
+        Map<UUID, Integer> hourIndex = new HashMap<>();
+        for (int h = 0; h < hours.size(); h++) {
+            TeachingHourEntity hour = hours.get(h);
+            hourUuids[h] = hour.getUuid();
+            hourStart[h] = hour.getStartTime().getHour() * 60 + hour.getStartTime().getMinute();
+            hourEnd[h] = hour.getEndTime().getHour() * 60 + hour.getEndTime().getMinute();
+            hourIndex.put(hour.getUuid(), h);
+            if (h + 1 < hours.size()) {
+                TeachingHourEntity next = hours.get(h + 1);
+                continuesNext[h] = next.getTimeSlot().getUuid().equals(hour.getTimeSlot().getUuid())
+                        && next.getOrderInTimeSlot() == hour.getOrderInTimeSlot() + 1;
+            }
+        }
+
+        // Docentes y sus ventanas de disponibilidad por día
+        Map<UUID, Integer> teacherIndex = new HashMap<>();
+        UUID[] teacherUuids = new UUID[teachers.size()];
+        String[] teacherNames = new String[teachers.size()];
+        Map<UUID, List<Integer>> teachersByArea = new HashMap<>();
+        for (int t = 0; t < teachers.size(); t++) {
+            TeacherEntity teacher = teachers.get(t);
+            teacherUuids[t] = teacher.getUuid();
+            teacherNames[t] = teacher.getFullName();
+            teacherIndex.put(teacher.getUuid(), t);
+            final int index = t;
+            teacher.getKnowledgeAreas().forEach(area ->
+                    teachersByArea.computeIfAbsent(area.getUuid(), k -> new ArrayList<>()).add(index));
+        }
+        int[][][] teacherWindows = loadTeacherWindows(teacherUuids, teacherIndex);
+
+        // Aulas por tipo
+        Map<UUID, Integer> spaceIndex = new HashMap<>();
+        UUID[] spaceUuids = new UUID[spaces.size()];
+        String[] spaceNames = new String[spaces.size()];
+        UUID[] spaceSpecialties = new UUID[spaces.size()];
+        Map<UUID, List<Integer>> spacesByType = new HashMap<>();
+        for (int r = 0; r < spaces.size(); r++) {
+            LearningSpaceEntity space = spaces.get(r);
+            spaceUuids[r] = space.getUuid();
+            spaceNames[r] = space.getName();
+            spaceSpecialties[r] = space.getSpecialty() != null ? space.getSpecialty().getUuid() : null;
+            spaceIndex.put(space.getUuid(), r);
+            if (space.getTypeUUID() != null) {
+                spacesByType.computeIfAbsent(space.getTypeUUID().getUuid(), k -> new ArrayList<>()).add(r);
+            }
+        }
+
+        // Grupos
+        Map<UUID, Integer> groupIndex = new HashMap<>();
+        UUID[] groupUuids = new UUID[groups.size()];
+        String[] groupNames = new String[groups.size()];
+        for (int g = 0; g < groups.size(); g++) {
+            groupUuids[g] = groups.get(g).getUuid();
+            groupNames[g] = groups.get(g).getName();
+            groupIndex.put(groupUuids[g], g);
+        }
+
+        // Sesiones existentes que se conservan: horas ya cubiertas y celdas fijas
+        Map<String, Long> scheduledHours = new HashMap<>();
+        List<List<Integer>> fixedTeacher = emptyLists(teacherUuids.length);
+        List<List<Integer>> fixedSpace = emptyLists(spaceUuids.length);
+        List<List<Integer>> fixedGroup = emptyLists(groupUuids.length);
+        if (!replaceExisting) {
+            for (ClassSessionHoursSummaryDTO summary : classSessionRepository.findScheduledHoursByPeriod(periodUuid)) {
+                scheduledHours.put(subjectKey(summary.getStudentGroupUuid(), summary.getCourseUuid(),
+                        summary.getSessionTypeUuid()), summary.getHours());
+            }
+            for (ClassSessionOccupancyRowDTO row : classSessionRepository.findOccupancyRowsByPeriod(periodUuid)) {
+                int day = dayIndex(row.getDayOfWeek());
+                Integer hour = hourIndex.get(row.getTeachingHourUuid());
+                if (day < 0 || hour == null) continue;
+                int cell = day * hourUuids.length + hour;
+                addFixed(fixedTeacher, teacherIndex.get(row.getTeacherUuid()), cell);
+                addFixed(fixedSpace, spaceIndex.get(row.getLearningSpaceUuid()), cell);
+                addFixed(fixedGroup, groupIndex.get(row.getStudentGroupUuid()), cell);
+            }
+        }
+
+        // Lecciones: horas semanales de cada curso divididas en bloques consecutivos
+        int maxBlock = Math.min(MAX_BLOCK_HOURS, longestRun(continuesNext));
+        List<ScheduleProblem.Lesson> lessons = new ArrayList<>();
+        List<int[]> subjects = new ArrayList<>();
+        List<ScheduleUnplacedLessonDTO> skipped = new ArrayList<>();
+
+        for (int g = 0; g < groups.size(); g++) {
+            StudentGroupEntity group = groups.get(g);
+            for (CourseEntity course : coursesByCycle.getOrDefault(group.getCycle().getUuid(), List.of())) {
+                int[] eligibleTeachers = toArray(teachersByArea.get(course.getTeachingKnowledgeArea().getUuid()));
+                UUID preferredSpecialty = course.getPreferredSpecialty() != null
+                        ? course.getPreferredSpecialty().getUuid() : null;
+
+                Map<TeachingTypeEntity.ETeachingType, Integer> weeklyHours = new EnumMap<>(TeachingTypeEntity.ETeachingType.class);
+                weeklyHours.put(TeachingTypeEntity.ETeachingType.THEORY, nullToZero(course.getWeeklyTheoryHours()));
+                weeklyHours.put(TeachingTypeEntity.ETeachingType.PRACTICE, nullToZero(course.getWeeklyPracticeHours()));
+
+                for (Map.Entry<TeachingTypeEntity.ETeachingType, Integer> entry : weeklyHours.entrySet()) {
+                    TeachingTypeEntity type = typesByName.get(entry.getKey());
+                    if (type == null || entry.getValue() <= 0) continue;
+
+                    long alreadyScheduled = scheduledHours.getOrDefault(
+                            subjectKey(group.getUuid(), course.getUuid(), type.getUuid()), 0L);
+                    int required = (int) Math.max(0, entry.getValue() - alreadyScheduled);
+                    if (required == 0) continue;
+
+                    boolean supported = course.getTeachingTypes().stream()
+                            .anyMatch(courseType -> courseType.getUuid().equals(type.getUuid()));
+                    if (!supported) {
+                        skipped.add(unplaced(group, course, type, required,
+                                "El curso no admite sesiones de tipo " + type.getName().name()));
+                        continue;
+                    }
+
+                    int subject = subjects.size();
+                    int[] eligibleSpaces = toArray(spacesByType.get(type.getUuid()));
+                    List<Integer> subjectLessons = new ArrayList<>();
+                    for (int length : splitIntoBlocks(required, maxBlock)) {
+                        subjectLessons.add(lessons.size());
+                        lessons.add(new ScheduleProblem.Lesson(g, subject, course.getUuid(), course.getName(),
+                                type.getUuid(), type.getName().name(), preferredSpecialty, length,
+                                eligibleTeachers, eligibleSpaces));
+                    }
+                    subjects.add(toArray(subjectLessons));
+                }
+            }
+        }
+
+        ScheduleProblem problem = new ScheduleProblem(periodUuid,
+                hourUuids, hourStart, hourEnd, continuesNext,
+                teacherUuids, teacherNames, teacherWindows,
+                spaceUuids, spaceNames, spaceSpecialties,
+                groupUuids, groupNames,
+                lessons.toArray(new ScheduleProblem.Lesson[0]), subjects.toArray(new int[0][]),
+                toArrays(fixedTeacher), toArrays(fixedSpace), toArrays(fixedGroup));
+
+        return new LoadedProblem(problem, skipped);
+    }
+
+    private int[][][] loadTeacherWindows(UUID[] teacherUuids, Map<UUID, Integer> teacherIndex) {
+        int days = ScheduleProblem.DAYS.length;
+        List<List<List<Integer>>> windows = new ArrayList<>();
+        for (int t = 0; t < teacherUuids.length; t++) {
+            windows.add(emptyLists(days));
+        }
+
+        if (teacherUuids.length > 0) {
+            for (TeacherAvailabilityEntity availability :
+                    teacherAvailabilityRepository.findByTeacherUuidIn(Arrays.asList(teacherUuids))) {
+                if (Boolean.FALSE.equals(availability.getIsAvailable())) continue;
+                Integer teacher = teacherIndex.get(availability.getTeacher().getUuid());
+                int day = dayIndex(availability.getDayOfWeek());
+                if (teacher == null || day < 0) continue;
+
+                List<Integer> dayWindows = windows.get(teacher).get(day);
+                dayWindows.add(availability.getStartTime().getHour() * 60 + availability.getStartTime().getMinute());
+                dayWindows.add(availability.getEndTime().getHour() * 60 + availability.getEndTime().getMinute());
+            }
+        }
+
+        int[][][] result = new int[teacherUuids.length][days][];
+        for (int t = 0; t < teacherUuids.length; t++) {
+            for (int d = 0; d < days; d++) {
+                result[t][d] = toArray(windows.get(t).get(d));
+            }
+        }
+        return result;
+    }
+
+    private List<ScheduleProposalSessionDTO> toProposal(LoadedProblem loaded, ScheduleState state) {
+        ScheduleProblem problem = loaded.problem();
+        List<ScheduleProposalSessionDTO> sessions = new ArrayList<>();
+        for (int l = 0; l < problem.lessons.length; l++) {
+            if (!state.isAssigned(l)) continue;
+            ScheduleProblem.Lesson lesson = problem.lessons[l];
+            int start = state.lessonStart[l];
+            int end = start + lesson.length() - 1;
+
+            List<UUID> hourUuids = new ArrayList<>();
+            for (int h = start; h <= end; h++) hourUuids.add(problem.hourUuids[h]);
+
+            sessions.add(ScheduleProposalSessionDTO.builder()
+                    .studentGroupUuid(problem.groupUuids[lesson.group()])
+                    .studentGroupName(problem.groupNames[lesson.group()])
+                    .courseUuid(lesson.courseUuid())
+                    .courseName(lesson.courseName())
+                    .teacherUuid(problem.teacherUuids[state.lessonTeacher[l]])
+                    .teacherName(problem.teacherNames[state.lessonTeacher[l]])
+                    .learningSpaceUuid(problem.spaceUuids[state.lessonSpace[l]])
+                    .learningSpaceName(problem.spaceNames[state.lessonSpace[l]])
+                    .sessionTypeUuid(lesson.sessionTypeUuid())
+                    .sessionTypeName(lesson.sessionTypeName())
+                    .dayOfWeek(ScheduleProblem.DAYS[state.lessonDay[l]])
+                    .startTime(LocalTime.MIDNIGHT.plusMinutes(problem.hourStartMinutes[start]))
+                    .endTime(LocalTime.MIDNIGHT.plusMinutes(problem.hourEndMinutes[end]))
+                    .teachingHourUuids(hourUuids)
+                    .build());
+        }
+        sessions.sort(Comparator.comparing(ScheduleProposalSessionDTO::getStudentGroupName)
+                .thenComparing(ScheduleProposalSessionDTO::getDayOfWeek)
+                .thenComparing(ScheduleProposalSessionDTO::getStartTime));
+        return sessions;
+    }
+
+    private List<ScheduleUnplacedLessonDTO> toUnplaced(LoadedProblem loaded, ScheduleState state) {
+        ScheduleProblem problem = loaded.problem();
+        List<ScheduleUnplacedLessonDTO> unplaced = new ArrayList<>();
+        for (int l = 0; l < problem.lessons.length; l++) {
+            if (state.isAssigned(l)) continue;
+            ScheduleProblem.Lesson lesson = problem.lessons[l];
+
+            String reason;
+            if (lesson.teachers().length == 0) {
+                reason = "No hay docentes con el área de conocimiento del curso";
+            } else if (lesson.spaces().length == 0) {
+                reason = "No hay aulas del tipo de sesión requerido";
+            } else if (lesson.length() >= problem.startsByLength.length
+                    || problem.startsByLength[lesson.length()].length == 0) {
+                reason = "Ningún turno tiene " + lesson.length() + " horas pedagógicas consecutivas";
+            } else {
+                reason = "No se encontró un horario libre compatible con la disponibilidad de los docentes";
+            }
+
+            unplaced.add(ScheduleUnplacedLessonDTO.builder()
+                    .studentGroupUuid(problem.groupUuids[lesson.group()])
+                    .studentGroupName(problem.groupNames[lesson.group()])
+                    .courseUuid(lesson.courseUuid())
+                    .courseName(lesson.courseName())
+                    .sessionTypeName(lesson.sessionTypeName())
+                    .hours(lesson.length())
+                    .reason(reason)
+                    .build());
+        }
+        return unplaced;
+    }
+
+    private ClassSessionRequestDTO toRequestDTO(ScheduleProposalSessionDTO session) {
+        ClassSessionRequestDTO dto = new ClassSessionRequestDTO();
+        dto.setStudentGroupUuid(session.getStudentGroupUuid());
+        dto.setCourseUuid(session.getCourseUuid());
+        dto.setTeacherUuid(session.getTeacherUuid());
+        dto.setLearningSpaceUuid(session.getLearningSpaceUuid());
+        dto.setDayOfWeek(session.getDayOfWeek());
+        dto.setSessionTypeUuid(session.getSessionTypeUuid());
+        dto.setTeachingHourUuids(session.getTeachingHourUuids());
+        return dto;
+    }
+
+    private ScheduleGenerationStatusDTO toStatusDTO(ScheduleGenerationRun run, boolean includePreview) {
+        return ScheduleGenerationStatusDTO.builder()
+                .runId(run.getRunId())
+                .periodUuid(run.getPeriodUuid())
+                .status(run.getStatus().name())
+                .phase(run.getPhase())
+                .progressPercent(run.progressPercent())
+                .elapsedMs(run.elapsedMs())
+                .timeBudgetMs(run.getTimeBudgetMs())
+                .threads(run.getThreads())
+                .iterations(run.getIterations().get())
+                .totalLessons(run.getTotalLessons())
+                .unplacedLessons(run.getUnplacedLessons())
+                .score(run.getBestCost())
+                .replaceExisting(run.isReplaceExisting())
+                .message(run.getMessage())
+                .sessions(includePreview ? run.getSessions() : null)
+                .unplaced(includePreview ? run.getUnplaced() : null)
+                .build();
+    }
+
+    private ScheduleGenerationRun findRunOrThrow(UUID runId) {
+        ScheduleGenerationRun run = runs.get(runId);
+        if (run == null) {
+            throw new EntityNotFoundException("Generación de horario no encontrada con ID: " + runId);
+        }
+        return run;
+    }
+
+    private void evictFinishedRuns() {
+        long now = System.currentTimeMillis();
+        runs.values().removeIf(run -> run.getStatus() != ScheduleGenerationRun.Status.RUNNING
+                && now - run.getFinishedAtMs() > FINISHED_RUN_TTL_MS);
+    }
+
+    private ScheduleUnplacedLessonDTO unplaced(StudentGroupEntity group, CourseEntity course, TeachingTypeEntity type,
+                                               int hours, String reason) {
+        return ScheduleUnplacedLessonDTO.builder()
+                .studentGroupUuid(group.getUuid())
+                .studentGroupName(group.getName())
+                .courseUuid(course.getUuid())
+                .courseName(course.getName())
+                .sessionTypeName(type.getName().name())
+                .hours(hours)
+                .reason(reason)
+                .build();
+    }
+
+    /**
+     * Divide las horas semanales en bloques lo más parejos posible (p. ej. 5 → 3 + 2, 4 → 2 + 2).
+     */
+    static List<Integer> splitIntoBlocks(int hours, int maxBlock) {
+        int blocks = (hours + maxBlock - 1) / maxBlock;
+        int base = hours / blocks;
+        int remainder = hours % blocks;
+        List<Integer> result = new ArrayList<>(blocks);
+        for (int i = 0; i < blocks; i++) {
+            result.add(base + (i < remainder ? 1 : 0));
+        }
+        return result;
+    }
+
+    private static int longestRun(boolean[] continuesNext) {
+        if (continuesNext.length == 0) return 1;
+        int longest = 1;
+        int current = 1;
+        for (int h = 0; h < continuesNext.length - 1; h++) {
+            current = continuesNext[h] ? current + 1 : 1;
+            longest = Math.max(longest, current);
+        }
+        return longest;
+    }
+
+    private static int dayIndex(DayOfWeek dayOfWeek) {
+        for (int d = 0; d < ScheduleProblem.DAYS.length; d++) {
+            if (ScheduleProblem.DAYS[d] == dayOfWeek) return d;
+        }
+        return -1;
+    }
+
+    private static String subjectKey(UUID groupUuid, UUID courseUuid, UUID typeUuid) {
+        return groupUuid + "|" + courseUuid + "|" + typeUuid;
+    }
+
+    private static int nullToZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static void addFixed(List<List<Integer>> fixed, Integer resource, int cell) {
+        if (resource != null) {
+            fixed.get(resource).add(cell);
+        }
+    }
+
+    private static <T> List<List<T>> emptyLists(int size) {
+        List<List<T>> lists = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) lists.add(new ArrayList<>());
+        return lists;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        return values == null ? new int[0] : values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[][] toArrays(List<List<Integer>> values) {
+        return values.stream().map(ScheduleGeneratorService::toArray).toArray(int[][]::new);
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record LoadedProblem(ScheduleProblem problem, List<ScheduleUnplacedLessonDTO> skipped) {
+    }
+}
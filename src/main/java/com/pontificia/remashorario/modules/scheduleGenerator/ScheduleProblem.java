@@ -0,0 +1,156 @@
+package com.pontificia.remashorario.modules.scheduleGenerator;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Modelo inmutable (índices enteros) del problema de horarios de un periodo.
+ * Se construye una sola vez a partir de las entidades y lo comparten todos los hilos del solver.
+ * <p>
+ * Una "celda" es la combinación día × hora pedagógica: {@code day * hourCount + hour}.
+ */
+final class ScheduleProblem {
+
+    static final DayOfWeek[] DAYS = {
+            DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY,
+            DayOfWeek.THURSDAY, DayOfWeek.FRIDAY, DayOfWeek.SATURDAY
+    };
+
+    final UUID periodUuid;
+
+    // Horas pedagógicas ordenadas por turno y orden dentro del turno
+    final UUID[] hourUuids;
+    final int[] hourStartMinutes;
+    final int[] hourEndMinutes;
+    /** true si la hora h+1 es la siguiente del mismo turno. */
+    final boolean[] continuesNext;
+
+    final UUID[] teacherUuids;
+    final String[] teacherNames;
+    /** Ventanas de disponibilidad [docente][día] como pares (inicio, fin) en minutos. */
+    final int[][][] teacherWindows;
+
+    final UUID[] spaceUuids;
+    final String[] spaceNames;
+    final UUID[] spaceSpecialties;
+
+    final UUID[] groupUuids;
+    final String[] groupNames;
+
+    final Lesson[] lessons;
+    /** Lecciones de cada asignatura (grupo × curso × tipo de sesión). */
+    final int[][] subjectLessons;
+
+    /** Celdas ocupadas por sesiones existentes que se conservan, por recurso. */
+    final int[][] fixedTeacherCells;
+    final int[][] fixedSpaceCells;
+    final int[][] fixedGroupCells;
+
+    /** Posibles horas de inicio para cada duración (índice = duración). */
+    final int[][] startsByLength;
+
+    ScheduleProblem(UUID periodUuid,
+                    UUID[] hourUuids, int[] hourStartMinutes, int[] hourEndMinutes, boolean[] continuesNext,
+                    UUID[] teacherUuids, String[] teacherNames, int[][][] teacherWindows,
+                    UUID[] spaceUuids, String[] spaceNames, UUID[] spaceSpecialties,
+                    UUID[] groupUuids, String[] groupNames,
+                    Lesson[] lessons, int[][] subjectLessons,
+                    int[][] fixedTeacherCells, int[][] fixedSpaceCells, int[][] fixedGroupCells) {
+        this.periodUuid = periodUuid;
+        this.hourUuids = hourUuids;
+        this.hourStartMinutes = hourStartMinutes;
+        this.hourEndMinutes = hourEndMinutes;
+        this.continuesNext = continuesNext;
+        this.teacherUuids = teacherUuids;
+        this.teacherNames = teacherNames;
+        this.teacherWindows = teacherWindows;
+        this.spaceUuids = spaceUuids;
+        this.spaceNames = spaceNames;
+        this.spaceSpecialties = spaceSpecialties;
+        this.groupUuids = groupUuids;
+        this.groupNames = groupNames;
+        this.lessons = lessons;
+        this.subjectLessons = subjectLessons;
+        this.fixedTeacherCells = fixedTeacherCells;
+        this.fixedSpaceCells = fixedSpaceCells;
+        this.fixedGroupCells = fixedGroupCells;
+        this.startsByLength = computeStarts(continuesNext, maxLessonLength(lessons));
+    }
+
+    int hourCount() {
+        return hourUuids.length;
+    }
+
+    int cellsPerResource() {
+        return DAYS.length * hourUuids.length;
+    }
+
+    int cell(int day, int hour) {
+        return day * hourUuids.length + hour;
+    }
+
+    /**
+     * El bloque completo debe caber en una sola ventana de disponibilidad del docente,
+     * igual que la validación de creación de sesiones.
+     */
+    boolean isTeacherAvailable(int teacher, int day, int start, int length) {
+        int from = hourStartMinutes[start];
+        int to = hourEndMinutes[start + length - 1];
+        int[] windows = teacherWindows[teacher][day];
+        for (int i = 0; i < windows.length; i += 2) {
+            if (windows[i] <= from && windows[i + 1] >= to) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int specialtyPenalty(Lesson lesson, int space) {
+        if (lesson.preferredSpecialty() == null) return 0;
+        return lesson.preferredSpecialty().equals(spaceSpecialties[space]) ? 0 : 1;
+    }
+
+    private static int maxLessonLength(Lesson[] lessons) {
+        int max = 1;
+        for (Lesson lesson : lessons) {
+            max = Math.max(max, lesson.length());
+        }
+        return max;
+    }
+
+    private static int[][] computeStarts(boolean[] continuesNext, int maxLength) {
+        int[][] starts = new int[maxLength + 1][];
+        for (int length = 1; length <= maxLength; length++) {
+            List<Integer> valid = new ArrayList<>();
+            for (int start = 0; start + length <= continuesNext.length; start++) {
+                boolean consecutive = true;
+                for (int h = start; h < start + length - 1; h++) {
+                    if (!continuesNext[h]) {
+                        consecutive = false;
+                        break;
+                    }
+                }
+                if (consecutive) valid.add(start);
+            }
+            starts[length] = valid.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return starts;
+    }
+
+    /**
+     * Bloque de horas consecutivas de un curso para un grupo que hay que ubicar en la semana.
+     */
+    record Lesson(int group,
+                  int subject,
+                  UUID courseUuid,
+                  String courseName,
+                  UUID sessionTypeUuid,
+                  String sessionTypeName,
+                  UUID preferredSpecialty,
+                  int length,
+                  int[] teachers,
+                  int[] spaces) {
+    }
+}
@@ -0,0 +1,390 @@
+package com.pontificia.remashorario.modules.scheduleGenerator;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Motor de generación de horarios: heurística constructiva (lecciones más restringidas
+ * primero) seguida de búsqueda local en paralelo (recocido simulado con expulsión de
+ * lecciones en conflicto). Cada hilo trabaja sobre su propia copia del estado y
+ * comparte el mejor resultado encontrado.
+ */
+final class ScheduleSolver {
+
+    private static final int MAX_EJECTED = 2;
+    private static final double START_TEMPERATURE = 100.0;
+    private static final double END_TEMPERATURE = 0.5;
+    private static final int CHECK_INTERVAL = 256;
+
+    /**
+     * Recibe el avance del solver (implementado por la ejecución en curso).
+     */
+    interface Listener {
+        void onPhase(String phase);
+
+        void onImprovement(long cost, int unassignedLessons);
+
+        void onIterations(long iterations);
+    }
+
+    private final ScheduleProblem problem;
+    private final ExecutorService workers;
+    private final int threads;
+    private final long seed;
+
+    ScheduleSolver(ScheduleProblem problem, ExecutorService workers, int threads, long seed) {
+        this.problem = problem;
+        this.workers = workers;
+        this.threads = threads;
+        this.seed = seed;
+    }
+
+    ScheduleState solve(long deadlineNanos, Listener listener, BooleanSupplier cancelled)
+            throws InterruptedException {
+        listener.onPhase("CONSTRUCTING");
+        ScheduleState initial = construct();
+        SharedBest best = new SharedBest(initial.copy());
+        listener.onImprovement(initial.cost(), initial.unassignedCount());
+
+        if (initial.cost() == 0 || problem.lessons.length == 0) {
+            return best.snapshot();
+        }
+
+        listener.onPhase("OPTIMIZING");
+        long startNanos = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(initial.copy(), new Random(seed + i), best, listener, cancelled,
+                    startNanos, deadlineNanos);
+            futures.add(workers.submit(worker));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw new IllegalStateException("Error en la búsqueda local: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw e;
+        }
+        return best.snapshot();
+    }
+
+    /**
+     * Heurística constructiva: ubica primero las lecciones con menos opciones (docentes × aulas)
+     * y más largas, eligiendo para cada una la celda de menor costo incremental.
+     */
+    ScheduleState construct() {
+        ScheduleState state = new ScheduleState(problem);
+        int[] teacherLoad = new int[problem.teacherUuids.length];
+        int[] groupDayLoad = new int[problem.groupUuids.length * ScheduleProblem.DAYS.length];
+
+        Integer[] order = new Integer[problem.lessons.length];
+        for (int l = 0; l < order.length; l++) order[l] = l;
+        Arrays.sort(order, Comparator
+                .comparingLong((Integer l) -> (long) problem.lessons[l].teachers().length * problem.lessons[l].spaces().length)
+                .thenComparing(l -> -problem.lessons[l].length()));
+
+        for (int lesson : order) {
+            if (placeGreedy(state, lesson, teacherLoad, groupDayLoad)) {
+                ScheduleProblem.Lesson l = problem.lessons[lesson];
+                teacherLoad[state.lessonTeacher[lesson]] += l.length();
+                groupDayLoad[l.group() * ScheduleProblem.DAYS.length + state.lessonDay[lesson]] += l.length();
+            }
+        }
+        return state;
+    }
+
+    private boolean placeGreedy(ScheduleState state, int lesson, int[] teacherLoad, int[] groupDayLoad) {
+        ScheduleProblem.Lesson l = problem.lessons[lesson];
+        int[] starts = l.length() < problem.startsByLength.length ? problem.startsByLength[l.length()] : new int[0];
+        int[] subject = problem.subjectLessons[l.subject()];
+
+        long bestScore = Long.MAX_VALUE;
+        int bestDay = -1, bestStart = -1, bestTeacher = -1, bestSpace = -1;
+
+        for (int day = 0; day < ScheduleProblem.DAYS.length; day++) {
+            long dayScore = 0;
+            for (int other : subject) {
+                if (other != lesson && state.lessonDay[other] == day) dayScore += ScheduleState.SAME_DAY;
+            }
+            dayScore += groupDayLoad[l.group() * ScheduleProblem.DAYS.length + day];
+
+            for (int start : starts) {
+                if (!isGroupFree(state, l, day, start)) continue;
+
+                int teacher = -1;
+                long teacherScore = Long.MAX_VALUE;
+                for (int t : l.teachers()) {
+                    if (!problem.isTeacherAvailable(t, day, start, l.length())) continue;
+                    if (!isTeacherFree(state, t, day, start, l.length())) continue;
+                    long score = (teachesSubject(state, subject, lesson, t) ? 0 : splitPenalty(state, subject, lesson))
+                            + teacherLoad[t];
+                    if (score < teacherScore) {
+                        teacherScore = score;
+                        teacher = t;
+                    }
+                }
+                if (teacher < 0) continue;
+
+                int space = -1;
+                long spaceScore = Long.MAX_VALUE;
+                for (int r : l.spaces()) {
+                    if (!isSpaceFree(state, r, day, start, l.length())) continue;
+                    long score = ScheduleState.SPECIALTY_MISMATCH * problem.specialtyPenalty(l, r);
+                    if (score < spaceScore) {
+                        spaceScore = score;
+                        space = r;
+                        if (score == 0) break;
+                    }
+                }
+                if (space < 0) continue;
+
+                long score = dayScore + teacherScore + spaceScore;
+                if (score < bestScore) {
+                    bestScore = score;
+                    bestDay = day;
+                    bestStart = start;
+                    bestTeacher = teacher;
+                    bestSpace = space;
+                }
+            }
+        }
+
+        if (bestDay < 0) return false;
+        state.assign(lesson, bestDay, bestStart, bestTeacher, bestSpace);
+        return true;
+    }
+
+    private boolean isGroupFree(ScheduleState state, ScheduleProblem.Lesson l, int day, int start) {
+        for (int h = start; h < start + l.length(); h++) {
+            if (state.groupOwner(l.group(), problem.cell(day, h)) != ScheduleState.FREE) return false;
+        }
+        return true;
+    }
+
+    private boolean isTeacherFree(ScheduleState state, int teacher, int day, int start, int length) {
+        for (int h = start; h < start + length; h++) {
+            if (state.teacherOwner(teacher, problem.cell(day, h)) != ScheduleState.FREE) return false;
+        }
+        return true;
+    }
+
+    private boolean isSpaceFree(ScheduleState state, int space, int day, int start, int length) {
+        for (int h = start; h < start + length; h++) {
+            if (state.spaceOwner(space, problem.cell(day, h)) != ScheduleState.FREE) return false;
+        }
+        return true;
+    }
+
+    private boolean teachesSubject(ScheduleState state, int[] subject, int lesson, int teacher) {
+        for (int other : subject) {
+            if (other != lesson && state.isAssigned(other) && state.lessonTeacher[other] == teacher) return true;
+        }
+        return false;
+    }
+
+    private long splitPenalty(ScheduleState state, int[] subject, int lesson) {
+        for (int other : subject) {
+            if (other != lesson && state.isAssigned(other)) return ScheduleState.TEACHER_SPLIT;
+        }
+        return 0;
+    }
+
+    /**
+     * Mejor estado global, compartido entre los hilos de búsqueda.
+     */
+    private static final class SharedBest {
+        private ScheduleState state;
+        private volatile long cost;
+
+        private SharedBest(ScheduleState state) {
+            this.state = state;
+            this.cost = state.cost();
+        }
+
+        private long cost() {
+            return cost;
+        }
+
+        private synchronized boolean offer(ScheduleState candidate) {
+            if (candidate.cost() >= cost) return false;
+            state = candidate.copy();
+            cost = state.cost();
+            return true;
+        }
+
+        private synchronized ScheduleState snapshot() {
+            return state.copy();
+        }
+    }
+
+    /**
+     * Hilo de búsqueda local: mueve una lección a otra celda/docente/aula expulsando
+     * como máximo {@value #MAX_EJECTED} lecciones en conflicto y acepta el movimiento
+     * según el criterio de recocido simulado.
+     */
+    private final class Worker implements Runnable {
+        private ScheduleState state;
+        private final Random random;
+        private final SharedBest best;
+        private final Listener listener;
+        private final BooleanSupplier cancelled;
+        private final long startNanos;
+        private final long deadlineNanos;
+
+        private final int[] ejected = new int[MAX_EJECTED];
+        private final int[] savedDay = new int[MAX_EJECTED + 1];
+        private final int[] savedStart = new int[MAX_EJECTED + 1];
+        private final int[] savedTeacher = new int[MAX_EJECTED + 1];
+        private final int[] savedSpace = new int[MAX_EJECTED + 1];
+
+        private Worker(ScheduleState state, Random random, SharedBest best, Listener listener,
+                       BooleanSupplier cancelled, long startNanos, long deadlineNanos) {
+            this.state = state;
+            this.random = random;
+            this.best = best;
+            this.listener = listener;
+            this.cancelled = cancelled;
+            this.startNanos = startNanos;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public void run() {
+            long totalNanos = Math.max(1, deadlineNanos - startNanos);
+            long restartInterval = Math.max(1, totalNanos / 8);
+            long nextRestart = startNanos + restartInterval;
+            double temperature = START_TEMPERATURE;
+            long iterations = 0;
+
+            while (true) {
+                iterations++;
+                if (iterations % CHECK_INTERVAL == 0) {
+                    long now = System.nanoTime();
+                    if (now >= deadlineNanos || cancelled.getAsBoolean() || Thread.currentThread().isInterrupted()
+                            || best.cost() == 0) {
+                        break;
+                    }
+                    double elapsed = (double) (now - startNanos) / totalNanos;
+                    temperature = START_TEMPERATURE * Math.pow(END_TEMPERATURE / START_TEMPERATURE, elapsed);
+
+                    if (state.cost() < best.cost() && best.offer(state)) {
+                        listener.onImprovement(state.cost(), state.unassignedCount());
+                    }
+                    if (now >= nextRestart) {
+                        nextRestart = now + restartInterval;
+                        if (state.cost() > best.cost()) {
+                            state = best.snapshot();
+                        }
+                    }
+                    listener.onIterations(CHECK_INTERVAL);
+                }
+                step(temperature);
+            }
+
+            if (state.cost() < best.cost() && best.offer(state)) {
+                listener.onImprovement(state.cost(), state.unassignedCount());
+            }
+        }
+
+        private void step(double temperature) {
+            int lesson;
+            if (state.unassignedCount() > 0 && random.nextInt(10) < 6) {
+                lesson = state.unassignedAt(random.nextInt(state.unassignedCount()));
+            } else {
+                lesson = random.nextInt(problem.lessons.length);
+            }
+
+            ScheduleProblem.Lesson l = problem.lessons[lesson];
+            if (l.length() >= problem.startsByLength.length) return;
+            int[] starts = problem.startsByLength[l.length()];
+            if (starts.length == 0 || l.teachers().length == 0 || l.spaces().length == 0) return;
+
+            boolean assigned = state.isAssigned(lesson);
+            int day = random.nextInt(ScheduleProblem.DAYS.length);
+            int start = starts[random.nextInt(starts.length)];
+            int teacher = assigned && random.nextInt(10) < 6
+                    ? state.lessonTeacher[lesson] : l.teachers()[random.nextInt(l.teachers().length)];
+            int space = assigned && random.nextInt(10) < 6
+                    ? state.lessonSpace[lesson] : l.spaces()[random.nextInt(l.spaces().length)];
+
+            if (assigned && day == state.lessonDay[lesson] && start == state.lessonStart[lesson]
+                    && teacher == state.lessonTeacher[lesson] && space == state.lessonSpace[lesson]) {
+                return;
+            }
+            if (!problem.isTeacherAvailable(teacher, day, start, l.length())) return;
+
+            int ejectedCount = collectEjected(lesson, l, day, start, teacher, space);
+            if (ejectedCount < 0) return;
+
+            // Guardar posiciones anteriores para deshacer
+            save(0, lesson);
+            for (int i = 0; i < ejectedCount; i++) save(i + 1, ejected[i]);
+
+            long before = state.cost();
+            for (int i = 0; i < ejectedCount; i++) state.unassign(ejected[i]);
+            state.unassign(lesson);
+            state.assign(lesson, day, start, teacher, space);
+            long delta = state.cost() - before;
+
+            if (delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature)) {
+                return;
+            }
+
+            // Deshacer
+            state.unassign(lesson);
+            for (int i = 0; i < ejectedCount; i++) restore(i + 1, ejected[i]);
+            restore(0, lesson);
+        }
+
+        /**
+         * Lecciones que ocupan el bloque destino; -1 si hay una sesión fija o demasiadas lecciones.
+         */
+        private int collectEjected(int lesson, ScheduleProblem.Lesson l, int day, int start, int teacher, int space) {
+            int count = 0;
+            for (int h = start; h < start + l.length(); h++) {
+                int cell = problem.cell(day, h);
+                int[] owners = {
+                        state.teacherOwner(teacher, cell),
+                        state.spaceOwner(space, cell),
+                        state.groupOwner(l.group(), cell)
+                };
+                for (int owner : owners) {
+                    if (owner == ScheduleState.FREE || owner == lesson) continue;
+                    if (owner == ScheduleState.FIXED) return -1;
+
+                    boolean known = false;
+                    for (int i = 0; i < count; i++) {
+                        if (ejected[i] == owner) {
+                            known = true;
+                            break;
+                        }
+                    }
+                    if (known) continue;
+                    if (count == MAX_EJECTED) return -1;
+                    ejected[count++] = owner;
+                }
+            }
+            return count;
+        }
+
+        private void save(int slot, int lesson) {
+            savedDay[slot] = state.lessonDay[lesson];
+            savedStart[slot] = state.lessonStart[lesson];
+            savedTeacher[slot] = state.lessonTeacher[lesson];
+            savedSpace[slot] = state.lessonSpace[lesson];
+        }
+
+        private void restore(int slot, int lesson) {
+            if (savedDay[slot] == ScheduleState.FREE) return;
+            state.assign(lesson, savedDay[slot], savedStart[slot], savedTeacher[slot], savedSpace[slot]);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.pontificia.remashorario.modules.scheduleGenerator;
+
+import java.util.Arrays;
+
+/**
+ * Asignación mutable de lecciones (día, hora de inicio, docente, aula) con la ocupación
+ * de cada recurso. Siempre libre de choques: una celda tiene a lo sumo un dueño.
+ * No es thread-safe; cada hilo del solver trabaja con su propia copia.
+ */
+final class ScheduleState {
+
+    static final int FREE = -1;
+    static final int FIXED = -2;
+
+    // Pesos de la función de costo
+    static final long UNASSIGNED_PER_HOUR = 1_000;
+    static final long SAME_DAY = 30;
+    static final long TEACHER_SPLIT = 40;
+    static final long SPECIALTY_MISMATCH = 20;
+
+    final ScheduleProblem problem;
+
+    final int[] lessonDay;
+    final int[] lessonStart;
+    final int[] lessonTeacher;
+    final int[] lessonSpace;
+
+    private final int[] teacherCells;
+    private final int[] spaceCells;
+    private final int[] groupCells;
+
+    private final long[] subjectCosts;
+    private long cost;
+
+    // Lecciones sin ubicar, con su posición para altas/bajas O(1)
+    private final int[] unassigned;
+    private final int[] unassignedPosition;
+    private int unassignedCount;
+
+    ScheduleState(ScheduleProblem problem) {
+        this.problem = problem;
+        int lessons = problem.lessons.length;
+        int cells = problem.cellsPerResource();
+
+        lessonDay = new int[lessons];
+        lessonStart = new int[lessons];
+        lessonTeacher = new int[lessons];
+        lessonSpace = new int[lessons];
+        Arrays.fill(lessonDay, FREE);
+
+        teacherCells = new int[problem.teacherUuids.length * cells];
+        spaceCells = new int[problem.spaceUuids.length * cells];
+        groupCells = new int[problem.groupUuids.length * cells];
+        Arrays.fill(teacherCells, FREE);
+        Arrays.fill(spaceCells, FREE);
+        Arrays.fill(groupCells, FREE);
+        markFixed(teacherCells, problem.fixedTeacherCells, cells);
+        markFixed(spaceCells, problem.fixedSpaceCells, cells);
+        markFixed(groupCells, problem.fixedGroupCells, cells);
+
+        unassigned = new int[lessons];
+        unassignedPosition = new int[lessons];
+        for (int l = 0; l < lessons; l++) {
+            unassigned[l] = l;
+            unassignedPosition[l] = l;
+        }
+        unassignedCount = lessons;
+
+        subjectCosts = new long[problem.subjectLessons.length];
+        for (int s = 0; s < subjectCosts.length; s++) {
+            subjectCosts[s] = computeSubjectCost(s);
+            cost += subjectCosts[s];
+        }
+    }
+
+    /**
+     * Copia independiente (para publicar el mejor resultado o reiniciar otro hilo).
+     */
+    ScheduleState copy() {
+        ScheduleState copy = new ScheduleState(problem);
+        for (int l = 0; l < lessonDay.length; l++) {
+            if (lessonDay[l] != FREE) {
+                copy.assign(l, lessonDay[l], lessonStart[l], lessonTeacher[l], lessonSpace[l]);
+            }
+        }
+        return copy;
+    }
+
+    long cost() {
+        return cost;
+    }
+
+    int unassignedCount() {
+        return unassignedCount;
+    }
+
+    int unassignedAt(int index) {
+        return unassigned[index];
+    }
+
+    boolean isAssigned(int lesson) {
+        return lessonDay[lesson] != FREE;
+    }
+
+    /**
+     * Dueño de la celda para el docente/aula/grupo: índice de lección, {@link #FREE} o {@link #FIXED}.
+     */
+    int teacherOwner(int teacher, int cell) {
+        return teacherCells[teacher * problem.cellsPerResource() + cell];
+    }
+
+    int spaceOwner(int space, int cell) {
+        return spaceCells[space * problem.cellsPerResource() + cell];
+    }
+
+    int groupOwner(int group, int cell) {
+        return groupCells[group * problem.cellsPerResource() + cell];
+    }
+
+    void assign(int lesson, int day, int start, int teacher, int space) {
+        ScheduleProblem.Lesson l = problem.lessons[lesson];
+        lessonDay[lesson] = day;
+        lessonStart[lesson] = start;
+        lessonTeacher[lesson] = teacher;
+        lessonSpace[lesson] = space;
+        setCells(lesson, l, day, start, teacher, space, lesson);
+        removeUnassigned(lesson);
+        refreshSubject(l.subject());
+    }
+
+    void unassign(int lesson) {
+        if (lessonDay[lesson] == FREE) return;
+        ScheduleProblem.Lesson l = problem.lessons[lesson];
+        setCells(lesson, l, lessonDay[lesson], lessonStart[lesson], lessonTeacher[lesson], lessonSpace[lesson], FREE);
+        lessonDay[lesson] = FREE;
+        addUnassigned(lesson);
+        refreshSubject(l.subject());
+    }
+
+    /**
+     * Costo de una asignatura: horas sin ubicar, clases del mismo curso el mismo día,
+     * más de un docente para el mismo grupo y curso, y aulas fuera de la especialidad preferida.
+     */
+    long computeSubjectCost(int subject) {
+        int[] lessons = problem.subjectLessons[subject];
+        long total = 0;
+        int distinctTeachers = 0;
+
+        for (int i = 0; i < lessons.length; i++) {
+            int l = lessons[i];
+            ScheduleProblem.Lesson lesson = problem.lessons[l];
+            if (lessonDay[l] == FREE) {
+                total += UNASSIGNED_PER_HOUR * lesson.length();
+                continue;
+            }
+            total += SPECIALTY_MISMATCH * problem.specialtyPenalty(lesson, lessonSpace[l]);
+
+            boolean newTeacher = true;
+            for (int j = 0; j < i; j++) {
+                int other = lessons[j];
+                if (lessonDay[other] == FREE) continue;
+                if (lessonDay[other] == lessonDay[l]) total += SAME_DAY;
+                if (lessonTeacher[other] == lessonTeacher[l]) newTeacher = false;
+            }
+            if (newTeacher) distinctTeachers++;
+        }
+
+        if (distinctTeachers > 1) {
+            total += TEACHER_SPLIT * (distinctTeachers - 1);
+        }
+        return total;
+    }
+
+    private void refreshSubject(int subject) {
+        long updated = computeSubjectCost(subject);
+        cost += updated - subjectCosts[subject];
+        subjectCosts[subject] = updated;
+    }
+
+    private void setCells(int lesson, ScheduleProblem.Lesson l, int day, int start, int teacher, int space, int owner) {
+        int cells = problem.cellsPerResource();
+        for (int h = start; h < start + l.length(); h++) {
+            int cell = problem.cell(day, h);
+            teacherCells[teacher * cells + cell] = owner;
+            spaceCells[space * cells + cell] = owner;
+            groupCells[l.group() * cells + cell] = owner;
+        }
+    }
+
+    private void removeUnassigned(int lesson) {
+        int position = unassignedPosition[lesson];
+        if (position < 0) return;
+        int last = unassigned[--unassignedCount];
+        unassigned[position] = last;
+        unassignedPosition[last] = position;
+        unassignedPosition[lesson] = -1;
+    }
+
+    private void addUnassigned(int lesson) {
+        if (unassignedPosition[lesson] >= 0) return;
+        unassigned[unassignedCount] = lesson;
+        unassignedPosition[lesson] = unassignedCount++;
+    }
+
+    private static void markFixed(int[] target, int[][] fixedCells, int cellsPerResource) {
+        for (int resource = 0; resource < fixedCells.length; resource++) {
+            for (int cell : fixedCells[resource]) {
+                target[resource * cellsPerResource + cell] = FIXED;
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.pontificia.remashorario.modules.scheduleGenerator.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ScheduleGenerationRequestDTO {
+    @Min(value = 5, message = "El tiempo mínimo de generación es de 5 segundos")
+    @Max(value = 1800, message = "El tiempo máximo de generación es de 30 minutos")
+    private Integer timeBudgetSeconds = 120;
+
+    @Min(value = 1, message = "Debe usar al menos un hilo")
+    @Max(value = 64, message = "No se pueden usar más de 64 hilos")
+    private Integer threads; // null = núcleos disponibles
+
+    // Si es true, se ignoran las sesiones actuales de los grupos del periodo y se reemplazan al confirmar
+    private boolean replaceExisting;
+
+    private Long seed; // para reproducir una ejecución
+}
@@ -0,0 +1,32 @@
+package com.pontificia.remashorario.modules.scheduleGenerator.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Builder
+public class ScheduleGenerationStatusDTO {
+    private UUID runId;
+    private UUID periodUuid;
+    private String status; // RUNNING, COMPLETED, FAILED, CANCELLED
+    private String phase; // LOADING, CONSTRUCTING, OPTIMIZING, DONE
+    private int progressPercent;
+    private long elapsedMs;
+    private long timeBudgetMs;
+    private int threads;
+    private long iterations;
+    private int totalLessons;
+    private int unplacedLessons;
+    private long score; // menor es mejor; -1 mientras no hay solución
+    private boolean replaceExisting;
+    private String message;
+
+    // Solo en la vista previa
+    private List<ScheduleProposalSessionDTO> sessions;
+    private List<ScheduleUnplacedLessonDTO> unplaced;
+}
@@ -0,0 +1,30 @@
+package com.pontificia.remashorario.modules.scheduleGenerator.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Builder
+public class ScheduleProposalSessionDTO {
+    private UUID studentGroupUuid;
+    private String studentGroupName;
+    private UUID courseUuid;
+    private String courseName;
+    private UUID teacherUuid;
+    private String teacherName;
+    private UUID learningSpaceUuid;
+    private String learningSpaceName;
+    private UUID sessionTypeUuid;
+    private String sessionTypeName;
+    private DayOfWeek dayOfWeek;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private List<UUID> teachingHourUuids;
+}
@@ -0,0 +1,20 @@
+package com.pontificia.remashorario.modules.scheduleGenerator.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.UUID;
+
+@Getter
+@Setter
+@Builder
+public class ScheduleUnplacedLessonDTO {
+    private UUID studentGroupUuid;
+    private String studentGroupName;
+    private UUID courseUuid;
+    private String courseName;
+    private String sessionTypeName;
+    private int hours;
+    private String reason;
+}
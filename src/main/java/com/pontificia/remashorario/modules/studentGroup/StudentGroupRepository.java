@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,5 +24,11 @@ public interface StudentGroupRepository extends BaseRepository<StudentGroupEntit
     // Método para verificar si un grupo con un nombre dado ya existe para un ciclo y periodo específicos
     boolean existsByNameAndCycle_UuidAndPeriod_Uuid(String name, UUID cycleUuid, UUID periodUuid);
 
+    @Query("SELECT sg FROM StudentGroupEntity sg " +
+            "LEFT JOIN FETCH sg.period " +
+            "LEFT JOIN FETCH sg.cycle " +
+            "WHERE sg.uuid IN :uuids")
+    List<StudentGroupEntity> findAllWithPeriodAndCycleByUuidIn(@Param("uuids") Collection<UUID> uuids);
+
 
 }
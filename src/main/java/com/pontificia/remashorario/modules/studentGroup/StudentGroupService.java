@@ -1,5 +1,6 @@
 package com.pontificia.remashorario.modules.studentGroup;
 
+import com.pontificia.remashorario.modules.classSession.ClassSessionGridCache;
 import com.pontificia.remashorario.modules.studentGroup.dto.StudentGroupRequestDTO;
 import com.pontificia.remashorario.modules.studentGroup.dto.StudentGroupResponseDTO;
 import com.pontificia.remashorario.modules.studentGroup.mapper.StudentGroupMapper;
@@ -17,14 +18,17 @@ public class StudentGroupService extends BaseService<StudentGroupEntity> {
     private final StudentGroupMapper studentGroupMapper;
     private final StudentGroupRepository studentGroupRepository; // Inyectar el repositorio directamente si necesitas métodos personalizados
     private final PeriodService periodService;
+    private final ClassSessionGridCache gridCache;
 
     public StudentGroupService(StudentGroupRepository studentGroupRepository,
                                StudentGroupMapper studentGroupMapper,
-                               PeriodService periodService) {
+                               PeriodService periodService,
+                               ClassSessionGridCache gridCache) {
         super(studentGroupRepository);
         this.studentGroupMapper = studentGroupMapper;
         this.studentGroupRepository = studentGroupRepository;
         this.periodService = periodService;
+        this.gridCache = gridCache;
     }
 
     /**
@@ -96,6 +100,8 @@ public class StudentGroupService extends BaseService<StudentGroupEntity> {
 
         studentGroupMapper.updateEntityFromDTO(requestDTO, existingStudentGroup);
         StudentGroupEntity updatedStudentGroup = update(existingStudentGroup); // update viene de BaseService
+        // Las grillas guardan el nombre del grupo
+        gridCache.invalidateAll();
 
         return studentGroupMapper.toResponseDTO(updatedStudentGroup);
     }
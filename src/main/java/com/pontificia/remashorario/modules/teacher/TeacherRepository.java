@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -17,6 +18,13 @@ public interface TeacherRepository extends BaseRepository<TeacherEntity> {
     @Query("SELECT t FROM TeacherEntity t JOIN t.knowledgeAreas ka WHERE ka.uuid = :knowledgeAreaUuid")
     List<TeacherEntity> findByKnowledgeAreasContaining(@Param("knowledgeAreaUuid") UUID knowledgeAreaUuid);
 
+    // Candidatos de un área con departamento y áreas ya cargados (elegibilidad por lotes)
+    @Query("SELECT DISTINCT t FROM TeacherEntity t " +
+            "LEFT JOIN FETCH t.department " +
+            "LEFT JOIN FETCH t.knowledgeAreas " +
+            "WHERE EXISTS (SELECT 1 FROM t.knowledgeAreas ka WHERE ka.uuid = :knowledgeAreaUuid)")
+    List<TeacherEntity> findEligibleWithDetailsByKnowledgeArea(@Param("knowledgeAreaUuid") UUID knowledgeAreaUuid);
+
     Optional<TeacherEntity> findByEmail(String email);
 
     boolean existsByEmail(String email);
@@ -52,4 +60,12 @@ public interface TeacherRepository extends BaseRepository<TeacherEntity> {
     Optional<TeacherEntity> findByIdWithAvailabilities(@Param("uuid") UUID uuid);
 
     List<TeacherEntity> findByHasUserAccount(Boolean hasUserAccount);
+
+    @Query("SELECT DISTINCT t FROM TeacherEntity t " +
+            "LEFT JOIN FETCH t.knowledgeAreas " +
+            "WHERE t.uuid IN :uuids")
+    List<TeacherEntity> findAllWithKnowledgeAreasByUuidIn(@Param("uuids") Collection<UUID> uuids);
+
+    @Query("SELECT DISTINCT t FROM TeacherEntity t LEFT JOIN FETCH t.knowledgeAreas")
+    List<TeacherEntity> findAllWithKnowledgeAreas();
 }
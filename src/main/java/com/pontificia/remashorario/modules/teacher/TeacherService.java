@@ -2,21 +2,24 @@ package com.pontificia.remashorario.modules.teacher;
 
 import com.pontificia.remashorario.modules.KnowledgeArea.KnowledgeAreaEntity;
 import com.pontificia.remashorario.modules.KnowledgeArea.KnowledgeAreaService;
+import com.pontificia.remashorario.modules.TimeSlot.TimeSlotCatalog;
 import com.pontificia.remashorario.modules.TimeSlot.TimeSlotEntity;
 import com.pontificia.remashorario.modules.academicDepartment.AcademicDepartmentEntity;
 import com.pontificia.remashorario.modules.academicDepartment.AcademicDepartmentService;
 import com.pontificia.remashorario.modules.classSession.ClassSessionEntity;
+import com.pontificia.remashorario.modules.classSession.ClassSessionGridCache;
 import com.pontificia.remashorario.modules.classSession.ClassSessionRepository;
 import com.pontificia.remashorario.modules.course.CourseEntity;
 import com.pontificia.remashorario.modules.teacher.dto.*;
 import com.pontificia.remashorario.modules.teacher.mapper.TeacherMapper;
 
+import com.pontificia.remashorario.modules.teacherAvailability.TeacherAvailabilityBitmap;
+import com.pontificia.remashorario.modules.teacherAvailability.TeacherAvailabilityCache;
 import com.pontificia.remashorario.modules.teacherAvailability.TeacherAvailabilityEntity;
 import com.pontificia.remashorario.modules.teacherAvailability.TeacherAvailabilityRepository;
 import com.pontificia.remashorario.modules.teacherAvailability.dto.TeacherWithAvailabilitiesDTO;
 import com.pontificia.remashorario.modules.teacherAvailability.mapper.TeacherAvailabilityMapper;
 import com.pontificia.remashorario.modules.teachingHour.TeachingHourEntity;
-import com.pontificia.remashorario.modules.teachingHour.TeachingHourRepository;
 import com.pontificia.remashorario.modules.user.UserService;
 import com.pontificia.remashorario.modules.course.CourseService;
 import com.pontificia.remashorario.modules.TimeSlot.TimeSlotService;
@@ -43,8 +46,10 @@ public class TeacherService extends BaseService<TeacherEntity> {
     private final TimeSlotService timeSlotService;
     private final TeacherAvailabilityRepository teacherAvailabilityRepository;
     private final TeacherAvailabilityMapper teacherAvailabilityMapper;
-    private final TeachingHourRepository teachingHourRepository;
+    private final TimeSlotCatalog timeSlotCatalog;
     private final ClassSessionRepository classSessionRepository;
+    private final TeacherAvailabilityCache availabilityCache;
+    private final ClassSessionGridCache gridCache;
 
     @Autowired
     public TeacherService(TeacherRepository teacherRepository,
@@ -54,7 +59,9 @@ public class TeacherService extends BaseService<TeacherEntity> {
                           UserService userService,
                           CourseService courseService,
                           TimeSlotService timeSlotService,
-                          TeacherAvailabilityRepository teacherAvailabilityRepository, TeacherAvailabilityMapper teacherAvailabilityMapper, TeachingHourRepository teachingHourRepository, ClassSessionRepository classSessionRepository) {
+                          TeacherAvailabilityRepository teacherAvailabilityRepository, TeacherAvailabilityMapper teacherAvailabilityMapper, TimeSlotCatalog timeSlotCatalog, ClassSessionRepository classSessionRepository,
+                          TeacherAvailabilityCache availabilityCache,
+                          ClassSessionGridCache gridCache) {
         super(teacherRepository);
         this.teacherRepository = teacherRepository;
         this.teacherMapper = teacherMapper;
@@ -65,8 +72,10 @@ public class TeacherService extends BaseService<TeacherEntity> {
         this.timeSlotService = timeSlotService;
         this.teacherAvailabilityRepository = teacherAvailabilityRepository;
         this.teacherAvailabilityMapper = teacherAvailabilityMapper;
-        this.teachingHourRepository = teachingHourRepository;
+        this.timeSlotCatalog = timeSlotCatalog;
         this.classSessionRepository = classSessionRepository;
+        this.availabilityCache = availabilityCache;
+        this.gridCache = gridCache;
     }
 
     public List<TeacherResponseDTO> getAllTeachers() {
@@ -80,93 +89,62 @@ public class TeacherService extends BaseService<TeacherEntity> {
     }
 
 
-    // ✅ NUEVO: Verificar conflictos de clases asignadas
-    private TeacherClassConflictInfo checkTeacherClassConflicts(
-            TeacherEntity teacher, String dayOfWeek, List<UUID> specificHourUuids) {
-
-        try {
-            // Buscar sesiones existentes del docente en el día específico
-            List<ClassSessionEntity> teacherSessions = classSessionRepository
-                    .findByTeacherUuidAndDayOfWeek(teacher.getUuid(), DayOfWeek.valueOf(dayOfWeek.toUpperCase()));
-
-            List<TeacherClassConflictDTO> conflicts = new ArrayList<>();
-            Set<UUID> conflictingHourUuids = new HashSet<>();
-
-            for (ClassSessionEntity session : teacherSessions) {
-                // Verificar si alguna hora pedagógica de la sesión existente
-                // coincide con las horas que queremos asignar
-                List<UUID> sessionHourUuids = session.getTeachingHours().stream()
-                        .map(TeachingHourEntity::getUuid)
-                        .collect(Collectors.toList());
-
-                // Encontrar intersección
-                List<UUID> intersection = sessionHourUuids.stream()
-                        .filter(specificHourUuids::contains)
-                        .collect(Collectors.toList());
-
-                if (!intersection.isEmpty()) {
-                    // Hay conflicto - construir información detallada
-                    TeachingHourEntity firstHour = session.getTeachingHours().stream()
-                            .min(Comparator.comparing(TeachingHourEntity::getOrderInTimeSlot))
-                            .orElse(null);
-                    TeachingHourEntity lastHour = session.getTeachingHours().stream()
-                            .max(Comparator.comparing(TeachingHourEntity::getOrderInTimeSlot))
-                            .orElse(null);
-
-                    TeacherClassConflictDTO conflict = TeacherClassConflictDTO.builder()
-                            .sessionUuid(session.getUuid().toString())
-                            .courseName(session.getCourse().getName())
-                            .courseCode(session.getCourse().getCode())
-                            .studentGroupName(session.getStudentGroup().getName())
-                            .studentGroupUuid(session.getStudentGroup().getUuid().toString()) // ✅ AGREGAR ESTA LÍNEA
-                            .dayOfWeek(session.getDayOfWeek().name())
-                            .startTime(firstHour != null ? firstHour.getStartTime().toString() : "")
-                            .endTime(lastHour != null ? lastHour.getEndTime().toString() : "")
-                            .learningSpaceName(session.getLearningSpace().getName())
-                            .sessionType(session.getSessionType().getName().name())
-                            .conflictingHourUuids(intersection.stream().map(UUID::toString).collect(Collectors.toList()))
-                            .build();
-
-                    conflicts.add(conflict);
-                    conflictingHourUuids.addAll(intersection);
-
-                    // ✅ AGREGAR LOG PARA DEBUGGING
-                    System.out.println("=== CONFLICT DETECTED ===");
-                    System.out.println("Teacher: " + teacher.getFullName());
-                    System.out.println("Conflicting session: " + session.getCourse().getName());
-                    System.out.println("Student group: " + session.getStudentGroup().getName());
-                    System.out.println("Student group UUID: " + session.getStudentGroup().getUuid());
-                    System.out.println("Conflict DTO student group UUID: " + conflict.getStudentGroupUuid());
-                }
-            }
-
-            // Determinar tipo de conflicto
-            String conflictType = "NONE";
-            if (!conflicts.isEmpty()) {
-                if (conflictingHourUuids.size() == specificHourUuids.size()) {
-                    conflictType = "FULL_CONFLICT"; // Todas las horas en conflicto
-                } else {
-                    conflictType = "PARTIAL_CONFLICT"; // Solo algunas horas en conflicto
-                }
-            }
+    /**
+     * Conflictos del docente con las horas pedidas, a partir de sus sesiones del día ya cargadas.
+     */
+    private TeacherClassConflictInfo buildClassConflictInfo(List<ClassSessionEntity> teacherSessions,
+                                                            List<UUID> specificHourUuids) {
+        Set<UUID> requestedHours = new HashSet<>(specificHourUuids);
+        List<TeacherClassConflictDTO> conflicts = new ArrayList<>();
+        Set<UUID> conflictingHourUuids = new HashSet<>();
+
+        for (ClassSessionEntity session : teacherSessions) {
+            // Horas de la sesión existente que coinciden con las que se quieren asignar
+            List<UUID> intersection = session.getTeachingHours().stream()
+                    .map(TeachingHourEntity::getUuid)
+                    .filter(requestedHours::contains)
+                    .collect(Collectors.toList());
+            if (intersection.isEmpty()) continue;
+
+            TeachingHourEntity firstHour = session.getTeachingHours().stream()
+                    .min(Comparator.comparing(TeachingHourEntity::getOrderInTimeSlot))
+                    .orElse(null);
+            TeachingHourEntity lastHour = session.getTeachingHours().stream()
+                    .max(Comparator.comparing(TeachingHourEntity::getOrderInTimeSlot))
+                    .orElse(null);
+
+            conflicts.add(TeacherClassConflictDTO.builder()
+                    .sessionUuid(session.getUuid().toString())
+                    .courseName(session.getCourse().getName())
+                    .courseCode(session.getCourse().getCode())
+                    .studentGroupName(session.getStudentGroup().getName())
+                    .studentGroupUuid(session.getStudentGroup().getUuid().toString())
+                    .dayOfWeek(session.getDayOfWeek().name())
+                    .startTime(firstHour != null ? firstHour.getStartTime().toString() : "")
+                    .endTime(lastHour != null ? lastHour.getEndTime().toString() : "")
+                    .learningSpaceName(session.getLearningSpace().getName())
+                    .sessionType(session.getSessionType().getName().name())
+                    .conflictingHourUuids(intersection.stream().map(UUID::toString).collect(Collectors.toList()))
+                    .build());
+            conflictingHourUuids.addAll(intersection);
+        }
 
-            return TeacherClassConflictInfo.builder()
-                    .hasConflict(!conflicts.isEmpty())
-                    .conflicts(conflicts)
-                    .conflictType(conflictType)
-                    .conflictingHourUuids(conflictingHourUuids.stream().map(UUID::toString).collect(Collectors.toList()))
-                    .build();
-
-        } catch (Exception e) {
-            System.out.println("Error checking teacher conflicts: " + e.getMessage());
-            e.printStackTrace(); // ✅ Agregar stack trace para debugging
-            return TeacherClassConflictInfo.builder()
-                    .hasConflict(false)
-                    .conflicts(new ArrayList<>())
-                    .conflictType("ERROR")
-                    .build();
+        // Determinar tipo de conflicto
+        String conflictType = "NONE";
+        if (!conflicts.isEmpty()) {
+            conflictType = conflictingHourUuids.size() == specificHourUuids.size()
+                    ? "FULL_CONFLICT"      // Todas las horas en conflicto
+                    : "PARTIAL_CONFLICT";  // Solo algunas horas en conflicto
         }
+
+        return TeacherClassConflictInfo.builder()
+                .hasConflict(!conflicts.isEmpty())
+                .conflicts(conflicts)
+                .conflictType(conflictType)
+                .conflictingHourUuids(conflictingHourUuids.stream().map(UUID::toString).collect(Collectors.toList()))
+                .build();
     }
+
     // ✅ NUEVO: Generar resumen de conflictos
     private String generateConflictSummary(List<TeacherClassConflictDTO> conflicts) {
         if (conflicts.isEmpty()) return "";
@@ -192,19 +170,28 @@ public class TeacherService extends BaseService<TeacherEntity> {
                 .orElseThrow(() -> new EntityNotFoundException("Docente no encontrado con ID: " + uuid));
     }
 
+    /**
+     * Elegibilidad de los docentes del área del curso, calculada por lotes: una consulta para los
+     * candidatos, una para sus disponibilidades, una para sus sesiones del día y una para las horas
+     * pedidas (o el turno), sin importar cuántos docentes tenga el área.
+     */
+    @Transactional(readOnly = true)
     public List<TeacherEligibilityResponseDTO> getEligibleTeachersWithAvailability(
-            UUID courseUuid, String dayOfWeek, UUID timeSlotUuid, List<UUID> specificHourUuids) { // ✅ NUEVO PARÁMETRO
+            UUID courseUuid, String dayOfWeek, UUID timeSlotUuid, List<UUID> specificHourUuids) {
 
         CourseEntity course = courseService.findCourseOrThrow(courseUuid);
         List<TeacherEntity> eligibleTeachers = teacherRepository
-                .findByKnowledgeAreasContaining(course.getTeachingKnowledgeArea().getUuid());
+                .findEligibleWithDetailsByKnowledgeArea(course.getTeachingKnowledgeArea().getUuid());
+        if (eligibleTeachers.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        List<TeacherEligibilityResponseDTO> result = new ArrayList<>();
+        EligibilityContext context = loadEligibilityContext(
+                eligibleTeachers, dayOfWeek, timeSlotUuid, specificHourUuids);
 
+        List<TeacherEligibilityResponseDTO> result = new ArrayList<>(eligibleTeachers.size());
         for (TeacherEntity teacher : eligibleTeachers) {
-            TeacherEligibilityResponseDTO dto = buildTeacherEligibilityResponse(
-                    teacher, dayOfWeek, timeSlotUuid, specificHourUuids); // ✅ PASAR HORAS
-            result.add(dto);
+            result.add(buildTeacherEligibilityResponse(teacher, dayOfWeek, timeSlotUuid, specificHourUuids, context));
         }
 
         result.sort((a, b) -> {
@@ -216,72 +203,123 @@ public class TeacherService extends BaseService<TeacherEntity> {
         return result;
     }
 
+    private EligibilityContext loadEligibilityContext(List<TeacherEntity> teachers, String dayOfWeek,
+                                                      UUID timeSlotUuid, List<UUID> specificHourUuids) {
+        List<UUID> teacherUuids = teachers.stream().map(TeacherEntity::getUuid).toList();
+        EligibilityContext context = new EligibilityContext();
+
+        // Todas las disponibilidades de los candidatos: las del día y el total por docente
+        context.availabilities = teacherAvailabilityRepository.findByTeacherUuidIn(teacherUuids).stream()
+                .collect(Collectors.groupingBy(availability -> availability.getTeacher().getUuid()));
+        context.bitmaps = availabilityCache.getAll(teacherUuids);
+
+        if (dayOfWeek == null) {
+            return context;
+        }
+        try {
+            context.day = DayOfWeek.valueOf(dayOfWeek.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return context;
+        }
+
+        if (specificHourUuids != null && !specificHourUuids.isEmpty()) {
+            context.sessions = classSessionRepository.findByTeacherUuidInAndDayOfWeek(teacherUuids, context.day).stream()
+                    .collect(Collectors.groupingBy(session -> session.getTeacher().getUuid()));
+
+            Map<UUID, TeachingHourEntity> hoursByUuid = timeSlotCatalog.findHours(new HashSet<>(specificHourUuids))
+                    .stream()
+                    .collect(Collectors.toMap(TeachingHourEntity::getUuid, hour -> hour));
+            // Una hora inexistente deja a todos los docentes sin cobertura, como antes
+            if (specificHourUuids.stream().allMatch(hoursByUuid::containsKey)) {
+                context.requestedHours = specificHourUuids.stream().map(hoursByUuid::get).toList();
+            }
+        } else if (timeSlotUuid != null) {
+            context.timeSlot = timeSlotCatalog.findTimeSlot(timeSlotUuid).orElse(null);
+            if (context.timeSlot != null) {
+                context.timeSlotHours = timeSlotCatalog.hoursOf(timeSlotUuid);
+            }
+        }
+        return context;
+    }
 
-    // ✅ MÉTODO ACTUALIZADO
-    // ✅ ACTUALIZAR: buildTeacherEligibilityResponse para incluir conflictos
     private TeacherEligibilityResponseDTO buildTeacherEligibilityResponse(
-            TeacherEntity teacher, String dayOfWeek, UUID timeSlotUuid, List<UUID> specificHourUuids) {
+            TeacherEntity teacher, String dayOfWeek, UUID timeSlotUuid, List<UUID> specificHourUuids,
+            EligibilityContext context) {
 
-        TeacherResponseDTO basicInfo = teacherMapper.toResponseDTO(teacher);
+        List<TeacherAvailabilityEntity> teacherAvailabilities =
+                context.availabilities.getOrDefault(teacher.getUuid(), Collections.emptyList());
+        TeacherAvailabilityBitmap bitmap =
+                context.bitmaps.getOrDefault(teacher.getUuid(), TeacherAvailabilityBitmap.EMPTY);
+        TeacherResponseDTO basicInfo = teacherMapper.toResponseDTO(teacher, teacherAvailabilities.size());
 
         boolean isAvailable = false;
         String status = "NOT_AVAILABLE";
         List<TeacherAvailabilityEntity> dayAvailabilities = new ArrayList<>();
         String recommendedSlots = "";
+        boolean hasSpecificHours = specificHourUuids != null && !specificHourUuids.isEmpty();
 
-        // ✅ NUEVO: Verificar conflictos de clases
+        // Conflictos con clases ya asignadas
         TeacherClassConflictInfo conflictInfo = null;
-        if (dayOfWeek != null && specificHourUuids != null && !specificHourUuids.isEmpty()) {
-            conflictInfo = checkTeacherClassConflicts(teacher, dayOfWeek, specificHourUuids);
+        if (dayOfWeek != null && hasSpecificHours) {
+            conflictInfo = context.day == null
+                    ? TeacherClassConflictInfo.builder()
+                            .hasConflict(false)
+                            .conflicts(new ArrayList<>())
+                            .conflictType("ERROR")
+                            .build()
+                    : buildClassConflictInfo(
+                            context.sessions.getOrDefault(teacher.getUuid(), Collections.emptyList()),
+                            specificHourUuids);
         }
 
         if (dayOfWeek != null) {
-            try {
-                dayAvailabilities = teacherAvailabilityRepository
-                        .findByTeacherAndDayOfWeek(teacher, DayOfWeek.valueOf(dayOfWeek.toUpperCase()));
+            if (context.day == null) {
+                status = "ERROR";
+                recommendedSlots = "Error al verificar disponibilidad";
+            } else {
+                dayAvailabilities = teacherAvailabilities.stream()
+                        .filter(availability -> availability.getDayOfWeek() == context.day)
+                        .collect(Collectors.toList());
 
                 if (dayAvailabilities.isEmpty()) {
                     status = "NO_SCHEDULE_CONFIGURED";
                     recommendedSlots = "Sin horario configurado";
                 } else {
-                    // ✅ CAMBIO: Considerar tanto disponibilidad como conflictos
-                    if (specificHourUuids != null && !specificHourUuids.isEmpty()) {
-                        isAvailable = isTeacherAvailableForSpecificHours(teacher, dayOfWeek, specificHourUuids);
-
-                        // ✅ NUEVA LÓGICA: Determinar estado final considerando conflictos
-                        if (conflictInfo != null && conflictInfo.isHasConflict()) {
-                            if ("FULL_CONFLICT".equals(conflictInfo.getConflictType())) {
-                                status = "SCHEDULE_CONFLICT";
-                                isAvailable = false;
-                            } else if ("PARTIAL_CONFLICT".equals(conflictInfo.getConflictType())) {
-                                status = "PARTIAL_CONFLICT";
-                                isAvailable = false; // No permitir selección si hay conflicto parcial
-                            }
+                    if (hasSpecificHours) {
+                        isAvailable = context.requestedHours != null
+                                && context.requestedHours.stream().allMatch(hour -> isHourCovered(bitmap, context.day, hour));
+
+                        // Estado final considerando conflictos
+                        if (conflictInfo.isHasConflict()) {
+                            status = "FULL_CONFLICT".equals(conflictInfo.getConflictType())
+                                    ? "SCHEDULE_CONFLICT"
+                                    : "PARTIAL_CONFLICT";
+                            isAvailable = false; // No permitir selección si hay conflicto parcial
                         } else if (isAvailable) {
                             status = "AVAILABLE";
                         } else {
                             status = "TIME_CONFLICT";
                         }
-                    } else if (timeSlotUuid != null) {
-                        // Lógica anterior para timeSlot
-                        TimeSlotEntity timeSlot = timeSlotService.findOrThrow(timeSlotUuid);
-                        isAvailable = isTeacherAvailableForAnyHourInTimeSlot(teacher, dayOfWeek, timeSlot);
+                    } else if (timeSlotUuid != null && context.timeSlot != null) {
+                        // Basta con que ALGUNA hora pedagógica del turno esté dentro de la disponibilidad
+                        isAvailable = context.timeSlotHours.stream()
+                                .anyMatch(hour -> isHourCovered(bitmap, context.day, hour));
                         status = isAvailable ? "AVAILABLE" : "TIME_CONFLICT";
+                    } else if (timeSlotUuid != null) {
+                        status = "ERROR"; // Turno inexistente
                     } else {
                         isAvailable = dayAvailabilities.stream()
                                 .anyMatch(av -> av.getIsAvailable() != null && av.getIsAvailable());
                         status = isAvailable ? "AVAILABLE" : "NOT_AVAILABLE";
                     }
 
-                    recommendedSlots = generateRecommendedTimeSlots(dayAvailabilities);
+                    recommendedSlots = "ERROR".equals(status)
+                            ? "Error al verificar disponibilidad"
+                            : generateRecommendedTimeSlots(dayAvailabilities);
                 }
-            } catch (Exception e) {
-                status = "ERROR";
-                recommendedSlots = "Error al verificar disponibilidad";
             }
         }
 
-        // ✅ CONSTRUIR RESPUESTA COMPLETA con información de conflictos
         TeacherEligibilityResponseDTO.TeacherEligibilityResponseDTOBuilder builder = TeacherEligibilityResponseDTO.builder()
                 .uuid(basicInfo.getUuid())
                 .fullName(basicInfo.getFullName())
@@ -294,98 +332,36 @@ public class TeacherService extends BaseService<TeacherEntity> {
                 .availabilitiesForDay(teacherAvailabilityMapper.toResponseDTOList(dayAvailabilities))
                 .recommendedTimeSlots(recommendedSlots);
 
-        // ✅ AGREGAR información de conflictos si existe
         if (conflictInfo != null) {
             builder.hasScheduleConflict(conflictInfo.isHasConflict())
                     .conflictingClasses(conflictInfo.getConflicts())
                     .conflictType(conflictInfo.getConflictType());
 
             if (conflictInfo.isHasConflict()) {
-                String conflictSummary = generateConflictSummary(conflictInfo.getConflicts());
-                builder.conflictSummary(conflictSummary);
+                builder.conflictSummary(generateConflictSummary(conflictInfo.getConflicts()));
             }
         }
 
         return builder.build();
     }
 
-    // ✅ NUEVO MÉTODO: Verificar disponibilidad para horas específicas por UUID
-    private boolean isTeacherAvailableForSpecificHours(TeacherEntity teacher, String dayOfWeek, List<UUID> hourUuids) {
-        try {
-            // Obtener las horas pedagógicas
-            List<TeachingHourEntity> teachingHours = hourUuids.stream()
-                    .map(uuid -> teachingHourRepository.findById(uuid)
-                            .orElseThrow(() -> new EntityNotFoundException("Teaching hour not found: " + uuid)))
-                    .collect(Collectors.toList());
-
-            // Obtener disponibilidades del docente
-            List<TeacherAvailabilityEntity> availabilities = teacherAvailabilityRepository
-                    .findByTeacherAndDayOfWeek(teacher, DayOfWeek.valueOf(dayOfWeek.toUpperCase()));
-
-            // Verificar que todas las horas estén cubiertas por las disponibilidades
-            for (TeachingHourEntity hour : teachingHours) {
-                boolean hourCovered = availabilities.stream().anyMatch(availability ->
-                        availability.getIsAvailable() != null &&
-                                availability.getIsAvailable() &&
-                                hour.getStartTime().compareTo(availability.getStartTime()) >= 0 &&
-                                hour.getEndTime().compareTo(availability.getEndTime()) <= 0
-                );
-
-                if (!hourCovered) {
-                    System.out.println("Hour " + hour.getStartTime() + "-" + hour.getEndTime() +
-                            " not covered for " + teacher.getFullName());
-                    return false;
-                }
-            }
-
-            System.out.println("All specific hours covered for " + teacher.getFullName());
-            return true;
-
-        } catch (Exception e) {
-            System.out.println("Error checking specific hours for " + teacher.getFullName() + ": " + e.getMessage());
-            return false;
-        }
+    private boolean isHourCovered(TeacherAvailabilityBitmap bitmap, DayOfWeek day, TeachingHourEntity hour) {
+        return bitmap.covers(day, hour.getStartTime(), hour.getEndTime());
     }
 
-    // ✅ MÉTODO AUXILIAR: Verificar si el docente está disponible para ALGUNA hora del turno
-    private boolean isTeacherAvailableForAnyHourInTimeSlot(
-            TeacherEntity teacher, String dayOfWeek, TimeSlotEntity timeSlot) {
-
-        try {
-            List<TeacherAvailabilityEntity> availabilities = teacherAvailabilityRepository
-                    .findByTeacherAndDayOfWeek(teacher, DayOfWeek.valueOf(dayOfWeek.toUpperCase()));
-
-            // Verificar si ALGUNA hora pedagógica del turno está dentro de la disponibilidad
-            return timeSlot.getTeachingHours().stream().anyMatch(teachingHour ->
-                    availabilities.stream().anyMatch(availability ->
-                            availability.getIsAvailable() != null &&
-                                    availability.getIsAvailable() &&
-                                    teachingHour.getStartTime().compareTo(availability.getStartTime()) >= 0 &&
-                                    teachingHour.getEndTime().compareTo(availability.getEndTime()) <= 0
-                    )
-            );
-
-        } catch (Exception e) {
-            System.out.println("Error checking availability for any hour in timeslot: " + e.getMessage());
-            return false;
-        }
+    /**
+     * Datos precargados para evaluar a todos los candidatos de una vez.
+     */
+    private static final class EligibilityContext {
+        private Map<UUID, List<TeacherAvailabilityEntity>> availabilities = Collections.emptyMap();
+        private Map<UUID, TeacherAvailabilityBitmap> bitmaps = Collections.emptyMap();
+        private Map<UUID, List<ClassSessionEntity>> sessions = Collections.emptyMap();
+        private DayOfWeek day;
+        private List<TeachingHourEntity> requestedHours;
+        private TimeSlotEntity timeSlot;
+        private List<TeachingHourEntity> timeSlotHours = Collections.emptyList();
     }
 
-    private boolean isTeacherAvailableInSpecificTimeSlot(TeacherEntity teacher, String dayOfWeek, TimeSlotEntity timeSlot) {
-        try {
-            List<TeacherAvailabilityEntity> availabilities = teacherAvailabilityRepository
-                    .findByTeacherAndDayOfWeek(teacher, DayOfWeek.valueOf(dayOfWeek.toUpperCase()));
-
-            return availabilities.stream().anyMatch(availability ->
-                    availability.getIsAvailable() != null &&
-                            availability.getIsAvailable() &&
-                            timeSlot.getStartTime().compareTo(availability.getStartTime()) >= 0 &&
-                            timeSlot.getEndTime().compareTo(availability.getEndTime()) <= 0
-            );
-        } catch (Exception e) {
-            return false;
-        }
-    }
     private String generateRecommendedTimeSlots(List<TeacherAvailabilityEntity> availabilities) {
         return availabilities.stream()
                 .filter(av -> av.getIsAvailable() != null && av.getIsAvailable())
@@ -394,7 +370,6 @@ public class TeacherService extends BaseService<TeacherEntity> {
                 .collect(Collectors.joining(", "));
     }
 
-    // En TeacherService - método getEligibleTeachers
     public List<TeacherResponseDTO> getEligibleTeachers(UUID courseUuid, String dayOfWeek, UUID timeSlotUuid) {
         CourseEntity course = courseService.findCourseOrThrow(courseUuid);
 
@@ -406,134 +381,41 @@ public class TeacherService extends BaseService<TeacherEntity> {
         List<TeacherEntity> eligibleTeachers = teacherRepository
                 .findByKnowledgeAreasContaining(course.getTeachingKnowledgeArea().getUuid());
 
-        System.out.println("=== DEBUG TEACHERS ===");
-        System.out.println("Teachers by knowledge area: " + eligibleTeachers.size());
-        System.out.println("DayOfWeek filter: " + dayOfWeek);
-        System.out.println("TimeSlot filter: " + timeSlotUuid);
-
-        // PASO 2: Filtrar por día con logs
-        if (dayOfWeek != null && !dayOfWeek.trim().isEmpty()) {
-            System.out.println("Applying day filter for: " + dayOfWeek);
+        DayOfWeek day = parseDayOrNull(dayOfWeek);
+        if (day != null && !eligibleTeachers.isEmpty()) {
+            Map<UUID, TeacherAvailabilityBitmap> bitmaps = availabilityCache.getAll(
+                    eligibleTeachers.stream().map(TeacherEntity::getUuid).toList());
+            TimeSlotEntity timeSlot = timeSlotUuid != null ? timeSlotService.findOrThrow(timeSlotUuid) : null;
 
-            List<TeacherEntity> availableTeachers = new ArrayList<>();
-
-            for (TeacherEntity teacher : eligibleTeachers) {
-                boolean available = isTeacherAvailableOnDayWithLogs(teacher, dayOfWeek);
-                System.out.println("Teacher: " + teacher.getFullName() + " available on " + dayOfWeek + ": " + available);
-
-                if (available) {
-                    availableTeachers.add(teacher);
-                }
-            }
-
-            System.out.println("Teachers available after day filter: " + availableTeachers.size());
-            eligibleTeachers = availableTeachers;
-        }
-
-        // PASO 3: Filtrar por turno (solo si pasó el filtro de día)
-        if (timeSlotUuid != null && dayOfWeek != null && !eligibleTeachers.isEmpty()) {
-            System.out.println("Applying time slot filter...");
-            TimeSlotEntity timeSlot = timeSlotService.findOrThrow(timeSlotUuid);
+            // PASO 2 y 3: filtrar por día y, si se pidió, por turno completo.
+            // Un docente sin disponibilidades configuradas ese día se incluye.
             eligibleTeachers = eligibleTeachers.stream()
-                    .filter(teacher -> isTeacherAvailableInTimeSlotWithLogs(teacher, dayOfWeek, timeSlot))
+                    .filter(teacher -> {
+                        TeacherAvailabilityBitmap bitmap = bitmaps.getOrDefault(teacher.getUuid(), TeacherAvailabilityBitmap.EMPTY);
+                        if (!bitmap.isConfigured(day)) return true;
+                        if (timeSlot == null) return bitmap.hasWindows(day);
+                        return bitmap.covers(day, timeSlot.getStartTime(), timeSlot.getEndTime());
+                    })
                     .collect(Collectors.toList());
-            System.out.println("Teachers available after time slot filter: " + eligibleTeachers.size());
         }
 
-        System.out.println("Final eligible teachers: " + eligibleTeachers.size());
-        System.out.println("=== END DEBUG ===");
-
         return teacherMapper.toResponseDTOList(eligibleTeachers);
     }
 
-
-    public List<TeacherEntity> getTeachersByKnowledgeArea(UUID knowledgeAreaUuid) {
-        KnowledgeAreaEntity knowledgeArea = knowledgeAreaService.findOrThrow(knowledgeAreaUuid);
-        return teacherRepository.findByKnowledgeAreasContaining(knowledgeArea.getUuid());
-    }
-
-
-    /// Método con logs para debuggear
-    private boolean isTeacherAvailableOnDayWithLogs(TeacherEntity teacher, String dayOfWeek) {
-        if (dayOfWeek == null || dayOfWeek.trim().isEmpty()) {
-            System.out.println("  -> No day filter, returning true");
-            return true;
-        }
-
+    // Día inválido o vacío: no se filtra por día
+    private DayOfWeek parseDayOrNull(String dayOfWeek) {
+        if (dayOfWeek == null || dayOfWeek.trim().isEmpty()) return null;
         try {
-            List<TeacherAvailabilityEntity> availabilities = teacherAvailabilityRepository
-                    .findByTeacherAndDayOfWeek(teacher, DayOfWeek.valueOf(dayOfWeek.toUpperCase()));
-
-            System.out.println("  -> Teacher " + teacher.getFullName() + " has " + availabilities.size() + " availabilities for " + dayOfWeek);
-
-            // CAMBIO IMPORTANTE: Si no tiene disponibilidades, lo incluimos
-            if (availabilities.isEmpty()) {
-                System.out.println("  -> No availabilities found, INCLUDING teacher (assuming available)");
-                return true;  // ESTE ES EL CAMBIO CLAVE
-            }
-
-            // Verificar si tiene al menos una disponibilidad activa
-            boolean hasActiveAvailability = availabilities.stream().anyMatch(availability -> {
-                boolean isAvailable = availability != null &&
-                        availability.getIsAvailable() != null &&
-                        availability.getIsAvailable();
-
-                System.out.println("    -> Availability: " + availability.getStartTime() + "-" + availability.getEndTime() +
-                        " isAvailable: " + availability.getIsAvailable() + " -> " + isAvailable);
-
-                return isAvailable;
-            });
-
-            System.out.println("  -> Has active availability: " + hasActiveAvailability);
-            return hasActiveAvailability;
-
+            return DayOfWeek.valueOf(dayOfWeek.trim().toUpperCase());
         } catch (IllegalArgumentException e) {
-            System.out.println("  -> Invalid day format: " + dayOfWeek + ", INCLUDING teacher");
-            return true;
+            return null;
         }
     }
 
-    // Método con logs para turno
-    private boolean isTeacherAvailableInTimeSlotWithLogs(TeacherEntity teacher, String dayOfWeek, TimeSlotEntity timeSlot) {
-        if (dayOfWeek == null || timeSlot == null) return true;
-
-        try {
-            List<TeacherAvailabilityEntity> availabilities = teacherAvailabilityRepository
-                    .findByTeacherAndDayOfWeek(teacher, DayOfWeek.valueOf(dayOfWeek.toUpperCase()));
-
-            System.out.println("  -> Checking time slot for " + teacher.getFullName());
-            System.out.println("  -> Time slot: " + timeSlot.getStartTime() + "-" + timeSlot.getEndTime());
 
-            // Si no tiene disponibilidades, lo incluimos
-            if (availabilities.isEmpty()) {
-                System.out.println("  -> No availabilities for time slot check, INCLUDING");
-                return true;
-            }
-
-            boolean fits = availabilities.stream().anyMatch(availability -> {
-                boolean isAvailable = availability != null &&
-                        availability.getIsAvailable() != null &&
-                        availability.getIsAvailable() &&
-                        timeSlot.getStartTime() != null &&
-                        timeSlot.getEndTime() != null &&
-                        availability.getStartTime() != null &&
-                        availability.getEndTime() != null &&
-                        timeSlot.getStartTime().compareTo(availability.getStartTime()) >= 0 &&
-                        timeSlot.getEndTime().compareTo(availability.getEndTime()) <= 0;
-
-                System.out.println("    -> Availability " + availability.getStartTime() + "-" + availability.getEndTime() +
-                        " fits time slot: " + isAvailable);
-
-                return isAvailable;
-            });
-
-            System.out.println("  -> Time slot fits: " + fits);
-            return fits;
-
-        } catch (Exception e) {
-            System.out.println("  -> Error in time slot check: " + e.getMessage() + ", INCLUDING");
-            return true;
-        }
+    public List<TeacherEntity> getTeachersByKnowledgeArea(UUID knowledgeAreaUuid) {
+        KnowledgeAreaEntity knowledgeArea = knowledgeAreaService.findOrThrow(knowledgeAreaUuid);
+        return teacherRepository.findByKnowledgeAreasContaining(knowledgeArea.getUuid());
     }
 
 
@@ -575,6 +457,8 @@ public class TeacherService extends BaseService<TeacherEntity> {
         // Actualizar
         teacherMapper.updateEntityFromDTO(teacher, dto, department, knowledgeAreas);
         TeacherEntity updatedTeacher = save(teacher);
+        // Las grillas guardan el nombre del docente
+        gridCache.invalidateAll();
 
         return teacherMapper.toResponseDTO(updatedTeacher);
     }
@@ -592,6 +476,7 @@ public class TeacherService extends BaseService<TeacherEntity> {
         }
 
         deleteById(uuid);
+        availabilityCache.invalidate(uuid);
     }
 
     public List<TeacherResponseDTO> filterTeachers(TeacherFilterDTO filters) {
@@ -40,6 +40,15 @@ public class TeacherMapper {
     public TeacherResponseDTO toResponseDTO(TeacherEntity entity) {
         if (entity == null) return null;
 
+        return toResponseDTO(entity, entity.getAvailabilities() != null ? entity.getAvailabilities().size() : 0);
+    }
+
+    /**
+     * Variante con el total de disponibilidades ya conocido, sin inicializar la colección.
+     */
+    public TeacherResponseDTO toResponseDTO(TeacherEntity entity, int totalAvailabilities) {
+        if (entity == null) return null;
+
         return TeacherResponseDTO.builder()
                 .uuid(entity.getUuid())
                 .fullName(entity.getFullName())
@@ -50,8 +59,7 @@ public class TeacherMapper {
                         knowledgeAreaMapper.toResponseDTOList(
                                 entity.getKnowledgeAreas().stream().toList()) : new ArrayList<>())
                 .hasUserAccount(entity.getHasUserAccount())
-                .totalAvailabilities(entity.getAvailabilities() != null ?
-                        entity.getAvailabilities().size() : 0)
+                .totalAvailabilities(totalAvailabilities)
                 .build();
     }
 
@@ -0,0 +1,114 @@
+package com.pontificia.remashorario.modules.teacherAttendance;
+
+import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActivityTypeEntity;
+import com.pontificia.remashorario.modules.classSession.ClassSessionEntity;
+import com.pontificia.remashorario.modules.payrollLine.PayrollChangeTracker;
+import com.pontificia.remashorario.modules.teacher.TeacherEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Check-in writes, each in its own short transaction so that a unique-constraint conflict on
+ * the insert can be answered by the caller instead of dooming its transaction. A check-in leaves
+ * the attendance PENDING, which payroll does not count, so only the day's rollups are flagged.
+ */
+@Component
+public class AttendanceCheckInStore {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TeacherAttendanceRepository attendanceRepository;
+    private final PayrollChangeTracker payrollChangeTracker;
+    private final AttendanceRollupTracker rollupTracker;
+
+    @Autowired
+    public AttendanceCheckInStore(TeacherAttendanceRepository attendanceRepository,
+                                  PayrollChangeTracker payrollChangeTracker,
+                                  AttendanceRollupTracker rollupTracker) {
+        this.attendanceRepository = attendanceRepository;
+        this.payrollChangeTracker = payrollChangeTracker;
+        this.rollupTracker = rollupTracker;
+    }
+
+    /**
+     * Insert the checked-in attendance of a scheduled session; teacher, session and activity type
+     * are set as references, so the write is a single INSERT (the rollups are refreshed after commit)
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException if the teacher already has an
+     *                                                                 attendance for that session and date
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public UUID insert(ScheduledSession session, LocalDate date, boolean holiday, UUID activityTypeUuid,
+                       LocalDateTime checkinAt, int lateMinutes) {
+        TeacherAttendanceEntity attendance = new TeacherAttendanceEntity();
+        attendance.setTeacher(entityManager.getReference(TeacherEntity.class, session.teacherUuid()));
+        attendance.setClassSession(entityManager.getReference(ClassSessionEntity.class, session.classSessionUuid()));
+        attendance.setAttendanceActivityType(entityManager.getReference(AttendanceActivityTypeEntity.class, activityTypeUuid));
+        attendance.setAttendanceDate(date);
+        attendance.setScheduledStartTime(session.startTime());
+        attendance.setScheduledEndTime(session.endTime());
+        attendance.setScheduledDurationMinutes(session.durationMinutes());
+        attendance.setCheckinAt(checkinAt);
+        attendance.setLateMinutes(lateMinutes);
+        attendance.setIsHoliday(holiday);
+        attendance.setStatus(TeacherAttendanceEntity.AttendanceStatus.PENDING);
+
+        TeacherAttendanceEntity saved = attendanceRepository.saveAndFlush(attendance);
+        rollupTracker.attendanceChanged(session.teacherUuid(), date);
+        return saved.getUuid();
+    }
+
+    /**
+     * Fill the check-in of an existing attendance
+     *
+     * @return false if it already had one
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean fill(UUID attendanceUuid, UUID teacherUuid, LocalDate date,
+                        LocalDateTime checkinAt, int lateMinutes) {
+        if (attendanceRepository.fillCheckIn(attendanceUuid, checkinAt, lateMinutes) == 0) {
+            return false;
+        }
+        rollupTracker.attendanceChanged(teacherUuid, date);
+        return true;
+    }
+
+    /**
+     * Insert new attendances built from punches, in JDBC batches. Punches may already close an
+     * attendance (auto-approved), so those also flag the teacher's payroll for that date
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException if any of them already exists;
+     *                                                                 none is inserted then
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void insertAll(List<TeacherAttendanceEntity> attendances) {
+        for (TeacherAttendanceEntity attendance : attendances) {
+            // Associations may come from the caller's persistence context: use this one's references
+            attendance.setTeacher(entityManager.getReference(TeacherEntity.class, attendance.getTeacher().getUuid()));
+            attendance.setClassSession(entityManager.getReference(ClassSessionEntity.class,
+                    attendance.getClassSession().getUuid()));
+            attendance.setAttendanceActivityType(entityManager.getReference(AttendanceActivityTypeEntity.class,
+                    attendance.getAttendanceActivityType().getUuid()));
+        }
+        attendanceRepository.saveAll(attendances);
+        attendanceRepository.flush();
+
+        for (TeacherAttendanceEntity attendance : attendances) {
+            UUID teacherUuid = attendance.getTeacher().getUuid();
+            if (attendance.getStatus() != TeacherAttendanceEntity.AttendanceStatus.PENDING) {
+                payrollChangeTracker.attendanceChanged(teacherUuid, attendance.getAttendanceDate());
+            }
+            rollupTracker.attendanceChanged(teacherUuid, attendance.getAttendanceDate());
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.pontificia.remashorario.modules.teacherAttendance;
+
+import com.pontificia.remashorario.modules.academicCalendarException.AcademicCalendarExceptionEntity;
+import com.pontificia.remashorario.modules.academicCalendarException.AcademicCalendarExceptionService;
+import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActivityTypeEntity;
+import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActivityTypeService;
+import com.pontificia.remashorario.modules.classSession.ClassSessionRepository;
+import com.pontificia.remashorario.modules.payrollLine.PayrollChangeTracker;
+import com.pontificia.remashorario.modules.teacher.TeacherEntity;
+import com.pontificia.remashorario.modules.teacher.TeacherRepository;
+import com.pontificia.remashorario.modules.teacherAttendance.dto.AttendancePunchDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Turns one chunk of punches into attendances, in one transaction. Everything the chunk needs
+ * (teachers, their schedules, existing attendances, holidays) is loaded with one query each.
+ * <p>
+ * Punches are matched to the session of the teacher closest in time that day. The earliest punch
+ * of a session is its check-in and the latest (if far enough from it) its check-out. Merging takes
+ * the minimum and maximum with what is already stored, so replaying punches changes nothing and
+ * penalties can only go down.
+ * <p>
+ * New attendances are inserted through {@link AttendanceCheckInStore} in a transaction of their
+ * own. If a check-in inserted one of them meanwhile, the unique (teacher, session, date)
+ * constraint rejects the batch; its rows are then inserted one by one and a row that already
+ * exists is re-read and merged like any stored attendance, instead of failing the chunk.
+ */
+@Component
+public class AttendancePunchProcessor {
+
+    private static final String REGULAR_CLASS = "REGULAR_CLASS";
+    private static final int EARLY_CHECKIN_MARGIN_MINUTES = 30;
+    private static final int LATE_CHECKOUT_MARGIN_MINUTES = 60;
+    // Repeated taps at the door are not a check-out
+    private static final int MIN_CHECKOUT_GAP_MINUTES = 10;
+
+    private final TeacherAttendanceRepository attendanceRepository;
+    private final TeacherRepository teacherRepository;
+    private final ClassSessionRepository classSessionRepository;
+    private final AttendanceActivityTypeService activityTypeService;
+    private final AcademicCalendarExceptionService calendarExceptionService;
+    private final PayrollChangeTracker payrollChangeTracker;
+    private final AttendanceRollupTracker rollupTracker;
+    private final AttendanceCheckInStore checkInStore;
+
+    @Autowired
+    public AttendancePunchProcessor(TeacherAttendanceRepository attendanceRepository,
+                                    TeacherRepository teacherRepository,
+                                    ClassSessionRepository classSessionRepository,
+                                    AttendanceActivityTypeService activityTypeService,
+                                    AcademicCalendarExceptionService calendarExceptionService,
+                                    PayrollChangeTracker payrollChangeTracker,
+                                    AttendanceRollupTracker rollupTracker,
+                                    AttendanceCheckInStore checkInStore) {
+        this.attendanceRepository = attendanceRepository;
+        this.teacherRepository = teacherRepository;
+        this.classSessionRepository = classSessionRepository;
+        this.activityTypeService = activityTypeService;
+        this.calendarExceptionService = calendarExceptionService;
+        this.payrollChangeTracker = payrollChangeTracker;
+        this.rollupTracker = rollupTracker;
+        this.checkInStore = checkInStore;
+    }
+
+    /**
+     * Counters of a whole ingestion, added to by every chunk
+     */
+    static class Counts {
+        long invalid;
+        long unmatched;
+        long created;
+        long updated;
+        long unchanged;
+        // New attendances a concurrent check-in inserted first; merged, and counted as updated or unchanged
+        long conflicts;
+        final List<String> errors = new ArrayList<>();
+
+        void error(int maxErrors, String message) {
+            invalid++;
+            if (errors.size() < maxErrors) errors.add(message);
+        }
+    }
+
+    private record SessionDay(UUID teacherUuid, UUID classSessionUuid, LocalDate date) {
+    }
+
+    /**
+     * First and last punch of a teacher for one session on one day
+     */
+    private static final class PunchSpan {
+        final ScheduledSession session;
+        LocalDateTime first;
+        LocalDateTime last;
+
+        PunchSpan(ScheduledSession session, LocalDateTime punchedAt) {
+            this.session = session;
+            this.first = punchedAt;
+            this.last = punchedAt;
+        }
+
+        void add(LocalDateTime punchedAt) {
+            if (punchedAt.isBefore(first)) first = punchedAt;
+            if (punchedAt.isAfter(last)) last = punchedAt;
+        }
+    }
+
+    @Transactional
+    public void process(List<AttendancePunchDTO> punches, Counts counts, int maxErrors) {
+        if (punches.isEmpty()) return;
+
+        Set<UUID> teacherUuids = new HashSet<>();
+        LocalDate from = null;
+        LocalDate to = null;
+        for (AttendancePunchDTO punch : punches) {
+            teacherUuids.add(punch.getTeacherUuid());
+            LocalDate date = punch.getPunchedAt().toLocalDate();
+            if (from == null || date.isBefore(from)) from = date;
+            if (to == null || date.isAfter(to)) to = date;
+        }
+
+        Map<UUID, TeacherEntity> teachers = new HashMap<>();
+        teacherRepository.findAllById(teacherUuids).forEach(teacher -> teachers.put(teacher.getUuid(), teacher));
+
+        Map<UUID, List<ScheduledSession>> sessionsByTeacher = new HashMap<>();
+        if (!teachers.isEmpty()) {
+            for (ScheduledSession session : ScheduledSession.fromRows(
+                    classSessionRepository.findScheduleRowsByTeachersAndDateRange(teachers.keySet(), from, to))) {
+                sessionsByTeacher.computeIfAbsent(session.teacherUuid(), k -> new ArrayList<>()).add(session);
+            }
+        }
+
+        // Group punches by teacher, session and day
+        Map<SessionDay, PunchSpan> spans = new LinkedHashMap<>();
+        for (AttendancePunchDTO punch : punches) {
+            if (!teachers.containsKey(punch.getTeacherUuid())) {
+                counts.error(maxErrors, "Docente no encontrado: " + punch.getTeacherUuid());
+                continue;
+            }
+            ScheduledSession session = matchSession(
+                    sessionsByTeacher.getOrDefault(punch.getTeacherUuid(), List.of()), punch.getPunchedAt());
+            if (session == null) {
+                counts.unmatched++;
+                continue;
+            }
+            SessionDay key = new SessionDay(punch.getTeacherUuid(), session.classSessionUuid(),
+                    punch.getPunchedAt().toLocalDate());
+            PunchSpan span = spans.get(key);
+            if (span == null) {
+                spans.put(key, new PunchSpan(session, punch.getPunchedAt()));
+            } else {
+                span.add(punch.getPunchedAt());
+            }
+        }
+        if (spans.isEmpty()) return;
+
+        Map<SessionDay, TeacherAttendanceEntity> existing = new HashMap<>();
+        for (TeacherAttendanceEntity attendance : attendanceRepository
+                .findSessionAttendancesByTeachersAndDateRange(teachers.keySet(), from, to)) {
+            existing.putIfAbsent(new SessionDay(attendance.getTeacher().getUuid(),
+                    attendance.getClassSession().getUuid(), attendance.getAttendanceDate()), attendance);
+        }
+        Set<LocalDate> holidays = new HashSet<>();
+        for (AcademicCalendarExceptionEntity exception : calendarExceptionService.getExceptionsByDateRange(from, to)) {
+            holidays.add(exception.getDate());
+        }
+        AttendanceActivityTypeEntity regularClass = activityTypeService.getActivityTypeByCode(REGULAR_CLASS);
+
+        Map<SessionDay, PunchSpan> created = new LinkedHashMap<>();
+        List<TeacherAttendanceEntity> toSave = new ArrayList<>();
+        Map<UUID, Set<LocalDate>> changedDays = new HashMap<>();
+        for (Map.Entry<SessionDay, PunchSpan> entry : spans.entrySet()) {
+            TeacherAttendanceEntity attendance = existing.get(entry.getKey());
+            if (attendance == null) {
+                created.put(entry.getKey(), entry.getValue());
+            } else {
+                merge(entry.getKey(), attendance, entry.getValue(), counts, toSave, changedDays);
+            }
+        }
+
+        if (!created.isEmpty()) {
+            List<TeacherAttendanceEntity> attendances = new ArrayList<>(created.size());
+            created.forEach((key, span) -> attendances.add(newAttendance(key, span, teachers, holidays, regularClass)));
+            try {
+                // Inserted in JDBC batches (hibernate.jdbc.batch_size)
+                checkInStore.insertAll(attendances);
+                counts.created += created.size();
+            } catch (DataIntegrityViolationException e) {
+                created.forEach((key, span) -> {
+                    try {
+                        checkInStore.insertAll(List.of(newAttendance(key, span, teachers, holidays, regularClass)));
+                        counts.created++;
+                    } catch (DataIntegrityViolationException conflict) {
+                        TeacherAttendanceEntity stored = attendanceRepository
+                                .findByTeacherAndClassSessionAndDate(key.teacherUuid(), key.classSessionUuid(), key.date())
+                                .orElseThrow(() -> conflict);
+                        counts.conflicts++;
+                        merge(key, stored, span, counts, toSave, changedDays);
+                    }
+                });
+            }
+        }
+
+        // Updated in JDBC batches (hibernate.jdbc.batch_size)
+        attendanceRepository.saveAll(toSave);
+        changedDays.forEach((teacherUuid, dates) ->
+                dates.forEach(date -> {
+                    payrollChangeTracker.attendanceChanged(teacherUuid, date);
+                    rollupTracker.attendanceChanged(teacherUuid, date);
+                }));
+    }
+
+    /**
+     * Merge the punches into a stored attendance, unless it is closed or nothing changes
+     */
+    private static void merge(SessionDay key, TeacherAttendanceEntity attendance, PunchSpan span, Counts counts,
+                              List<TeacherAttendanceEntity> toSave, Map<UUID, Set<LocalDate>> changedDays) {
+        if (isClosed(attendance) || !applyPunches(attendance, span)) {
+            counts.unchanged++;
+            return;
+        }
+        counts.updated++;
+        toSave.add(attendance);
+        changedDays.computeIfAbsent(key.teacherUuid(), k -> new HashSet<>()).add(key.date());
+    }
+
+    /**
+     * A fresh entity each time: one that failed to insert is not reused
+     */
+    private TeacherAttendanceEntity newAttendance(SessionDay key, PunchSpan span, Map<UUID, TeacherEntity> teachers,
+                                                  Set<LocalDate> holidays, AttendanceActivityTypeEntity regularClass) {
+        TeacherAttendanceEntity attendance = new TeacherAttendanceEntity();
+        attendance.setTeacher(teachers.get(key.teacherUuid()));
+        attendance.setClassSession(classSessionRepository.getReferenceById(key.classSessionUuid()));
+        attendance.setAttendanceActivityType(regularClass);
+        attendance.setAttendanceDate(key.date());
+        attendance.setIsHoliday(holidays.contains(key.date()));
+        attendance.setStatus(TeacherAttendanceEntity.AttendanceStatus.PENDING);
+        applySchedule(attendance, span.session);
+        applyPunches(attendance, span);
+        return attendance;
+    }
+
+    /**
+     * The session of the teacher that day whose time span (widened by the margins) contains the
+     * punch; the nearest one if several do, e.g. back-to-back sessions
+     */
+    private static ScheduledSession matchSession(List<ScheduledSession> sessions, LocalDateTime punchedAt) {
+        LocalDate date = punchedAt.toLocalDate();
+        LocalTime time = punchedAt.toLocalTime();
+        ScheduledSession best = null;
+        long bestDistance = Long.MAX_VALUE;
+        for (ScheduledSession session : sessions) {
+            if (!session.occursOn(date)) continue;
+            if (time.isBefore(session.startTime().minusMinutes(EARLY_CHECKIN_MARGIN_MINUTES))
+                    || time.isAfter(session.endTime().plusMinutes(LATE_CHECKOUT_MARGIN_MINUTES))) continue;
+
+            long distance = 0;
+            if (time.isBefore(session.startTime())) {
+                distance = Duration.between(time, session.startTime()).toMinutes();
+            } else if (time.isAfter(session.endTime())) {
+                distance = Duration.between(session.endTime(), time).toMinutes();
+            }
+            if (distance < bestDistance) {
+                best = session;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Approved attendances (by an admin, or automatically at a penalty-free check-out) and those
+     * decided by an admin are not touched by punches
+     */
+    private static boolean isClosed(TeacherAttendanceEntity attendance) {
+        return attendance.getStatus() == TeacherAttendanceEntity.AttendanceStatus.APPROVED
+                || attendance.getStatus() == TeacherAttendanceEntity.AttendanceStatus.OVERRIDDEN
+                || attendance.getStatus() == TeacherAttendanceEntity.AttendanceStatus.REJECTED
+                || attendance.getStatus() == TeacherAttendanceEntity.AttendanceStatus.HOLIDAY;
+    }
+
+    private static void applySchedule(TeacherAttendanceEntity attendance, ScheduledSession session) {
+        attendance.setScheduledStartTime(session.startTime());
+        attendance.setScheduledEndTime(session.endTime());
+        attendance.setScheduledDurationMinutes(session.durationMinutes());
+    }
+
+    /**
+     * Merge the punches into the attendance and recompute penalties and duration
+     *
+     * @return whether anything changed
+     */
+    private static boolean applyPunches(TeacherAttendanceEntity attendance, PunchSpan span) {
+        boolean changed = false;
+        if (attendance.getScheduledStartTime() == null) {
+            // Checked in through the old path, which does not know the schedule
+            applySchedule(attendance, span.session);
+            changed = true;
+        }
+
+        LocalDateTime checkin = attendance.getCheckinAt();
+        if (checkin == null || span.first.isBefore(checkin)) {
+            checkin = span.first;
+        }
+        LocalDateTime checkout = attendance.getCheckoutAt();
+        if (Duration.between(checkin, span.last).toMinutes() >= MIN_CHECKOUT_GAP_MINUTES
+                && (checkout == null || span.last.isAfter(checkout))) {
+            checkout = span.last;
+        }
+        if (!checkin.equals(attendance.getCheckinAt()) || !Objects.equals(checkout, attendance.getCheckoutAt())) {
+            attendance.setCheckinAt(checkin);
+            attendance.setCheckoutAt(checkout);
+            changed = true;
+        }
+        if (!changed) return false;
+
+        attendance.setLateMinutes(TeacherAttendanceService.calculateLateMinutes(
+                attendance.getScheduledStartTime(), checkin.toLocalTime()));
+        if (checkout != null) {
+            attendance.setActualDurationMinutes((int) Duration.between(checkin, checkout).toMinutes());
+            attendance.setEarlyDepartureMinutes(TeacherAttendanceService.calculateEarlyDepartureMinutes(
+                    attendance.getScheduledEndTime(), checkout.toLocalTime()));
+
+            // Auto-approve if no penalties, as a regular check-out does
+            if (attendance.getLateMinutes() == 0 && attendance.getEarlyDepartureMinutes() == 0) {
+                attendance.setStatus(TeacherAttendanceEntity.AttendanceStatus.APPROVED);
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,106 @@
+package com.pontificia.remashorario.modules.teacherAttendance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pontificia.remashorario.modules.teacherAttendance.dto.AttendancePunchDTO;
+import com.pontificia.remashorario.modules.teacherAttendance.dto.AttendancePunchResultDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Batch ingestion of clock and biometric punches. The body is read line by line (JSON lines or
+ * CSV {@code teacherUuid,punchedAt[,deviceId]}) and handed to {@link AttendancePunchProcessor}
+ * in chunks, each in its own transaction, so memory stays flat however large the upload is.
+ */
+@Service
+public class AttendancePunchService {
+
+    private static final int CHUNK_SIZE = 2000;
+    private static final int MAX_ERRORS = 100;
+
+    private final AttendancePunchProcessor punchProcessor;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public AttendancePunchService(AttendancePunchProcessor punchProcessor, ObjectMapper objectMapper) {
+        this.punchProcessor = punchProcessor;
+        this.objectMapper = objectMapper;
+    }
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    public AttendancePunchResultDTO ingest(InputStream body, Format format) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        AttendancePunchProcessor.Counts counts = new AttendancePunchProcessor.Counts();
+        long received = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        List<AttendancePunchDTO> chunk = new ArrayList<>(CHUNK_SIZE);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || (format == Format.CSV && lineNumber == 1 && isCsvHeader(line))) continue;
+
+            received++;
+            AttendancePunchDTO punch;
+            try {
+                punch = format == Format.NDJSON ? objectMapper.readValue(line, AttendancePunchDTO.class) : parseCsv(line);
+            } catch (IOException | RuntimeException e) {
+                counts.error(MAX_ERRORS, "Línea " + lineNumber + ": formato inválido");
+                continue;
+            }
+            if (punch.getTeacherUuid() == null || punch.getPunchedAt() == null) {
+                counts.error(MAX_ERRORS, "Línea " + lineNumber + ": faltan el docente o la hora de marcación");
+                continue;
+            }
+
+            chunk.add(punch);
+            if (chunk.size() == CHUNK_SIZE) {
+                punchProcessor.process(chunk, counts, MAX_ERRORS);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        punchProcessor.process(chunk, counts, MAX_ERRORS);
+
+        return AttendancePunchResultDTO.builder()
+                .received(received)
+                .invalid(counts.invalid)
+                .unmatched(counts.unmatched)
+                .attendancesCreated(counts.created)
+                .attendancesUpdated(counts.updated)
+                .attendancesUnchanged(counts.unchanged)
+                .conflicts(counts.conflicts)
+                .elapsedMs(System.currentTimeMillis() - startedAt)
+                .errors(counts.errors)
+                .build();
+    }
+
+    private static boolean isCsvHeader(String line) {
+        return line.toLowerCase().startsWith("teacher");
+    }
+
+    private static AttendancePunchDTO parseCsv(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("Se esperaban al menos 2 columnas");
+        }
+        return new AttendancePunchDTO(
+                UUID.fromString(fields[0].strip()),
+                LocalDateTime.parse(fields[1].strip()),
+                fields.length > 2 && !fields[2].isBlank() ? fields[2].strip() : null);
+    }
+}
@@ -0,0 +1,148 @@
+package com.pontificia.remashorario.modules.teacherAttendance;
+
+import com.pontificia.remashorario.modules.teacherAttendance.dto.AttendanceTotalsRowDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Writes the daily and monthly attendance rollups. A changed day is recomputed from its
+ * attendances (a handful of rows) and its month from the month's daily rollups (at most 31), so
+ * a refresh never depends on the previous value being right. Rebuilds go through the same
+ * refresh, one teacher's month at a time, so they take the same lock.
+ */
+@Component
+public class AttendanceRollupStore {
+
+    private final TeacherAttendanceRepository attendanceRepository;
+    private final TeacherAttendanceDailyRollupRepository dailyRollupRepository;
+    private final TeacherAttendanceMonthlyRollupRepository monthlyRollupRepository;
+    private final TeacherAttendanceRollupMarkRepository markRepository;
+
+    @Autowired
+    public AttendanceRollupStore(TeacherAttendanceRepository attendanceRepository,
+                                 TeacherAttendanceDailyRollupRepository dailyRollupRepository,
+                                 TeacherAttendanceMonthlyRollupRepository monthlyRollupRepository,
+                                 TeacherAttendanceRollupMarkRepository markRepository) {
+        this.attendanceRepository = attendanceRepository;
+        this.dailyRollupRepository = dailyRollupRepository;
+        this.monthlyRollupRepository = monthlyRollupRepository;
+        this.markRepository = markRepository;
+    }
+
+    /**
+     * Recompute the rollups of the given days of one teacher's month, and of the month.
+     * <p>
+     * The month's rollup is locked first (created empty if missing) and serves as the lock of the
+     * teacher's month: two refreshes of it take turns, so the later one always recomputes from
+     * the attendances the earlier one could not see and a stale total never overwrites a fresh one.
+     * The given marks of the month are removed with the new totals.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void refresh(UUID teacherUuid, LocalDate month, Set<LocalDate> dates, Collection<UUID> marks) {
+        if (dates.isEmpty()) return;
+
+        TeacherAttendanceMonthlyRollupEntity monthRollup = monthlyRollupRepository.lockByTeacherAndMonth(teacherUuid, month)
+                .orElseGet(() -> monthlyRollupRepository.saveAndFlush(newMonthlyRollup(teacherUuid, month)));
+
+        Set<UUID> teacher = Set.of(teacherUuid);
+        LocalDate from = Collections.min(dates);
+        LocalDate to = Collections.max(dates);
+        Map<LocalDate, AttendanceTotalsRowDTO> totals = new HashMap<>();
+        for (AttendanceTotalsRowDTO row : attendanceRepository.findDailyTotalsByTeachersAndDateRange(teacher, from, to)) {
+            totals.put(row.getDate(), row);
+        }
+        Map<LocalDate, TeacherAttendanceDailyRollupEntity> existing = new HashMap<>();
+        for (TeacherAttendanceDailyRollupEntity rollup
+                : dailyRollupRepository.findByTeacherUuidInAndRollupDateBetween(teacher, from, to)) {
+            existing.put(rollup.getRollupDate(), rollup);
+        }
+
+        List<TeacherAttendanceDailyRollupEntity> toSave = new ArrayList<>();
+        List<TeacherAttendanceDailyRollupEntity> toDelete = new ArrayList<>();
+        for (LocalDate date : dates) {
+            TeacherAttendanceDailyRollupEntity rollup = existing.get(date);
+            AttendanceTotalsRowDTO dayTotals = totals.get(date);
+            if (dayTotals == null) {
+                if (rollup != null) toDelete.add(rollup);
+            } else {
+                if (rollup == null) rollup = newDailyRollup(teacherUuid, date);
+                rollup.apply(dayTotals);
+                toSave.add(rollup);
+            }
+        }
+        dailyRollupRepository.deleteAll(toDelete);
+        dailyRollupRepository.saveAll(toSave);
+        dailyRollupRepository.flush();
+
+        List<AttendanceTotalsRowDTO> monthTotals = dailyRollupRepository.sumMonthsByTeachers(teacher, Set.of(month));
+        if (monthTotals.isEmpty()) {
+            monthlyRollupRepository.delete(monthRollup);
+        } else {
+            monthRollup.apply(monthTotals.get(0));
+            monthlyRollupRepository.save(monthRollup);
+        }
+        if (!marks.isEmpty()) {
+            markRepository.deleteAllByIdInBatch(marks);
+        }
+    }
+
+    /**
+     * Record that the teacher's month changed, in the caller's transaction if there is one
+     *
+     * @return the mark, to be removed by the refresh that recomputes the month
+     */
+    @Transactional
+    public UUID mark(UUID teacherUuid, LocalDate month) {
+        TeacherAttendanceRollupMarkEntity mark = new TeacherAttendanceRollupMarkEntity();
+        mark.setTeacherUuid(teacherUuid);
+        mark.setRollupMonth(month);
+        return markRepository.save(mark).getUuid();
+    }
+
+    /**
+     * Marks left by changes whose refresh failed or never ran (the instance stopped), and by
+     * changes being refreshed right now
+     */
+    public List<TeacherAttendanceRollupMarkEntity> findMarks(UUID teacherUuid, LocalDate startMonth, LocalDate endMonth) {
+        return markRepository.findByMonthRange(teacherUuid, startMonth, endMonth);
+    }
+
+    /**
+     * Every teacher's month in the range with attendances or rollups: what a rebuild recomputes
+     */
+    public Map<UUID, Set<LocalDate>> findTeacherMonths(LocalDate startMonth, LocalDate endMonth) {
+        Map<UUID, Set<LocalDate>> monthsByTeacher = new HashMap<>();
+        LocalDate endDate = YearMonth.from(endMonth).atEndOfMonth();
+        for (AttendanceTotalsRowDTO row : attendanceRepository.findDailyTotalsByDateRange(startMonth, endDate)) {
+            monthsByTeacher.computeIfAbsent(row.getTeacherUuid(), k -> new TreeSet<>()).add(row.getDate().withDayOfMonth(1));
+        }
+        for (AttendanceTotalsRowDTO row : dailyRollupRepository.sumMonthsByMonthRange(startMonth, endMonth)) {
+            monthsByTeacher.computeIfAbsent(row.getTeacherUuid(), k -> new TreeSet<>()).add(row.getDate());
+        }
+        for (TeacherAttendanceMonthlyRollupEntity rollup : monthlyRollupRepository.findByRollupMonthBetween(startMonth, endMonth)) {
+            monthsByTeacher.computeIfAbsent(rollup.getTeacherUuid(), k -> new TreeSet<>()).add(rollup.getRollupMonth());
+        }
+        return monthsByTeacher;
+    }
+
+    private TeacherAttendanceDailyRollupEntity newDailyRollup(UUID teacherUuid, LocalDate date) {
+        TeacherAttendanceDailyRollupEntity rollup = new TeacherAttendanceDailyRollupEntity();
+        rollup.setTeacherUuid(teacherUuid);
+        rollup.setRollupDate(date);
+        rollup.setRollupMonth(date.withDayOfMonth(1));
+        return rollup;
+    }
+
+    private TeacherAttendanceMonthlyRollupEntity newMonthlyRollup(UUID teacherUuid, LocalDate month) {
+        TeacherAttendanceMonthlyRollupEntity rollup = new TeacherAttendanceMonthlyRollupEntity();
+        rollup.setTeacherUuid(teacherUuid);
+        rollup.setRollupMonth(month);
+        return rollup;
+    }
+}
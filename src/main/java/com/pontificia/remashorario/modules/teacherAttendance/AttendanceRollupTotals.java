@@ -0,0 +1,73 @@
+package com.pontificia.remashorario.modules.teacherAttendance;
+
+import com.pontificia.remashorario.modules.teacherAttendance.dto.AttendanceTotalsRowDTO;
+import com.pontificia.remashorario.utils.abstractBase.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/**
+ * Attendance totals of a teacher over a day or a month. The teacher is kept as a plain id:
+ * rollups are derived data and are rebuilt from the attendances when needed.
+ */
+@MappedSuperclass
+@Getter
+@Setter
+public abstract class AttendanceRollupTotals extends BaseEntity {
+
+    @Column(name = "teacher_uuid", nullable = false)
+    private UUID teacherUuid;
+
+    // Every attendance with a duration, whatever its status
+    @Column(name = "minutes_worked", nullable = false)
+    private Integer minutesWorked = 0;
+
+    // Only APPROVED, OVERRIDDEN and HOLIDAY attendances
+    @Column(name = "payable_minutes_worked", nullable = false)
+    private Integer payableMinutesWorked = 0;
+
+    @Column(name = "scheduled_minutes", nullable = false)
+    private Integer scheduledMinutes = 0;
+
+    @Column(name = "late_minutes", nullable = false)
+    private Integer lateMinutes = 0;
+
+    @Column(name = "early_departure_minutes", nullable = false)
+    private Integer earlyDepartureMinutes = 0;
+
+    // Late + early departure of APPROVED and PENDING attendances
+    @Column(name = "penalty_minutes", nullable = false)
+    private Integer penaltyMinutes = 0;
+
+    @Column(name = "pending_count", nullable = false)
+    private Integer pendingCount = 0;
+
+    @Column(name = "approved_count", nullable = false)
+    private Integer approvedCount = 0;
+
+    @Column(name = "overridden_count", nullable = false)
+    private Integer overriddenCount = 0;
+
+    @Column(name = "rejected_count", nullable = false)
+    private Integer rejectedCount = 0;
+
+    @Column(name = "holiday_count", nullable = false)
+    private Integer holidayCount = 0;
+
+    void apply(AttendanceTotalsRowDTO totals) {
+        minutesWorked = totals.getMinutesWorked().intValue();
+        payableMinutesWorked = totals.getPayableMinutesWorked().intValue();
+        scheduledMinutes = totals.getScheduledMinutes().intValue();
+        lateMinutes = totals.getLateMinutes().intValue();
+        earlyDepartureMinutes = totals.getEarlyDepartureMinutes().intValue();
+        penaltyMinutes = totals.getPenaltyMinutes().intValue();
+        pendingCount = totals.getPendingCount().intValue();
+        approvedCount = totals.getApprovedCount().intValue();
+        overriddenCount = totals.getOverriddenCount().intValue();
+        rejectedCount = totals.getRejectedCount().intValue();
+        holidayCount = totals.getHolidayCount().intValue();
+    }
+}
@@ -0,0 +1,174 @@
+package com.pontificia.remashorario.modules.teacherAttendance;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Collects the (teacher, day) pairs whose attendances change in a transaction and refreshes their
+ * rollups once it commits, one teacher and month per transaction: a bulk change is refreshed
+ * once, in small steps, and a check-in never waits on or fails because of the rollup rows.
+ * <p>
+ * Each changed month is also marked ({@link TeacherAttendanceRollupMarkEntity}) inside the
+ * transaction that changes it, and the mark is removed by the refresh. A refresh that still fails
+ * after {@link #MAX_ATTEMPTS}, or that never runs because the instance stopped, leaves its mark
+ * behind on every instance: marked months are refreshed whole before statistics are read, and if
+ * that fails too the statistics of that teacher and month are refused instead of being served
+ * wrong, until a refresh or a rebuild succeeds.
+ */
+@Slf4j
+@Component
+public class AttendanceRollupTracker {
+
+    // Lock timeouts, deadlocks and the unique key of a month created concurrently are worth a retry
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final AttendanceRollupStore rollupStore;
+
+    @Autowired
+    public AttendanceRollupTracker(AttendanceRollupStore rollupStore) {
+        this.rollupStore = rollupStore;
+    }
+
+    private record TeacherMonth(UUID teacherUuid, LocalDate month) {
+    }
+
+    /**
+     * Changed days of a teacher's month in one transaction, and the mark it wrote for the month
+     */
+    private static final class MonthChanges {
+        final UUID mark;
+        final Set<LocalDate> dates = new TreeSet<>();
+
+        MonthChanges(UUID mark) {
+            this.mark = mark;
+        }
+    }
+
+    public void attendanceChanged(UUID teacherUuid, LocalDate attendanceDate) {
+        TeacherMonth month = new TeacherMonth(teacherUuid, attendanceDate.withDayOfMonth(1));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            UUID mark = rollupStore.mark(teacherUuid, month.month());
+            refresh(month, Set.of(attendanceDate), Set.of(mark));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<TeacherMonth, MonthChanges> changed =
+                (Map<TeacherMonth, MonthChanges>) TransactionSynchronizationManager.getResource(this);
+        if (changed == null) {
+            Map<TeacherMonth, MonthChanges> changesByMonth = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, changesByMonth);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AttendanceRollupTracker.this);
+                    if (status == STATUS_COMMITTED) {
+                        changesByMonth.forEach((month, changes) -> refresh(month, changes.dates, Set.of(changes.mark)));
+                    }
+                }
+            });
+            changed = changesByMonth;
+        }
+        // The first change of the month in this transaction marks it, committed or rolled back with it
+        changed.computeIfAbsent(month, k -> new MonthChanges(rollupStore.mark(teacherUuid, k.month())))
+                .dates.add(attendanceDate);
+    }
+
+    /**
+     * Make sure the rollups of the teacher (every teacher if null) in the range can be read
+     *
+     * @throws IllegalStateException if some of its months are marked and still cannot be refreshed
+     */
+    public void ensureFresh(UUID teacherUuid, LocalDate startDate, LocalDate endDate) {
+        List<TeacherAttendanceRollupMarkEntity> marks =
+                rollupStore.findMarks(teacherUuid, startDate.withDayOfMonth(1), endDate.withDayOfMonth(1));
+        if (marks.isEmpty()) return;
+
+        Map<TeacherMonth, Set<UUID>> marksByMonth = new LinkedHashMap<>();
+        for (TeacherAttendanceRollupMarkEntity mark : marks) {
+            marksByMonth.computeIfAbsent(new TeacherMonth(mark.getTeacherUuid(), mark.getRollupMonth()), k -> new HashSet<>())
+                    .add(mark.getUuid());
+        }
+        marksByMonth.forEach((month, monthMarks) -> {
+            if (!refresh(month, wholeMonth(month.month()), monthMarks)) {
+                throw new IllegalStateException("Los totales de asistencia de " + YearMonth.from(month.month())
+                        + " están desactualizados; reconstruya los rollups de ese mes");
+            }
+        });
+    }
+
+    /**
+     * Rebuild the rollups of the whole months covering the range from the attendances, one
+     * teacher's month at a time under its lock; a month that cannot be refreshed is left marked
+     *
+     * @throws IllegalStateException if some month could not be rebuilt; the others are
+     */
+    public void rebuild(LocalDate startDate, LocalDate endDate) {
+        LocalDate firstMonth = startDate.withDayOfMonth(1);
+        LocalDate lastMonth = endDate.withDayOfMonth(1);
+        Map<TeacherMonth, Set<UUID>> marksByMonth = new HashMap<>();
+        for (TeacherAttendanceRollupMarkEntity mark : rollupStore.findMarks(null, firstMonth, lastMonth)) {
+            marksByMonth.computeIfAbsent(new TeacherMonth(mark.getTeacherUuid(), mark.getRollupMonth()), k -> new HashSet<>())
+                    .add(mark.getUuid());
+        }
+        Set<TeacherMonth> months = new LinkedHashSet<>(marksByMonth.keySet());
+        rollupStore.findTeacherMonths(firstMonth, lastMonth).forEach((teacherUuid, teacherMonths) -> {
+            for (LocalDate month : teacherMonths) {
+                months.add(new TeacherMonth(teacherUuid, month));
+            }
+        });
+
+        int failed = 0;
+        for (TeacherMonth month : months) {
+            Set<UUID> marks = marksByMonth.getOrDefault(month, Set.of());
+            if (!refresh(month, wholeMonth(month.month()), marks)) {
+                failed++;
+                // Attendances edited outside the service: keep the month refused until it is rebuilt
+                if (marks.isEmpty()) markQuietly(month);
+            }
+        }
+        if (failed > 0) {
+            throw new IllegalStateException("No se pudieron reconstruir los rollups de " + failed
+                    + " meses de docentes; vuelva a intentarlo");
+        }
+    }
+
+    private boolean refresh(TeacherMonth month, Set<LocalDate> dates, Set<UUID> marks) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                rollupStore.refresh(month.teacherUuid(), month.month(), dates, marks);
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    log.error("Attendance rollup refresh failed for teacher {} in {}; left marked as stale",
+                            month.teacherUuid(), YearMonth.from(month.month()), e);
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void markQuietly(TeacherMonth month) {
+        try {
+            rollupStore.mark(month.teacherUuid(), month.month());
+        } catch (RuntimeException e) {
+            log.error("Could not mark attendance rollups of teacher {} in {} as stale",
+                    month.teacherUuid(), YearMonth.from(month.month()), e);
+        }
+    }
+
+    private static Set<LocalDate> wholeMonth(LocalDate month) {
+        Set<LocalDate> dates = new TreeSet<>();
+        for (LocalDate date = month; date.getMonth() == month.getMonth(); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+        return dates;
+    }
+}
@@ -0,0 +1,159 @@
+package com.pontificia.remashorario.modules.teacherAttendance;
+
+import com.pontificia.remashorario.modules.academicCalendarException.AcademicCalendarExceptionEntity;
+import com.pontificia.remashorario.modules.academicCalendarException.AcademicCalendarExceptionService;
+import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActivityTypeEntity;
+import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActivityTypeService;
+import com.pontificia.remashorario.modules.classSession.ClassSessionEntity;
+import com.pontificia.remashorario.modules.classSession.ClassSessionRepository;
+import com.pontificia.remashorario.modules.period.PeriodEntity;
+import com.pontificia.remashorario.modules.period.PeriodService;
+import com.pontificia.remashorario.modules.teacher.TeacherEntity;
+import com.pontificia.remashorario.modules.teacherAttendance.dto.AttendanceGenerationResultDTO;
+import com.pontificia.remashorario.modules.teacherAttendance.dto.AttendanceKeyRowDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Creates the PENDING attendance every class session of a period is expected to have on each
+ * of its dates, so absences show up and scheduled hours are complete before anyone checks in.
+ * Holidays (calendar exceptions) are skipped and rows that already exist are kept, so running
+ * it again over the same range only fills the gaps.
+ */
+@Service
+public class ExpectedAttendanceGenerator {
+
+    private static final String REGULAR_CLASS = "REGULAR_CLASS";
+    // Rows are flushed and detached in chunks so the persistence context stays small
+    private static final int FLUSH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TeacherAttendanceRepository attendanceRepository;
+    private final ClassSessionRepository classSessionRepository;
+    private final PeriodService periodService;
+    private final AttendanceActivityTypeService activityTypeService;
+    private final AcademicCalendarExceptionService calendarExceptionService;
+    private final AttendanceRollupTracker rollupTracker;
+
+    @Autowired
+    public ExpectedAttendanceGenerator(TeacherAttendanceRepository attendanceRepository,
+                                       ClassSessionRepository classSessionRepository,
+                                       PeriodService periodService,
+                                       AttendanceActivityTypeService activityTypeService,
+                                       AcademicCalendarExceptionService calendarExceptionService,
+                                       AttendanceRollupTracker rollupTracker) {
+        this.attendanceRepository = attendanceRepository;
+        this.classSessionRepository = classSessionRepository;
+        this.periodService = periodService;
+        this.activityTypeService = activityTypeService;
+        this.calendarExceptionService = calendarExceptionService;
+        this.rollupTracker = rollupTracker;
+    }
+
+    private record AttendanceKey(UUID teacherUuid, UUID classSessionUuid, LocalDate date) {
+    }
+
+    /**
+     * @param startDate first date, or the period's start when null (clamped to the period)
+     * @param endDate   last date, or the period's end when null (clamped to the period)
+     */
+    @Transactional
+    public AttendanceGenerationResultDTO generate(UUID periodUuid, LocalDate startDate, LocalDate endDate) {
+        long startedAt = System.currentTimeMillis();
+        PeriodEntity period = periodService.findPeriodOrThrow(periodUuid);
+
+        LocalDate from = startDate == null || startDate.isBefore(period.getStartDate()) ? period.getStartDate() : startDate;
+        LocalDate to = endDate == null || endDate.isAfter(period.getEndDate()) ? period.getEndDate() : endDate;
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("El rango de fechas no se cruza con el periodo");
+        }
+
+        Map<DayOfWeek, List<ScheduledSession>> sessionsByDay = new EnumMap<>(DayOfWeek.class);
+        List<ScheduledSession> sessions = ScheduledSession.fromRows(classSessionRepository.findScheduleRowsByPeriod(periodUuid));
+        for (ScheduledSession session : sessions) {
+            sessionsByDay.computeIfAbsent(session.dayOfWeek(), k -> new ArrayList<>()).add(session);
+        }
+
+        Set<LocalDate> holidays = new TreeSet<>();
+        for (AcademicCalendarExceptionEntity exception : calendarExceptionService.getExceptionsByDateRange(from, to)) {
+            holidays.add(exception.getDate());
+        }
+
+        Set<AttendanceKey> existing = new HashSet<>();
+        for (AttendanceKeyRowDTO row : attendanceRepository.findKeysByPeriodAndDateRange(periodUuid, from, to)) {
+            existing.add(new AttendanceKey(row.getTeacherUuid(), row.getClassSessionUuid(), row.getAttendanceDate()));
+        }
+
+        UUID activityTypeUuid = activityTypeService.getActivityTypeByCode(REGULAR_CLASS).getUuid();
+
+        List<TeacherAttendanceEntity> pending = new ArrayList<>(FLUSH_SIZE);
+        int created = 0;
+        int alreadyExisting = 0;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (holidays.contains(date)) continue;
+
+            for (ScheduledSession session : sessionsByDay.getOrDefault(date.getDayOfWeek(), List.of())) {
+                if (existing.contains(new AttendanceKey(session.teacherUuid(), session.classSessionUuid(), date))) {
+                    alreadyExisting++;
+                    continue;
+                }
+                pending.add(toPendingAttendance(session, date, activityTypeUuid));
+                rollupTracker.attendanceChanged(session.teacherUuid(), date);
+                if (pending.size() == FLUSH_SIZE) {
+                    created += flush(pending);
+                }
+            }
+        }
+        created += flush(pending);
+
+        return AttendanceGenerationResultDTO.builder()
+                .startDate(from)
+                .endDate(to)
+                .sessionCount(sessions.size())
+                .createdCount(created)
+                .alreadyExistingCount(alreadyExisting)
+                .skippedHolidays(new ArrayList<>(holidays))
+                .elapsedMs(System.currentTimeMillis() - startedAt)
+                .build();
+    }
+
+    /**
+     * Teacher, session and activity type are set as references: nothing is loaded per row
+     */
+    private TeacherAttendanceEntity toPendingAttendance(ScheduledSession session, LocalDate date, UUID activityTypeUuid) {
+        TeacherAttendanceEntity attendance = new TeacherAttendanceEntity();
+        attendance.setTeacher(entityManager.getReference(TeacherEntity.class, session.teacherUuid()));
+        attendance.setClassSession(entityManager.getReference(ClassSessionEntity.class, session.classSessionUuid()));
+        attendance.setAttendanceActivityType(entityManager.getReference(AttendanceActivityTypeEntity.class, activityTypeUuid));
+        attendance.setAttendanceDate(date);
+        attendance.setScheduledStartTime(session.startTime());
+        attendance.setScheduledEndTime(session.endTime());
+        attendance.setScheduledDurationMinutes(session.durationMinutes());
+        attendance.setStatus(TeacherAttendanceEntity.AttendanceStatus.PENDING);
+        attendance.setIsHoliday(false);
+        return attendance;
+    }
+
+    /**
+     * Inserted in JDBC batches (hibernate.jdbc.batch_size), then detached
+     */
+    private int flush(List<TeacherAttendanceEntity> pending) {
+        int count = pending.size();
+        if (count == 0) return 0;
+
+        attendanceRepository.saveAll(pending);
+        entityManager.flush();
+        entityManager.clear();
+        pending.clear();
+        return count;
+    }
+}
@@ -0,0 +1,54 @@
+package com.pontificia.remashorario.modules.teacherAttendance;
+
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionScheduleRowDTO;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * When a class session takes place: its weekday, the dates of its period and the time span of
+ * its teaching hours. Scheduled start/end/duration of an attendance come from here.
+ */
+record ScheduledSession(UUID classSessionUuid,
+                        UUID teacherUuid,
+                        DayOfWeek dayOfWeek,
+                        LocalDate periodStartDate,
+                        LocalDate periodEndDate,
+                        LocalTime startTime,
+                        LocalTime endTime,
+                        int durationMinutes) {
+
+    /**
+     * One session per class session of the rows (one row per teaching hour)
+     */
+    static List<ScheduledSession> fromRows(List<ClassSessionScheduleRowDTO> rows) {
+        Map<UUID, List<ClassSessionScheduleRowDTO>> bySession = new LinkedHashMap<>();
+        for (ClassSessionScheduleRowDTO row : rows) {
+            bySession.computeIfAbsent(row.getSessionUuid(), k -> new ArrayList<>()).add(row);
+        }
+
+        List<ScheduledSession> sessions = new ArrayList<>(bySession.size());
+        for (List<ClassSessionScheduleRowDTO> hours : bySession.values()) {
+            ClassSessionScheduleRowDTO first = hours.get(0);
+            LocalTime start = first.getStartTime();
+            LocalTime end = first.getEndTime();
+            int duration = 0;
+            for (ClassSessionScheduleRowDTO hour : hours) {
+                if (hour.getStartTime().isBefore(start)) start = hour.getStartTime();
+                if (hour.getEndTime().isAfter(end)) end = hour.getEndTime();
+                duration += hour.getDurationMinutes();
+            }
+            sessions.add(new ScheduledSession(first.getSessionUuid(), first.getTeacherUuid(), first.getDayOfWeek(),
+                    first.getPeriodStartDate(), first.getPeriodEndDate(), start, end, duration));
+        }
+        return sessions;
+    }
+
+    boolean occursOn(LocalDate date) {
+        return date.getDayOfWeek() == dayOfWeek
+                && !date.isBefore(periodStartDate)
+                && !date.isAfter(periodEndDate);
+    }
+}
@@ -7,9 +7,12 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -26,6 +29,8 @@ import java.util.UUID;
 public class TeacherAttendanceController {
 
     private final TeacherAttendanceService attendanceService;
+    private final AttendancePunchService punchService;
+    private final ExpectedAttendanceGenerator expectedAttendanceGenerator;
     private final TeacherAttendanceMapper attendanceMapper;
 
     /**
@@ -151,6 +156,16 @@ public class TeacherAttendanceController {
                 .body(ApiResponse.success(responseDTO, "Entrada registrada con éxito"));
     }
 
+    /**
+     * Teacher checks in now; the session (current or next of the day) is resolved from the schedule
+     */
+    @PostMapping("/teacher/{teacherUuid}/check-in")
+    public ResponseEntity<ApiResponse<AttendanceCheckInResultDTO>> checkInNow(@PathVariable UUID teacherUuid) {
+        AttendanceCheckInResultDTO result = attendanceService.checkInNow(teacherUuid);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(result, "Entrada registrada con éxito"));
+    }
+
     /**
      * Teacher checks in with full schedule details (calculates penalties)
      */
@@ -171,6 +186,38 @@ public class TeacherAttendanceController {
                 .body(ApiResponse.success(responseDTO, "Entrada registrada con éxito"));
     }
 
+    /**
+     * Ingest a batch of clock/biometric punches, one per line
+     * JSON lines ({"teacherUuid", "punchedAt", "deviceId"}) or CSV (teacherUuid,punchedAt[,deviceId])
+     * Each punch is matched to the teacher's class session at that time; replaying punches is harmless
+     */
+    @PostMapping(value = "/punches", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<ApiResponse<AttendancePunchResultDTO>> ingestPunches(
+            @RequestHeader("Content-Type") MediaType contentType,
+            InputStream body) throws IOException {
+        AttendancePunchService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? AttendancePunchService.Format.NDJSON
+                : AttendancePunchService.Format.CSV;
+        AttendancePunchResultDTO result = punchService.ingest(body, format);
+        return ResponseEntity.ok(
+                ApiResponse.success(result, "Marcaciones procesadas con éxito")
+        );
+    }
+
+    /**
+     * Generate the expected (PENDING) attendances of every class session of a period
+     * Defaults to the whole period; holidays and already existing attendances are skipped
+     */
+    @PostMapping("/generate/period/{periodUuid}")
+    public ResponseEntity<ApiResponse<AttendanceGenerationResultDTO>> generateExpectedAttendances(
+            @PathVariable UUID periodUuid,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        AttendanceGenerationResultDTO result = expectedAttendanceGenerator.generate(periodUuid, startDate, endDate);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(result, "Asistencias esperadas generadas con éxito"));
+    }
+
     /**
      * Teacher checks out
      */
@@ -288,4 +335,33 @@ public class TeacherAttendanceController {
                 ApiResponse.success(statsDTO, "Estadísticas de asistencia calculadas con éxito")
         );
     }
+
+    /**
+     * Get attendance statistics of every teacher with attendances in a date range (dashboard tables)
+     */
+    @GetMapping("/statistics")
+    public ResponseEntity<ApiResponse<List<AttendanceStatisticsDTO>>> getAttendanceStatsByTeacher(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        List<TeacherAttendanceService.AttendanceStats> stats = attendanceService.getAttendanceStatsByTeacher(
+                startDate, endDate);
+        return ResponseEntity.ok(
+                ApiResponse.success(attendanceMapper.toStatisticsDTOList(stats),
+                        "Estadísticas de asistencia calculadas con éxito")
+        );
+    }
+
+    /**
+     * Rebuild the daily and monthly attendance rollups of the months covering a date range
+     * Statistics are read from the rollups; use it for the initial load or after bulk fixes in the database
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<ApiResponse<Void>> rebuildRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        attendanceService.rebuildRollups(startDate, endDate);
+        return ResponseEntity.ok(
+                ApiResponse.success(null, "Resúmenes de asistencia reconstruidos con éxito")
+        );
+    }
 }
@@ -0,0 +1,29 @@
+package com.pontificia.remashorario.modules.teacherAttendance;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Attendance totals of a teacher on one day, kept up to date by {@link AttendanceRollupTracker}
+ */
+@Entity
+@Table(name = "teacher_attendance_daily_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_attendance_daily_rollup_teacher_date", columnNames = {"teacher_uuid", "rollup_date"})
+}, indexes = {
+        @Index(name = "ix_attendance_daily_rollup_date", columnList = "rollup_date"),
+        @Index(name = "ix_attendance_daily_rollup_month", columnList = "teacher_uuid, rollup_month")
+})
+@Getter
+@Setter
+public class TeacherAttendanceDailyRollupEntity extends AttendanceRollupTotals {
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    // First day of the month of rollupDate, so months are summed without date functions
+    @Column(name = "rollup_month", nullable = false)
+    private LocalDate rollupMonth;
+}
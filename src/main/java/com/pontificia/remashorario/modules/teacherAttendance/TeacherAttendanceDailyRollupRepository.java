@@ -0,0 +1,65 @@
+package com.pontificia.remashorario.modules.teacherAttendance;
+
+import com.pontificia.remashorario.modules.teacherAttendance.dto.AttendanceStatsRowDTO;
+import com.pontificia.remashorario.modules.teacherAttendance.dto.AttendanceTotalsRowDTO;
+import com.pontificia.remashorario.utils.abstractBase.BaseRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TeacherAttendanceDailyRollupRepository extends BaseRepository<TeacherAttendanceDailyRollupEntity> {
+
+    String MONTH_TOTALS_SELECT = "SELECT new com.pontificia.remashorario.modules.teacherAttendance.dto.AttendanceTotalsRowDTO(" +
+            "d.teacherUuid, d.rollupMonth, SUM(d.minutesWorked), SUM(d.payableMinutesWorked), SUM(d.scheduledMinutes), " +
+            "SUM(d.lateMinutes), SUM(d.earlyDepartureMinutes), SUM(d.penaltyMinutes), SUM(d.pendingCount), " +
+            "SUM(d.approvedCount), SUM(d.overriddenCount), SUM(d.rejectedCount), SUM(d.holidayCount)) " +
+            "FROM TeacherAttendanceDailyRollupEntity d ";
+
+    List<TeacherAttendanceDailyRollupEntity> findByTeacherUuidInAndRollupDateBetween(
+            Collection<UUID> teacherUuids, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Month totals of the given teachers, summed from their days
+     */
+    @Query(MONTH_TOTALS_SELECT +
+            "WHERE d.teacherUuid IN :teacherUuids AND d.rollupMonth IN :months " +
+            "GROUP BY d.teacherUuid, d.rollupMonth")
+    List<AttendanceTotalsRowDTO> sumMonthsByTeachers(
+            @Param("teacherUuids") Collection<UUID> teacherUuids,
+            @Param("months") Collection<LocalDate> months
+    );
+
+    /**
+     * Month totals of every teacher, summed from their days
+     */
+    @Query(MONTH_TOTALS_SELECT +
+            "WHERE d.rollupMonth BETWEEN :startMonth AND :endMonth " +
+            "GROUP BY d.teacherUuid, d.rollupMonth")
+    List<AttendanceTotalsRowDTO> sumMonthsByMonthRange(
+            @Param("startMonth") LocalDate startMonth,
+            @Param("endMonth") LocalDate endMonth
+    );
+
+    /**
+     * Statistics per teacher in the date range (one teacher if teacherUuid is given)
+     */
+    @Query("SELECT new com.pontificia.remashorario.modules.teacherAttendance.dto.AttendanceStatsRowDTO(" +
+            "d.teacherUuid, SUM(d.minutesWorked), SUM(d.payableMinutesWorked), SUM(d.scheduledMinutes), " +
+            "SUM(d.lateMinutes), SUM(d.earlyDepartureMinutes), SUM(d.penaltyMinutes), " +
+            "SUM(d.approvedCount), SUM(d.pendingCount)) " +
+            "FROM TeacherAttendanceDailyRollupEntity d " +
+            "WHERE d.rollupDate BETWEEN :startDate AND :endDate " +
+            "AND (:teacherUuid IS NULL OR d.teacherUuid = :teacherUuid) " +
+            "GROUP BY d.teacherUuid")
+    List<AttendanceStatsRowDTO> sumStatsByDateRange(
+            @Param("teacherUuid") UUID teacherUuid,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+}
@@ -13,7 +13,14 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "teacher_attendance")
+@Table(name = "teacher_attendance", uniqueConstraints = {
+        // One attendance per class session and date: concurrent check-ins cannot both insert
+        @UniqueConstraint(name = "uk_teacher_attendance_session_date",
+                columnNames = {"teacher_id", "class_session_id", "attendance_date"})
+}, indexes = {
+        // Range aggregations over all teachers (statistics, payroll)
+        @Index(name = "ix_teacher_attendance_date_teacher", columnList = "attendance_date, teacher_id")
+})
 @Getter
 @Setter
 public class TeacherAttendanceEntity extends BaseEntity {
@@ -0,0 +1,25 @@
+package com.pontificia.remashorario.modules.teacherAttendance;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Attendance totals of a teacher in one month: the sum of its daily rollups
+ */
+@Entity
+@Table(name = "teacher_attendance_monthly_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_attendance_monthly_rollup_teacher_month", columnNames = {"teacher_uuid", "rollup_month"})
+}, indexes = {
+        @Index(name = "ix_attendance_monthly_rollup_month", columnList = "rollup_month")
+})
+@Getter
+@Setter
+public class TeacherAttendanceMonthlyRollupEntity extends AttendanceRollupTotals {
+
+    // First day of the month
+    @Column(name = "rollup_month", nullable = false)
+    private LocalDate rollupMonth;
+}
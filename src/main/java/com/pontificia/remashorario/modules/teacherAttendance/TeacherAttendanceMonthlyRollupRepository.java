@@ -0,0 +1,52 @@
+package com.pontificia.remashorario.modules.teacherAttendance;
+
+import com.pontificia.remashorario.modules.teacherAttendance.dto.AttendanceStatsRowDTO;
+import com.pontificia.remashorario.utils.abstractBase.BaseRepository;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TeacherAttendanceMonthlyRollupRepository extends BaseRepository<TeacherAttendanceMonthlyRollupEntity> {
+
+    List<TeacherAttendanceMonthlyRollupEntity> findByTeacherUuidInAndRollupMonthIn(
+            Collection<UUID> teacherUuids, Collection<LocalDate> months);
+
+    List<TeacherAttendanceMonthlyRollupEntity> findByRollupMonthBetween(LocalDate startMonth, LocalDate endMonth);
+
+    /**
+     * The teacher's rollup of the month, write-locked until the transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM TeacherAttendanceMonthlyRollupEntity m " +
+            "WHERE m.teacherUuid = :teacherUuid AND m.rollupMonth = :month")
+    Optional<TeacherAttendanceMonthlyRollupEntity> lockByTeacherAndMonth(
+            @Param("teacherUuid") UUID teacherUuid,
+            @Param("month") LocalDate month
+    );
+
+    /**
+     * Statistics per teacher over whole months (one teacher if teacherUuid is given)
+     */
+    @Query("SELECT new com.pontificia.remashorario.modules.teacherAttendance.dto.AttendanceStatsRowDTO(" +
+            "m.teacherUuid, SUM(m.minutesWorked), SUM(m.payableMinutesWorked), SUM(m.scheduledMinutes), " +
+            "SUM(m.lateMinutes), SUM(m.earlyDepartureMinutes), SUM(m.penaltyMinutes), " +
+            "SUM(m.approvedCount), SUM(m.pendingCount)) " +
+            "FROM TeacherAttendanceMonthlyRollupEntity m " +
+            "WHERE m.rollupMonth BETWEEN :startMonth AND :endMonth " +
+            "AND (:teacherUuid IS NULL OR m.teacherUuid = :teacherUuid) " +
+            "GROUP BY m.teacherUuid")
+    List<AttendanceStatsRowDTO> sumStatsByMonthRange(
+            @Param("teacherUuid") UUID teacherUuid,
+            @Param("startMonth") LocalDate startMonth,
+            @Param("endMonth") LocalDate endMonth
+    );
+}
@@ -1,11 +1,18 @@
 package com.pontificia.remashorario.modules.teacherAttendance;
 
+import com.pontificia.remashorario.modules.payrollLine.dto.TeacherActivityTypeRowDTO;
+import com.pontificia.remashorario.modules.teacherAttendance.dto.AttendanceKeyRowDTO;
+import com.pontificia.remashorario.modules.teacherAttendance.dto.AttendanceTotalsRowDTO;
+import com.pontificia.remashorario.modules.teacherAttendance.dto.ExpectedCheckInRowDTO;
 import com.pontificia.remashorario.utils.abstractBase.BaseRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -79,4 +86,159 @@ public interface TeacherAttendanceRepository extends BaseRepository<TeacherAtten
             "AND ta.status = 'PENDING' " +
             "ORDER BY ta.attendanceDate ASC")
     List<TeacherAttendanceEntity> findPendingAttendancesByTeacher(@Param("teacherUuid") UUID teacherUuid);
+
+    @Query("SELECT DISTINCT ta.teacher.uuid FROM TeacherAttendanceEntity ta " +
+            "WHERE ta.attendanceDate BETWEEN :startDate AND :endDate")
+    List<UUID> findTeacherUuidsByDateRange(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    @Query("SELECT ta FROM TeacherAttendanceEntity ta " +
+            "JOIN FETCH ta.attendanceActivityType " +
+            "WHERE ta.attendanceDate BETWEEN :startDate AND :endDate " +
+            "AND ta.status IN :statuses")
+    List<TeacherAttendanceEntity> findByDateRangeAndStatusInWithActivityType(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("statuses") Collection<TeacherAttendanceEntity.AttendanceStatus> statuses
+    );
+
+    @Query("SELECT ta FROM TeacherAttendanceEntity ta " +
+            "JOIN FETCH ta.attendanceActivityType " +
+            "WHERE ta.teacher.uuid = :teacherUuid " +
+            "AND ta.attendanceDate BETWEEN :startDate AND :endDate " +
+            "AND ta.status IN :statuses")
+    List<TeacherAttendanceEntity> findByTeacherAndDateRangeAndStatusInWithActivityType(
+            @Param("teacherUuid") UUID teacherUuid,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("statuses") Collection<TeacherAttendanceEntity.AttendanceStatus> statuses
+    );
+
+    @Query("SELECT DISTINCT ta.teacher.uuid FROM TeacherAttendanceEntity ta " +
+            "WHERE ta.teacher.uuid IN :teacherUuids " +
+            "AND ta.attendanceDate BETWEEN :startDate AND :endDate")
+    List<UUID> findTeacherUuidsByTeachersAndDateRange(
+            @Param("teacherUuids") Collection<UUID> teacherUuids,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    @Query("SELECT ta FROM TeacherAttendanceEntity ta " +
+            "JOIN FETCH ta.attendanceActivityType " +
+            "WHERE ta.teacher.uuid IN :teacherUuids " +
+            "AND ta.attendanceDate BETWEEN :startDate AND :endDate " +
+            "AND ta.status IN :statuses")
+    List<TeacherAttendanceEntity> findByTeachersAndDateRangeAndStatusInWithActivityType(
+            @Param("teacherUuids") Collection<UUID> teacherUuids,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("statuses") Collection<TeacherAttendanceEntity.AttendanceStatus> statuses
+    );
+
+    /**
+     * Attendances tied to a class session, to match punches and generated rows against
+     */
+    @Query("SELECT ta FROM TeacherAttendanceEntity ta " +
+            "WHERE ta.teacher.uuid IN :teacherUuids " +
+            "AND ta.attendanceDate BETWEEN :startDate AND :endDate " +
+            "AND ta.classSession IS NOT NULL")
+    List<TeacherAttendanceEntity> findSessionAttendancesByTeachersAndDateRange(
+            @Param("teacherUuids") Collection<UUID> teacherUuids,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * Teacher, session and date of the attendances of a period's sessions in the range
+     */
+    @Query("SELECT new com.pontificia.remashorario.modules.teacherAttendance.dto.AttendanceKeyRowDTO(" +
+            "ta.teacher.uuid, ta.classSession.uuid, ta.attendanceDate) FROM TeacherAttendanceEntity ta " +
+            "WHERE ta.classSession.period.uuid = :periodUuid " +
+            "AND ta.attendanceDate BETWEEN :startDate AND :endDate")
+    List<AttendanceKeyRowDTO> findKeysByPeriodAndDateRange(
+            @Param("periodUuid") UUID periodUuid,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    String DAILY_TOTALS_SELECT = "SELECT new com.pontificia.remashorario.modules.teacherAttendance.dto.AttendanceTotalsRowDTO(" +
+            "ta.teacher.uuid, ta.attendanceDate, " +
+            "COALESCE(SUM(ta.actualDurationMinutes), 0L), " +
+            "COALESCE(SUM(CASE WHEN ta.status IN ('APPROVED', 'OVERRIDDEN', 'HOLIDAY') " +
+            "THEN ta.actualDurationMinutes ELSE 0 END), 0L), " +
+            "COALESCE(SUM(ta.scheduledDurationMinutes), 0L), " +
+            "SUM(ta.lateMinutes), " +
+            "SUM(ta.earlyDepartureMinutes), " +
+            "SUM(CASE WHEN ta.status IN ('APPROVED', 'PENDING') " +
+            "THEN ta.lateMinutes + ta.earlyDepartureMinutes ELSE 0 END), " +
+            "SUM(CASE WHEN ta.status = 'PENDING' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN ta.status = 'APPROVED' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN ta.status = 'OVERRIDDEN' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN ta.status = 'REJECTED' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN ta.status = 'HOLIDAY' THEN 1 ELSE 0 END)) " +
+            "FROM TeacherAttendanceEntity ta ";
+
+    /**
+     * Totals per teacher and day of the given teachers in the range (days without attendances have no row)
+     */
+    @Query(DAILY_TOTALS_SELECT +
+            "WHERE ta.teacher.uuid IN :teacherUuids " +
+            "AND ta.attendanceDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY ta.teacher.uuid, ta.attendanceDate")
+    List<AttendanceTotalsRowDTO> findDailyTotalsByTeachersAndDateRange(
+            @Param("teacherUuids") Collection<UUID> teacherUuids,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * Totals per teacher and day of every teacher in the range
+     */
+    @Query(DAILY_TOTALS_SELECT +
+            "WHERE ta.attendanceDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY ta.teacher.uuid, ta.attendanceDate")
+    List<AttendanceTotalsRowDTO> findDailyTotalsByDateRange(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * Class attendances of the date still waiting for their check-in (generated expected attendances)
+     */
+    @Query("SELECT new com.pontificia.remashorario.modules.teacherAttendance.dto.ExpectedCheckInRowDTO(" +
+            "ta.uuid, ta.teacher.uuid, ta.classSession.uuid) FROM TeacherAttendanceEntity ta " +
+            "WHERE ta.attendanceDate = :date AND ta.checkinAt IS NULL AND ta.status = 'PENDING'")
+    List<ExpectedCheckInRowDTO> findExpectedCheckInsByDate(@Param("date") LocalDate date);
+
+    /**
+     * Fill the check-in of an attendance that does not have one yet
+     *
+     * @return 0 if it already had a check-in
+     */
+    @Modifying
+    @Query("UPDATE TeacherAttendanceEntity ta SET ta.checkinAt = :checkinAt, ta.lateMinutes = :lateMinutes, " +
+            "ta.updatedAt = :checkinAt " +
+            "WHERE ta.uuid = :uuid AND ta.checkinAt IS NULL AND ta.status = 'PENDING'")
+    int fillCheckIn(
+            @Param("uuid") UUID uuid,
+            @Param("checkinAt") LocalDateTime checkinAt,
+            @Param("lateMinutes") int lateMinutes
+    );
+
+    /**
+     * Distinct teacher and activity type pairs of the attendances in the range
+     */
+    @Query("SELECT DISTINCT new com.pontificia.remashorario.modules.payrollLine.dto.TeacherActivityTypeRowDTO(" +
+            "ta.teacher.uuid, ta.attendanceActivityType.uuid) FROM TeacherAttendanceEntity ta " +
+            "WHERE ta.attendanceActivityType.uuid IN :activityTypeUuids " +
+            "AND ta.attendanceDate BETWEEN :startDate AND :endDate " +
+            "AND ta.status IN :statuses")
+    List<TeacherActivityTypeRowDTO> findTeacherActivityTypesByDateRange(
+            @Param("activityTypeUuids") Collection<UUID> activityTypeUuids,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("statuses") Collection<TeacherAttendanceEntity.AttendanceStatus> statuses
+    );
 }
@@ -0,0 +1,32 @@
+package com.pontificia.remashorario.modules.teacherAttendance;
+
+import com.pontificia.remashorario.utils.abstractBase.BaseEntity;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * A teacher's month whose attendances changed and whose rollups may not reflect it yet. Written
+ * in the transaction that changes the attendances and deleted by the refresh that recomputes the
+ * month, so a change is never lost with the instance that was going to refresh it. Not unique:
+ * every transaction writes its own mark and only removes its own.
+ */
+@Entity
+@Table(name = "teacher_attendance_rollup_mark", indexes = {
+        @Index(name = "ix_attendance_rollup_mark_teacher_month", columnList = "teacher_uuid, rollup_month"),
+        @Index(name = "ix_attendance_rollup_mark_month", columnList = "rollup_month")
+})
+@Getter
+@Setter
+public class TeacherAttendanceRollupMarkEntity extends BaseEntity {
+
+    @Column(name = "teacher_uuid", nullable = false)
+    private UUID teacherUuid;
+
+    // First day of the month
+    @Column(name = "rollup_month", nullable = false)
+    private LocalDate rollupMonth;
+}
@@ -0,0 +1,26 @@
+package com.pontificia.remashorario.modules.teacherAttendance;
+
+import com.pontificia.remashorario.utils.abstractBase.BaseRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TeacherAttendanceRollupMarkRepository extends BaseRepository<TeacherAttendanceRollupMarkEntity> {
+
+    /**
+     * Marks of the months in the range (of one teacher if teacherUuid is given)
+     */
+    @Query("SELECT m FROM TeacherAttendanceRollupMarkEntity m " +
+            "WHERE m.rollupMonth BETWEEN :startMonth AND :endMonth " +
+            "AND (:teacherUuid IS NULL OR m.teacherUuid = :teacherUuid)")
+    List<TeacherAttendanceRollupMarkEntity> findByMonthRange(
+            @Param("teacherUuid") UUID teacherUuid,
+            @Param("startMonth") LocalDate startMonth,
+            @Param("endMonth") LocalDate endMonth
+    );
+}
@@ -4,12 +4,16 @@ import com.pontificia.remashorario.modules.academicCalendarException.AcademicCal
 import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActivityTypeEntity;
 import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActivityTypeService;
 import com.pontificia.remashorario.modules.classSession.ClassSessionEntity;
+import com.pontificia.remashorario.modules.payrollLine.PayrollChangeTracker;
 import com.pontificia.remashorario.modules.teacher.TeacherEntity;
 import com.pontificia.remashorario.modules.teacher.TeacherService;
+import com.pontificia.remashorario.modules.teacherAttendance.dto.AttendanceCheckInResultDTO;
+import com.pontificia.remashorario.modules.teacherAttendance.dto.AttendanceStatsRowDTO;
 import com.pontificia.remashorario.modules.teachingHour.TeachingHourEntity;
 import com.pontificia.remashorario.utils.abstractBase.BaseService;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,9 +21,8 @@ import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.Comparator;
-import java.util.List;
-import java.util.UUID;
+import java.time.YearMonth;
+import java.util.*;
 
 /**
  * Service for managing teacher attendance
@@ -35,17 +38,35 @@ public class TeacherAttendanceService extends BaseService<TeacherAttendanceEntit
     private final TeacherService teacherService;
     private final AttendanceActivityTypeService activityTypeService;
     private final AcademicCalendarExceptionService calendarExceptionService;
+    private final PayrollChangeTracker payrollChangeTracker;
+    private final TeacherDailySchedule dailySchedule;
+    private final AttendanceCheckInStore checkInStore;
+    private final AttendanceRollupTracker rollupTracker;
+    private final TeacherAttendanceDailyRollupRepository dailyRollupRepository;
+    private final TeacherAttendanceMonthlyRollupRepository monthlyRollupRepository;
 
     @Autowired
     public TeacherAttendanceService(TeacherAttendanceRepository attendanceRepository,
                                    TeacherService teacherService,
                                    AttendanceActivityTypeService activityTypeService,
-                                   AcademicCalendarExceptionService calendarExceptionService) {
+                                   AcademicCalendarExceptionService calendarExceptionService,
+                                   PayrollChangeTracker payrollChangeTracker,
+                                   TeacherDailySchedule dailySchedule,
+                                   AttendanceCheckInStore checkInStore,
+                                   AttendanceRollupTracker rollupTracker,
+                                   TeacherAttendanceDailyRollupRepository dailyRollupRepository,
+                                   TeacherAttendanceMonthlyRollupRepository monthlyRollupRepository) {
         super(attendanceRepository);
         this.attendanceRepository = attendanceRepository;
         this.teacherService = teacherService;
         this.activityTypeService = activityTypeService;
         this.calendarExceptionService = calendarExceptionService;
+        this.payrollChangeTracker = payrollChangeTracker;
+        this.dailySchedule = dailySchedule;
+        this.checkInStore = checkInStore;
+        this.rollupTracker = rollupTracker;
+        this.dailyRollupRepository = dailyRollupRepository;
+        this.monthlyRollupRepository = monthlyRollupRepository;
     }
 
     public List<TeacherAttendanceEntity> getAllAttendances() {
@@ -97,11 +118,15 @@ public class TeacherAttendanceService extends BaseService<TeacherAttendanceEntit
         TeacherEntity teacher = teacherService.findTeacherOrThrow(teacherUuid);
 
         // Check if already checked in for this session today
-        var existingAttendance = attendanceRepository.findByTeacherAndClassSessionAndDate(
-                teacherUuid, classSessionUuid, date);
+        TeacherAttendanceEntity expected = findExpectedAttendance(teacherUuid, classSessionUuid, date);
 
-        if (existingAttendance.isPresent()) {
-            throw new IllegalStateException("El docente ya marcó su entrada para esta sesión hoy");
+        LocalDateTime checkinTime = LocalDateTime.now();
+
+        if (expected != null) {
+            // Generated expected attendance: it already knows the schedule
+            expected.setCheckinAt(checkinTime);
+            expected.setLateMinutes(calculateLateMinutes(expected.getScheduledStartTime(), checkinTime.toLocalTime()));
+            return saveCheckIn(expected);
         }
 
         // Check if it's a holiday
@@ -112,8 +137,6 @@ public class TeacherAttendanceService extends BaseService<TeacherAttendanceEntit
         classSession.setUuid(classSessionUuid);
         // In a real scenario, we would fetch the full classSession with teaching hours
 
-        LocalDateTime checkinTime = LocalDateTime.now();
-
         // Create attendance record
         TeacherAttendanceEntity attendance = new TeacherAttendanceEntity();
         attendance.setTeacher(teacher);
@@ -128,7 +151,7 @@ public class TeacherAttendanceService extends BaseService<TeacherAttendanceEntit
         AttendanceActivityTypeEntity activityType = activityTypeService.getActivityTypeByCode("REGULAR_CLASS");
         attendance.setAttendanceActivityType(activityType);
 
-        return save(attendance);
+        return saveCheckIn(attendance);
     }
 
     /**
@@ -142,15 +165,10 @@ public class TeacherAttendanceService extends BaseService<TeacherAttendanceEntit
         TeacherEntity teacher = teacherService.findTeacherOrThrow(teacherUuid);
 
         // Check if already checked in
-        var existingAttendance = attendanceRepository.findByTeacherAndClassSessionAndDate(
-                teacherUuid, classSessionUuid, date);
-
-        if (existingAttendance.isPresent()) {
-            throw new IllegalStateException("El docente ya marcó su entrada para esta sesión hoy");
-        }
+        TeacherAttendanceEntity expected = findExpectedAttendance(teacherUuid, classSessionUuid, date);
 
         // Check if it's a holiday
-        boolean isHoliday = calendarExceptionService.isHoliday(date);
+        boolean isHoliday = expected != null ? expected.getIsHoliday() : calendarExceptionService.isHoliday(date);
 
         LocalDateTime checkinTime = LocalDateTime.now();
         LocalTime actualCheckinTime = checkinTime.toLocalTime();
@@ -158,17 +176,20 @@ public class TeacherAttendanceService extends BaseService<TeacherAttendanceEntit
         // Calculate late minutes with tolerance
         int lateMinutes = calculateLateMinutes(scheduledStartTime, actualCheckinTime);
 
-        // Get class session
-        ClassSessionEntity classSession = new ClassSessionEntity();
-        classSession.setUuid(classSessionUuid);
+        TeacherAttendanceEntity attendance = expected;
+        if (attendance == null) {
+            // Get class session
+            ClassSessionEntity classSession = new ClassSessionEntity();
+            classSession.setUuid(classSessionUuid);
 
-        // Get activity type
-        AttendanceActivityTypeEntity activityType = activityTypeService.getActivityTypeByCode("REGULAR_CLASS");
+            // Get activity type
+            AttendanceActivityTypeEntity activityType = activityTypeService.getActivityTypeByCode("REGULAR_CLASS");
 
-        TeacherAttendanceEntity attendance = new TeacherAttendanceEntity();
-        attendance.setTeacher(teacher);
-        attendance.setClassSession(classSession);
-        attendance.setAttendanceActivityType(activityType);
+            attendance = new TeacherAttendanceEntity();
+            attendance.setTeacher(teacher);
+            attendance.setClassSession(classSession);
+            attendance.setAttendanceActivityType(activityType);
+        }
         attendance.setAttendanceDate(date);
         attendance.setScheduledStartTime(scheduledStartTime);
         attendance.setScheduledEndTime(scheduledEndTime);
@@ -178,7 +199,94 @@ public class TeacherAttendanceService extends BaseService<TeacherAttendanceEntit
         attendance.setIsHoliday(isHoliday);
         attendance.setStatus(TeacherAttendanceEntity.AttendanceStatus.PENDING);
 
-        return save(attendance);
+        return saveCheckIn(attendance);
+    }
+
+    /**
+     * Teacher checks in now, for the session they are in or the next one of the day
+     * Session, holiday and activity type come from the cached {@link TeacherDailySchedule}; a
+     * generated expected attendance is filled with one UPDATE, otherwise one INSERT creates it, and
+     * the day's rollups are refreshed after commit. A second check-in is caught by the unique (teacher, session, date) constraint, not by a read.
+     */
+    public AttendanceCheckInResultDTO checkInNow(UUID teacherUuid) {
+        LocalDateTime checkinTime = LocalDateTime.now();
+        LocalDate date = checkinTime.toLocalDate();
+        LocalTime time = checkinTime.toLocalTime();
+
+        TeacherDailySchedule.Day day = dailySchedule.day(date);
+        Optional<ScheduledSession> current = day.currentOrNextSession(teacherUuid, time);
+        if (current.isEmpty() && day.canReloadOnMiss()) {
+            day = dailySchedule.reload(date, day);
+            current = day.currentOrNextSession(teacherUuid, time);
+        }
+        ScheduledSession session = current
+                .orElseThrow(() -> new IllegalStateException("El docente no tiene más sesiones programadas hoy"));
+
+        int lateMinutes = calculateLateMinutes(session.startTime(), time);
+
+        UUID attendanceUuid = day.expectedAttendance(teacherUuid, session.classSessionUuid());
+        if (attendanceUuid != null) {
+            if (!checkInStore.fill(attendanceUuid, teacherUuid, date, checkinTime, lateMinutes)) {
+                day.checkedIn(teacherUuid, session.classSessionUuid());
+                throw new IllegalStateException("El docente ya marcó su entrada para esta sesión hoy");
+            }
+        } else {
+            attendanceUuid = insertCheckIn(session, day, checkinTime, lateMinutes);
+        }
+        day.checkedIn(teacherUuid, session.classSessionUuid());
+
+        return AttendanceCheckInResultDTO.builder()
+                .attendanceUuid(attendanceUuid)
+                .teacherUuid(teacherUuid)
+                .classSessionUuid(session.classSessionUuid())
+                .attendanceDate(date)
+                .scheduledStartTime(session.startTime())
+                .scheduledEndTime(session.endTime())
+                .checkinAt(checkinTime)
+                .lateMinutes(lateMinutes)
+                .isHoliday(day.isHoliday())
+                .build();
+    }
+
+    private UUID insertCheckIn(ScheduledSession session, TeacherDailySchedule.Day day,
+                               LocalDateTime checkinTime, int lateMinutes) {
+        try {
+            return checkInStore.insert(session, day.date(), day.isHoliday(), dailySchedule.regularClassTypeUuid(),
+                    checkinTime, lateMinutes);
+        } catch (DataIntegrityViolationException e) {
+            // The attendance exists: generated after the day was loaded, or already checked in
+            TeacherAttendanceEntity existing = attendanceRepository
+                    .findByTeacherAndClassSessionAndDate(session.teacherUuid(), session.classSessionUuid(), day.date())
+                    .orElseThrow(() -> e);
+            if (!checkInStore.fill(existing.getUuid(), session.teacherUuid(), day.date(), checkinTime, lateMinutes)) {
+                throw new IllegalStateException("El docente ya marcó su entrada para esta sesión hoy");
+            }
+            return existing.getUuid();
+        }
+    }
+
+    /**
+     * The expected attendance generated for this session and date, if there is one: PENDING and
+     * without check-in, the same rows {@link TeacherAttendanceRepository#fillCheckIn} fills
+     *
+     * @throws IllegalStateException if the teacher already checked in, or an administrator already
+     *                               resolved the attendance (approved, overridden, rejected, holiday)
+     */
+    private TeacherAttendanceEntity findExpectedAttendance(UUID teacherUuid, UUID classSessionUuid, LocalDate date) {
+        TeacherAttendanceEntity existing = attendanceRepository
+                .findByTeacherAndClassSessionAndDate(teacherUuid, classSessionUuid, date)
+                .orElse(null);
+        if (existing == null) {
+            return null;
+        }
+        if (existing.getCheckinAt() != null) {
+            throw new IllegalStateException("El docente ya marcó su entrada para esta sesión hoy");
+        }
+        if (existing.getStatus() != TeacherAttendanceEntity.AttendanceStatus.PENDING) {
+            throw new IllegalStateException("La asistencia de esta sesión ya fue resuelta (" + existing.getStatus()
+                    + "); no admite marcar entrada");
+        }
+        return existing;
     }
 
     /**
@@ -217,14 +325,35 @@ public class TeacherAttendanceService extends BaseService<TeacherAttendanceEntit
             attendance.setStatus(TeacherAttendanceEntity.AttendanceStatus.APPROVED);
         }
 
-        return save(attendance);
+        return saveAndTrack(attendance);
+    }
+
+    /**
+     * Save a check-in: the attendance stays PENDING, which payroll does not count, so only its
+     * rollups are refreshed (after commit)
+     */
+    private TeacherAttendanceEntity saveCheckIn(TeacherAttendanceEntity attendance) {
+        TeacherAttendanceEntity saved = save(attendance);
+        rollupTracker.attendanceChanged(saved.getTeacher().getUuid(), saved.getAttendanceDate());
+        return saved;
+    }
+
+    /**
+     * Save a check-out or an admin decision and flag the teacher's payroll for that date as stale
+     * (its rollups are refreshed after commit)
+     */
+    private TeacherAttendanceEntity saveAndTrack(TeacherAttendanceEntity attendance) {
+        TeacherAttendanceEntity saved = save(attendance);
+        payrollChangeTracker.attendanceChanged(saved.getTeacher().getUuid(), saved.getAttendanceDate());
+        rollupTracker.attendanceChanged(saved.getTeacher().getUuid(), saved.getAttendanceDate());
+        return saved;
     }
 
     /**
      * Calculate late minutes with tolerance
      * Returns 0 if within tolerance, otherwise returns minutes late minus tolerance
      */
-    private int calculateLateMinutes(LocalTime scheduledTime, LocalTime actualTime) {
+    static int calculateLateMinutes(LocalTime scheduledTime, LocalTime actualTime) {
         if (actualTime.isBefore(scheduledTime) || actualTime.equals(scheduledTime)) {
             return 0; // On time
         }
@@ -242,7 +371,7 @@ public class TeacherAttendanceService extends BaseService<TeacherAttendanceEntit
      * Calculate early departure minutes
      * Returns 0 if left on time or after, otherwise returns minutes early
      */
-    private int calculateEarlyDepartureMinutes(LocalTime scheduledEndTime, LocalTime actualTime) {
+    static int calculateEarlyDepartureMinutes(LocalTime scheduledEndTime, LocalTime actualTime) {
         if (actualTime.isAfter(scheduledEndTime) || actualTime.equals(scheduledEndTime)) {
             return 0; // Left on time or later
         }
@@ -266,7 +395,7 @@ public class TeacherAttendanceService extends BaseService<TeacherAttendanceEntit
             attendance.setAdminNote(adminNote);
         }
 
-        return save(attendance);
+        return saveAndTrack(attendance);
     }
 
     /**
@@ -311,7 +440,7 @@ public class TeacherAttendanceService extends BaseService<TeacherAttendanceEntit
         attendance.setStatus(TeacherAttendanceEntity.AttendanceStatus.OVERRIDDEN);
         attendance.setAdminNote(adminNote);
 
-        return save(attendance);
+        return saveAndTrack(attendance);
     }
 
     /**
@@ -338,7 +467,7 @@ public class TeacherAttendanceService extends BaseService<TeacherAttendanceEntit
         attendance.setStatus(TeacherAttendanceEntity.AttendanceStatus.HOLIDAY);
         attendance.setAdminNote(adminNote);
 
-        return save(attendance);
+        return saveAndTrack(attendance);
     }
 
     /**
@@ -351,87 +480,95 @@ public class TeacherAttendanceService extends BaseService<TeacherAttendanceEntit
         attendance.setStatus(TeacherAttendanceEntity.AttendanceStatus.REJECTED);
         attendance.setAdminNote(adminNote);
 
-        return save(attendance);
+        return saveAndTrack(attendance);
     }
 
     /**
      * Calculate total minutes worked by a teacher in a date range
-     * Only counts approved and overridden attendances
+     * Only counts approved, overridden and holiday attendances
      */
     public int calculateTotalMinutesWorked(UUID teacherUuid, LocalDate startDate, LocalDate endDate) {
-        List<TeacherAttendanceEntity> attendances = attendanceRepository
-                .findByTeacherUuidAndAttendanceDateBetween(teacherUuid, startDate, endDate);
-
-        return attendances.stream()
-                .filter(a -> a.getStatus() == TeacherAttendanceEntity.AttendanceStatus.APPROVED ||
-                           a.getStatus() == TeacherAttendanceEntity.AttendanceStatus.OVERRIDDEN ||
-                           a.getStatus() == TeacherAttendanceEntity.AttendanceStatus.HOLIDAY)
-                .filter(a -> a.getActualDurationMinutes() != null)
-                .mapToInt(TeacherAttendanceEntity::getActualDurationMinutes)
-                .sum();
+        AttendanceStatsRowDTO totals = rollupTotals(teacherUuid, startDate, endDate).get(teacherUuid);
+        return totals != null ? totals.getPayableMinutesWorked().intValue() : 0;
     }
 
     /**
      * Calculate total penalty minutes (late + early departure) in a date range
+     * Only counts approved and pending attendances
      */
     public int calculateTotalPenaltyMinutes(UUID teacherUuid, LocalDate startDate, LocalDate endDate) {
-        List<TeacherAttendanceEntity> attendances = attendanceRepository
-                .findByTeacherUuidAndAttendanceDateBetween(teacherUuid, startDate, endDate);
-
-        return attendances.stream()
-                .filter(a -> a.getStatus() == TeacherAttendanceEntity.AttendanceStatus.APPROVED ||
-                           a.getStatus() == TeacherAttendanceEntity.AttendanceStatus.PENDING)
-                .mapToInt(a -> a.getLateMinutes() + a.getEarlyDepartureMinutes())
-                .sum();
+        AttendanceStatsRowDTO totals = rollupTotals(teacherUuid, startDate, endDate).get(teacherUuid);
+        return totals != null ? totals.getPenaltyMinutes().intValue() : 0;
     }
 
     /**
      * Get attendance statistics for a teacher in a date range
+     * Read from the daily/monthly rollups, attendances are not loaded
      */
     public AttendanceStats getAttendanceStats(UUID teacherUuid, LocalDate startDate, LocalDate endDate) {
-        List<TeacherAttendanceEntity> attendances = attendanceRepository
-                .findByTeacherUuidAndAttendanceDateBetween(teacherUuid, startDate, endDate);
-
-        int totalMinutesWorked = attendances.stream()
-                .filter(a -> a.getActualDurationMinutes() != null)
-                .mapToInt(TeacherAttendanceEntity::getActualDurationMinutes)
-                .sum();
-
-        int totalLateMinutes = attendances.stream()
-                .mapToInt(TeacherAttendanceEntity::getLateMinutes)
-                .sum();
-
-        int totalEarlyDepartureMinutes = attendances.stream()
-                .mapToInt(TeacherAttendanceEntity::getEarlyDepartureMinutes)
-                .sum();
-
-        int totalScheduledMinutes = attendances.stream()
-                .filter(a -> a.getScheduledDurationMinutes() != null)
-                .mapToInt(TeacherAttendanceEntity::getScheduledDurationMinutes)
-                .sum();
-
-        long approvedCount = attendances.stream()
-                .filter(a -> a.getStatus() == TeacherAttendanceEntity.AttendanceStatus.APPROVED)
-                .count();
-
-        long pendingCount = attendances.stream()
-                .filter(a -> a.getStatus() == TeacherAttendanceEntity.AttendanceStatus.PENDING)
-                .count();
-
-        return new AttendanceStats(
-                totalMinutesWorked,
-                totalScheduledMinutes,
-                totalLateMinutes,
-                totalEarlyDepartureMinutes,
-                approvedCount,
-                pendingCount
-        );
+        AttendanceStatsRowDTO totals = rollupTotals(teacherUuid, startDate, endDate).get(teacherUuid);
+        return totals != null
+                ? new AttendanceStats(totals)
+                : new AttendanceStats(teacherUuid, 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Get attendance statistics of every teacher with attendances in a date range
+     */
+    public List<AttendanceStats> getAttendanceStatsByTeacher(LocalDate startDate, LocalDate endDate) {
+        return rollupTotals(null, startDate, endDate).values().stream()
+                .map(AttendanceStats::new)
+                .toList();
+    }
+
+    /**
+     * Totals per teacher (only that one if teacherUuid is given) in the range: the whole months
+     * inside it from the monthly rollups, the partial months at both ends from the daily ones
+     */
+    private Map<UUID, AttendanceStatsRowDTO> rollupTotals(UUID teacherUuid, LocalDate startDate, LocalDate endDate) {
+        rollupTracker.ensureFresh(teacherUuid, startDate, endDate);
+
+        LocalDate firstWholeMonth = startDate.getDayOfMonth() == 1 ? startDate : startDate.withDayOfMonth(1).plusMonths(1);
+        LocalDate afterWholeMonths = endDate.equals(YearMonth.from(endDate).atEndOfMonth())
+                ? endDate.plusDays(1)
+                : endDate.withDayOfMonth(1);
+
+        List<AttendanceStatsRowDTO> rows = new ArrayList<>();
+        if (firstWholeMonth.isBefore(afterWholeMonths)) {
+            rows.addAll(monthlyRollupRepository.sumStatsByMonthRange(
+                    teacherUuid, firstWholeMonth, afterWholeMonths.minusMonths(1)));
+            if (startDate.isBefore(firstWholeMonth)) {
+                rows.addAll(dailyRollupRepository.sumStatsByDateRange(teacherUuid, startDate, firstWholeMonth.minusDays(1)));
+            }
+            if (!endDate.isBefore(afterWholeMonths)) {
+                rows.addAll(dailyRollupRepository.sumStatsByDateRange(teacherUuid, afterWholeMonths, endDate));
+            }
+        } else {
+            rows.addAll(dailyRollupRepository.sumStatsByDateRange(teacherUuid, startDate, endDate));
+        }
+
+        Map<UUID, AttendanceStatsRowDTO> totals = new LinkedHashMap<>();
+        for (AttendanceStatsRowDTO row : rows) {
+            totals.merge(row.getTeacherUuid(), row, AttendanceStatsRowDTO::plus);
+        }
+        return totals;
+    }
+
+    /**
+     * Rebuild the attendance rollups of the months covering the range from the attendances
+     */
+    public void rebuildRollups(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("La fecha de inicio no puede ser posterior a la fecha de fin");
+        }
+        rollupTracker.rebuild(startDate, endDate);
     }
 
     /**
      * Inner class for attendance statistics
      */
     public static class AttendanceStats {
+        public final UUID teacherUuid;
         public final int totalMinutesWorked;
         public final int totalScheduledMinutes;
         public final int totalLateMinutes;
@@ -439,9 +576,10 @@ public class TeacherAttendanceService extends BaseService<TeacherAttendanceEntit
         public final long approvedCount;
         public final long pendingCount;
 
-        public AttendanceStats(int totalMinutesWorked, int totalScheduledMinutes,
+        public AttendanceStats(UUID teacherUuid, int totalMinutesWorked, int totalScheduledMinutes,
                              int totalLateMinutes, int totalEarlyDepartureMinutes,
                              long approvedCount, long pendingCount) {
+            this.teacherUuid = teacherUuid;
             this.totalMinutesWorked = totalMinutesWorked;
             this.totalScheduledMinutes = totalScheduledMinutes;
             this.totalLateMinutes = totalLateMinutes;
@@ -449,5 +587,15 @@ public class TeacherAttendanceService extends BaseService<TeacherAttendanceEntit
             this.approvedCount = approvedCount;
             this.pendingCount = pendingCount;
         }
+
+        private AttendanceStats(AttendanceStatsRowDTO row) {
+            this(row.getTeacherUuid(),
+                    row.getTotalMinutesWorked().intValue(),
+                    row.getTotalScheduledMinutes().intValue(),
+                    row.getTotalLateMinutes().intValue(),
+                    row.getTotalEarlyDepartureMinutes().intValue(),
+                    row.getApprovedCount(),
+                    row.getPendingCount());
+        }
     }
 }
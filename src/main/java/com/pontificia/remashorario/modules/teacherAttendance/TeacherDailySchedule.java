@@ -0,0 +1,166 @@
+package com.pontificia.remashorario.modules.teacherAttendance;
+
+import com.pontificia.remashorario.modules.academicCalendarException.AcademicCalendarExceptionService;
+import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActivityTypeService;
+import com.pontificia.remashorario.modules.classSession.ClassSessionRepository;
+import com.pontificia.remashorario.modules.teacherAttendance.dto.ExpectedCheckInRowDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory schedule of a day for check-ins: each teacher's class sessions, whether the date is
+ * a holiday and which attendances are already waiting for their check-in.
+ * <p>
+ * A day is loaded with three queries the first time it is asked for and reused until it is
+ * {@link #REFRESH_AFTER} old, so at peak time a check-in needs no reads at all. Schedule and
+ * calendar changes are picked up on the next refresh; a teacher without a session in the
+ * cached day may force one earlier (see {@link Day#canReloadOnMiss()}).
+ */
+@Component
+public class TeacherDailySchedule {
+
+    private static final String REGULAR_CLASS = "REGULAR_CLASS";
+    private static final Duration REFRESH_AFTER = Duration.ofMinutes(5);
+    // A teacher without a session may be a schedule change: reload, but not on every such tap
+    private static final Duration MISS_RELOAD_AFTER = Duration.ofSeconds(30);
+
+    private final ClassSessionRepository classSessionRepository;
+    private final TeacherAttendanceRepository attendanceRepository;
+    private final AcademicCalendarExceptionService calendarExceptionService;
+    private final AttendanceActivityTypeService activityTypeService;
+
+    private final Map<LocalDate, Day> days = new ConcurrentHashMap<>();
+    private volatile UUID regularClassTypeUuid;
+
+    @Autowired
+    public TeacherDailySchedule(ClassSessionRepository classSessionRepository,
+                                TeacherAttendanceRepository attendanceRepository,
+                                AcademicCalendarExceptionService calendarExceptionService,
+                                AttendanceActivityTypeService activityTypeService) {
+        this.classSessionRepository = classSessionRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.calendarExceptionService = calendarExceptionService;
+        this.activityTypeService = activityTypeService;
+    }
+
+    public Day day(LocalDate date) {
+        Day day = days.get(date);
+        if (day != null && !day.isStale()) {
+            return day;
+        }
+        return reload(date, day);
+    }
+
+    /**
+     * Load the date again, unless another check-in already replaced {@code seen} (and forget past dates)
+     */
+    public synchronized Day reload(LocalDate date, Day seen) {
+        Day current = days.get(date);
+        if (current != null && current != seen) {
+            return current;
+        }
+
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        days.keySet().removeIf(cached -> cached.isBefore(yesterday));
+
+        Day day = load(date);
+        days.put(date, day);
+        return day;
+    }
+
+    /**
+     * Activity type of class attendances; it is seeded and never renamed
+     */
+    public UUID regularClassTypeUuid() {
+        UUID uuid = regularClassTypeUuid;
+        if (uuid == null) {
+            uuid = activityTypeService.getActivityTypeByCode(REGULAR_CLASS).getUuid();
+            regularClassTypeUuid = uuid;
+        }
+        return uuid;
+    }
+
+    private Day load(LocalDate date) {
+        Map<UUID, List<ScheduledSession>> sessionsByTeacher = new HashMap<>();
+        for (ScheduledSession session : ScheduledSession.fromRows(
+                classSessionRepository.findScheduleRowsByDate(date.getDayOfWeek(), date))) {
+            sessionsByTeacher.computeIfAbsent(session.teacherUuid(), k -> new ArrayList<>()).add(session);
+        }
+        sessionsByTeacher.values().forEach(sessions -> sessions.sort(Comparator.comparing(ScheduledSession::startTime)));
+
+        Map<SessionKey, UUID> expected = new ConcurrentHashMap<>();
+        for (ExpectedCheckInRowDTO row : attendanceRepository.findExpectedCheckInsByDate(date)) {
+            if (row.getClassSessionUuid() != null) {
+                expected.put(new SessionKey(row.getTeacherUuid(), row.getClassSessionUuid()), row.getAttendanceUuid());
+            }
+        }
+
+        return new Day(date, calendarExceptionService.isHoliday(date), sessionsByTeacher, expected, LocalDateTime.now());
+    }
+
+    private record SessionKey(UUID teacherUuid, UUID classSessionUuid) {
+    }
+
+    public static final class Day {
+        private final LocalDate date;
+        private final boolean holiday;
+        private final Map<UUID, List<ScheduledSession>> sessionsByTeacher;
+        private final Map<SessionKey, UUID> expectedAttendances;
+        private final LocalDateTime loadedAt;
+
+        private Day(LocalDate date, boolean holiday, Map<UUID, List<ScheduledSession>> sessionsByTeacher,
+                    Map<SessionKey, UUID> expectedAttendances, LocalDateTime loadedAt) {
+            this.date = date;
+            this.holiday = holiday;
+            this.sessionsByTeacher = sessionsByTeacher;
+            this.expectedAttendances = expectedAttendances;
+            this.loadedAt = loadedAt;
+        }
+
+        public LocalDate date() {
+            return date;
+        }
+
+        public boolean isHoliday() {
+            return holiday;
+        }
+
+        /**
+         * The session the teacher is in at that time, or else the next one of the day
+         */
+        Optional<ScheduledSession> currentOrNextSession(UUID teacherUuid, LocalTime time) {
+            for (ScheduledSession session : sessionsByTeacher.getOrDefault(teacherUuid, List.of())) {
+                if (session.endTime().isAfter(time)) {
+                    return Optional.of(session);
+                }
+            }
+            return Optional.empty();
+        }
+
+        /**
+         * The attendance generated for the session that still has no check-in, if any
+         */
+        UUID expectedAttendance(UUID teacherUuid, UUID classSessionUuid) {
+            return expectedAttendances.get(new SessionKey(teacherUuid, classSessionUuid));
+        }
+
+        void checkedIn(UUID teacherUuid, UUID classSessionUuid) {
+            expectedAttendances.remove(new SessionKey(teacherUuid, classSessionUuid));
+        }
+
+        boolean canReloadOnMiss() {
+            return loadedAt.plus(MISS_RELOAD_AFTER).isBefore(LocalDateTime.now());
+        }
+
+        private boolean isStale() {
+            return loadedAt.plus(REFRESH_AFTER).isBefore(LocalDateTime.now());
+        }
+    }
+}
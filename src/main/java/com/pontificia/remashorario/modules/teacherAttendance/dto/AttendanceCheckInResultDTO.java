@@ -0,0 +1,25 @@
+package com.pontificia.remashorario.modules.teacherAttendance.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Builder
+public class AttendanceCheckInResultDTO {
+    private UUID attendanceUuid;
+    private UUID teacherUuid;
+    private UUID classSessionUuid;
+    private LocalDate attendanceDate;
+    private LocalTime scheduledStartTime;
+    private LocalTime scheduledEndTime;
+    private LocalDateTime checkinAt;
+    private int lateMinutes;
+    private Boolean isHoliday;
+}
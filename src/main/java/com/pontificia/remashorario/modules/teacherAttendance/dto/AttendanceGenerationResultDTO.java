@@ -0,0 +1,21 @@
+package com.pontificia.remashorario.modules.teacherAttendance.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class AttendanceGenerationResultDTO {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int sessionCount;
+    private int createdCount;
+    private int alreadyExistingCount;
+    private List<LocalDate> skippedHolidays;
+    private long elapsedMs;
+}
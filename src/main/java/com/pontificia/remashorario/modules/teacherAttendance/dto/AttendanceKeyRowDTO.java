@@ -0,0 +1,18 @@
+package com.pontificia.remashorario.modules.teacherAttendance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * What identifies a class attendance: teacher, class session and date
+ */
+@Getter
+@AllArgsConstructor
+public class AttendanceKeyRowDTO {
+    private UUID teacherUuid;
+    private UUID classSessionUuid;
+    private LocalDate attendanceDate;
+}
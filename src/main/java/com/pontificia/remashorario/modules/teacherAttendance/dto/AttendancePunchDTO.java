@@ -0,0 +1,22 @@
+package com.pontificia.remashorario.modules.teacherAttendance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A clock or biometric punch, timestamped by the device in campus local time
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendancePunchDTO {
+    private UUID teacherUuid;
+    private LocalDateTime punchedAt;
+    private String deviceId;
+}
@@ -0,0 +1,22 @@
+package com.pontificia.remashorario.modules.teacherAttendance.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class AttendancePunchResultDTO {
+    private long received;
+    private long invalid; // unreadable line or unknown teacher
+    private long unmatched; // no class session of the teacher around that time
+    private long attendancesCreated;
+    private long attendancesUpdated;
+    private long attendancesUnchanged; // already recorded, or closed (approved or decided by an admin)
+    private long conflicts; // inserted meanwhile by a check-in; merged and counted as updated or unchanged
+    private long elapsedMs;
+    private List<String> errors; // first ones only
+}
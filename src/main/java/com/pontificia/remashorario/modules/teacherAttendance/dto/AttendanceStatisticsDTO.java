@@ -5,11 +5,13 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.util.UUID;
 
 @Getter
 @Setter
 @Builder
 public class AttendanceStatisticsDTO {
+    private UUID teacherUuid;
     private Integer totalMinutesWorked;
     private Integer totalScheduledMinutes;
     private Integer totalLateMinutes;
@@ -0,0 +1,41 @@
+package com.pontificia.remashorario.modules.teacherAttendance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Attendance totals of a teacher in a date range, summed from the attendance rollups
+ */
+@Getter
+@AllArgsConstructor
+public class AttendanceStatsRowDTO {
+    private UUID teacherUuid;
+    // Every attendance with a duration, whatever its status
+    private Long totalMinutesWorked;
+    // Only APPROVED, OVERRIDDEN and HOLIDAY attendances
+    private Long payableMinutesWorked;
+    private Long totalScheduledMinutes;
+    private Long totalLateMinutes;
+    private Long totalEarlyDepartureMinutes;
+    // Late + early departure of APPROVED and PENDING attendances
+    private Long penaltyMinutes;
+    private Long approvedCount;
+    private Long pendingCount;
+
+    /**
+     * Totals of the same teacher over both ranges
+     */
+    public AttendanceStatsRowDTO plus(AttendanceStatsRowDTO other) {
+        return new AttendanceStatsRowDTO(teacherUuid,
+                totalMinutesWorked + other.totalMinutesWorked,
+                payableMinutesWorked + other.payableMinutesWorked,
+                totalScheduledMinutes + other.totalScheduledMinutes,
+                totalLateMinutes + other.totalLateMinutes,
+                totalEarlyDepartureMinutes + other.totalEarlyDepartureMinutes,
+                penaltyMinutes + other.penaltyMinutes,
+                approvedCount + other.approvedCount,
+                pendingCount + other.pendingCount);
+    }
+}
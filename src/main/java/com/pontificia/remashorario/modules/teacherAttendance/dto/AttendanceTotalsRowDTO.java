@@ -0,0 +1,29 @@
+package com.pontificia.remashorario.modules.teacherAttendance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Attendance totals of a teacher on a day (from the attendances) or in a month (from the daily
+ * rollups, date = first day of the month)
+ */
+@Getter
+@AllArgsConstructor
+public class AttendanceTotalsRowDTO {
+    private UUID teacherUuid;
+    private LocalDate date;
+    private Long minutesWorked;
+    private Long payableMinutesWorked;
+    private Long scheduledMinutes;
+    private Long lateMinutes;
+    private Long earlyDepartureMinutes;
+    private Long penaltyMinutes;
+    private Long pendingCount;
+    private Long approvedCount;
+    private Long overriddenCount;
+    private Long rejectedCount;
+    private Long holidayCount;
+}
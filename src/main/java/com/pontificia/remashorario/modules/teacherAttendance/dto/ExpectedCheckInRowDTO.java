@@ -0,0 +1,17 @@
+package com.pontificia.remashorario.modules.teacherAttendance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * A class attendance that exists but has no check-in yet
+ */
+@Getter
+@AllArgsConstructor
+public class ExpectedCheckInRowDTO {
+    private UUID attendanceUuid;
+    private UUID teacherUuid;
+    private UUID classSessionUuid;
+}
@@ -73,6 +73,7 @@ public class TeacherAttendanceMapper {
         }
 
         return AttendanceStatisticsDTO.builder()
+                .teacherUuid(stats.teacherUuid)
                 .totalMinutesWorked(stats.totalMinutesWorked)
                 .totalScheduledMinutes(stats.totalScheduledMinutes)
                 .totalLateMinutes(stats.totalLateMinutes)
@@ -84,4 +85,10 @@ public class TeacherAttendanceMapper {
                 .compliancePercentage(compliancePercentage)
                 .build();
     }
+
+    public List<AttendanceStatisticsDTO> toStatisticsDTOList(List<TeacherAttendanceService.AttendanceStats> stats) {
+        return stats.stream()
+                .map(this::toStatisticsDTO)
+                .collect(Collectors.toList());
+    }
 }
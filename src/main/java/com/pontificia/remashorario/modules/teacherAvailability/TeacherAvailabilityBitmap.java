@@ -0,0 +1,121 @@
+package com.pontificia.remashorario.modules.teacherAvailability;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Collection;
+
+/**
+ * Disponibilidad semanal de un docente compilada a un bit por minuto y por día.
+ * <p>
+ * Además de los minutos cubiertos se marca el minuto en que empieza cada ventana: un rango
+ * [inicio, fin) está disponible si todos sus minutos están cubiertos y ninguna ventana empieza
+ * dentro de él. Como las ventanas de un docente no se solapan, eso equivale a la regla de
+ * siempre (el bloque completo cabe en una sola ventana), sin unir ventanas contiguas.
+ * Las ventanas marcadas como no disponibles se ignoran. Inmutable.
+ */
+public final class TeacherAvailabilityBitmap {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int WORDS_PER_DAY = (MINUTES_PER_DAY + 63) / 64;
+
+    public static final TeacherAvailabilityBitmap EMPTY = new TeacherAvailabilityBitmap(
+            new long[7 * WORDS_PER_DAY], new long[7 * WORDS_PER_DAY], 0);
+
+    private final long[] covered;
+    private final long[] windowStarts;
+    // Días con alguna fila configurada, aunque esté marcada como no disponible
+    private final int configuredDays;
+
+    private TeacherAvailabilityBitmap(long[] covered, long[] windowStarts, int configuredDays) {
+        this.covered = covered;
+        this.windowStarts = windowStarts;
+        this.configuredDays = configuredDays;
+    }
+
+    public static TeacherAvailabilityBitmap compile(Collection<TeacherAvailabilityEntity> availabilities) {
+        long[] covered = new long[7 * WORDS_PER_DAY];
+        long[] windowStarts = new long[7 * WORDS_PER_DAY];
+        int configuredDays = 0;
+
+        for (TeacherAvailabilityEntity availability : availabilities) {
+            configuredDays |= 1 << availability.getDayOfWeek().ordinal();
+            if (Boolean.FALSE.equals(availability.getIsAvailable())) continue;
+
+            int from = floorMinute(availability.getStartTime());
+            int to = ceilMinute(availability.getEndTime());
+            if (to <= from) continue;
+
+            int base = dayBase(availability.getDayOfWeek());
+            setRange(covered, base + from, base + to);
+            windowStarts[(base + from) >>> 6] |= 1L << (base + from);
+        }
+        return new TeacherAvailabilityBitmap(covered, windowStarts, configuredDays);
+    }
+
+    /**
+     * Si el docente está libre en [start, end) ese día dentro de una sola ventana.
+     */
+    public boolean covers(DayOfWeek dayOfWeek, LocalTime start, LocalTime end) {
+        int from = floorMinute(start);
+        int to = ceilMinute(end);
+        if (to <= from) return false;
+
+        int base = dayBase(dayOfWeek);
+        return allSet(covered, base + from, base + to) && noneSet(windowStarts, base + from + 1, base + to);
+    }
+
+    public boolean isConfigured(DayOfWeek dayOfWeek) {
+        return (configuredDays & (1 << dayOfWeek.ordinal())) != 0;
+    }
+
+    public boolean hasWindows(DayOfWeek dayOfWeek) {
+        int base = dayBase(dayOfWeek);
+        for (int w = base >>> 6; w < (base >>> 6) + WORDS_PER_DAY; w++) {
+            if (covered[w] != 0) return true;
+        }
+        return false;
+    }
+
+    // Cada día arranca en una palabra nueva
+    private static int dayBase(DayOfWeek dayOfWeek) {
+        return (dayOfWeek.getValue() - 1) * WORDS_PER_DAY * 64;
+    }
+
+    private static int floorMinute(LocalTime time) {
+        return time.toSecondOfDay() / 60;
+    }
+
+    private static int ceilMinute(LocalTime time) {
+        return (time.toSecondOfDay() + 59) / 60;
+    }
+
+    private static void setRange(long[] words, int from, int to) {
+        for (int w = from >>> 6; w <= (to - 1) >>> 6; w++) {
+            words[w] |= mask(w, from, to);
+        }
+    }
+
+    private static boolean allSet(long[] words, int from, int to) {
+        for (int w = from >>> 6; w <= (to - 1) >>> 6; w++) {
+            long mask = mask(w, from, to);
+            if ((words[w] & mask) != mask) return false;
+        }
+        return true;
+    }
+
+    private static boolean noneSet(long[] words, int from, int to) {
+        if (to <= from) return true;
+        for (int w = from >>> 6; w <= (to - 1) >>> 6; w++) {
+            if ((words[w] & mask(w, from, to)) != 0) return false;
+        }
+        return true;
+    }
+
+    // Bits de la palabra w que caen dentro de [from, to)
+    private static long mask(int w, int from, int to) {
+        int wordStart = w << 6;
+        long low = from > wordStart ? -1L << (from - wordStart) : -1L;
+        long high = to < wordStart + 64 ? -1L >>> (wordStart + 64 - to) : -1L;
+        return low & high;
+    }
+}
@@ -0,0 +1,102 @@
+package com.pontificia.remashorario.modules.teacherAvailability;
+
+import com.pontificia.remashorario.utils.TransactionCallbacks;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Caché acotada de {@link TeacherAvailabilityBitmap} por docente (las menos usadas salen primero).
+ * Se invalida por docente después del commit de cualquier cambio en sus disponibilidades.
+ */
+@Component
+public class TeacherAvailabilityCache {
+
+    private static final int MAX_TEACHERS = 4096;
+
+    private final TeacherAvailabilityRepository availabilityRepository;
+
+    private final Map<UUID, TeacherAvailabilityBitmap> bitmaps = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, TeacherAvailabilityBitmap> eldest) {
+            return size() > MAX_TEACHERS;
+        }
+    };
+
+    // Cambia con cada invalidación: una carga que se cruzó con un commit no se guarda
+    private long generation;
+
+    public TeacherAvailabilityCache(TeacherAvailabilityRepository availabilityRepository) {
+        this.availabilityRepository = availabilityRepository;
+    }
+
+    public boolean isAvailable(UUID teacherUuid, DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+        return get(teacherUuid).covers(dayOfWeek, startTime, endTime);
+    }
+
+    public TeacherAvailabilityBitmap get(UUID teacherUuid) {
+        TeacherAvailabilityBitmap bitmap;
+        long loadedAt;
+        synchronized (bitmaps) {
+            bitmap = bitmaps.get(teacherUuid);
+            loadedAt = generation;
+        }
+        if (bitmap != null) return bitmap;
+
+        bitmap = TeacherAvailabilityBitmap.compile(availabilityRepository.findByTeacherUuid(teacherUuid));
+        synchronized (bitmaps) {
+            if (loadedAt == generation) {
+                bitmaps.putIfAbsent(teacherUuid, bitmap);
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * Bitmaps de varios docentes; los que faltan se cargan en una sola consulta.
+     */
+    public Map<UUID, TeacherAvailabilityBitmap> getAll(Collection<UUID> teacherUuids) {
+        Map<UUID, TeacherAvailabilityBitmap> result = new HashMap<>();
+        Set<UUID> missing = new HashSet<>();
+        long loadedAt;
+        synchronized (bitmaps) {
+            loadedAt = generation;
+            for (UUID teacherUuid : teacherUuids) {
+                if (teacherUuid == null) continue;
+                TeacherAvailabilityBitmap bitmap = bitmaps.get(teacherUuid);
+                if (bitmap != null) {
+                    result.put(teacherUuid, bitmap);
+                } else {
+                    missing.add(teacherUuid);
+                }
+            }
+        }
+        if (missing.isEmpty()) return result;
+
+        Map<UUID, List<TeacherAvailabilityEntity>> byTeacher = availabilityRepository.findByTeacherUuidIn(missing).stream()
+                .collect(Collectors.groupingBy(availability -> availability.getTeacher().getUuid()));
+        synchronized (bitmaps) {
+            for (UUID teacherUuid : missing) {
+                TeacherAvailabilityBitmap bitmap = TeacherAvailabilityBitmap.compile(
+                        byTeacher.getOrDefault(teacherUuid, Collections.emptyList()));
+                if (loadedAt == generation) {
+                    bitmaps.putIfAbsent(teacherUuid, bitmap);
+                }
+                result.put(teacherUuid, bitmap);
+            }
+        }
+        return result;
+    }
+
+    public void invalidate(UUID teacherUuid) {
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (bitmaps) {
+                bitmaps.remove(teacherUuid);
+                generation++;
+            }
+        });
+    }
+}
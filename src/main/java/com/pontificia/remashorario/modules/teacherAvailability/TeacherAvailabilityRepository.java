@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.DayOfWeek;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,6 +21,9 @@ public interface TeacherAvailabilityRepository extends BaseRepository<TeacherAva
 
     List<TeacherAvailabilityEntity> findByTeacherUuidAndDayOfWeek(UUID teacherUuid, DayOfWeek dayOfWeek);
 
+    // Disponibilidades de varios docentes en una sola consulta
+    List<TeacherAvailabilityEntity> findByTeacherUuidIn(Collection<UUID> teacherUuids);
+
     // CORREGIDO: Query nativa para SQL Server con conversión explícita de tipos
     @Query(value = """
         SELECT * FROM dbo.teacher_availability 
@@ -16,7 +16,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.DayOfWeek;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -25,15 +27,18 @@ public class TeacherAvailabilityService extends BaseService<TeacherAvailabilityE
     private final TeacherAvailabilityRepository availabilityRepository;
     private final TeacherAvailabilityMapper availabilityMapper;
     private final TeacherService teacherService;
+    private final TeacherAvailabilityCache availabilityCache;
 
     @Autowired
     public TeacherAvailabilityService(TeacherAvailabilityRepository availabilityRepository,
                                       TeacherAvailabilityMapper availabilityMapper,
-                                      TeacherService teacherService) {
+                                      TeacherService teacherService,
+                                      TeacherAvailabilityCache availabilityCache) {
         super(availabilityRepository);
         this.availabilityRepository = availabilityRepository;
         this.availabilityMapper = availabilityMapper;
         this.teacherService = teacherService;
+        this.availabilityCache = availabilityCache;
     }
 
     public List<TeacherAvailabilityResponseDTO> getTeacherAvailabilities(UUID teacherUuid) {
@@ -66,6 +71,7 @@ public class TeacherAvailabilityService extends BaseService<TeacherAvailabilityE
         // Crear y guardar
         TeacherAvailabilityEntity availability = availabilityMapper.toEntity(dto, teacher);
         TeacherAvailabilityEntity saved = save(availability);
+        availabilityCache.invalidate(teacherUuid);
 
         return availabilityMapper.toResponseDTO(saved);
     }
@@ -93,6 +99,7 @@ public class TeacherAvailabilityService extends BaseService<TeacherAvailabilityE
         // Actualizar
         availabilityMapper.updateEntityFromDTO(availability, dto);
         TeacherAvailabilityEntity updated = save(availability);
+        availabilityCache.invalidate(availability.getTeacher().getUuid());
 
         return availabilityMapper.toResponseDTO(updated);
     }
@@ -104,6 +111,7 @@ public class TeacherAvailabilityService extends BaseService<TeacherAvailabilityE
         // TODO: Verificar si hay asignaciones que dependan de esta disponibilidad
 
         deleteById(uuid);
+        availabilityCache.invalidate(availability.getTeacher().getUuid());
     }
 
     @Transactional
@@ -114,16 +122,23 @@ public class TeacherAvailabilityService extends BaseService<TeacherAvailabilityE
         // TODO: Verificar si hay asignaciones antes de eliminar
 
         availabilityRepository.deleteByTeacherUuid(teacherUuid);
+        availabilityCache.invalidate(teacherUuid);
     }
 
     /**
-     * Verifica si un docente está disponible en un horario específico
+     * Verifica si un docente está disponible en un horario específico (una sola ventana debe
+     * contener todo el rango). Se responde desde el bitmap en caché del docente.
      */
     public boolean isTeacherAvailable(UUID teacherUuid, DayOfWeek dayOfWeek,
                                       LocalTime startTime, LocalTime endTime) {
-        List<TeacherAvailabilityEntity> containing = availabilityRepository.findContaining(
-                teacherUuid, dayOfWeek.name(), startTime.toString(), endTime.toString());
-        return !containing.isEmpty();
+        return availabilityCache.isAvailable(teacherUuid, dayOfWeek, startTime, endTime);
+    }
+
+    /**
+     * Bitmaps de disponibilidad de varios docentes, para validar lotes sin una consulta por fila.
+     */
+    public Map<UUID, TeacherAvailabilityBitmap> getAvailabilityBitmaps(Collection<UUID> teacherUuids) {
+        return availabilityCache.getAll(teacherUuids);
     }
 
     private TeacherAvailabilityEntity findAvailabilityOrThrow(UUID uuid) {
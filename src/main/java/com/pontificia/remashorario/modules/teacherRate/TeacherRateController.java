@@ -1,6 +1,7 @@
 package com.pontificia.remashorario.modules.teacherRate;
 
 import com.pontificia.remashorario.config.ApiResponse;
+import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActivityTypeEntity;
 import com.pontificia.remashorario.modules.teacherRate.dto.TeacherRateRequestDTO;
 import com.pontificia.remashorario.modules.teacherRate.dto.TeacherRateResponseDTO;
 import com.pontificia.remashorario.modules.teacherRate.mapper.TeacherRateMapper;
@@ -241,7 +242,11 @@ public class TeacherRateController {
                 .map(dto -> {
                     TeacherRateEntity entity = new TeacherRateEntity();
                     entity.setRatePerHour(dto.getRatePerHour());
-                    // ActivityTypeUuid from DTO will be used by service
+                    entity.setEffectiveTo(dto.getEffectiveTo());
+                    // Only its UUID: the service loads the activity type
+                    AttendanceActivityTypeEntity activityType = new AttendanceActivityTypeEntity();
+                    activityType.setUuid(dto.getActivityTypeUuid());
+                    entity.setActivityType(activityType);
                     return entity;
                 })
                 .collect(Collectors.toList());
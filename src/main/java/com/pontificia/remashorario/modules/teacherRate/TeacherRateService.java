@@ -4,6 +4,8 @@ import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActi
 import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActivityTypeService;
 import com.pontificia.remashorario.modules.teacher.TeacherEntity;
 import com.pontificia.remashorario.modules.teacher.TeacherService;
+import com.pontificia.remashorario.modules.payrollLine.PayrollChangeTracker;
+import com.pontificia.remashorario.modules.payrollLine.PayrollRateResolver;
 import com.pontificia.remashorario.utils.abstractBase.BaseService;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,15 +27,21 @@ public class TeacherRateService extends BaseService<TeacherRateEntity> {
     private final TeacherRateRepository teacherRateRepository;
     private final TeacherService teacherService;
     private final AttendanceActivityTypeService activityTypeService;
+    private final PayrollRateResolver payrollRateResolver;
+    private final PayrollChangeTracker payrollChangeTracker;
 
     @Autowired
     public TeacherRateService(TeacherRateRepository teacherRateRepository,
                              TeacherService teacherService,
-                             AttendanceActivityTypeService activityTypeService) {
+                             AttendanceActivityTypeService activityTypeService,
+                             PayrollRateResolver payrollRateResolver,
+                             PayrollChangeTracker payrollChangeTracker) {
         super(teacherRateRepository);
         this.teacherRateRepository = teacherRateRepository;
         this.teacherService = teacherService;
         this.activityTypeService = activityTypeService;
+        this.payrollRateResolver = payrollRateResolver;
+        this.payrollChangeTracker = payrollChangeTracker;
     }
 
     public List<TeacherRateEntity> getAllRates() {
@@ -108,6 +116,8 @@ public class TeacherRateService extends BaseService<TeacherRateEntity> {
             throw new IllegalArgumentException("La fecha de inicio no puede ser posterior a la fecha de fin");
         }
 
+        validateNoOverlap(teacherUuid, activityTypeUuid, effectiveFrom, effectiveTo, null);
+
         TeacherRateEntity rate = new TeacherRateEntity();
         rate.setTeacher(teacher);
         rate.setActivityType(activityType);
@@ -115,7 +125,10 @@ public class TeacherRateService extends BaseService<TeacherRateEntity> {
         rate.setEffectiveFrom(effectiveFrom);
         rate.setEffectiveTo(effectiveTo);
 
-        return save(rate);
+        TeacherRateEntity saved = save(rate);
+        trackChange(saved);
+        payrollRateResolver.ratesChanged();
+        return saved;
     }
 
     @Transactional
@@ -133,11 +146,19 @@ public class TeacherRateService extends BaseService<TeacherRateEntity> {
             throw new IllegalArgumentException("La fecha de inicio no puede ser posterior a la fecha de fin");
         }
 
+        validateNoOverlap(rate.getTeacher().getUuid(), rate.getActivityType().getUuid(),
+                effectiveFrom, effectiveTo, uuid);
+
+        // Days leaving the old range change too
+        trackChange(rate);
         rate.setRatePerHour(ratePerHour);
         rate.setEffectiveFrom(effectiveFrom);
         rate.setEffectiveTo(effectiveTo);
 
-        return save(rate);
+        TeacherRateEntity saved = save(rate);
+        trackChange(saved);
+        payrollRateResolver.ratesChanged();
+        return saved;
     }
 
     @Transactional
@@ -145,6 +166,8 @@ public class TeacherRateService extends BaseService<TeacherRateEntity> {
         TeacherRateEntity rate = findRateOrThrow(uuid);
         // TODO: Validate no payrolls are using this rate
         deleteById(uuid);
+        trackChange(rate);
+        payrollRateResolver.ratesChanged();
     }
 
     /**
@@ -161,8 +184,11 @@ public class TeacherRateService extends BaseService<TeacherRateEntity> {
     @Transactional
     public TeacherRateEntity closeRate(UUID uuid) {
         TeacherRateEntity rate = findRateOrThrow(uuid);
+        trackChange(rate);
         rate.setEffectiveTo(LocalDate.now());
-        return save(rate);
+        TeacherRateEntity saved = save(rate);
+        payrollRateResolver.ratesChanged();
+        return saved;
     }
 
     /**
@@ -175,6 +201,7 @@ public class TeacherRateService extends BaseService<TeacherRateEntity> {
         List<TeacherRateEntity> activeRates = teacherRateRepository.findActiveRatesByTeacher(teacherUuid, effectiveFrom);
         for (TeacherRateEntity activeRate : activeRates) {
             if (activeRate.getActivityType().getUuid().equals(activityTypeUuid)) {
+                trackChange(activeRate);
                 activeRate.setEffectiveTo(effectiveFrom.minusDays(1));
                 save(activeRate);
             }
@@ -186,22 +213,68 @@ public class TeacherRateService extends BaseService<TeacherRateEntity> {
 
     /**
      * Bulk create rates for a teacher across multiple activity types
+     * Each rate carries its activity type (only its UUID is needed) and is checked like
+     * {@link #createRate}, against the stored rates and against the other rates of the batch
      */
     @Transactional
     public List<TeacherRateEntity> createBulkRatesForTeacher(UUID teacherUuid,
                                                             List<TeacherRateEntity> rates,
                                                             LocalDate effectiveFrom) {
         // Validate teacher
-        teacherService.findTeacherOrThrow(teacherUuid);
+        TeacherEntity teacher = teacherService.findTeacherOrThrow(teacherUuid);
 
-        for (TeacherRateEntity rate : rates) {
-            rate.setEffectiveFrom(effectiveFrom);
-            // Validate and set teacher
-            TeacherEntity teacher = new TeacherEntity();
-            teacher.setUuid(teacherUuid);
+        for (int i = 0; i < rates.size(); i++) {
+            TeacherRateEntity rate = rates.get(i);
+            if (rate.getActivityType() == null || rate.getActivityType().getUuid() == null) {
+                throw new IllegalArgumentException("El tipo de actividad es obligatorio");
+            }
+            rate.setActivityType(activityTypeService.findActivityTypeOrThrow(rate.getActivityType().getUuid()));
             rate.setTeacher(teacher);
+            rate.setEffectiveFrom(effectiveFrom);
+
+            if (rate.getRatePerHour() == null || rate.getRatePerHour().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new IllegalArgumentException("La tarifa por hora debe ser mayor a cero");
+            }
+            if (rate.getEffectiveTo() != null && effectiveFrom.isAfter(rate.getEffectiveTo())) {
+                throw new IllegalArgumentException("La fecha de inicio no puede ser posterior a la fecha de fin");
+            }
+
+            validateNoOverlap(teacherUuid, rate.getActivityType().getUuid(), effectiveFrom, rate.getEffectiveTo(), null);
+            // The stored rates do not include the earlier ones of this batch yet
+            for (TeacherRateEntity previous : rates.subList(0, i)) {
+                if (previous.getActivityType().getUuid().equals(rate.getActivityType().getUuid())
+                        && PayrollRateResolver.overlaps(effectiveFrom, rate.getEffectiveTo(),
+                        previous.getEffectiveFrom(), previous.getEffectiveTo())) {
+                    throw new IllegalArgumentException("Hay tarifas del mismo tipo de actividad que se superponen en la solicitud");
+                }
+            }
         }
 
-        return saveAll(rates);
+        List<TeacherRateEntity> saved = saveAll(rates);
+        saved.forEach(this::trackChange);
+        payrollRateResolver.ratesChanged();
+        return saved;
+    }
+
+    /**
+     * Flag the payroll of the days covered by the rate as stale
+     */
+    private void trackChange(TeacherRateEntity rate) {
+        payrollChangeTracker.teacherRateChanged(rate.getTeacher().getUuid(), rate.getActivityType().getUuid(),
+                rate.getEffectiveFrom(), rate.getEffectiveTo());
+    }
+
+    /**
+     * Two rates of the same teacher and activity type cannot be in force on the same day
+     */
+    private void validateNoOverlap(UUID teacherUuid, UUID activityTypeUuid,
+                                   LocalDate effectiveFrom, LocalDate effectiveTo, UUID excludedRateUuid) {
+        boolean overlaps = teacherRateRepository.findByTeacherAndActivityType(teacherUuid, activityTypeUuid).stream()
+                .filter(existing -> !existing.getUuid().equals(excludedRateUuid))
+                .anyMatch(existing -> PayrollRateResolver.overlaps(effectiveFrom, effectiveTo,
+                        existing.getEffectiveFrom(), existing.getEffectiveTo()));
+        if (overlaps) {
+            throw new IllegalArgumentException("Ya existe una tarifa que se superpone con las fechas especificadas");
+        }
     }
 }
@@ -0,0 +1,30 @@
+package com.pontificia.remashorario.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Acciones diferidas al final de la transacción en curso, usadas por los índices y cachés
+ * en memoria para no reflejar cambios que luego se revierten.
+ */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Ejecuta la acción cuando la transacción en curso se confirma, o enseguida si no hay ninguna.
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.pontificia.remashorario.modules.classSession;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.util.BitSet;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClassSessionBatchOccupancyTest {
+
+    private final UUID period = UUID.randomUUID();
+    private final UUID teacher = UUID.randomUUID();
+
+    @Test
+    void bothRowsOfAClashSeeEachOtherOnceTheBatchIsClaimed() {
+        ClassSessionBatchOccupancy occupancy = new ClassSessionBatchOccupancy();
+        UUID firstSpace = UUID.randomUUID();
+        UUID secondSpace = UUID.randomUUID();
+        occupancy.claim(0, period, teacher, firstSpace, UUID.randomUUID(), DayOfWeek.MONDAY, hours(0, 1));
+        occupancy.claim(1, period, teacher, secondSpace, UUID.randomUUID(), DayOfWeek.MONDAY, hours(1, 2));
+
+        ClassSessionBatchOccupancy.RowConflicts first = occupancy.conflictsExcept(
+                0, period, teacher, firstSpace, UUID.randomUUID(), DayOfWeek.MONDAY, hours(0, 1));
+        ClassSessionBatchOccupancy.RowConflicts second = occupancy.conflictsExcept(
+                1, period, teacher, secondSpace, UUID.randomUUID(), DayOfWeek.MONDAY, hours(1, 2));
+
+        assertThat(first.getTeacherRows()).containsExactly(1);
+        assertThat(second.getTeacherRows()).containsExactly(0);
+        assertThat(first.getSpaceRows()).isEmpty();
+        assertThat(second.getGroupRows()).isEmpty();
+    }
+
+    @Test
+    void otherDaysAndDisjointHoursDoNotClash() {
+        ClassSessionBatchOccupancy occupancy = new ClassSessionBatchOccupancy();
+        UUID space = UUID.randomUUID();
+        UUID group = UUID.randomUUID();
+        occupancy.claim(0, period, teacher, space, group, DayOfWeek.MONDAY, hours(0, 1));
+
+        assertThat(occupancy.conflicts(period, teacher, space, group, DayOfWeek.TUESDAY, hours(0, 1)).isEmpty()).isTrue();
+        assertThat(occupancy.conflicts(period, teacher, space, group, DayOfWeek.MONDAY, hours(2, 3)).isEmpty()).isTrue();
+        assertThat(occupancy.conflictsExcept(0, period, teacher, space, group, DayOfWeek.MONDAY, hours(0, 1)).isEmpty())
+                .isTrue();
+    }
+
+    private static BitSet hours(int... indexes) {
+        BitSet bits = new BitSet();
+        for (int index : indexes) bits.set(index);
+        return bits;
+    }
+}
@@ -0,0 +1,233 @@
+package com.pontificia.remashorario.modules.classSession;
+
+import com.pontificia.remashorario.modules.TimeSlot.TimeSlotCatalog;
+import com.pontificia.remashorario.modules.TimeSlot.TimeSlotEntity;
+import com.pontificia.remashorario.modules.TimeSlot.TimeSlotRepository;
+import com.pontificia.remashorario.modules.academicDepartment.AcademicDepartmentEntity;
+import com.pontificia.remashorario.modules.academicDepartment.AcademicDepartmentRepository;
+import com.pontificia.remashorario.modules.career.CareerEntity;
+import com.pontificia.remashorario.modules.career.CareerRepository;
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionRequestDTO;
+import com.pontificia.remashorario.modules.course.CourseEntity;
+import com.pontificia.remashorario.modules.course.CourseRepository;
+import com.pontificia.remashorario.modules.cycle.CycleEntity;
+import com.pontificia.remashorario.modules.cycle.CycleRepository;
+import com.pontificia.remashorario.modules.educationalModality.EducationalModalityEntity;
+import com.pontificia.remashorario.modules.educationalModality.EducationalModalityRepository;
+import com.pontificia.remashorario.modules.KnowledgeArea.KnowledgeAreaEntity;
+import com.pontificia.remashorario.modules.KnowledgeArea.KnowledgeAreaRepository;
+import com.pontificia.remashorario.modules.learningSpace.LearningSpaceEntity;
+import com.pontificia.remashorario.modules.learningSpace.LearningSpaceRepository;
+import com.pontificia.remashorario.modules.period.PeriodEntity;
+import com.pontificia.remashorario.modules.period.PeriodRepository;
+import com.pontificia.remashorario.modules.studentGroup.StudentGroupEntity;
+import com.pontificia.remashorario.modules.studentGroup.StudentGroupRepository;
+import com.pontificia.remashorario.modules.teacher.TeacherEntity;
+import com.pontificia.remashorario.modules.teacher.TeacherRepository;
+import com.pontificia.remashorario.modules.teacherAvailability.TeacherAvailabilityService;
+import com.pontificia.remashorario.modules.teachingHour.TeachingHourEntity;
+import com.pontificia.remashorario.modules.teachingHour.TeachingHourRepository;
+import com.pontificia.remashorario.modules.teachingType.TeachingTypeEntity;
+import com.pontificia.remashorario.modules.teachingType.TeachingTypeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "app.jwt.secret=3pgb+h2QNdeXZ+qNT/cIHLJczDUDsL2gNFEbhKHNdnU=",
+        "app.jwt.expiration-ms=3600000"
+})
+class ClassSessionBookingConcurrencyTest {
+
+    private static final int WRITERS = 50;
+    private static final int SPACES = 10;
+
+    // La consulta de disponibilidad es nativa de SQL Server; aquí solo interesan los choques
+    @MockitoBean
+    private TeacherAvailabilityService teacherAvailabilityService;
+
+    @Autowired
+    private ClassSessionService classSessionService;
+    @Autowired
+    private ClassSessionRepository classSessionRepository;
+    @Autowired
+    private TeachingHourRepository teachingHourRepository;
+    @Autowired
+    private TimeSlotRepository timeSlotRepository;
+    @Autowired
+    private TimeSlotCatalog timeSlotCatalog;
+    @Autowired
+    private StudentGroupRepository studentGroupRepository;
+    @Autowired
+    private TeacherRepository teacherRepository;
+    @Autowired
+    private LearningSpaceRepository learningSpaceRepository;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private TeachingTypeRepository teachingTypeRepository;
+    @Autowired
+    private PeriodRepository periodRepository;
+    @Autowired
+    private CycleRepository cycleRepository;
+    @Autowired
+    private CareerRepository careerRepository;
+    @Autowired
+    private EducationalModalityRepository educationalModalityRepository;
+    @Autowired
+    private AcademicDepartmentRepository academicDepartmentRepository;
+    @Autowired
+    private KnowledgeAreaRepository knowledgeAreaRepository;
+
+    @Test
+    void parallelWritersNeverDoubleBookARoom() throws Exception {
+        when(teacherAvailabilityService.isTeacherAvailable(any(), any(), any(), any())).thenReturn(true);
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+
+        EducationalModalityEntity modality = new EducationalModalityEntity();
+        modality.setName("Pres " + suffix);
+        modality.setDurationYears(5);
+        educationalModalityRepository.save(modality);
+
+        CareerEntity career = new CareerEntity();
+        career.setName("Ing " + suffix);
+        career.setModality(modality);
+        careerRepository.save(career);
+
+        CycleEntity cycle = new CycleEntity();
+        cycle.setNumber(1);
+        cycle.setCareer(career);
+        cycleRepository.save(cycle);
+
+        AcademicDepartmentEntity dept = new AcademicDepartmentEntity();
+        dept.setName("Dep " + suffix);
+        dept.setCode(suffix);
+        academicDepartmentRepository.save(dept);
+
+        KnowledgeAreaEntity ka = new KnowledgeAreaEntity();
+        ka.setName("KA " + suffix);
+        ka.setDepartment(dept);
+        knowledgeAreaRepository.save(ka);
+
+        TeachingTypeEntity theory = teachingTypeRepository.findAll().stream()
+                .filter(type -> type.getName() == TeachingTypeEntity.ETeachingType.THEORY)
+                .findFirst()
+                .orElseGet(() -> {
+                    TeachingTypeEntity type = new TeachingTypeEntity();
+                    type.setName(TeachingTypeEntity.ETeachingType.THEORY);
+                    return teachingTypeRepository.save(type);
+                });
+
+        CourseEntity course = new CourseEntity();
+        course.setName("Curso " + suffix);
+        course.setCode("C-" + suffix);
+        course.setCycle(cycle);
+        course.setTeachingKnowledgeArea(ka);
+        course.setWeeklyTheoryHours(2);
+        course.setWeeklyPracticeHours(0);
+        course.getTeachingTypes().add(theory);
+        courseRepository.save(course);
+
+        TimeSlotEntity slot = new TimeSlotEntity();
+        slot.setName("M " + suffix);
+        slot.setStartTime(LocalTime.of(8, 0));
+        slot.setEndTime(LocalTime.of(12, 0));
+        timeSlotRepository.save(slot);
+
+        TeachingHourEntity hour = new TeachingHourEntity();
+        hour.setOrderInTimeSlot(1);
+        hour.setStartTime(LocalTime.of(8, 0));
+        hour.setEndTime(LocalTime.of(9, 0));
+        hour.setDurationMinutes(60);
+        hour.setTimeSlot(slot);
+        teachingHourRepository.save(hour);
+        // El turno se creó por repositorio, sin pasar por TimeSlotService
+        timeSlotCatalog.reload();
+
+        PeriodEntity period = new PeriodEntity();
+        period.setName("P-" + suffix);
+        period.setStartDate(LocalDate.now());
+        period.setEndDate(LocalDate.now().plusMonths(4));
+        periodRepository.save(period);
+
+        List<LearningSpaceEntity> spaces = new ArrayList<>();
+        for (int s = 0; s < SPACES; s++) {
+            LearningSpaceEntity space = new LearningSpaceEntity();
+            space.setName("Aula " + s + " " + suffix);
+            space.setCapacity(30);
+            space.setTypeUUID(theory);
+            spaces.add(learningSpaceRepository.save(space));
+        }
+
+        // Cada escritor tiene su propio docente y grupo: solo pueden chocar por el aula
+        List<ClassSessionRequestDTO> requests = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            TeacherEntity teacher = new TeacherEntity();
+            teacher.setFullName("Docente " + w);
+            teacher.setEmail("d" + w + "-" + suffix + "@example.com");
+            teacher.setDepartment(dept);
+            teacherRepository.save(teacher);
+
+            StudentGroupEntity group = new StudentGroupEntity();
+            group.setName("G" + w);
+            group.setCycle(cycle);
+            group.setPeriod(period);
+            studentGroupRepository.save(group);
+
+            ClassSessionRequestDTO dto = new ClassSessionRequestDTO();
+            dto.setStudentGroupUuid(group.getUuid());
+            dto.setCourseUuid(course.getUuid());
+            dto.setTeacherUuid(teacher.getUuid());
+            dto.setLearningSpaceUuid(spaces.get(w % SPACES).getUuid());
+            dto.setDayOfWeek(DayOfWeek.MONDAY);
+            dto.setSessionTypeUuid(theory.getUuid());
+            dto.setTeachingHourUuids(List.of(hour.getUuid()));
+            requests.add(dto);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (ClassSessionRequestDTO dto : requests) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        classSessionService.createClassSession(dto);
+                        succeeded.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        assertThat(e.getMessage()).isEqualTo("El aula ya está ocupada en ese horario");
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(succeeded.get()).isEqualTo(SPACES);
+        assertThat(rejected.get()).isEqualTo(WRITERS - SPACES);
+        for (LearningSpaceEntity space : spaces) {
+            assertThat(classSessionRepository.findByLearningSpaceUuid(space.getUuid())).hasSize(1);
+        }
+    }
+}
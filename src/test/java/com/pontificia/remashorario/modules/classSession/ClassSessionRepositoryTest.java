@@ -2,6 +2,20 @@ package com.pontificia.remashorario.modules.classSession;
 
 import com.pontificia.remashorario.modules.TimeSlot.TimeSlotEntity;
 import com.pontificia.remashorario.modules.TimeSlot.TimeSlotRepository;
+import com.pontificia.remashorario.modules.academicDepartment.mapper.AcademicDepartmentMapper;
+import com.pontificia.remashorario.modules.classSession.mapper.ClassSessionMapper;
+import com.pontificia.remashorario.modules.course.mapper.CourseMapper;
+import com.pontificia.remashorario.modules.cycle.CycleService;
+import com.pontificia.remashorario.modules.KnowledgeArea.mapper.KnowledgeAreaMapper;
+import com.pontificia.remashorario.modules.learningSpace.mapper.LearningSpaceMapper;
+import com.pontificia.remashorario.modules.learningSpaceSpecialty.LearningSpaceSpecialtyService;
+import com.pontificia.remashorario.modules.period.PeriodService;
+import com.pontificia.remashorario.modules.studentGroup.mapper.StudentGroupMapper;
+import com.pontificia.remashorario.modules.teacher.mapper.TeacherMapper;
+import com.pontificia.remashorario.modules.teacherAvailability.mapper.TeacherAvailabilityMapper;
+import com.pontificia.remashorario.modules.teachingHour.mapper.TeachingHourMapper;
+import com.pontificia.remashorario.modules.teachingType.TeachingTypeService;
+import com.pontificia.remashorario.modules.teachingType.mapper.TeachingTypeMapper;
 import com.pontificia.remashorario.modules.academicDepartment.AcademicDepartmentEntity;
 import com.pontificia.remashorario.modules.academicDepartment.AcademicDepartmentRepository;
 import com.pontificia.remashorario.modules.career.CareerEntity;
@@ -26,9 +40,14 @@ import com.pontificia.remashorario.modules.teachingHour.TeachingHourEntity;
 import com.pontificia.remashorario.modules.teachingHour.TeachingHourRepository;
 import com.pontificia.remashorario.modules.teachingType.TeachingTypeEntity;
 import com.pontificia.remashorario.modules.teachingType.TeachingTypeRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
@@ -38,9 +57,27 @@ import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ClassSessionMapper.class, StudentGroupMapper.class, CourseMapper.class, TeacherMapper.class,
+        LearningSpaceMapper.class, TeachingTypeMapper.class, TeachingHourMapper.class,
+        AcademicDepartmentMapper.class, KnowledgeAreaMapper.class, TeacherAvailabilityMapper.class})
 class ClassSessionRepositoryTest {
 
+    // Dependencias de los mappers que no intervienen en toResponseDTO
+    @MockitoBean
+    private CycleService cycleService;
+    @MockitoBean
+    private PeriodService periodService;
+    @MockitoBean
+    private TeachingTypeService teachingTypeService;
+    @MockitoBean
+    private LearningSpaceSpecialtyService learningSpaceSpecialtyService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ClassSessionMapper classSessionMapper;
+
     @Autowired
     private ClassSessionRepository classSessionRepository;
     @Autowired
@@ -223,4 +260,100 @@ class ClassSessionRepositoryTest {
         assertThat(groupConflicts).hasSize(1);
         assertThat(groupConflicts.get(0).getStudentGroup().getUuid()).isEqualTo(group1.getUuid());
     }
-}
\ No newline at end of file
+
+    @Test
+    void listQueriesRunConstantNumberOfStatements() {
+        EducationalModalityEntity modality = new EducationalModalityEntity();
+        modality.setName("Pres");
+        modality.setDurationYears(5);
+        modality.setDescription("desc");
+        educationalModalityRepository.save(modality);
+
+        CareerEntity career = createCareer(modality);
+        CycleEntity cycle = createCycle(career);
+        AcademicDepartmentEntity dept = createDepartment();
+        KnowledgeAreaEntity ka = createKnowledgeArea(dept);
+        TeachingTypeEntity type = createTeachingType();
+        TeachingHourEntity th = createTeachingHour();
+        PeriodEntity period = createPeriod("2024-1");
+
+        for (int i = 0; i < 2; i++) {
+            createSession(i, cycle, period, dept, ka, type, th);
+        }
+        long withFewSessions = countStatements(() -> listAllViews(period, cycle, career));
+
+        for (int i = 2; i < 30; i++) {
+            createSession(i, cycle, period, dept, ka, type, th);
+        }
+        long withManySessions = countStatements(() -> listAllViews(period, cycle, career));
+
+        assertThat(withManySessions).isEqualTo(withFewSessions);
+    }
+
+    private void listAllViews(PeriodEntity period, CycleEntity cycle, CareerEntity career) {
+        List<ClassSessionEntity> byPeriod = classSessionRepository.findByPeriod(period.getUuid());
+        assertThat(classSessionMapper.toResponseDTOList(byPeriod)).isNotEmpty();
+        classSessionMapper.toResponseDTOList(classSessionRepository.findByCycleUuid(cycle.getUuid()));
+        classSessionMapper.toResponseDTOList(classSessionRepository.findByCareerUuid(career.getUuid()));
+
+        ClassSessionEntity first = byPeriod.get(0);
+        entityManager.clear();
+        classSessionMapper.toResponseDTOList(classSessionRepository.findByTeacherUuidAndPeriod(
+                first.getTeacher().getUuid(), period.getUuid()));
+        classSessionMapper.toResponseDTOList(classSessionRepository.findByStudentGroupUuidAndPeriod(
+                first.getStudentGroup().getUuid(), period.getUuid()));
+    }
+
+    private long countStatements(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createSession(int index, CycleEntity cycle, PeriodEntity period, AcademicDepartmentEntity dept,
+                               KnowledgeAreaEntity ka, TeachingTypeEntity type, TeachingHourEntity th) {
+        CourseEntity course = new CourseEntity();
+        course.setName("Course " + index);
+        course.setCode("C" + index);
+        course.setCycle(cycle);
+        course.setTeachingKnowledgeArea(ka);
+        course.setWeeklyTheoryHours(2);
+        course.setWeeklyPracticeHours(0);
+        course.getTeachingTypes().add(type);
+        course = courseRepository.save(course);
+
+        TeacherEntity teacher = new TeacherEntity();
+        teacher.setFullName("Docente " + index);
+        teacher.setEmail("d" + index + "@example.com");
+        teacher.setDepartment(dept);
+        teacher.getKnowledgeAreas().add(ka);
+        teacher = teacherRepository.save(teacher);
+
+        LearningSpaceEntity space = new LearningSpaceEntity();
+        space.setName("Aula " + index);
+        space.setCapacity(30);
+        space.setTypeUUID(type);
+        space = learningSpaceRepository.save(space);
+
+        StudentGroupEntity group = new StudentGroupEntity();
+        group.setName("G" + index);
+        group.setCycle(cycle);
+        group.setPeriod(period);
+        group = studentGroupRepository.save(group);
+
+        ClassSessionEntity session = new ClassSessionEntity();
+        session.setStudentGroup(group);
+        session.setCourse(course);
+        session.setTeacher(teacher);
+        session.setLearningSpace(space);
+        session.setSessionType(type);
+        session.setDayOfWeek(DayOfWeek.MONDAY);
+        session.setPeriod(period);
+        session.getTeachingHours().add(th);
+        classSessionRepository.save(session);
+    }
+}
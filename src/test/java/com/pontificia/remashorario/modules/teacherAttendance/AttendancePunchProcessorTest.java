@@ -0,0 +1,176 @@
+package com.pontificia.remashorario.modules.teacherAttendance;
+
+import com.pontificia.remashorario.modules.academicCalendarException.AcademicCalendarExceptionService;
+import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActivityTypeEntity;
+import com.pontificia.remashorario.modules.attendanceActivityType.AttendanceActivityTypeService;
+import com.pontificia.remashorario.modules.classSession.ClassSessionEntity;
+import com.pontificia.remashorario.modules.classSession.ClassSessionRepository;
+import com.pontificia.remashorario.modules.classSession.dto.ClassSessionScheduleRowDTO;
+import com.pontificia.remashorario.modules.payrollLine.PayrollChangeTracker;
+import com.pontificia.remashorario.modules.teacher.TeacherEntity;
+import com.pontificia.remashorario.modules.teacher.TeacherRepository;
+import com.pontificia.remashorario.modules.teacherAttendance.dto.AttendancePunchDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class AttendancePunchProcessorTest {
+
+    // Lunes dentro del periodo
+    private static final LocalDate MONDAY = LocalDate.of(2026, 3, 2);
+    private static final int MAX_ERRORS = 10;
+
+    private final TeacherAttendanceRepository attendanceRepository = mock(TeacherAttendanceRepository.class);
+    private final TeacherRepository teacherRepository = mock(TeacherRepository.class);
+    private final ClassSessionRepository classSessionRepository = mock(ClassSessionRepository.class);
+    private final AttendanceActivityTypeService activityTypeService = mock(AttendanceActivityTypeService.class);
+    private final AcademicCalendarExceptionService calendarExceptionService = mock(AcademicCalendarExceptionService.class);
+    private final AttendanceCheckInStore checkInStore = mock(AttendanceCheckInStore.class);
+
+    private final AttendancePunchProcessor processor = new AttendancePunchProcessor(
+            attendanceRepository, teacherRepository, classSessionRepository, activityTypeService,
+            calendarExceptionService, mock(PayrollChangeTracker.class), mock(AttendanceRollupTracker.class),
+            checkInStore);
+
+    private TeacherEntity teacher;
+    private ClassSessionEntity session;
+
+    @BeforeEach
+    void setUp() {
+        teacher = new TeacherEntity();
+        teacher.setUuid(UUID.randomUUID());
+        session = new ClassSessionEntity();
+        session.setUuid(UUID.randomUUID());
+
+        when(teacherRepository.findAllById(any())).thenReturn(List.of(teacher));
+        when(classSessionRepository.findScheduleRowsByTeachersAndDateRange(any(), any(), any())).thenReturn(List.of(
+                new ClassSessionScheduleRowDTO(session.getUuid(), teacher.getUuid(), DayOfWeek.MONDAY,
+                        LocalDate.of(2026, 3, 1), LocalDate.of(2026, 7, 31),
+                        LocalTime.of(8, 0), LocalTime.of(10, 0), 120)));
+        when(classSessionRepository.getReferenceById(session.getUuid())).thenReturn(session);
+        when(attendanceRepository.findSessionAttendancesByTeachersAndDateRange(any(), any(), any())).thenReturn(List.of());
+        when(calendarExceptionService.getExceptionsByDateRange(any(), any())).thenReturn(List.of());
+        when(activityTypeService.getActivityTypeByCode("REGULAR_CLASS")).thenReturn(new AttendanceActivityTypeEntity());
+    }
+
+    @Test
+    void reingestingTheSameFileChangesNothing() {
+        List<AttendancePunchDTO> punches = List.of(punch(8, 20), punch(10, 1));
+
+        AttendancePunchProcessor.Counts first = new AttendancePunchProcessor.Counts();
+        processor.process(punches, first, MAX_ERRORS);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TeacherAttendanceEntity>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(checkInStore).insertAll(inserted.capture());
+        assertThat(first.created).isEqualTo(1);
+        TeacherAttendanceEntity attendance = inserted.getValue().get(0);
+        assertThat(attendance.getCheckinAt()).isEqualTo(MONDAY.atTime(8, 20));
+        assertThat(attendance.getCheckoutAt()).isEqualTo(MONDAY.atTime(10, 1));
+        assertThat(attendance.getLateMinutes()).isEqualTo(20);
+        assertThat(attendance.getStatus()).isEqualTo(TeacherAttendanceEntity.AttendanceStatus.PENDING);
+
+        when(attendanceRepository.findSessionAttendancesByTeachersAndDateRange(any(), any(), any()))
+                .thenReturn(List.of(attendance));
+
+        AttendancePunchProcessor.Counts second = new AttendancePunchProcessor.Counts();
+        processor.process(punches, second, MAX_ERRORS);
+
+        assertThat(second.created).isZero();
+        assertThat(second.updated).isZero();
+        assertThat(second.unchanged).isEqualTo(1);
+        verify(checkInStore, times(1)).insertAll(anyList());
+        assertThat(attendance.getCheckinAt()).isEqualTo(MONDAY.atTime(8, 20));
+        assertThat(attendance.getCheckoutAt()).isEqualTo(MONDAY.atTime(10, 1));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = TeacherAttendanceEntity.AttendanceStatus.class,
+            names = {"APPROVED", "OVERRIDDEN", "REJECTED", "HOLIDAY"})
+    void closedAttendancesAreNotTouched(TeacherAttendanceEntity.AttendanceStatus status) {
+        TeacherAttendanceEntity attendance = storedAttendance(status, MONDAY.atTime(8, 20));
+        when(attendanceRepository.findSessionAttendancesByTeachersAndDateRange(any(), any(), any()))
+                .thenReturn(List.of(attendance));
+
+        AttendancePunchProcessor.Counts counts = new AttendancePunchProcessor.Counts();
+        processor.process(List.of(punch(7, 55), punch(10, 5)), counts, MAX_ERRORS);
+
+        assertThat(counts.unchanged).isEqualTo(1);
+        assertThat(counts.updated).isZero();
+        assertThat(attendance.getStatus()).isEqualTo(status);
+        assertThat(attendance.getCheckinAt()).isEqualTo(MONDAY.atTime(8, 20));
+        assertThat(attendance.getCheckoutAt()).isNull();
+        verify(checkInStore, never()).insertAll(anyList());
+        verify(attendanceRepository).saveAll(List.of());
+    }
+
+    @Test
+    void punchesOutsideAnySessionOrOfUnknownTeachersAreCounted() {
+        AttendancePunchProcessor.Counts counts = new AttendancePunchProcessor.Counts();
+        processor.process(List.of(
+                punch(14, 0),
+                new AttendancePunchDTO(teacher.getUuid(), MONDAY.plusDays(1).atTime(8, 0), null),
+                new AttendancePunchDTO(UUID.randomUUID(), MONDAY.atTime(8, 0), null)), counts, MAX_ERRORS);
+
+        assertThat(counts.unmatched).isEqualTo(2);
+        assertThat(counts.invalid).isEqualTo(1);
+        assertThat(counts.errors).hasSize(1);
+        assertThat(counts.created + counts.updated + counts.unchanged).isZero();
+        verify(checkInStore, never()).insertAll(anyList());
+    }
+
+    @Test
+    void attendanceInsertedByACheckInMeanwhileIsMerged() {
+        TeacherAttendanceEntity checkedIn = storedAttendance(
+                TeacherAttendanceEntity.AttendanceStatus.PENDING, MONDAY.atTime(8, 5));
+        doThrow(new DataIntegrityViolationException("uk_teacher_attendance_session_date"))
+                .when(checkInStore).insertAll(anyList());
+        when(attendanceRepository.findByTeacherAndClassSessionAndDate(teacher.getUuid(), session.getUuid(), MONDAY))
+                .thenReturn(Optional.of(checkedIn));
+
+        AttendancePunchProcessor.Counts counts = new AttendancePunchProcessor.Counts();
+        processor.process(List.of(punch(8, 20), punch(10, 1)), counts, MAX_ERRORS);
+
+        assertThat(counts.conflicts).isEqualTo(1);
+        assertThat(counts.created).isZero();
+        assertThat(counts.updated).isEqualTo(1);
+        assertThat(checkedIn.getCheckinAt()).isEqualTo(MONDAY.atTime(8, 5));
+        assertThat(checkedIn.getCheckoutAt()).isEqualTo(MONDAY.atTime(10, 1));
+        verify(attendanceRepository).saveAll(List.of(checkedIn));
+    }
+
+    private AttendancePunchDTO punch(int hour, int minute) {
+        return new AttendancePunchDTO(teacher.getUuid(), MONDAY.atTime(hour, minute), null);
+    }
+
+    private TeacherAttendanceEntity storedAttendance(TeacherAttendanceEntity.AttendanceStatus status,
+                                                     LocalDateTime checkinAt) {
+        TeacherAttendanceEntity attendance = new TeacherAttendanceEntity();
+        attendance.setUuid(UUID.randomUUID());
+        attendance.setTeacher(teacher);
+        attendance.setClassSession(session);
+        attendance.setAttendanceDate(MONDAY);
+        attendance.setScheduledStartTime(LocalTime.of(8, 0));
+        attendance.setScheduledEndTime(LocalTime.of(10, 0));
+        attendance.setScheduledDurationMinutes(120);
+        attendance.setCheckinAt(checkinAt);
+        attendance.setStatus(status);
+        return attendance;
+    }
+}
@@ -0,0 +1,78 @@
+package com.pontificia.remashorario.modules.teacherAvailability;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TeacherAvailabilityBitmapTest {
+
+    @Test
+    void nullFlagCountsAsAvailable() {
+        TeacherAvailabilityBitmap bitmap = TeacherAvailabilityBitmap.compile(List.of(
+                window(DayOfWeek.MONDAY, "08:00", "12:00", null)));
+
+        assertThat(bitmap.covers(DayOfWeek.MONDAY, time("09:00"), time("10:30"))).isTrue();
+        assertThat(bitmap.hasWindows(DayOfWeek.MONDAY)).isTrue();
+    }
+
+    @Test
+    void unavailableWindowsAreIgnoredButDayIsConfigured() {
+        TeacherAvailabilityBitmap bitmap = TeacherAvailabilityBitmap.compile(List.of(
+                window(DayOfWeek.MONDAY, "08:00", "12:00", false)));
+
+        assertThat(bitmap.covers(DayOfWeek.MONDAY, time("09:00"), time("10:00"))).isFalse();
+        assertThat(bitmap.isConfigured(DayOfWeek.MONDAY)).isTrue();
+        assertThat(bitmap.hasWindows(DayOfWeek.MONDAY)).isFalse();
+        assertThat(bitmap.isConfigured(DayOfWeek.TUESDAY)).isFalse();
+    }
+
+    @Test
+    void blockSplitAcrossAdjacentWindowsIsRejected() {
+        TeacherAvailabilityBitmap bitmap = TeacherAvailabilityBitmap.compile(List.of(
+                window(DayOfWeek.WEDNESDAY, "08:00", "10:00", true),
+                window(DayOfWeek.WEDNESDAY, "10:00", "12:00", true)));
+
+        assertThat(bitmap.covers(DayOfWeek.WEDNESDAY, time("09:00"), time("11:00"))).isFalse();
+        assertThat(bitmap.covers(DayOfWeek.WEDNESDAY, time("08:00"), time("10:00"))).isTrue();
+        assertThat(bitmap.covers(DayOfWeek.WEDNESDAY, time("10:00"), time("12:00"))).isTrue();
+    }
+
+    @Test
+    void windowEdgesAreInclusiveOfTheWholeWindowOnly() {
+        TeacherAvailabilityBitmap bitmap = TeacherAvailabilityBitmap.compile(List.of(
+                window(DayOfWeek.FRIDAY, "07:45", "09:15", true)));
+
+        assertThat(bitmap.covers(DayOfWeek.FRIDAY, time("07:45"), time("09:15"))).isTrue();
+        assertThat(bitmap.covers(DayOfWeek.FRIDAY, time("07:44"), time("09:15"))).isFalse();
+        assertThat(bitmap.covers(DayOfWeek.FRIDAY, time("07:45"), time("09:16"))).isFalse();
+        assertThat(bitmap.covers(DayOfWeek.FRIDAY, time("09:15"), time("09:15"))).isFalse();
+    }
+
+    @Test
+    void windowsOnlyCoverTheirOwnDay() {
+        TeacherAvailabilityBitmap bitmap = TeacherAvailabilityBitmap.compile(List.of(
+                window(DayOfWeek.MONDAY, "00:00", "23:59", true)));
+
+        assertThat(bitmap.covers(DayOfWeek.MONDAY, time("00:00"), time("23:59"))).isTrue();
+        assertThat(bitmap.covers(DayOfWeek.TUESDAY, time("00:00"), time("01:00"))).isFalse();
+        assertThat(bitmap.covers(DayOfWeek.SUNDAY, time("00:00"), time("01:00"))).isFalse();
+        assertThat(TeacherAvailabilityBitmap.EMPTY.covers(DayOfWeek.MONDAY, time("08:00"), time("09:00"))).isFalse();
+    }
+
+    private static TeacherAvailabilityEntity window(DayOfWeek day, String start, String end, Boolean available) {
+        TeacherAvailabilityEntity availability = new TeacherAvailabilityEntity();
+        availability.setDayOfWeek(day);
+        availability.setStartTime(time(start));
+        availability.setEndTime(time(end));
+        availability.setIsAvailable(available);
+        return availability;
+    }
+
+    private static LocalTime time(String value) {
+        return LocalTime.parse(value);
+    }
+}